@@ -0,0 +1,179 @@
+package com.belmonthotel.admin.benchmarks;
+
+import com.belmonthotel.admin.models.Booking;
+import com.belmonthotel.admin.models.GraphNode;
+import com.belmonthotel.admin.models.Payment;
+import com.belmonthotel.admin.models.Room;
+import com.belmonthotel.admin.utils.RoomDependencyGraph;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic data for the benchmarks, shaped like the production tables: sequential ids,
+ * a skewed status mix, amounts derived from nightly rates, a couple of years of dates.
+ * The same seed always gives the same data, so runs are comparable.
+ */
+public final class BenchmarkData {
+    /** Order of the generated rows relative to the sort under test. */
+    public enum InputOrder { RANDOM, SORTED, REVERSED }
+
+    private static final String[] FIRST_NAMES = {
+        "Maria", "Jose", "Juan", "Ana", "Mark", "Angel", "John", "Grace", "Paolo", "Kristine",
+        "Miguel", "Camille", "Carlo", "Patricia", "Rafael", "Andrea", "Daniel", "Nicole", "Gabriel", "Bea"
+    };
+    private static final String[] LAST_NAMES = {
+        "Santos", "Reyes", "Cruz", "Bautista", "Ocampo", "Garcia", "Mendoza", "Torres", "Tomas", "Andrada",
+        "Castillo", "Flores", "Villanueva", "Ramos", "Castro", "Rivera", "Aquino", "Navarro", "Salazar", "Mercado"
+    };
+    private static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Superior", "Family Suite", "Presidential Suite"};
+    private static final long[] NIGHTLY_CENTS = {250000, 350000, 500000, 800000, 1500000};
+    private static final String[] BOOKING_STATUSES = {"confirmed", "pending", "completed", "cancelled", "no_show"};
+    private static final int[] BOOKING_STATUS_WEIGHTS = {45, 20, 25, 8, 2};
+    private static final String[] PAYMENT_STATUSES = {"paid", "pending", "failed", "expired", "cancelled"};
+    private static final int[] PAYMENT_STATUS_WEIGHTS = {70, 15, 5, 7, 3};
+    private static final String[] PAYMENT_METHODS = {"gcash", "credit_card", "paymaya", "bank_transfer", "cash"};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final DateTimeFormatter PAID_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private BenchmarkData() {
+    }
+
+    public static List<Booking> bookings(int count, long seed) {
+        Random random = new Random(seed);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int roomType = random.nextInt(ROOM_TYPES.length);
+            int nights = 1 + random.nextInt(7);
+            LocalDate checkIn = FIRST_DAY.plusDays(random.nextInt(730));
+
+            Booking booking = new Booking();
+            booking.setId(i + 1);
+            booking.setReservationNumber(String.format("BHR-%s-%06d", checkIn.toString().replace("-", ""), i + 1));
+            booking.setGuestName(name(random));
+            booking.setGuestEmail("guest" + random.nextInt(Math.max(count / 3, 1)) + "@example.com");
+            booking.setHotelName("Belmont Hotel");
+            booking.setRoomType(ROOM_TYPES[roomType]);
+            booking.setCheckInDate(checkIn);
+            booking.setCheckOutDate(checkIn.plusDays(nights));
+            booking.setStatus(pick(random, BOOKING_STATUSES, BOOKING_STATUS_WEIGHTS));
+            booking.setAmountCents(NIGHTLY_CENTS[roomType] * nights);
+            booking.setAdults(1 + random.nextInt(3));
+            booking.setChildren(random.nextInt(3));
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    public static List<Payment> payments(int count, long seed) {
+        Random random = new Random(seed);
+        List<Payment> payments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int roomType = random.nextInt(ROOM_TYPES.length);
+            String status = pick(random, PAYMENT_STATUSES, PAYMENT_STATUS_WEIGHTS);
+
+            Payment payment = new Payment();
+            payment.setId(i + 1);
+            payment.setReservationNumber(String.format("BHR-%06d", i + 1));
+            payment.setAmount(String.format("₱%.2f", NIGHTLY_CENTS[roomType] * (1 + random.nextInt(7)) / 100.0));
+            payment.setPaymentMethod(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+            payment.setStatus(status);
+            payment.setXenditInvoiceId(random.nextInt(10) == 0 ? null : Long.toHexString(random.nextLong()));
+            payment.setPaidAt(status.equals("paid")
+                ? FIRST_DAY.atStartOfDay().plusMinutes(random.nextInt(730 * 24 * 60)).format(PAID_AT_FORMAT)
+                : "N/A");
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    public static List<Room> rooms(int count, long seed) {
+        Random random = new Random(seed);
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int roomType = random.nextInt(ROOM_TYPES.length);
+            int quantity = 1 + random.nextInt(20);
+
+            Room room = new Room();
+            room.setId(i + 1);
+            room.setHotelId(1);
+            room.setHotelName("Belmont Hotel");
+            room.setRoomType(ROOM_TYPES[roomType]);
+            room.setPricePerNight(String.format("₱%.2f", (NIGHTLY_CENTS[roomType] + random.nextInt(100) * 1000) / 100.0));
+            room.setQuantity(quantity);
+            room.setAvailableQuantity(random.nextInt(quantity + 1));
+            room.setMaxGuests(2 + roomType);
+            room.setStatus("available");
+            rooms.add(room);
+        }
+        return rooms;
+    }
+
+    /**
+     * Room graph with about averageDegree outgoing edges per node: mostly links to nearby
+     * room ids (rooms on the same floor) plus some random long-range links.
+     */
+    public static RoomDependencyGraph graph(int nodeCount, int averageDegree, long seed) {
+        Random random = new Random(seed);
+        RoomDependencyGraph graph = new RoomDependencyGraph();
+        GraphNode[] nodes = new GraphNode[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = new GraphNode(i + 1, ROOM_TYPES[random.nextInt(ROOM_TYPES.length)], random.nextInt(10) < 7);
+            graph.addNode(nodes[i]);
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            for (int e = 0; e < averageDegree; e++) {
+                int target = random.nextInt(4) == 0
+                    ? random.nextInt(nodeCount)
+                    : Math.floorMod(i + random.nextInt(41) - 20, nodeCount);
+                if (target != i) {
+                    graph.addEdge(nodes[i], nodes[target], random.nextBoolean() ? "adjacent" : "connecting",
+                        1 + random.nextInt(10));
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Arrange rows for a sort benchmark: shuffled, already sorted, or sorted the other way round.
+     */
+    public static <T> List<T> arrange(List<T> rows, Comparator<T> order, InputOrder inputOrder, long seed) {
+        List<T> arranged = new ArrayList<>(rows);
+        switch (inputOrder) {
+            case SORTED:
+                arranged.sort(order);
+                break;
+            case REVERSED:
+                arranged.sort(order.reversed());
+                break;
+            default:
+                Collections.shuffle(arranged, new Random(seed));
+        }
+        return arranged;
+    }
+
+    private static String name(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String pick(Random random, String[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+}
@@ -0,0 +1,84 @@
+package com.belmonthotel.admin.benchmarks;
+
+import com.belmonthotel.admin.utils.RoomDependencyGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RoomDependencyGraph traversals on synthetic room graphs. Each invocation starts from the
+ * next room in a fixed rotation so one lucky start node does not decide the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class GraphBenchmark {
+    private static final long SEED = 20240101L;
+    private static final int STARTS = 64;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int nodes;
+
+    @Param({"4"})
+    public int averageDegree;
+
+    private RoomDependencyGraph graph;
+    private int[] starts;
+    private int[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = BenchmarkData.graph(nodes, averageDegree, SEED);
+        Random random = new Random(SEED);
+        starts = new int[STARTS];
+        targets = new int[STARTS];
+        for (int i = 0; i < STARTS; i++) {
+            starts[i] = 1 + random.nextInt(nodes);
+            targets[i] = 1 + random.nextInt(nodes);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> bfsAvailableChain() {
+        return graph.bfsFindAvailableChain(starts[nextStart()]);
+    }
+
+    @Benchmark
+    public List<Integer> dfsDependencies() {
+        return graph.dfsTraverseDependencies(starts[nextStart()]);
+    }
+
+    @Benchmark
+    public List<Integer> dijkstraShortestPath() {
+        int at = nextStart();
+        return graph.shortestPath(starts[at], targets[at]);
+    }
+
+    @Benchmark
+    public Map<String, Object> statistics() {
+        return graph.getStatistics();
+    }
+
+    private int nextStart() {
+        next = (next + 1) % STARTS;
+        return next;
+    }
+}
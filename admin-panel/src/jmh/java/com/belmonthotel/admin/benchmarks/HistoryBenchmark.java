@@ -0,0 +1,90 @@
+package com.belmonthotel.admin.benchmarks;
+
+import com.belmonthotel.admin.models.HistoryNode;
+import com.belmonthotel.admin.utils.BookingHistoryLinkedList;
+import com.belmonthotel.admin.utils.BookingModificationStack;
+import com.belmonthotel.admin.utils.BookingModificationStack.BookingState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking history list and undo/redo stack at the sizes a long admin session reaches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+    private static final String[] ACTIONS = {"confirm", "cancel", "modify_dates", "complete", "no_show"};
+    private static final LocalDate CHECK_IN = LocalDate.of(2024, 6, 1);
+
+    @Param({"100", "1000", "10000"})
+    public int entries;
+
+    private BookingHistoryLinkedList history;
+    private BookingModificationStack stack;
+    private BookingState[] states;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = new BookingHistoryLinkedList();
+        states = new BookingState[entries];
+        for (int i = 0; i < entries; i++) {
+            history.add(ACTIONS[i % ACTIONS.length], "pending", "confirmed", "admin");
+            states[i] = new BookingState(i + 1, "pending", CHECK_IN.plusDays(i % 365),
+                CHECK_IN.plusDays(i % 365 + 2), 5000.0 + i, ACTIONS[i % ACTIONS.length]);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStack() {
+        stack = new BookingModificationStack();
+    }
+
+    /** Build a fresh history of the given length, as a booking details dialog does on open. */
+    @Benchmark
+    public BookingHistoryLinkedList appendHistory() {
+        BookingHistoryLinkedList list = new BookingHistoryLinkedList();
+        for (int i = 0; i < entries; i++) {
+            list.add(ACTIONS[i % ACTIONS.length], "pending", "confirmed", "admin");
+        }
+        return list;
+    }
+
+    /** Copy the history out for the history table. */
+    @Benchmark
+    public List<HistoryNode> listHistory() {
+        return history.getAllNodes();
+    }
+
+    /** Push every state, undo all of them, then redo all of them. */
+    @Benchmark
+    public void undoRedoCycle(Blackhole blackhole) {
+        for (BookingState state : states) {
+            stack.pushState(state);
+        }
+        for (int i = 0; i < entries; i++) {
+            blackhole.consume(stack.popUndo());
+        }
+        for (int i = 0; i < entries; i++) {
+            blackhole.consume(stack.popRedo());
+        }
+    }
+}
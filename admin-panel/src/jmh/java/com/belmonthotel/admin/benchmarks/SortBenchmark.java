@@ -0,0 +1,191 @@
+package com.belmonthotel.admin.benchmarks;
+
+import com.belmonthotel.admin.models.Booking;
+import com.belmonthotel.admin.models.Payment;
+import com.belmonthotel.admin.models.Room;
+import com.belmonthotel.admin.utils.SortAlgorithms;
+import com.belmonthotel.admin.utils.SortKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SortAlgorithms against List.sort on the rows the Bookings, Payments and Rooms screens sort,
+ * using the same orders as their default sort fields (booking amount then id, payment amount,
+ * room price). Each algorithm is measured through a comparator and through packed keys.
+ *
+ * Every trial first checks that the algorithm's output of each benchmark is in order and holds
+ * the same rows as List.sort's, so a broken sort fails instead of reporting a fast time.
+ *
+ * Run a subset with e.g. java -jar target/benchmarks.jar SortBenchmark -p rows=100000 -p dataset=PAYMENT
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SortBenchmark {
+    private static final long SEED = 20240101L;
+    private static final String LIST_SORT = "List.sort";
+
+    public enum Dataset { BOOKING, PAYMENT, ROOM }
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"BOOKING", "PAYMENT", "ROOM"})
+    public Dataset dataset;
+
+    @Param({"RANDOM", "SORTED", "REVERSED"})
+    public BenchmarkData.InputOrder order;
+
+    @Param({LIST_SORT, SortAlgorithms.AUTO, SortAlgorithms.QUICK_SORT, SortAlgorithms.MERGE_SORT,
+            SortAlgorithms.HEAP_SORT, SortAlgorithms.PARALLEL_MERGE_SORT, SortAlgorithms.RADIX_SORT})
+    public String algorithm;
+
+    private List<Object> input;
+    private Comparator<Object> comparator;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        List<?> data;
+        Comparator<?> order;
+        switch (dataset) {
+            case PAYMENT:
+                data = BenchmarkData.payments(rows, SEED);
+                order = paymentComparator();
+                break;
+            case ROOM:
+                data = BenchmarkData.rooms(rows, SEED);
+                order = roomComparator();
+                break;
+            default:
+                data = BenchmarkData.bookings(rows, SEED);
+                order = bookingComparator();
+        }
+        comparator = (Comparator<Object>) order;
+        input = BenchmarkData.arrange((List<Object>) data, comparator, this.order, SEED);
+
+        List<Object> expected = new ArrayList<>(input);
+        expected.sort(comparator);
+        verify("comparatorSort", comparatorSort(), expected);
+        verify("packedKeySort", packedKeySort(), expected);
+        verify("top50", top50(), expected.subList(0, Math.min(50, expected.size())));
+    }
+
+    /**
+     * Check a sort result against List.sort's: same length, every row ordered the same as the
+     * expected row at its position (ties may come out in any order), and no row that is not in
+     * the input or appears more often than in it. For a full sort that makes it a permutation.
+     */
+    private void verify(String benchmark, List<Object> actual, List<Object> expected) {
+        String where = algorithm + " " + benchmark + " (" + dataset + ", " + order + ", " + rows + " rows)";
+        if (actual.size() != expected.size()) {
+            throw new IllegalStateException(where + ": " + actual.size() + " rows, expected " + expected.size());
+        }
+        Map<Object, Integer> remaining = new IdentityHashMap<>();
+        for (Object row : input) {
+            remaining.merge(row, 1, Integer::sum);
+        }
+        for (int i = 0; i < actual.size(); i++) {
+            Object row = actual.get(i);
+            if (comparator.compare(row, expected.get(i)) != 0) {
+                throw new IllegalStateException(where + ": out of order at row " + i);
+            }
+            if (remaining.merge(row, -1, Integer::sum) < 0) {
+                throw new IllegalStateException(where + ": row " + i + " is not an input row or is repeated");
+            }
+        }
+    }
+
+    /**
+     * Comparator-based sort, as the screens did before sort keys (Radix Sort falls back to Auto here).
+     */
+    @Benchmark
+    public List<Object> comparatorSort() {
+        if (algorithm.equals(LIST_SORT)) {
+            List<Object> copy = new ArrayList<>(input);
+            copy.sort(comparator);
+            return copy;
+        }
+        return SortAlgorithms.sort(algorithm, input, comparator).getSortedData();
+    }
+
+    /**
+     * Key-based sort as the screens do it now: keys extracted once, then sorted as packed longs.
+     */
+    @Benchmark
+    public List<Object> packedKeySort() {
+        if (algorithm.equals(LIST_SORT)) {
+            List<Object> copy = new ArrayList<>(input);
+            copy.sort(comparator);
+            return copy;
+        }
+        return SortAlgorithms.sortByKeys(algorithm, input, keys(input)).getSortedData();
+    }
+
+    /**
+     * First screen only: the 50 first rows in sort order.
+     */
+    @Benchmark
+    public List<Object> top50() {
+        if (algorithm.equals(LIST_SORT)) {
+            List<Object> copy = new ArrayList<>(input);
+            copy.sort(comparator);
+            return copy.subList(0, Math.min(50, copy.size()));
+        }
+        return SortAlgorithms.sortByKeys(algorithm, input, keys(input), 50).getSortedData();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SortKeys<Object> keys(List<Object> rows) {
+        switch (dataset) {
+            case PAYMENT: {
+                SortKeys<Payment> keys = new SortKeys<>((List<Payment>) (List<?>) rows);
+                keys.then(p -> SortKeys.moneyCents(p.getAmount()));
+                return (SortKeys<Object>) (SortKeys<?>) keys;
+            }
+            case ROOM: {
+                SortKeys<Room> keys = new SortKeys<>((List<Room>) (List<?>) rows);
+                keys.then(r -> SortKeys.moneyCents(r.getPricePerNight()));
+                return (SortKeys<Object>) (SortKeys<?>) keys;
+            }
+            default: {
+                SortKeys<Booking> keys = new SortKeys<>((List<Booking>) (List<?>) rows);
+                keys.then(Booking::getAmountCents).then(Booking::getId);
+                return (SortKeys<Object>) (SortKeys<?>) keys;
+            }
+        }
+    }
+
+    private static Comparator<Booking> bookingComparator() {
+        return Comparator.comparingLong(Booking::getAmountCents).thenComparingInt(Booking::getId);
+    }
+
+    /** The payment amount comparator as it was: parsing the display string on every comparison. */
+    private static Comparator<Payment> paymentComparator() {
+        return Comparator.comparing(p -> Double.parseDouble(p.getAmount().replace("₱", "").replace(",", "")));
+    }
+
+    private static Comparator<Room> roomComparator() {
+        return Comparator.comparing(r -> Double.parseDouble(r.getPricePerNight().replace("₱", "").replace(",", "")));
+    }
+}
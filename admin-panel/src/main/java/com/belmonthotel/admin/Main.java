@@ -6,6 +6,8 @@ import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 import com.belmonthotel.admin.utils.DatabaseConnection;
+import com.belmonthotel.admin.utils.RoomGraphService;
+import com.belmonthotel.admin.utils.RoomInventoryService;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -19,6 +21,8 @@ public class Main extends Application {
         // Initialize database connection
         try {
             DatabaseConnection.getInstance();
+            RoomInventoryService.load();
+            RoomGraphService.load();
         } catch (Exception e) {
             System.err.println("Failed to initialize database connection: " + e.getMessage());
             e.printStackTrace();
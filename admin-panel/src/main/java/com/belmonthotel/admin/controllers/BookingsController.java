@@ -2,26 +2,35 @@ package com.belmonthotel.admin.controllers;
 
 import com.belmonthotel.admin.controllers.dialogs.BookingDetailsDialog;
 import com.belmonthotel.admin.models.Booking;
+import com.belmonthotel.admin.utils.BookingColumnStore;
+import com.belmonthotel.admin.utils.BookingQuery;
+import com.belmonthotel.admin.utils.ColumnarBookingList;
 import com.belmonthotel.admin.utils.DatabaseConnection;
+import com.belmonthotel.admin.utils.PagedBookingList;
+import com.belmonthotel.admin.utils.RoomAssignmentService;
+import com.belmonthotel.admin.utils.RoomGraphService;
+import com.belmonthotel.admin.utils.RoomInventoryService;
 import com.belmonthotel.admin.utils.SortAlgorithms;
+import com.belmonthotel.admin.utils.SortKeys;
+import com.belmonthotel.admin.utils.StatisticsService;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Duration;
 
 import java.net.URL;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the bookings management module.
@@ -102,20 +111,33 @@ public class BookingsController implements Initializable {
     @FXML
     private ComboBox<String> sortFieldCombo;
 
+    @FXML
+    private CheckBox sortDescendingCheck;
+
+    @FXML
+    private ComboBox<String> sortLimitCombo;
+
     @FXML
     private Button sortBtn;
 
     @FXML
     private Label sortMetricsLabel;
 
-    private ObservableList<Booking> bookingsList;
-    private ObservableList<Booking> filteredList;
+    // Above this many rows the sort is delegated to SQL ORDER BY
+    private static final int IN_MEMORY_SORT_LIMIT = 20000;
+
+    // Typing in a filter field waits this long for the next key before querying
+    private static final Duration FILTER_DELAY = Duration.millis(250);
+
+    private PagedBookingList bookingsPage;
+    // Row count of the latest paged query, still running
+    private CompletableFuture<PagedBookingList> pendingPage;
+    private final PauseTransition filterDelay = new PauseTransition(FILTER_DELAY);
+    private BookingColumnStore bookingStore;
+    private BookingQuery.SortField activeSortField = BookingQuery.SortField.CREATED_AT;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        bookingsList = FXCollections.observableArrayList();
-        filteredList = FXCollections.observableArrayList();
-
         // Initialize table columns
         idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
         reservationNumberColumn.setCellValueFactory(new PropertyValueFactory<>("reservationNumber"));
@@ -136,8 +158,8 @@ public class BookingsController implements Initializable {
 
         // Initialize sort algorithm options
         if (sortAlgorithmCombo != null) {
-            sortAlgorithmCombo.getItems().addAll("Quick Sort", "Merge Sort", "Heap Sort");
-            sortAlgorithmCombo.setValue("Quick Sort");
+            sortAlgorithmCombo.getItems().addAll(SortAlgorithms.ALGORITHM_NAMES);
+            sortAlgorithmCombo.setValue(SortAlgorithms.AUTO);
         }
         
         // Initialize sort field options
@@ -146,6 +168,12 @@ public class BookingsController implements Initializable {
             sortFieldCombo.setValue("Date (Check-in)");
         }
 
+        // Initialize row limit options (partial sort for the first screen of results)
+        if (sortLimitCombo != null) {
+            sortLimitCombo.getItems().addAll(SortAlgorithms.LIMIT_CHOICES);
+            sortLimitCombo.setValue(SortAlgorithms.LIMIT_CHOICES.get(0));
+        }
+
         // Set button actions
         refreshBtn.setOnAction(e -> loadBookings());
         confirmBtn.setOnAction(e -> confirmSelectedBooking());
@@ -156,18 +184,27 @@ public class BookingsController implements Initializable {
             sortBtn.setOnAction(e -> performSort());
         }
 
-        // Set filter actions
-        searchField.textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
-        emailSearchField.textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
+        // Set filter actions; text fields are debounced so a query does not run per keystroke
+        filterDelay.setOnFinished(e -> applyFilters());
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> filterDelay.playFromStart());
+        emailSearchField.textProperty().addListener((obs, oldVal, newVal) -> filterDelay.playFromStart());
         statusFilter.setOnAction(e -> applyFilters());
         roomTypeFilter.setOnAction(e -> applyFilters());
         dateFromFilter.valueProperty().addListener((obs, oldVal, newVal) -> applyFilters());
         dateToFilter.valueProperty().addListener((obs, oldVal, newVal) -> applyFilters());
-        amountMinField.textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
-        amountMaxField.textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
+        amountMinField.textProperty().addListener((obs, oldVal, newVal) -> filterDelay.playFromStart());
+        amountMaxField.textProperty().addListener((obs, oldVal, newVal) -> filterDelay.playFromStart());
 
-        // Load initial data
+        // Load initial data: paged SQL until the in-memory store is ready
         loadBookings();
+        BookingColumnStore.getShared().whenComplete((store, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+            } else if (store != null) {
+                bookingStore = store;
+                loadBookings();
+            }
+        }));
     }
 
     /**
@@ -179,7 +216,7 @@ public class BookingsController implements Initializable {
         
         String query = "SELECT DISTINCT room_type FROM rooms ORDER BY room_type";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
             
@@ -195,143 +232,96 @@ public class BookingsController implements Initializable {
 
     /**
      * Load bookings from database.
+     * Uses the in-memory column store once loaded (catching up on changed rows in the background
+     * first); until then rows are fetched page by page as the table scrolls (see PagedBookingList).
      */
     private void loadBookings() {
-        bookingsList.clear();
-        
-        String query = "SELECT r.id, r.reservation_number, r.check_in_date, r.check_out_date, " +
-                      "r.status, r.total_amount, r.adults, r.children, " +
-                      "u.name as guest_name, u.email as guest_email, " +
-                      "rm.room_type " +
-                      "FROM reservations r " +
-                      "JOIN users u ON r.user_id = u.id " +
-                      "JOIN rooms rm ON r.room_id = rm.id " +
-                      "ORDER BY r.created_at DESC";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Booking booking = new Booking();
-                booking.setId(rs.getInt("id"));
-                booking.setReservationNumber(rs.getString("reservation_number"));
-                booking.setGuestName(rs.getString("guest_name"));
-                booking.setGuestEmail(rs.getString("guest_email"));
-                booking.setHotelName("Belmont Hotel");
-                booking.setRoomType(rs.getString("room_type"));
-                booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-                booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-                booking.setStatus(rs.getString("status"));
-                booking.setTotalAmount(String.format("₱%.2f", rs.getDouble("total_amount")));
-                booking.setAdults(rs.getInt("adults"));
-                booking.setChildren(rs.getInt("children"));
-                
-                bookingsList.add(booking);
-            }
-
+        if (bookingStore == null) {
             applyFilters();
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load bookings: " + e.getMessage());
-            e.printStackTrace();
+            return;
         }
+        bookingStore.refresh().whenComplete((changed, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to refresh bookings: " + cause.getMessage());
+                error.printStackTrace();
+            }
+            applyFilters();
+        }));
     }
 
     /**
      * Apply filters to the bookings list.
+     * Filters and the active sort field are evaluated against the column store, or pushed
+     * down into the SQL query while the store is not available.
      */
     private void applyFilters() {
-        filteredList.clear();
-        
-        String searchText = searchField.getText().toLowerCase();
-        String emailText = emailSearchField.getText().toLowerCase();
-        String status = statusFilter.getValue();
-        String roomType = roomTypeFilter.getValue();
-        LocalDate fromDate = dateFromFilter.getValue();
-        LocalDate toDate = dateToFilter.getValue();
-        
-        double minAmount = -1;
-        double maxAmount = -1;
-        try {
-            if (!amountMinField.getText().isEmpty()) {
-                minAmount = Double.parseDouble(amountMinField.getText());
-            }
-        } catch (NumberFormatException e) {
-            // Invalid number, ignore
-        }
-        try {
-            if (!amountMaxField.getText().isEmpty()) {
-                maxAmount = Double.parseDouble(amountMaxField.getText());
-            }
-        } catch (NumberFormatException e) {
-            // Invalid number, ignore
+        filterDelay.stop();
+        if (pendingPage != null) {
+            // Superseded: skipped if it has not started, ignored if it has
+            pendingPage.cancel(false);
+            pendingPage = null;
         }
 
-        for (Booking booking : bookingsList) {
-            // Search filter
-            if (!searchText.isEmpty()) {
-                if (!booking.getReservationNumber().toLowerCase().contains(searchText) &&
-                    !booking.getGuestName().toLowerCase().contains(searchText) &&
-                    !booking.getHotelName().toLowerCase().contains(searchText)) {
-                    continue;
-                }
-            }
-
-            // Email search filter
-            if (!emailText.isEmpty()) {
-                if (!booking.getGuestEmail().toLowerCase().contains(emailText)) {
-                    continue;
-                }
-            }
-
-            // Status filter
-            if (status != null && !status.equals("All")) {
-                if (!booking.getStatus().equalsIgnoreCase(status)) {
-                    continue;
-                }
-            }
-
-            // Room type filter
-            if (roomType != null && !roomType.equals("All")) {
-                if (!booking.getRoomType().equalsIgnoreCase(roomType)) {
-                    continue;
-                }
-            }
-
-            // Date filters
-            if (fromDate != null) {
-                LocalDate checkIn = LocalDate.parse(booking.getCheckInDate());
-                if (checkIn.isBefore(fromDate)) {
-                    continue;
-                }
-            }
+        BookingQuery query = new BookingQuery();
+        query.setSearchText(searchField.getText());
+        query.setEmailText(emailSearchField.getText());
+        query.setStatus(statusFilter.getValue());
+        query.setRoomType(roomTypeFilter.getValue());
+        query.setFromDate(dateFromFilter.getValue());
+        query.setToDate(dateToFilter.getValue());
+        query.setMinAmount(parseAmount(amountMinField.getText()));
+        query.setMaxAmount(parseAmount(amountMaxField.getText()));
+        query.setSortField(activeSortField);
+
+        if (bookingStore != null) {
+            bookingsPage = null;
+            bookingsTable.setPlaceholder(null);
+            bookingsTable.setItems(new ColumnarBookingList(bookingStore, bookingStore.filter(query)));
+            return;
+        }
 
-            if (toDate != null) {
-                LocalDate checkIn = LocalDate.parse(booking.getCheckInDate());
-                if (checkIn.isAfter(toDate)) {
-                    continue;
-                }
+        // Counting can take a while on a large table: show an empty list until it is done
+        bookingsPage = null;
+        bookingsTable.setItems(FXCollections.observableArrayList());
+        bookingsTable.setPlaceholder(new Label("Counting bookings..."));
+        CompletableFuture<PagedBookingList> count = PagedBookingList.open(query);
+        pendingPage = count;
+        count.whenComplete((page, error) -> Platform.runLater(() -> {
+            if (pendingPage != count) {
+                return;
             }
-
-            // Amount range filter
-            if (minAmount >= 0 || maxAmount >= 0) {
-                try {
-                    double amount = Double.parseDouble(booking.getTotalAmount().replace("₱", "").replace(",", ""));
-                    if (minAmount >= 0 && amount < minAmount) {
-                        continue;
-                    }
-                    if (maxAmount >= 0 && amount > maxAmount) {
-                        continue;
-                    }
-                } catch (NumberFormatException e) {
-                    // If we can't parse the amount, skip this filter
+            pendingPage = null;
+            bookingsTable.setPlaceholder(null);
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                if (cause.getCause() instanceof SQLException) {
+                    cause = cause.getCause();
                 }
+                showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load bookings: " + cause.getMessage());
+                error.printStackTrace();
+                return;
             }
+            bookingsPage = page;
+            bookingsPage.setOnLoadFailed(e ->
+                showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load bookings: " + e.getMessage()));
+            bookingsTable.setItems(bookingsPage);
+        }));
+    }
 
-            filteredList.add(booking);
+    /**
+     * Parse an amount filter field, returning null when empty or invalid.
+     */
+    private Double parseAmount(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            // Invalid number, ignore
+            return null;
         }
-
-        bookingsTable.setItems(filteredList);
     }
     
     /**
@@ -350,43 +340,53 @@ public class BookingsController implements Initializable {
     }
     
     /**
-     * Perform sorting using selected algorithm (Quick Sort for bookings).
+     * Perform sorting using selected algorithm (Auto picks by size).
      */
     private void performSort() {
-        if (filteredList.isEmpty()) {
+        List<Booking> items = bookingsTable.getItems();
+        if (items == null || items.isEmpty()) {
             showAlert(Alert.AlertType.WARNING, "No Data", "No bookings to sort.");
             return;
         }
         
-        String algorithm = sortAlgorithmCombo != null ? sortAlgorithmCombo.getValue() : "Quick Sort";
+        String algorithm = sortAlgorithmCombo != null ? sortAlgorithmCombo.getValue() : SortAlgorithms.AUTO;
         String sortField = sortFieldCombo != null ? sortFieldCombo.getValue() : "Date (Check-in)";
+        boolean descending = sortDescendingCheck != null && sortDescendingCheck.isSelected();
+        int limit = SortAlgorithms.parseLimit(sortLimitCombo != null ? sortLimitCombo.getValue() : null);
         
-        // Create comparator based on sort field
-        Comparator<Booking> comparator = getBookingComparator(sortField);
+        // Keep the chosen order when filters change or pages are reloaded
+        activeSortField = BookingQuery.SortField.fromLabel(sortField);
         
-        // Convert to ArrayList for sorting
-        List<Booking> listToSort = new ArrayList<>(filteredList);
+        // Too many rows to hold in memory: let the database order them instead
+        if (items.size() > IN_MEMORY_SORT_LIMIT) {
+            long start = System.currentTimeMillis();
+            applyFilters();
+            long elapsed = System.currentTimeMillis() - start;
+            if (sortMetricsLabel != null) {
+                String source = bookingStore != null ? "Column store order" : "SQL ORDER BY";
+                sortMetricsLabel.setText(String.format("%s: %d ms, %d rows", source, elapsed, items.size()));
+                sortMetricsLabel.setTooltip(new Tooltip(String.format(
+                    "Result set exceeds %d rows, so the precomputed sort order is used", IN_MEMORY_SORT_LIMIT)));
+            }
+            return;
+        }
         
-        // Perform sort based on selected algorithm
-        SortAlgorithms.SortResult<Booking> result;
-        switch (algorithm) {
-            case "Quick Sort":
-                result = SortAlgorithms.quickSort(listToSort, comparator);
-                break;
-            case "Merge Sort":
-                result = SortAlgorithms.mergeSort(listToSort, comparator);
-                break;
-            case "Heap Sort":
-                result = SortAlgorithms.heapSort(listToSort, comparator);
-                break;
-            default:
-                result = SortAlgorithms.quickSort(listToSort, comparator);
+        // Fetch the filtered rows for sorting
+        List<Booking> listToSort;
+        try {
+            listToSort = bookingsPage != null ? bookingsPage.loadAll() : new ArrayList<>(items);
+        } catch (SQLException e) {
+            showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load bookings: " + e.getMessage());
+            e.printStackTrace();
+            return;
         }
         
-        // Update filtered list with sorted data
-        filteredList.clear();
-        filteredList.addAll(result.getSortedData());
-        bookingsTable.setItems(filteredList);
+        // Perform sort based on selected algorithm
+        SortAlgorithms.SortResult<Booking> result =
+            SortAlgorithms.sortByKeys(algorithm, listToSort, getBookingSortKeys(sortField, listToSort, descending), limit);
+        
+        // Show sorted data
+        bookingsTable.setItems(FXCollections.observableArrayList(result.getSortedData()));
         
         // Update metrics label
         if (sortMetricsLabel != null) {
@@ -396,33 +396,30 @@ public class BookingsController implements Initializable {
         }
         
         showAlert(Alert.AlertType.INFORMATION, "Sort Complete", 
-            String.format("Sorted %d bookings using %s\nTime: %d ms\nComparisons: %d",
-                listToSort.size(), result.getAlgorithmName(), 
+            String.format("Sorted %d bookings using %s (showing %d)\nTime: %d ms\nComparisons: %d",
+                listToSort.size(), result.getAlgorithmName(), result.getSortedData().size(),
                 result.getExecutionTime(), result.getComparisons()));
     }
     
     /**
-     * Get comparator for booking based on sort field.
+     * Sort keys for bookings based on sort field, ties broken by id like the SQL ORDER BY.
      */
-    private Comparator<Booking> getBookingComparator(String sortField) {
+    private SortKeys<Booking> getBookingSortKeys(String sortField, List<Booking> bookings, boolean descending) {
+        SortKeys<Booking> keys = new SortKeys<>(bookings);
         switch (sortField) {
-            case "Date (Check-in)":
-                return Comparator.comparing(b -> LocalDate.parse(b.getCheckInDate()));
             case "Amount":
-                return Comparator.comparing(b -> {
-                    try {
-                        return Double.parseDouble(b.getTotalAmount().replace("₱", "").replace(",", ""));
-                    } catch (NumberFormatException e) {
-                        return 0.0;
-                    }
-                });
+                keys.then(Booking::getAmountCents, descending);
+                break;
             case "Guest Name":
-                return Comparator.comparing(Booking::getGuestName, String.CASE_INSENSITIVE_ORDER);
+                keys.thenText(Booking::getGuestName, descending);
+                break;
             case "Status":
-                return Comparator.comparing(Booking::getStatus, String.CASE_INSENSITIVE_ORDER);
+                keys.thenText(Booking::getStatus, descending);
+                break;
             default:
-                return Comparator.comparing(b -> LocalDate.parse(b.getCheckInDate()));
+                keys.then(Booking::getCheckInEpochDay, descending);
         }
+        return keys.then(Booking::getId, descending);
     }
 
     /**
@@ -446,7 +443,7 @@ public class BookingsController implements Initializable {
         confirm.setContentText("Are you sure you want to confirm this booking?");
         
         if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            String query = "UPDATE reservations SET status = 'confirmed', confirmed_at = NOW() WHERE id = ?";
+            String query = "UPDATE reservations SET status = 'confirmed', confirmed_at = NOW(), updated_at = NOW() WHERE id = ?";
             
             try (Connection conn = DatabaseConnection.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(query)) {
@@ -455,6 +452,9 @@ public class BookingsController implements Initializable {
                 int rows = stmt.executeUpdate();
                 
                 if (rows > 0) {
+                    StatisticsService.invalidateSnapshot();
+                    RoomInventoryService.reservationChanged(selected.getId());
+                    RoomAssignmentService.reservationChanged(selected.getId());
                     showAlert(Alert.AlertType.INFORMATION, "Success", "Booking confirmed successfully.");
                     loadBookings();
                 }
@@ -490,7 +490,7 @@ public class BookingsController implements Initializable {
             return;
         }
 
-        String query = "UPDATE reservations SET status = 'cancelled', cancelled_at = NOW(), cancellation_reason = ? WHERE id = ?";
+        String query = "UPDATE reservations SET status = 'cancelled', cancelled_at = NOW(), cancellation_reason = ?, updated_at = NOW() WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
@@ -502,6 +502,9 @@ public class BookingsController implements Initializable {
             if (rows > 0) {
                 // Release room inventory
                 releaseRoomInventory(selected.getId());
+                RoomInventoryService.reservationChanged(selected.getId());
+                RoomAssignmentService.reservationChanged(selected.getId());
+                StatisticsService.invalidateSnapshot();
                 
                 showAlert(Alert.AlertType.INFORMATION, "Success", "Booking cancelled successfully.");
                 loadBookings();
@@ -524,6 +527,7 @@ public class BookingsController implements Initializable {
             stmt.setInt(1, reservationId);
             stmt.executeUpdate();
         }
+        RoomGraphService.reservationChanged(reservationId);
     }
 
     /**
@@ -1,12 +1,12 @@
 package com.belmonthotel.admin.controllers;
 
+import com.belmonthotel.admin.models.DashboardSnapshot;
+import com.belmonthotel.admin.models.DashboardStats;
 import com.belmonthotel.admin.models.TaskItem;
-import com.belmonthotel.admin.utils.DatabaseConnection;
+import com.belmonthotel.admin.utils.DashboardDataService;
 import com.belmonthotel.admin.utils.SessionManager;
-import com.belmonthotel.admin.utils.StatisticsService;
 import com.belmonthotel.admin.utils.TaskQueueService;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -20,17 +20,16 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controller for the main dashboard.
@@ -145,6 +144,8 @@ public class DashboardController {
     private TableColumn<TaskItem, String> taskResultCol;
 
     private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> autoRefreshTask;
+    private final AtomicBoolean refreshInFlight = new AtomicBoolean(false);
     private boolean autoRefreshEnabled = false;
     private TaskQueueService taskQueueService;
 
@@ -171,7 +172,7 @@ public class DashboardController {
 
         // Set button actions
         if (refreshBtn != null) {
-            refreshBtn.setOnAction(e -> loadOverviewDataAsync());
+            refreshBtn.setOnAction(e -> refreshDashboard());
         }
         if (autoRefreshCheckBox != null) {
             autoRefreshCheckBox.setOnAction(e -> {
@@ -195,9 +196,7 @@ public class DashboardController {
         reportsBtn.setOnAction(e -> loadModule("/fxml/reports.fxml"));
 
         // Load overview data asynchronously
-        loadOverviewDataAsync();
-        loadCharts();
-        loadRecentActivity();
+        refreshDashboard();
         
         // Add sample tasks to queue
         addSampleTasks();
@@ -251,8 +250,9 @@ public class DashboardController {
         if (currentTaskLabel != null) {
             TaskItem current = taskQueueService.getCurrentTask();
             if (current != null) {
+                int others = taskQueueService.getRunningTasks().size() - 1;
                 currentTaskLabel.setText("Current Task: " + current.getType().getDisplayName() + 
-                    " [" + current.getPriority().name() + "]");
+                    " [" + current.getPriority().name() + "]" + (others > 0 ? " (+" + others + " more)" : ""));
             } else {
                 currentTaskLabel.setText("Current Task: None");
             }
@@ -263,21 +263,26 @@ public class DashboardController {
      * Add sample tasks to the queue for demonstration.
      */
     private void addSampleTasks() {
-        // Check for today's check-ins (URGENT)
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT COUNT(*) as count FROM reservations WHERE DATE(check_in_date) = CURDATE() AND status = 'confirmed'")) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next() && rs.getInt("count") > 0) {
+        // Check for today's check-ins (URGENT), counted off the FX thread
+        CompletableFuture<Integer> checkIns;
+        try {
+            checkIns = DashboardDataService.loadTodaysCheckIns();
+        } catch (RejectedExecutionException e) {
+            checkIns = CompletableFuture.failedFuture(e);
+        }
+        checkIns.whenComplete((count, error) -> {
+            if (error != null) {
+                System.err.println("Check-in reminder not queued: " + error.getMessage());
+                error.printStackTrace();
+            } else if (count > 0) {
                 taskQueueService.addTask(new TaskItem(
                     TaskItem.TaskType.CHECK_IN_REMINDER,
                     TaskItem.TaskPriority.URGENT,
-                    "Send check-in reminders for " + rs.getInt("count") + " guest(s) checking in today"
+                    "Send check-in reminders for " + count + " guest(s) checking in today"
                 ));
+                Platform.runLater(this::updateTaskQueueUI);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
         
         // Add normal priority tasks
         taskQueueService.addTask(new TaskItem(
@@ -297,49 +302,54 @@ public class DashboardController {
     }
 
     /**
-     * Load overview data asynchronously using JavaFX Task.
+     * Refresh the dashboard in the background.
+     * All queries run on the DashboardDataService executor; only applySnapshot runs on the FX thread.
+     * A refresh requested while another is still loading is skipped.
      */
-    private void loadOverviewDataAsync() {
-        Task<Void> loadTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                // Load all statistics
-                loadOverviewData();
-                return null;
-            }
-
-            @Override
-            protected void succeeded() {
-                updateLastUpdatedLabel();
-            }
+    private void refreshDashboard() {
+        if (!refreshInFlight.compareAndSet(false, true)) {
+            return;
+        }
 
-            @Override
-            protected void failed() {
-                Throwable exception = getException();
-                exception.printStackTrace();
-                Platform.runLater(() -> {
-                    showAlert("Error", "Failed to load dashboard data: " + exception.getMessage());
-                });
-            }
-        };
+        CompletableFuture<DashboardSnapshot> future;
+        try {
+            future = DashboardDataService.loadSnapshot();
+        } catch (RejectedExecutionException e) {
+            refreshInFlight.set(false);
+            e.printStackTrace();
+            return;
+        }
 
-        new Thread(loadTask).start();
+        future.whenComplete((snapshot, error) -> {
+            refreshInFlight.set(false);
+            Platform.runLater(() -> {
+                if (error != null) {
+                    error.printStackTrace();
+                    applyStats(DashboardStats.EMPTY);
+                    showAlert("Error", "Failed to load dashboard data: " + error.getMessage());
+                } else {
+                    applySnapshot(snapshot);
+                }
+            });
+        });
     }
 
     /**
      * Start auto-refresh (every 30 seconds).
      */
     private void startAutoRefresh() {
-        scheduler.scheduleAtFixedRate(() -> {
-            Platform.runLater(() -> loadOverviewDataAsync());
-        }, 30, 30, TimeUnit.SECONDS);
+        stopAutoRefresh();
+        autoRefreshTask = scheduler.scheduleAtFixedRate(this::refreshDashboard, 30, 30, TimeUnit.SECONDS);
     }
 
     /**
      * Stop auto-refresh.
      */
     private void stopAutoRefresh() {
-        // Scheduler will continue but we check the flag
+        if (autoRefreshTask != null) {
+            autoRefreshTask.cancel(false);
+            autoRefreshTask = null;
+        }
     }
 
     /**
@@ -371,148 +381,79 @@ public class DashboardController {
     }
 
     /**
-     * Load overview data and display metrics.
+     * Apply a loaded snapshot to the overview. Runs on the FX thread.
      */
-    private void loadOverviewData() {
-        Platform.runLater(() -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                // Total bookings
-                String totalBookingsQuery = "SELECT COUNT(*) as count FROM reservations";
-                try (PreparedStatement stmt = conn.prepareStatement(totalBookingsQuery);
-                     ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        totalBookingsLabel.setText(String.valueOf(rs.getInt("count")));
-                    }
-                }
+    private void applySnapshot(DashboardSnapshot snapshot) {
+        long start = System.nanoTime();
 
-                // Pending bookings
-                String pendingQuery = "SELECT COUNT(*) as count FROM reservations WHERE status = 'pending'";
-                try (PreparedStatement stmt = conn.prepareStatement(pendingQuery);
-                     ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        pendingBookingsLabel.setText(String.valueOf(rs.getInt("count")));
-                    }
-                }
-
-                // Confirmed bookings
-                String confirmedQuery = "SELECT COUNT(*) as count FROM reservations WHERE status = 'confirmed'";
-                try (PreparedStatement stmt = conn.prepareStatement(confirmedQuery);
-                     ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        confirmedBookingsLabel.setText(String.valueOf(rs.getInt("count")));
-                    }
-                }
-
-                // Total revenue (from confirmed/completed reservations)
-                String revenueQuery = "SELECT COALESCE(SUM(total_amount), 0) as total FROM reservations WHERE status IN ('confirmed', 'completed')";
-                try (PreparedStatement stmt = conn.prepareStatement(revenueQuery);
-                     ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        double revenue = rs.getDouble("total");
-                        totalRevenueLabel.setText(String.format("₱%.2f", revenue));
-                    }
-                }
-
-                // Total rooms
-                String roomsQuery = "SELECT COUNT(*) as count FROM rooms WHERE is_active = 1";
-                try (PreparedStatement stmt = conn.prepareStatement(roomsQuery);
-                     ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        activeHotelsLabel.setText(String.valueOf(rs.getInt("count")));
-                    }
-                }
-
-                // Active users
-                String usersQuery = "SELECT COUNT(*) as count FROM users";
-                try (PreparedStatement stmt = conn.prepareStatement(usersQuery);
-                     ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        activeUsersLabel.setText(String.valueOf(rs.getInt("count")));
-                    }
-                }
-
-                // Today's bookings
-                if (todaysBookingsLabel != null) {
-                    todaysBookingsLabel.setText(String.valueOf(StatisticsService.getTodaysBookings()));
-                }
-
-                // Today's revenue
-                if (todaysRevenueLabel != null) {
-                    todaysRevenueLabel.setText(String.format("₱%.2f", StatisticsService.getTodaysRevenue()));
-                }
+        applyStats(snapshot.getStats());
+        renderCharts(snapshot);
+        renderRecentActivity(snapshot);
 
-                // Upcoming check-ins
-                if (upcomingCheckInsLabel != null) {
-                    upcomingCheckInsLabel.setText(String.valueOf(StatisticsService.getUpcomingCheckIns()));
-                }
-
-                // Upcoming check-outs
-                if (upcomingCheckOutsLabel != null) {
-                    upcomingCheckOutsLabel.setText(String.valueOf(StatisticsService.getUpcomingCheckOuts()));
-                }
-
-                // Occupancy percentage
-                if (occupancyPercentageLabel != null) {
-                    double occupancy = StatisticsService.getOccupancyPercentage();
-                    occupancyPercentageLabel.setText(String.format("%.1f%%", occupancy));
-                }
-
-                // Average booking value
-                if (averageBookingValueLabel != null) {
-                    double avg = StatisticsService.getAverageBookingValue();
-                    averageBookingValueLabel.setText(String.format("₱%.2f", avg));
-                }
+        long renderMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        updateLastUpdatedLabel(snapshot, renderMillis);
+    }
 
-                // Load charts
-                loadCharts();
-
-                // Load recent activity
-                loadRecentActivity();
-
-            } catch (SQLException e) {
-                e.printStackTrace();
-                // Set default values on error
-                totalBookingsLabel.setText("0");
-                pendingBookingsLabel.setText("0");
-                confirmedBookingsLabel.setText("0");
-                totalRevenueLabel.setText("₱0.00");
-                activeHotelsLabel.setText("0");
-                activeUsersLabel.setText("0");
-            }
-        });
+    /**
+     * Display KPI values in the overview cards.
+     */
+    private void applyStats(DashboardStats stats) {
+        totalBookingsLabel.setText(String.valueOf(stats.getTotalBookings()));
+        pendingBookingsLabel.setText(String.valueOf(stats.getPendingBookings()));
+        confirmedBookingsLabel.setText(String.valueOf(stats.getConfirmedBookings()));
+        totalRevenueLabel.setText(String.format("₱%.2f", stats.getTotalRevenue()));
+        activeHotelsLabel.setText(String.valueOf(stats.getActiveRooms()));
+        activeUsersLabel.setText(String.valueOf(stats.getTotalUsers()));
+
+        if (todaysBookingsLabel != null) {
+            todaysBookingsLabel.setText(String.valueOf(stats.getTodaysBookings()));
+        }
+        if (todaysRevenueLabel != null) {
+            todaysRevenueLabel.setText(String.format("₱%.2f", stats.getTodaysRevenue()));
+        }
+        if (upcomingCheckInsLabel != null) {
+            upcomingCheckInsLabel.setText(String.valueOf(stats.getUpcomingCheckIns()));
+        }
+        if (upcomingCheckOutsLabel != null) {
+            upcomingCheckOutsLabel.setText(String.valueOf(stats.getUpcomingCheckOuts()));
+        }
+        if (occupancyPercentageLabel != null) {
+            occupancyPercentageLabel.setText(String.format("%.1f%%", stats.getOccupancyPercentage()));
+        }
+        if (averageBookingValueLabel != null) {
+            averageBookingValueLabel.setText(String.format("₱%.2f", stats.getAverageBookingValue()));
+        }
     }
 
     /**
-     * Load and display charts.
+     * Display charts.
      */
-    private void loadCharts() {
+    private void renderCharts(DashboardSnapshot snapshot) {
         if (chartsContainer == null) return;
 
-        Platform.runLater(() -> {
-            chartsContainer.getChildren().clear();
+        chartsContainer.getChildren().clear();
 
-            // Revenue Chart
-            LineChart<String, Number> revenueChart = createRevenueChart();
-            if (revenueChart != null) {
-                TitledPane revenuePane = new TitledPane("Revenue Trends (Last 30 Days)", revenueChart);
-                revenuePane.setExpanded(true);
-                chartsContainer.getChildren().add(revenuePane);
-            }
+        // Revenue Chart
+        LineChart<String, Number> revenueChart = createRevenueChart(snapshot.getRevenueChartData());
+        if (revenueChart != null) {
+            TitledPane revenuePane = new TitledPane("Revenue Trends (Last 30 Days)", revenueChart);
+            revenuePane.setExpanded(true);
+            chartsContainer.getChildren().add(revenuePane);
+        }
 
-            // Booking Status Pie Chart
-            PieChart statusChart = createStatusPieChart();
-            if (statusChart != null) {
-                TitledPane statusPane = new TitledPane("Booking Status Distribution", statusChart);
-                statusPane.setExpanded(true);
-                chartsContainer.getChildren().add(statusPane);
-            }
-        });
+        // Booking Status Pie Chart
+        PieChart statusChart = createStatusPieChart(snapshot.getStatusDistribution());
+        if (statusChart != null) {
+            TitledPane statusPane = new TitledPane("Booking Status Distribution", statusChart);
+            statusPane.setExpanded(true);
+            chartsContainer.getChildren().add(statusPane);
+        }
     }
 
     /**
      * Create revenue line chart.
      */
-    private LineChart<String, Number> createRevenueChart() {
+    private LineChart<String, Number> createRevenueChart(List<Map<String, Object>> data) {
         try {
             CategoryAxis xAxis = new CategoryAxis();
             NumberAxis yAxis = new NumberAxis();
@@ -522,7 +463,6 @@ public class DashboardController {
             chart.setLegendVisible(false);
 
             XYChart.Series<String, Number> series = new XYChart.Series<>();
-            List<Map<String, Object>> data = StatisticsService.getRevenueChartData(30);
 
             for (Map<String, Object> point : data) {
                 java.sql.Date date = (java.sql.Date) point.get("date");
@@ -543,10 +483,9 @@ public class DashboardController {
     /**
      * Create booking status pie chart.
      */
-    private PieChart createStatusPieChart() {
+    private PieChart createStatusPieChart(Map<String, Integer> distribution) {
         try {
             PieChart chart = new PieChart();
-            Map<String, Integer> distribution = StatisticsService.getBookingStatusDistribution();
 
             for (Map.Entry<String, Integer> entry : distribution.entrySet()) {
                 PieChart.Data slice = new PieChart.Data(
@@ -565,112 +504,115 @@ public class DashboardController {
     }
 
     /**
-     * Load recent activity section.
+     * Display recent activity section.
      */
-    private void loadRecentActivity() {
+    private void renderRecentActivity(DashboardSnapshot snapshot) {
         if (recentActivityContainer == null) return;
 
-        Platform.runLater(() -> {
-            recentActivityContainer.getChildren().clear();
+        recentActivityContainer.getChildren().clear();
 
-            // Recent Bookings
-            Label bookingsTitle = new Label("Recent Bookings");
-            bookingsTitle.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
-            recentActivityContainer.getChildren().add(bookingsTitle);
+        // Recent Bookings
+        Label bookingsTitle = new Label("Recent Bookings");
+        bookingsTitle.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+        recentActivityContainer.getChildren().add(bookingsTitle);
 
-            TableView<RecentBooking> bookingsTable = new TableView<>();
-            bookingsTable.setPrefHeight(200);
+        TableView<RecentBooking> bookingsTable = new TableView<>();
+        bookingsTable.setPrefHeight(200);
 
-            TableColumn<RecentBooking, String> resNumCol = new TableColumn<>("Reservation #");
-            resNumCol.setCellValueFactory(new PropertyValueFactory<>("reservationNumber"));
-            resNumCol.setPrefWidth(150);
+        TableColumn<RecentBooking, String> resNumCol = new TableColumn<>("Reservation #");
+        resNumCol.setCellValueFactory(new PropertyValueFactory<>("reservationNumber"));
+        resNumCol.setPrefWidth(150);
 
-            TableColumn<RecentBooking, String> guestCol = new TableColumn<>("Guest");
-            guestCol.setCellValueFactory(new PropertyValueFactory<>("guestName"));
-            guestCol.setPrefWidth(150);
+        TableColumn<RecentBooking, String> guestCol = new TableColumn<>("Guest");
+        guestCol.setCellValueFactory(new PropertyValueFactory<>("guestName"));
+        guestCol.setPrefWidth(150);
 
-            TableColumn<RecentBooking, String> checkInCol = new TableColumn<>("Check-in");
-            checkInCol.setCellValueFactory(new PropertyValueFactory<>("checkInDate"));
-            checkInCol.setPrefWidth(100);
+        TableColumn<RecentBooking, String> checkInCol = new TableColumn<>("Check-in");
+        checkInCol.setCellValueFactory(new PropertyValueFactory<>("checkInDate"));
+        checkInCol.setPrefWidth(100);
 
-            TableColumn<RecentBooking, String> statusCol = new TableColumn<>("Status");
-            statusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
-            statusCol.setPrefWidth(100);
+        TableColumn<RecentBooking, String> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
+        statusCol.setPrefWidth(100);
 
-            bookingsTable.getColumns().addAll(resNumCol, guestCol, checkInCol, statusCol);
+        bookingsTable.getColumns().addAll(resNumCol, guestCol, checkInCol, statusCol);
 
-            javafx.collections.ObservableList<RecentBooking> bookings = javafx.collections.FXCollections.observableArrayList();
-            List<Map<String, Object>> recentBookings = StatisticsService.getRecentBookings(10);
+        javafx.collections.ObservableList<RecentBooking> bookings = javafx.collections.FXCollections.observableArrayList();
+        List<Map<String, Object>> recentBookings = snapshot.getRecentBookings();
 
-            for (Map<String, Object> booking : recentBookings) {
-                RecentBooking rb = new RecentBooking();
-                rb.setReservationNumber((String) booking.get("reservation_number"));
-                rb.setGuestName((String) booking.get("guest_name"));
-                rb.setCheckInDate(((java.sql.Date) booking.get("check_in_date")).toLocalDate()
-                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-                rb.setStatus((String) booking.get("status"));
-                bookings.add(rb);
-            }
+        for (Map<String, Object> booking : recentBookings) {
+            RecentBooking rb = new RecentBooking();
+            rb.setReservationNumber((String) booking.get("reservation_number"));
+            rb.setGuestName((String) booking.get("guest_name"));
+            rb.setCheckInDate(((java.sql.Date) booking.get("check_in_date")).toLocalDate()
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+            rb.setStatus((String) booking.get("status"));
+            bookings.add(rb);
+        }
 
-            bookingsTable.setItems(bookings);
-            recentActivityContainer.getChildren().add(bookingsTable);
+        bookingsTable.setItems(bookings);
+        recentActivityContainer.getChildren().add(bookingsTable);
 
-            // Recent Payments
-            Label paymentsTitle = new Label("Recent Payments");
-            paymentsTitle.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-padding: 20 0 0 0;");
-            recentActivityContainer.getChildren().add(paymentsTitle);
+        // Recent Payments
+        Label paymentsTitle = new Label("Recent Payments");
+        paymentsTitle.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-padding: 20 0 0 0;");
+        recentActivityContainer.getChildren().add(paymentsTitle);
 
-            TableView<RecentPayment> paymentsTable = new TableView<>();
-            paymentsTable.setPrefHeight(200);
+        TableView<RecentPayment> paymentsTable = new TableView<>();
+        paymentsTable.setPrefHeight(200);
 
-            TableColumn<RecentPayment, String> resNumCol2 = new TableColumn<>("Reservation #");
-            resNumCol2.setCellValueFactory(new PropertyValueFactory<>("reservationNumber"));
-            resNumCol2.setPrefWidth(150);
+        TableColumn<RecentPayment, String> resNumCol2 = new TableColumn<>("Reservation #");
+        resNumCol2.setCellValueFactory(new PropertyValueFactory<>("reservationNumber"));
+        resNumCol2.setPrefWidth(150);
 
-            TableColumn<RecentPayment, String> amountCol = new TableColumn<>("Amount");
-            amountCol.setCellValueFactory(new PropertyValueFactory<>("amount"));
-            amountCol.setPrefWidth(120);
+        TableColumn<RecentPayment, String> amountCol = new TableColumn<>("Amount");
+        amountCol.setCellValueFactory(new PropertyValueFactory<>("amount"));
+        amountCol.setPrefWidth(120);
 
-            TableColumn<RecentPayment, String> statusCol2 = new TableColumn<>("Status");
-            statusCol2.setCellValueFactory(new PropertyValueFactory<>("status"));
-            statusCol2.setPrefWidth(100);
+        TableColumn<RecentPayment, String> statusCol2 = new TableColumn<>("Status");
+        statusCol2.setCellValueFactory(new PropertyValueFactory<>("status"));
+        statusCol2.setPrefWidth(100);
 
-            TableColumn<RecentPayment, String> paidAtCol = new TableColumn<>("Paid At");
-            paidAtCol.setCellValueFactory(new PropertyValueFactory<>("paidAt"));
-            paidAtCol.setPrefWidth(150);
+        TableColumn<RecentPayment, String> paidAtCol = new TableColumn<>("Paid At");
+        paidAtCol.setCellValueFactory(new PropertyValueFactory<>("paidAt"));
+        paidAtCol.setPrefWidth(150);
 
-            paymentsTable.getColumns().addAll(resNumCol2, amountCol, statusCol2, paidAtCol);
+        paymentsTable.getColumns().addAll(resNumCol2, amountCol, statusCol2, paidAtCol);
 
-            javafx.collections.ObservableList<RecentPayment> payments = javafx.collections.FXCollections.observableArrayList();
-            List<Map<String, Object>> recentPayments = StatisticsService.getRecentPayments(10);
+        javafx.collections.ObservableList<RecentPayment> payments = javafx.collections.FXCollections.observableArrayList();
+        List<Map<String, Object>> recentPayments = snapshot.getRecentPayments();
 
-            for (Map<String, Object> payment : recentPayments) {
-                RecentPayment rp = new RecentPayment();
-                rp.setReservationNumber((String) payment.get("reservation_number"));
-                rp.setAmount(String.format("₱%.2f", (Double) payment.get("amount")));
-                rp.setStatus((String) payment.get("status"));
-                if (payment.get("paid_at") != null) {
-                    rp.setPaidAt(payment.get("paid_at").toString());
-                } else {
-                    rp.setPaidAt("N/A");
-                }
-                payments.add(rp);
+        for (Map<String, Object> payment : recentPayments) {
+            RecentPayment rp = new RecentPayment();
+            rp.setReservationNumber((String) payment.get("reservation_number"));
+            rp.setAmount(String.format("₱%.2f", (Double) payment.get("amount")));
+            rp.setStatus((String) payment.get("status"));
+            if (payment.get("paid_at") != null) {
+                rp.setPaidAt(payment.get("paid_at").toString());
+            } else {
+                rp.setPaidAt("N/A");
             }
+            payments.add(rp);
+        }
 
-            paymentsTable.setItems(payments);
-            recentActivityContainer.getChildren().add(paymentsTable);
-        });
+        paymentsTable.setItems(payments);
+        recentActivityContainer.getChildren().add(paymentsTable);
     }
 
     /**
-     * Update last updated label.
+     * Update last updated label, with per-stage load timings in the tooltip.
      */
-    private void updateLastUpdatedLabel() {
+    private void updateLastUpdatedLabel(DashboardSnapshot snapshot, long renderMillis) {
+        StringBuilder timings = new StringBuilder();
+        for (Map.Entry<String, Long> stage : snapshot.getStageTimings().entrySet()) {
+            timings.append(stage.getKey()).append(": ").append(stage.getValue()).append(" ms\n");
+        }
+        timings.append("render: ").append(renderMillis).append(" ms");
+
         if (lastUpdatedLabel != null) {
-            Platform.runLater(() -> {
-                lastUpdatedLabel.setText("Last updated: " + 
-                    java.time.LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            });
+            lastUpdatedLabel.setText("Last updated: " +
+                snapshot.getLoadedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            lastUpdatedLabel.setTooltip(new Tooltip(timings.toString()));
         }
     }
 
@@ -729,9 +671,7 @@ public class DashboardController {
             Node overviewNode = loader.load();
             mainContainer.setCenter(overviewNode);
             // Reload data after showing overview
-            loadOverviewDataAsync();
-            loadCharts();
-            loadRecentActivity();
+            refreshDashboard();
         } catch (IOException e) {
             e.printStackTrace();
             showAlert("Error", "Failed to load dashboard overview: " + e.getMessage());
@@ -1,8 +1,10 @@
 package com.belmonthotel.admin.controllers;
 
 import com.belmonthotel.admin.models.Payment;
+import com.belmonthotel.admin.utils.BitmapFilterEngine;
 import com.belmonthotel.admin.utils.DatabaseConnection;
 import com.belmonthotel.admin.utils.SortAlgorithms;
+import com.belmonthotel.admin.utils.SortKeys;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -17,8 +19,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 /**
@@ -70,6 +73,12 @@ public class PaymentsController implements Initializable {
     @FXML
     private ComboBox<String> sortFieldCombo;
 
+    @FXML
+    private CheckBox sortDescendingCheck;
+
+    @FXML
+    private ComboBox<String> sortLimitCombo;
+
     @FXML
     private Button sortBtn;
 
@@ -77,6 +86,8 @@ public class PaymentsController implements Initializable {
     private Label sortMetricsLabel;
 
     private ObservableList<Payment> paymentsList;
+    private BitmapFilterEngine paymentsIndex;
+    private final Map<String, Integer> statusCodes = new HashMap<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -95,10 +106,10 @@ public class PaymentsController implements Initializable {
         statusFilter.getItems().addAll("All", "Pending", "Paid", "Failed", "Expired", "Cancelled");
         statusFilter.setValue("All");
 
-        // Initialize sort algorithm options (Heap Sort for payments)
+        // Initialize sort algorithm options
         if (sortAlgorithmCombo != null) {
-            sortAlgorithmCombo.getItems().addAll("Quick Sort", "Merge Sort", "Heap Sort");
-            sortAlgorithmCombo.setValue("Heap Sort");
+            sortAlgorithmCombo.getItems().addAll(SortAlgorithms.ALGORITHM_NAMES);
+            sortAlgorithmCombo.setValue(SortAlgorithms.AUTO);
         }
         
         // Initialize sort field options
@@ -107,6 +118,12 @@ public class PaymentsController implements Initializable {
             sortFieldCombo.setValue("Amount");
         }
 
+        // Initialize row limit options (partial sort for the first screen of results)
+        if (sortLimitCombo != null) {
+            sortLimitCombo.getItems().addAll(SortAlgorithms.LIMIT_CHOICES);
+            sortLimitCombo.setValue(SortAlgorithms.LIMIT_CHOICES.get(0));
+        }
+
         // Set button actions
         refreshBtn.setOnAction(e -> loadPayments());
         viewDetailsBtn.setOnAction(e -> viewPaymentDetails());
@@ -135,6 +152,7 @@ public class PaymentsController implements Initializable {
      */
     private void loadPayments() {
         paymentsList.clear();
+        paymentsIndex = null;
         
         String query = "SELECT p.id, p.amount, p.payment_method, p.status, p.paid_at, " +
                       "p.xendit_invoice_id, r.reservation_number " +
@@ -142,7 +160,7 @@ public class PaymentsController implements Initializable {
                       "JOIN reservations r ON p.reservation_id = r.id " +
                       "ORDER BY p.created_at DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -165,6 +183,7 @@ public class PaymentsController implements Initializable {
                 paymentsList.add(payment);
             }
 
+            indexPayments();
             applyFilters();
         } catch (SQLException e) {
             showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load payments: " + e.getMessage());
@@ -172,38 +191,52 @@ public class PaymentsController implements Initializable {
         }
     }
 
+    /**
+     * Build the filter indexes over the loaded payments: a bitmap per status (case-insensitive)
+     * and a search over reservation number and Xendit invoice ID.
+     */
+    private void indexPayments() {
+        int count = paymentsList.size();
+        int[] statuses = new int[count];
+        String[] numbers = new String[count];
+        String[] invoiceIds = new String[count];
+        statusCodes.clear();
+        for (int i = 0; i < count; i++) {
+            Payment payment = paymentsList.get(i);
+            String status = payment.getStatus() != null ? payment.getStatus().toLowerCase() : "";
+            statuses[i] = statusCodes.computeIfAbsent(status, key -> statusCodes.size());
+            numbers[i] = payment.getReservationNumber() != null ? payment.getReservationNumber().toLowerCase() : "";
+            invoiceIds[i] = payment.getXenditInvoiceId() != null ? payment.getXenditInvoiceId().toLowerCase() : "";
+        }
+
+        paymentsIndex = new BitmapFilterEngine(count);
+        paymentsIndex.addCategory("status", statuses, statusCodes.size());
+        paymentsIndex.addText("search", needle -> row -> numbers[row].contains(needle) || invoiceIds[row].contains(needle));
+    }
+
     /**
      * Apply filters to the payments list.
      */
     private void applyFilters() {
-        ObservableList<Payment> filtered = FXCollections.observableArrayList();
-        String searchText = searchField.getText().toLowerCase();
+        if (paymentsIndex == null) {
+            return;
+        }
         String status = statusFilter.getValue();
-
-        for (Payment payment : paymentsList) {
-            // Status filter
-            if (status != null && !status.equals("All")) {
-                if (!payment.getStatus().equalsIgnoreCase(status)) {
-                    continue;
-                }
-            }
-
-            // Search filter
-            if (!searchText.isEmpty()) {
-                if (!payment.getReservationNumber().toLowerCase().contains(searchText) &&
-                    !payment.getXenditInvoiceId().toLowerCase().contains(searchText)) {
-                    continue;
-                }
-            }
-
-            filtered.add(payment);
+        BitmapFilterEngine.Query query = paymentsIndex.query();
+        if (status != null && !status.equals("All")) {
+            query.category("status", statusCodes.getOrDefault(status.toLowerCase(), -1));
         }
+        query.text("search", searchField.getText().toLowerCase());
 
+        ObservableList<Payment> filtered = FXCollections.observableArrayList();
+        for (int row : query.rows()) {
+            filtered.add(paymentsList.get(row));
+        }
         paymentsTable.setItems(filtered);
     }
     
     /**
-     * Perform sorting using selected algorithm (Heap Sort for payments).
+     * Perform sorting using selected algorithm (Auto picks by size).
      */
     private void performSort() {
         ObservableList<Payment> currentList = paymentsTable.getItems();
@@ -212,30 +245,18 @@ public class PaymentsController implements Initializable {
             return;
         }
         
-        String algorithm = sortAlgorithmCombo != null ? sortAlgorithmCombo.getValue() : "Heap Sort";
+        String algorithm = sortAlgorithmCombo != null ? sortAlgorithmCombo.getValue() : SortAlgorithms.AUTO;
         String sortField = sortFieldCombo != null ? sortFieldCombo.getValue() : "Amount";
+        boolean descending = sortDescendingCheck != null && sortDescendingCheck.isSelected();
+        int limit = SortAlgorithms.parseLimit(sortLimitCombo != null ? sortLimitCombo.getValue() : null);
         
-        // Create comparator based on sort field
-        Comparator<Payment> comparator = getPaymentComparator(sortField);
         
         // Convert to ArrayList for sorting
         List<Payment> listToSort = new ArrayList<>(currentList);
         
         // Perform sort based on selected algorithm
-        SortAlgorithms.SortResult<Payment> result;
-        switch (algorithm) {
-            case "Quick Sort":
-                result = SortAlgorithms.quickSort(listToSort, comparator);
-                break;
-            case "Merge Sort":
-                result = SortAlgorithms.mergeSort(listToSort, comparator);
-                break;
-            case "Heap Sort":
-                result = SortAlgorithms.heapSort(listToSort, comparator);
-                break;
-            default:
-                result = SortAlgorithms.heapSort(listToSort, comparator);
-        }
+        SortAlgorithms.SortResult<Payment> result =
+            SortAlgorithms.sortByKeys(algorithm, listToSort, getPaymentSortKeys(sortField, listToSort, descending), limit);
         
         // Update table with sorted data
         ObservableList<Payment> sortedList = FXCollections.observableArrayList(result.getSortedData());
@@ -249,46 +270,28 @@ public class PaymentsController implements Initializable {
         }
         
         showAlert(Alert.AlertType.INFORMATION, "Sort Complete", 
-            String.format("Sorted %d payments using %s\nTime: %d ms\nComparisons: %d",
-                listToSort.size(), result.getAlgorithmName(), 
+            String.format("Sorted %d payments using %s (showing %d)\nTime: %d ms\nComparisons: %d",
+                listToSort.size(), result.getAlgorithmName(), result.getSortedData().size(),
                 result.getExecutionTime(), result.getComparisons()));
     }
     
     /**
-     * Get comparator for payment based on sort field.
+     * Sort keys for payments based on sort field; amounts and dates are parsed once per payment.
      */
-    private Comparator<Payment> getPaymentComparator(String sortField) {
+    private SortKeys<Payment> getPaymentSortKeys(String sortField, List<Payment> payments, boolean descending) {
+        SortKeys<Payment> keys = new SortKeys<>(payments);
         switch (sortField) {
-            case "Amount":
-                return Comparator.comparing(p -> {
-                    try {
-                        return Double.parseDouble(p.getAmount().replace("₱", "").replace(",", ""));
-                    } catch (NumberFormatException e) {
-                        return 0.0;
-                    }
-                });
             case "Date":
-                return Comparator.comparing(p -> {
-                    if (p.getPaidAt() == null || p.getPaidAt().equals("N/A")) {
-                        return "";
-                    }
-                    return p.getPaidAt();
-                });
+                return keys.then(p -> SortKeys.dateTimeMinutes(p.getPaidAt()), descending);
             case "Status":
-                return Comparator.comparing(Payment::getStatus, String.CASE_INSENSITIVE_ORDER);
+                return keys.thenText(Payment::getStatus, descending);
             case "Payment Method":
-                return Comparator.comparing(Payment::getPaymentMethod, String.CASE_INSENSITIVE_ORDER);
+                return keys.thenText(Payment::getPaymentMethod, descending);
             default:
-                return Comparator.comparing(p -> {
-                    try {
-                        return Double.parseDouble(p.getAmount().replace("₱", "").replace(",", ""));
-                    } catch (NumberFormatException e) {
-                        return 0.0;
-                    }
-                });
+                return keys.then(p -> SortKeys.moneyCents(p.getAmount()), descending);
         }
     }
-
+    
     /**
      * Update the state of the "Mark as Paid" button based on selected payment.
      */
@@ -369,7 +372,7 @@ public class PaymentsController implements Initializable {
                 try {
                     // Update payment status
                     PreparedStatement paymentStmt = conn.prepareStatement(
-                        "UPDATE payments SET status = 'paid', paid_at = NOW() WHERE id = ?");
+                        "UPDATE payments SET status = 'paid', paid_at = NOW(), updated_at = NOW() WHERE id = ?");
                     paymentStmt.setInt(1, selected.getId());
                     int paymentRows = paymentStmt.executeUpdate();
                     paymentStmt.close();
@@ -377,7 +380,7 @@ public class PaymentsController implements Initializable {
                     if (paymentRows > 0) {
                         // Update reservation status to confirmed
                         PreparedStatement reservationStmt = conn.prepareStatement(
-                            "UPDATE reservations SET status = 'confirmed', confirmed_at = NOW() " +
+                            "UPDATE reservations SET status = 'confirmed', confirmed_at = NOW(), updated_at = NOW() " +
                             "WHERE id = (SELECT reservation_id FROM payments WHERE id = ?) " +
                             "AND status = 'pending'");
                         reservationStmt.setInt(1, selected.getId());
@@ -426,7 +429,7 @@ public class PaymentsController implements Initializable {
                       "JOIN users u ON r.user_id = u.id " +
                       "WHERE p.id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setInt(1, selected.getId());
@@ -5,9 +5,16 @@ import com.belmonthotel.admin.models.GraphNode;
 import com.belmonthotel.admin.models.Room;
 import com.belmonthotel.admin.utils.DatabaseConnection;
 import com.belmonthotel.admin.utils.RoomDependencyGraph;
+import com.belmonthotel.admin.utils.RoomAssignmentService;
+import com.belmonthotel.admin.utils.RoomGraphService;
+import com.belmonthotel.admin.utils.RoomSpatialIndex;
+import com.belmonthotel.admin.utils.RoomInventoryService;
 import com.belmonthotel.admin.utils.SortAlgorithms;
+import com.belmonthotel.admin.utils.SortKeys;
+import com.belmonthotel.admin.utils.StayIntervalIndex;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -21,13 +28,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.NavigableSet;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
@@ -38,6 +44,9 @@ import javafx.stage.Modality;
  * Controller for the rooms management module.
  */
 public class RoomsController implements Initializable {
+    private static final int MAX_CONFLICTS_SHOWN = 50;
+    private static final int MAX_GRAPH_ITEMS_SHOWN = 500;
+
     @FXML
     private TableView<Room> roomsTable;
 
@@ -83,9 +92,15 @@ public class RoomsController implements Initializable {
     @FXML
     private Button viewAvailabilityBtn;
 
+    @FXML
+    private Button searchDatesBtn;
+
     @FXML
     private Button viewDependenciesBtn;
 
+    @FXML
+    private Button assignUnitsBtn;
+
     @FXML
     private ComboBox<String> sortAlgorithmCombo;
 
@@ -119,10 +134,10 @@ public class RoomsController implements Initializable {
         // Load hotel names for filter
         loadHotelNames();
 
-        // Initialize sort algorithm options (Merge Sort for rooms)
+        // Initialize sort algorithm options
         if (sortAlgorithmCombo != null) {
-            sortAlgorithmCombo.getItems().addAll("Quick Sort", "Merge Sort", "Heap Sort");
-            sortAlgorithmCombo.setValue("Merge Sort");
+            sortAlgorithmCombo.getItems().addAll(SortAlgorithms.ALGORITHM_NAMES);
+            sortAlgorithmCombo.setValue(SortAlgorithms.AUTO);
         }
         
         // Initialize sort field options
@@ -137,9 +152,15 @@ public class RoomsController implements Initializable {
         deleteBtn.setOnAction(e -> deleteSelectedRoom());
         refreshBtn.setOnAction(e -> loadRooms());
         viewAvailabilityBtn.setOnAction(e -> viewRoomAvailability());
+        if (searchDatesBtn != null) {
+            searchDatesBtn.setOnAction(e -> searchAvailability());
+        }
         if (viewDependenciesBtn != null) {
             viewDependenciesBtn.setOnAction(e -> viewRoomDependencies());
         }
+        if (assignUnitsBtn != null) {
+            assignUnitsBtn.setOnAction(e -> assignUnits());
+        }
         if (sortBtn != null) {
             sortBtn.setOnAction(e -> performSort());
         }
@@ -171,7 +192,7 @@ public class RoomsController implements Initializable {
                       "FROM rooms r " +
                       "ORDER BY r.room_type";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -234,7 +255,7 @@ public class RoomsController implements Initializable {
     }
     
     /**
-     * Perform sorting using selected algorithm (Merge Sort for rooms).
+     * Perform sorting using selected algorithm (Auto picks by size).
      */
     private void performSort() {
         ObservableList<Room> currentList = roomsTable.getItems();
@@ -243,30 +264,16 @@ public class RoomsController implements Initializable {
             return;
         }
         
-        String algorithm = sortAlgorithmCombo != null ? sortAlgorithmCombo.getValue() : "Merge Sort";
+        String algorithm = sortAlgorithmCombo != null ? sortAlgorithmCombo.getValue() : SortAlgorithms.AUTO;
         String sortField = sortFieldCombo != null ? sortFieldCombo.getValue() : "Price";
         
-        // Create comparator based on sort field
-        Comparator<Room> comparator = getRoomComparator(sortField);
         
         // Convert to ArrayList for sorting
         List<Room> listToSort = new ArrayList<>(currentList);
         
         // Perform sort based on selected algorithm
-        SortAlgorithms.SortResult<Room> result;
-        switch (algorithm) {
-            case "Quick Sort":
-                result = SortAlgorithms.quickSort(listToSort, comparator);
-                break;
-            case "Merge Sort":
-                result = SortAlgorithms.mergeSort(listToSort, comparator);
-                break;
-            case "Heap Sort":
-                result = SortAlgorithms.heapSort(listToSort, comparator);
-                break;
-            default:
-                result = SortAlgorithms.mergeSort(listToSort, comparator);
-        }
+        SortAlgorithms.SortResult<Room> result =
+            SortAlgorithms.sortByKeys(algorithm, listToSort, getRoomSortKeys(sortField, listToSort));
         
         // Update table with sorted data
         ObservableList<Room> sortedList = FXCollections.observableArrayList(result.getSortedData());
@@ -286,32 +293,19 @@ public class RoomsController implements Initializable {
     }
     
     /**
-     * Get comparator for room based on sort field.
+     * Sort keys for rooms based on sort field; prices are parsed once per room.
      */
-    private Comparator<Room> getRoomComparator(String sortField) {
+    private SortKeys<Room> getRoomSortKeys(String sortField, List<Room> rooms) {
+        SortKeys<Room> keys = new SortKeys<>(rooms);
         switch (sortField) {
-            case "Price":
-                return Comparator.comparing(r -> {
-                    try {
-                        return Double.parseDouble(r.getPricePerNight().replace("₱", "").replace(",", ""));
-                    } catch (NumberFormatException e) {
-                        return 0.0;
-                    }
-                });
             case "Availability":
-                return Comparator.comparing(Room::getAvailableQuantity).reversed();
+                return keys.then(Room::getAvailableQuantity, true);
             case "Room Type":
-                return Comparator.comparing(Room::getRoomType, String.CASE_INSENSITIVE_ORDER);
+                return keys.thenText(Room::getRoomType);
             case "Quantity":
-                return Comparator.comparing(Room::getQuantity).reversed();
+                return keys.then(Room::getQuantity, true);
             default:
-                return Comparator.comparing(r -> {
-                    try {
-                        return Double.parseDouble(r.getPricePerNight().replace("₱", "").replace(",", ""));
-                    } catch (NumberFormatException e) {
-                        return 0.0;
-                    }
-                });
+                return keys.then(r -> SortKeys.moneyCents(r.getPricePerNight()));
         }
     }
 
@@ -443,7 +437,7 @@ public class RoomsController implements Initializable {
                       "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             
             double price = Double.parseDouble(room.getPricePerNight().replace("₱", "").replace(",", ""));
             stmt.setNull(1, java.sql.Types.INTEGER); // hotel_id is now nullable
@@ -474,6 +468,12 @@ public class RoomsController implements Initializable {
             int rows = stmt.executeUpdate();
             
             if (rows > 0) {
+                RoomInventoryService.roomsChanged();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        RoomGraphService.roomChanged(keys.getInt(1));
+                    }
+                }
                 showAlert(Alert.AlertType.INFORMATION, "Success", "Room added successfully.");
                 loadRooms();
             }
@@ -543,6 +543,8 @@ public class RoomsController implements Initializable {
                     int rows = stmt.executeUpdate();
                     
                     if (rows > 0) {
+                        RoomInventoryService.roomsChanged();
+                        RoomGraphService.roomChanged(room.getId());
                         showAlert(Alert.AlertType.INFORMATION, "Success", "Room updated successfully.");
                         loadRooms();
                     }
@@ -654,6 +656,8 @@ public class RoomsController implements Initializable {
                 int rows = stmt.executeUpdate();
                 
                 if (rows > 0) {
+                    RoomInventoryService.roomsChanged();
+                    RoomGraphService.roomChanged(selected.getId());
                     showAlert(Alert.AlertType.INFORMATION, "Success", "Room deleted successfully.");
                     loadRooms();
                 }
@@ -664,6 +668,31 @@ public class RoomsController implements Initializable {
         }
     }
 
+    /**
+     * Re-assign the physical units of the selected room type for every stay that has not
+     * checked out yet.
+     */
+    private void assignUnits() {
+        Room selected = roomsTable.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showAlert(Alert.AlertType.WARNING, "No Selection", "Please select a room type to assign units for.");
+            return;
+        }
+        assignUnitsBtn.setDisable(true);
+        RoomAssignmentService.assignRoomType(selected.getId()).whenComplete((result, error) -> Platform.runLater(() -> {
+            assignUnitsBtn.setDisable(false);
+            if (error != null) {
+                showAlert(Alert.AlertType.ERROR, "Database Error", error.getCause() != null
+                    ? error.getCause().getMessage() : error.getMessage());
+                return;
+            }
+            showAlert(Alert.AlertType.INFORMATION, "Units Assigned", String.format(
+                "%s: %d stays on %d of %d units, %d moved, %d unassigned (overbooked), in %d ms",
+                selected.getRoomType(), result.getStays(), result.getUnitsUsed(), result.getUnits(),
+                result.getChanged(), result.getUnassigned(), result.getElapsedMillis()));
+        }));
+    }
+
     /**
      * View room availability calendar using TreeMap (sorted by date) and TreeSet (sorted room types).
      */
@@ -732,8 +761,10 @@ public class RoomsController implements Initializable {
         bookingsTable.getColumns().addAll(resNumCol, guestCol, checkInCol, checkOutCol, statusCol);
 
         javafx.collections.ObservableList<BookingInfo> bookings = javafx.collections.FXCollections.observableArrayList();
+        // Stays of this room, keyed by position in bookings
+        StayIntervalIndex stays = new StayIntervalIndex();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setInt(1, selected.getId());
@@ -748,6 +779,7 @@ public class RoomsController implements Initializable {
                 booking.setCheckInDate(checkIn.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
                 booking.setCheckOutDate(checkOut.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
                 booking.setStatus(rs.getString("status"));
+                stays.add(bookings.size(), checkIn, checkOut);
                 bookings.add(booking);
                 
                 // Populate TreeMap: group bookings by check-in date (TreeMap automatically sorts by date)
@@ -806,7 +838,7 @@ public class RoomsController implements Initializable {
         treeSetContent.getChildren().add(treeSetInfo);
         
         // Load all room types into TreeSet
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement("SELECT DISTINCT room_type FROM rooms ORDER BY room_type")) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -823,11 +855,13 @@ public class RoomsController implements Initializable {
         treeSetPane.setContent(treeSetContent);
         content.getChildren().add(treeSetPane);
         
-        // Add Binary Search Date Picker
-        HBox binarySearchBox = new HBox(10);
-        binarySearchBox.setAlignment(Pos.CENTER_LEFT);
-        Label searchLabel = new Label("Binary Search - Find Next Available Date:");
+        // Next window of the requested length with a room of this type free on every night
+        HBox freeWindowBox = new HBox(10);
+        freeWindowBox.setAlignment(Pos.CENTER_LEFT);
+        Label searchLabel = new Label("Find Next Free Window - From:");
         DatePicker searchDatePicker = new DatePicker(LocalDate.now());
+        Spinner<Integer> nightsSpinner = new Spinner<>(1, 60, 1);
+        nightsSpinner.setPrefWidth(70);
         Button searchBtn = new Button("Search");
         Label searchResultLabel = new Label();
         searchResultLabel.setStyle("-fx-font-weight: bold;");
@@ -839,42 +873,39 @@ public class RoomsController implements Initializable {
                 return;
             }
             
-            // Binary search using TreeMap's navigable methods
-            NavigableMap<LocalDate, List<BookingInfo>> tailMap = bookingsByDate.tailMap(searchDate, true);
-            if (tailMap.isEmpty()) {
-                searchResultLabel.setText("No bookings found after " + searchDate + " (Room is available)");
+            int nights = nightsSpinner.getValue();
+            LocalDate freeFrom = stays.nextFreeWindow(searchDate, nights, selected.getQuantity());
+            if (freeFrom == null) {
+                searchResultLabel.setText("This room type has no rooms");
+                searchResultLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
+            } else if (freeFrom.equals(searchDate)) {
+                searchResultLabel.setText(String.format("Available for %d night(s) from %s", nights, freeFrom));
                 searchResultLabel.setStyle("-fx-text-fill: green; -fx-font-weight: bold;");
             } else {
-                LocalDate nextBookingDate = tailMap.firstKey();
-                searchResultLabel.setText("Next booking found on: " + nextBookingDate);
+                searchResultLabel.setText(String.format("Fully booked; next %d night(s) free from %s to %s",
+                    nights, freeFrom, freeFrom.plusDays(nights)));
                 searchResultLabel.setStyle("-fx-text-fill: orange; -fx-font-weight: bold;");
             }
         });
         
-        binarySearchBox.getChildren().addAll(searchLabel, searchDatePicker, searchBtn, searchResultLabel);
-        content.getChildren().add(binarySearchBox);
+        freeWindowBox.getChildren().addAll(searchLabel, searchDatePicker, new Label("Nights:"), nightsSpinner,
+            searchBtn, searchResultLabel);
+        content.getChildren().add(freeWindowBox);
 
         // Conflict detection
         Label conflictLabel = new Label();
         conflictLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
         conflictLabel.setWrapText(true);
         
-        // Check for date conflicts
+        // Check for date conflicts: overlapping stays found in one sweep
+        List<int[]> overlaps = stays.conflicts();
         StringBuilder conflicts = new StringBuilder();
-        for (int i = 0; i < bookings.size(); i++) {
-            for (int j = i + 1; j < bookings.size(); j++) {
-                BookingInfo b1 = bookings.get(i);
-                BookingInfo b2 = bookings.get(j);
-                LocalDate b1In = LocalDate.parse(b1.getCheckInDate());
-                LocalDate b1Out = LocalDate.parse(b1.getCheckOutDate());
-                LocalDate b2In = LocalDate.parse(b2.getCheckInDate());
-                LocalDate b2Out = LocalDate.parse(b2.getCheckOutDate());
-                
-                if ((b1In.isBefore(b2Out) && b1Out.isAfter(b2In))) {
-                    conflicts.append("Conflict: ").append(b1.getReservationNumber())
-                            .append(" overlaps with ").append(b2.getReservationNumber()).append("\n");
-                }
-            }
+        for (int i = 0; i < overlaps.size() && i < MAX_CONFLICTS_SHOWN; i++) {
+            conflicts.append("Conflict: ").append(bookings.get(overlaps.get(i)[0]).getReservationNumber())
+                    .append(" overlaps with ").append(bookings.get(overlaps.get(i)[1]).getReservationNumber()).append("\n");
+        }
+        if (overlaps.size() > MAX_CONFLICTS_SHOWN) {
+            conflicts.append("... and ").append(overlaps.size() - MAX_CONFLICTS_SHOWN).append(" more\n");
         }
         
         if (conflicts.length() > 0) {
@@ -887,6 +918,90 @@ public class RoomsController implements Initializable {
         dialog.showAndWait();
     }
     
+    /**
+     * Free rooms of every room type for a stay, from the in-memory nightly inventory.
+     * Results update as the dates change.
+     */
+    private void searchAvailability() {
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Search Availability");
+        dialog.setHeaderText("Rooms free on every night of the stay");
+        dialog.initModality(Modality.APPLICATION_MODAL);
+
+        VBox content = new VBox(15);
+        content.setPadding(new Insets(20));
+        content.setPrefWidth(500);
+
+        HBox datesBox = new HBox(10);
+        datesBox.setAlignment(Pos.CENTER_LEFT);
+        DatePicker checkInPicker = new DatePicker(LocalDate.now());
+        DatePicker checkOutPicker = new DatePicker(LocalDate.now().plusDays(1));
+        Spinner<Integer> roomsSpinner = new Spinner<>(1, 50, 1);
+        roomsSpinner.setPrefWidth(70);
+        datesBox.getChildren().addAll(new Label("Check-in:"), checkInPicker, new Label("Check-out:"), checkOutPicker,
+            new Label("Rooms:"), roomsSpinner);
+        content.getChildren().add(datesBox);
+
+        GridPane results = new GridPane();
+        results.setHgap(20);
+        results.setVgap(6);
+        Label timingLabel = new Label();
+        timingLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #666;");
+        content.getChildren().addAll(results, timingLabel);
+
+        Runnable search = () -> {
+            results.getChildren().clear();
+            timingLabel.setText("");
+            LocalDate checkIn = checkInPicker.getValue();
+            LocalDate checkOut = checkOutPicker.getValue();
+            if (!RoomInventoryService.isLoaded()) {
+                results.add(new Label("Room inventory is still loading. Try again in a moment."), 0, 0);
+                return;
+            }
+            if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+                results.add(new Label("Check-out must be after check-in."), 0, 0);
+                return;
+            }
+
+            long started = System.nanoTime();
+            Map<Integer, Integer> free = RoomInventoryService.freeRooms(checkIn, checkOut);
+            long elapsedMicros = (System.nanoTime() - started) / 1000;
+
+            Map<Integer, String> roomTypes = RoomInventoryService.roomTypes();
+            int row = 0;
+            results.add(styledLabel("Room Type", "-fx-font-weight: bold;"), 0, row);
+            results.add(styledLabel("Free", "-fx-font-weight: bold;"), 1, row);
+            for (Map.Entry<Integer, Integer> entry : free.entrySet()) {
+                row++;
+                boolean enough = entry.getValue() >= roomsSpinner.getValue();
+                results.add(new Label(roomTypes.get(entry.getKey())), 0, row);
+                results.add(styledLabel(String.valueOf(entry.getValue()),
+                    enough ? "-fx-text-fill: green; -fx-font-weight: bold;" : "-fx-text-fill: red;"), 1, row);
+            }
+            timingLabel.setText(String.format("%d room types, %d night(s), searched in %d µs",
+                free.size(), java.time.temporal.ChronoUnit.DAYS.between(checkIn, checkOut), elapsedMicros));
+        };
+        checkInPicker.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null && checkOutPicker.getValue() != null && !checkOutPicker.getValue().isAfter(newVal)) {
+                checkOutPicker.setValue(newVal.plusDays(1));
+            }
+            search.run();
+        });
+        checkOutPicker.valueProperty().addListener((obs, oldVal, newVal) -> search.run());
+        roomsSpinner.valueProperty().addListener((obs, oldVal, newVal) -> search.run());
+        search.run();
+
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.showAndWait();
+    }
+
+    private Label styledLabel(String text, String style) {
+        Label label = new Label(text);
+        label.setStyle(style);
+        return label;
+    }
+    
     /**
      * View room dependencies using Graph data structure (BFS, DFS, Shortest Path).
      */
@@ -901,11 +1016,20 @@ public class RoomsController implements Initializable {
             content.setPadding(new Insets(20));
             content.setPrefWidth(900);
             
-            // Build graph from rooms
-            RoomDependencyGraph graph = buildRoomDependencyGraph();
-            
+            // The graph is kept up to date by RoomGraphService; snapshot what the dialog lists
+            List<GraphNode> graphNodes = RoomGraphService.query(graph -> new ArrayList<>(graph.getAllNodes()));
+            if (graphNodes == null) {
+                Label loadingLabel = new Label("The room dependency graph is still loading. Try again in a moment.");
+                content.getChildren().add(loadingLabel);
+                dialog.getDialogPane().setContent(content);
+                dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+                dialog.showAndWait();
+                return;
+            }
+            List<GraphEdge> graphEdges = RoomGraphService.query(graph -> graph.getEdges(MAX_GRAPH_ITEMS_SHOWN));
+
             // Check if graph is empty
-            if (graph.getAllNodes().isEmpty()) {
+            if (graphNodes.isEmpty()) {
                 Label emptyLabel = new Label("No rooms found in database. Please add rooms first.");
                 emptyLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: red;");
                 content.getChildren().add(emptyLabel);
@@ -916,7 +1040,7 @@ public class RoomsController implements Initializable {
             }
             
             // Graph Statistics
-            Map<String, Object> stats = graph.getStatistics();
+            Map<String, Object> stats = RoomGraphService.query(RoomDependencyGraph::getStatistics);
             Label statsLabel = new Label(String.format(
                 "Graph Statistics: %d nodes, %d edges, %d connected components",
                 stats.get("nodes"), stats.get("edges"), stats.get("connectedComponents")
@@ -938,21 +1062,28 @@ public class RoomsController implements Initializable {
             nodesLabel.setStyle("-fx-font-weight: bold;");
             graphContent.getChildren().add(nodesLabel);
             
-            for (GraphNode node : graph.getAllNodes()) {
+            for (GraphNode node : graphNodes.subList(0, Math.min(graphNodes.size(), MAX_GRAPH_ITEMS_SHOWN))) {
                 Label nodeLabel = new Label("  " + node.toString());
                 nodeLabel.setStyle(node.isAvailable() ? "-fx-text-fill: green;" : "-fx-text-fill: red;");
                 graphContent.getChildren().add(nodeLabel);
             }
+            if (graphNodes.size() > MAX_GRAPH_ITEMS_SHOWN) {
+                graphContent.getChildren().add(new Label("  ... and " + (graphNodes.size() - MAX_GRAPH_ITEMS_SHOWN) + " more"));
+            }
             
             // Display edges
             Label edgesLabel = new Label("\nEdges (Dependencies):");
             edgesLabel.setStyle("-fx-font-weight: bold;");
             graphContent.getChildren().add(edgesLabel);
             
-            for (GraphEdge edge : graph.getAllEdges()) {
+            for (GraphEdge edge : graphEdges) {
                 Label edgeLabel = new Label("  " + edge.toString());
                 graphContent.getChildren().add(edgeLabel);
             }
+            int edgeCount = (Integer) stats.get("edges");
+            if (edgeCount > graphEdges.size()) {
+                graphContent.getChildren().add(new Label("  ... and " + (edgeCount - graphEdges.size()) + " more"));
+            }
             
             graphScroll.setContent(graphContent);
             graphScroll.setPrefHeight(200);
@@ -961,7 +1092,7 @@ public class RoomsController implements Initializable {
             
             // Algorithm Controls
             TitledPane algoPane = new TitledPane();
-            algoPane.setText("Graph Algorithms (BFS, DFS, Shortest Path)");
+            algoPane.setText("Graph Algorithms (BFS, DFS, Shortest Path, Nearest Rooms)");
             algoPane.setExpanded(true);
             
             VBox algoContent = new VBox(15);
@@ -972,7 +1103,7 @@ public class RoomsController implements Initializable {
             bfsBox.setAlignment(Pos.CENTER_LEFT);
             ComboBox<Integer> bfsStartCombo = new ComboBox<>();
             bfsStartCombo.setPromptText("Select Start Room");
-            for (GraphNode node : graph.getAllNodes()) {
+            for (GraphNode node : graphNodes) {
                 bfsStartCombo.getItems().add(node.getRoomId());
             }
             Button bfsBtn = new Button("BFS - Find Available Chain");
@@ -982,7 +1113,7 @@ public class RoomsController implements Initializable {
             bfsBtn.setOnAction(e -> {
                 Integer startRoom = bfsStartCombo.getValue();
                 if (startRoom != null) {
-                    List<Integer> chain = graph.bfsFindAvailableChain(startRoom);
+                    List<Integer> chain = RoomGraphService.query(graph -> graph.bfsFindAvailableChain(startRoom));
                     bfsResultLabel.setText("BFS Chain: " + chain.toString() + 
                         " (Found " + chain.size() + " available rooms)");
                     bfsResultLabel.setStyle("-fx-text-fill: green; -fx-font-weight: bold;");
@@ -997,7 +1128,7 @@ public class RoomsController implements Initializable {
             dfsBox.setAlignment(Pos.CENTER_LEFT);
             ComboBox<Integer> dfsStartCombo = new ComboBox<>();
             dfsStartCombo.setPromptText("Select Start Room");
-            for (GraphNode node : graph.getAllNodes()) {
+            for (GraphNode node : graphNodes) {
                 dfsStartCombo.getItems().add(node.getRoomId());
             }
             Button dfsBtn = new Button("DFS - Traverse Dependencies");
@@ -1007,7 +1138,7 @@ public class RoomsController implements Initializable {
             dfsBtn.setOnAction(e -> {
                 Integer startRoom = dfsStartCombo.getValue();
                 if (startRoom != null) {
-                    List<Integer> traversal = graph.dfsTraverseDependencies(startRoom);
+                    List<Integer> traversal = RoomGraphService.query(graph -> graph.dfsTraverseDependencies(startRoom));
                     dfsResultLabel.setText("DFS Traversal: " + traversal.toString() + 
                         " (Visited " + traversal.size() + " rooms)");
                     dfsResultLabel.setStyle("-fx-text-fill: blue; -fx-font-weight: bold;");
@@ -1024,7 +1155,7 @@ public class RoomsController implements Initializable {
             fromCombo.setPromptText("From Room");
             ComboBox<Integer> toCombo = new ComboBox<>();
             toCombo.setPromptText("To Room");
-            for (GraphNode node : graph.getAllNodes()) {
+            for (GraphNode node : graphNodes) {
                 fromCombo.getItems().add(node.getRoomId());
                 toCombo.getItems().add(node.getRoomId());
             }
@@ -1036,7 +1167,7 @@ public class RoomsController implements Initializable {
                 Integer from = fromCombo.getValue();
                 Integer to = toCombo.getValue();
                 if (from != null && to != null) {
-                    List<Integer> path = graph.shortestPath(from, to);
+                    List<Integer> path = RoomGraphService.query(graph -> graph.shortestPath(from, to));
                     if (path.isEmpty()) {
                         pathResultLabel.setText("No path found between room " + from + " and room " + to);
                         pathResultLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
@@ -1050,6 +1181,62 @@ public class RoomsController implements Initializable {
             
             pathBox.getChildren().addAll(new Label("From:"), fromCombo, new Label("To:"), toCombo, pathBtn);
             algoContent.getChildren().addAll(pathBox, pathResultLabel);
+
+            // Nearest available rooms on the floor plan (k-d tree)
+            HBox nearestBox = new HBox(10);
+            nearestBox.setAlignment(Pos.CENTER_LEFT);
+            ComboBox<Integer> nearestCombo = new ComboBox<>();
+            nearestCombo.setPromptText("Select Room");
+            for (GraphNode node : graphNodes) {
+                if (node.hasLocation()) {
+                    nearestCombo.getItems().add(node.getRoomId());
+                }
+            }
+            Spinner<Integer> nearestCountSpinner = new Spinner<>(1, 50, 5);
+            nearestCountSpinner.setPrefWidth(70);
+            Button nearestBtn = new Button("Find Nearest Available");
+            Label nearestResultLabel = new Label();
+            nearestResultLabel.setWrapText(true);
+
+            nearestBtn.setOnAction(e -> {
+                Integer room = nearestCombo.getValue();
+                if (room != null) {
+                    int k = nearestCountSpinner.getValue();
+                    List<Integer> nearest = RoomGraphService.query(graph -> graph.nearestAvailableRooms(room, k));
+                    nearestResultLabel.setText("Nearest available to room " + room + ": " + nearest.toString() +
+                        " (Found " + nearest.size() + " rooms)");
+                    nearestResultLabel.setStyle("-fx-text-fill: green; -fx-font-weight: bold;");
+                }
+            });
+
+            nearestBox.getChildren().addAll(new Label("Near Room:"), nearestCombo, new Label("Count:"),
+                nearestCountSpinner, nearestBtn);
+            algoContent.getChildren().addAll(nearestBox, nearestResultLabel);
+
+            // Group block: the tightest cluster of available rooms
+            HBox blockBox = new HBox(10);
+            blockBox.setAlignment(Pos.CENTER_LEFT);
+            Spinner<Integer> blockSizeSpinner = new Spinner<>(1, 500, 10);
+            blockSizeSpinner.setPrefWidth(80);
+            Button blockBtn = new Button("Find Group Block");
+            Label blockResultLabel = new Label();
+            blockResultLabel.setWrapText(true);
+
+            blockBtn.setOnAction(e -> {
+                int units = blockSizeSpinner.getValue();
+                RoomSpatialIndex.Block block = RoomGraphService.query(graph -> graph.findGroupBlock(units));
+                if (block == null) {
+                    blockResultLabel.setText("Not enough available rooms with a floor-plan position for " + units + " units");
+                    blockResultLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
+                } else {
+                    blockResultLabel.setText(String.format("Block around room %d within %.1f m, units per room: %s",
+                        block.getCenterRoomId(), block.getRadius(), block.getUnitsByRoom()));
+                    blockResultLabel.setStyle("-fx-text-fill: purple; -fx-font-weight: bold;");
+                }
+            });
+
+            blockBox.getChildren().addAll(new Label("Group Size (units):"), blockSizeSpinner, blockBtn);
+            algoContent.getChildren().addAll(blockBox, blockResultLabel);
             
             algoPane.setContent(algoContent);
             content.getChildren().add(algoPane);
@@ -1064,67 +1251,6 @@ public class RoomsController implements Initializable {
         }
     }
     
-    /**
-     * Build room dependency graph from database.
-     */
-    private RoomDependencyGraph buildRoomDependencyGraph() {
-        RoomDependencyGraph graph = new RoomDependencyGraph();
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT r.id, r.room_type, r.available_quantity, r.quantity " +
-                 "FROM rooms r ORDER BY r.id")) {
-            
-            ResultSet rs = stmt.executeQuery();
-            List<GraphNode> nodes = new ArrayList<>();
-            
-            // Create nodes
-            while (rs.next()) {
-                int roomId = rs.getInt("id");
-                String roomType = rs.getString("room_type");
-                int available = rs.getInt("available_quantity");
-                int total = rs.getInt("quantity");
-                boolean isAvailable = available > 0;
-                
-                GraphNode node = new GraphNode(roomId, roomType, isAvailable);
-                graph.addNode(node);
-                nodes.add(node);
-            }
-            
-            // Create edges (dependencies)
-            // Example: Suite rooms require adjacent standard rooms
-            // Connecting rooms are linked
-            for (int i = 0; i < nodes.size(); i++) {
-                GraphNode node1 = nodes.get(i);
-                
-                // Add dependencies based on room type
-                if (node1.getRoomType().toLowerCase().contains("suite")) {
-                    // Suite requires adjacent standard room
-                    for (GraphNode node2 : nodes) {
-                        if (node2.getRoomId() != node1.getRoomId() && 
-                            node2.getRoomType().toLowerCase().contains("standard")) {
-                            graph.addEdge(node1, node2, "suite_requires", 1);
-                        }
-                    }
-                }
-                
-                // Connect adjacent rooms (simplified: connect rooms with consecutive IDs)
-                if (i < nodes.size() - 1) {
-                    GraphNode node2 = nodes.get(i + 1);
-                    graph.addEdge(node1, node2, "adjacent", 1);
-                    graph.addEdge(node2, node1, "adjacent", 1); // Bidirectional
-                }
-            }
-            
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Database Error", 
-                "Failed to build dependency graph: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return graph;
-    }
-
     /**
      * Simple class to hold booking information for availability view.
      */
@@ -1,6 +1,7 @@
 package com.belmonthotel.admin.controllers;
 
 import com.belmonthotel.admin.models.User;
+import com.belmonthotel.admin.utils.BitmapFilterEngine;
 import com.belmonthotel.admin.utils.DatabaseConnection;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -21,6 +22,9 @@ import java.util.ResourceBundle;
  * Controller for the users management module.
  */
 public class UsersController implements Initializable {
+    private static final int ROLE_ADMIN = 0;
+    private static final int ROLE_CUSTOMER = 1;
+
     @FXML
     private TableView<User> usersTable;
 
@@ -55,6 +59,7 @@ public class UsersController implements Initializable {
     private Button viewDetailsBtn;
 
     private ObservableList<User> usersList;
+    private BitmapFilterEngine usersIndex;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -89,10 +94,11 @@ public class UsersController implements Initializable {
      */
     private void loadUsers() {
         usersList.clear();
+        usersIndex = null;
         
         String query = "SELECT id, name, email, created_at FROM users ORDER BY created_at DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -116,6 +122,7 @@ public class UsersController implements Initializable {
                 usersList.add(user);
             }
 
+            indexUsers();
             applyFilters();
         } catch (SQLException e) {
             showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load users: " + e.getMessage());
@@ -123,33 +130,44 @@ public class UsersController implements Initializable {
         }
     }
 
+    /**
+     * Build the filter indexes over the loaded users: a bitmap per role and a search over name and email.
+     */
+    private void indexUsers() {
+        int count = usersList.size();
+        int[] roles = new int[count];
+        String[] names = new String[count];
+        String[] emails = new String[count];
+        for (int i = 0; i < count; i++) {
+            User user = usersList.get(i);
+            roles[i] = "Admin".equals(user.getRole()) ? ROLE_ADMIN : ROLE_CUSTOMER;
+            names[i] = user.getName() != null ? user.getName().toLowerCase() : "";
+            emails[i] = user.getEmail() != null ? user.getEmail().toLowerCase() : "";
+        }
+
+        usersIndex = new BitmapFilterEngine(count);
+        usersIndex.addCategory("role", roles, 2);
+        usersIndex.addText("search", needle -> row -> names[row].contains(needle) || emails[row].contains(needle));
+    }
+
     /**
      * Apply filters to the users list.
      */
     private void applyFilters() {
-        ObservableList<User> filtered = FXCollections.observableArrayList();
-        String searchText = searchField.getText().toLowerCase();
+        if (usersIndex == null) {
+            return;
+        }
         String role = roleFilter.getValue();
-
-        for (User user : usersList) {
-            // Role filter
-            if (role != null && !role.equals("All")) {
-                if (!user.getRole().equals(role)) {
-                    continue;
-                }
-            }
-
-            // Search filter
-            if (!searchText.isEmpty()) {
-                if (!user.getName().toLowerCase().contains(searchText) &&
-                    !user.getEmail().toLowerCase().contains(searchText)) {
-                    continue;
-                }
-            }
-
-            filtered.add(user);
+        BitmapFilterEngine.Query query = usersIndex.query();
+        if (role != null && !role.equals("All")) {
+            query.category("role", role.equals("Admin") ? ROLE_ADMIN : ROLE_CUSTOMER);
         }
+        query.text("search", searchField.getText().toLowerCase());
 
+        ObservableList<User> filtered = FXCollections.observableArrayList();
+        for (int row : query.rows()) {
+            filtered.add(usersList.get(row));
+        }
         usersTable.setItems(filtered);
     }
 
@@ -167,7 +185,7 @@ public class UsersController implements Initializable {
         String userQuery = "SELECT * FROM users WHERE id = ?";
         String bookingsQuery = "SELECT COUNT(*) as count, SUM(total_amount) as total FROM reservations WHERE user_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ)) {
             // Get user details
             StringBuilder details = new StringBuilder();
             try (PreparedStatement stmt = conn.prepareStatement(userQuery)) {
@@ -4,6 +4,10 @@ import com.belmonthotel.admin.models.HistoryNode;
 import com.belmonthotel.admin.utils.BookingHistoryLinkedList;
 import com.belmonthotel.admin.utils.BookingModificationStack;
 import com.belmonthotel.admin.utils.DatabaseConnection;
+import com.belmonthotel.admin.utils.RoomAssignmentService;
+import com.belmonthotel.admin.utils.RoomGraphService;
+import com.belmonthotel.admin.utils.RoomInventoryService;
+import com.belmonthotel.admin.utils.StayIntervalIndex;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -18,6 +22,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -145,6 +151,8 @@ public class BookingDetailsDialog extends Dialog<Void> {
             hotelGrid.add(descLabel, 1, 4);
         }
         addGridRow(hotelGrid, "Price per Night:", String.format("₱%.2f", rs.getDouble("price_per_night")), 5);
+        int unitNumber = rs.getInt("unit_number");
+        addGridRow(hotelGrid, "Unit:", rs.wasNull() ? "Not assigned" : "#" + unitNumber, 6);
         
         hotelPane.setContent(hotelGrid);
         contentPane.getChildren().add(hotelPane);
@@ -461,7 +469,7 @@ public class BookingDetailsDialog extends Dialog<Void> {
         if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
             try (Connection conn = DatabaseConnection.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(
-                     "UPDATE payments SET status = 'paid', paid_at = NOW() WHERE reservation_id = ?")) {
+                     "UPDATE payments SET status = 'paid', paid_at = NOW(), updated_at = NOW() WHERE reservation_id = ?")) {
                 stmt.setInt(1, bookingId);
                 int rows = stmt.executeUpdate();
                 if (rows > 0) {
@@ -481,7 +489,7 @@ public class BookingDetailsDialog extends Dialog<Void> {
     private void handleModifyDates() {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT r.check_in_date, r.check_out_date, r.total_amount, rm.price_per_night " +
+                 "SELECT r.room_id, r.check_in_date, r.check_out_date, r.total_amount, rm.price_per_night, rm.quantity " +
                  "FROM reservations r " +
                  "JOIN rooms rm ON r.room_id = rm.id " +
                  "WHERE r.id = ?")) {
@@ -498,6 +506,8 @@ public class BookingDetailsDialog extends Dialog<Void> {
             LocalDate currentCheckOut = rs.getDate("check_out_date").toLocalDate();
             double currentTotal = rs.getDouble("total_amount");
             double pricePerNight = rs.getDouble("price_per_night");
+            int roomId = rs.getInt("room_id");
+            int roomQuantity = rs.getInt("quantity");
             
             // Create dialog for date modification
             Dialog<LocalDate[]> dateDialog = new Dialog<>();
@@ -576,14 +586,25 @@ public class BookingDetailsDialog extends Dialog<Void> {
                         return;
                     }
                     
-                    // Check room availability
-                    if (!checkRoomAvailability(newCheckIn, newCheckOut)) {
-                        showError("Room Unavailable", "Room is not available for the selected dates.");
+                    long nights = java.time.temporal.ChronoUnit.DAYS.between(newCheckIn, newCheckOut);
+                    
+                    // Check room availability against the other stays in this room
+                    Map<Integer, String> reservationNumbers = new HashMap<>();
+                    StayIntervalIndex roomStays = loadRoomStays(roomId, reservationNumbers);
+                    if (roomStays != null && roomStays.maxOccupancy(newCheckIn, newCheckOut) >= roomQuantity) {
+                        StringBuilder message = new StringBuilder("Room is not available for the selected dates.\n")
+                            .append("Overlapping reservations: ")
+                            .append(describeStays(roomStays.overlapping(newCheckIn, newCheckOut), reservationNumbers));
+                        LocalDate freeFrom = roomStays.nextFreeWindow(newCheckIn, (int) nights, roomQuantity);
+                        if (freeFrom != null) {
+                            message.append(String.format("\nThe next %d night(s) available are %s to %s.",
+                                nights, freeFrom, freeFrom.plusDays(nights)));
+                        }
+                        showError("Room Unavailable", message.toString());
                         return;
                     }
                     
                     // Calculate new total
-                    long nights = java.time.temporal.ChronoUnit.DAYS.between(newCheckIn, newCheckOut);
                     double newTotal = nights * pricePerNight;
                     
                     Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
@@ -614,48 +635,52 @@ public class BookingDetailsDialog extends Dialog<Void> {
         }
     }
     
-    private boolean checkRoomAvailability(LocalDate checkIn, LocalDate checkOut) {
+    /**
+     * Up to five reservation numbers of the given stays, with a count of the rest.
+     */
+    private static String describeStays(int[] stayIds, Map<Integer, String> reservationNumbers) {
+        StringBuilder names = new StringBuilder();
+        int shown = Math.min(stayIds.length, 5);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                names.append(", ");
+            }
+            names.append(reservationNumbers.getOrDefault(stayIds[i], "#" + stayIds[i]));
+        }
+        if (stayIds.length > shown) {
+            names.append(" and ").append(stayIds.length - shown).append(" more");
+        }
+        return names.toString();
+    }
+    
+    /**
+     * Active stays of the given room that have not checked out yet, other than this booking,
+     * or null if they could not be loaded. Their reservation numbers are put in reservationNumbers.
+     */
+    private StayIntervalIndex loadRoomStays(int roomId, Map<Integer, String> reservationNumbers) {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT rm.available_quantity, COUNT(r.id) as booked_count " +
-                 "FROM reservations r " +
-                 "JOIN rooms rm ON r.room_id = rm.id " +
-                 "WHERE r.id = ? AND r.status NOT IN ('cancelled', 'no_show') " +
-                 "AND ((r.check_in_date <= ? AND r.check_out_date > ?) OR " +
-                 "     (r.check_in_date < ? AND r.check_out_date >= ?) OR " +
-                 "     (r.check_in_date >= ? AND r.check_out_date <= ?)) " +
-                 "GROUP BY rm.available_quantity")) {
+                 "SELECT id, reservation_number, check_in_date, check_out_date FROM reservations " +
+                 "WHERE room_id = ? AND id <> ? AND status NOT IN ('cancelled', 'no_show') " +
+                 "AND check_out_date > ?")) {
             
-            stmt.setInt(1, bookingId);
-            stmt.setDate(2, java.sql.Date.valueOf(checkOut));
-            stmt.setDate(3, java.sql.Date.valueOf(checkIn));
-            stmt.setDate(4, java.sql.Date.valueOf(checkOut));
-            stmt.setDate(5, java.sql.Date.valueOf(checkIn));
-            stmt.setDate(6, java.sql.Date.valueOf(checkIn));
-            stmt.setDate(7, java.sql.Date.valueOf(checkOut));
-            
-            ResultSet rs = stmt.executeQuery();
+            stmt.setInt(1, roomId);
+            stmt.setInt(2, bookingId);
+            stmt.setDate(3, java.sql.Date.valueOf(LocalDate.now()));
             
-            // Get room info
-            try (PreparedStatement roomStmt = conn.prepareStatement(
-                 "SELECT rm.available_quantity FROM reservations r " +
-                 "JOIN rooms rm ON r.room_id = rm.id WHERE r.id = ?")) {
-                roomStmt.setInt(1, bookingId);
-                ResultSet roomRs = roomStmt.executeQuery();
-                if (roomRs.next()) {
-                    int available = roomRs.getInt("available_quantity");
-                    // If there are conflicts, check if we can still accommodate
-                    if (rs.next()) {
-                        // We're modifying this booking, so available should be at least 1
-                        return available >= 0;
-                    }
-                    return available > 0;
+            StayIntervalIndex stays = new StayIntervalIndex();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stays.add(rs.getInt("id"), rs.getDate("check_in_date").toLocalDate(),
+                        rs.getDate("check_out_date").toLocalDate());
+                    reservationNumbers.put(rs.getInt("id"), rs.getString("reservation_number"));
                 }
             }
+            return stays;
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return true; // Default to allowing if check fails
+        return null; // Allow the change if the check fails
     }
     
     private void updateBookingDates(LocalDate newCheckIn, LocalDate newCheckOut, double newTotal) {
@@ -670,6 +695,8 @@ public class BookingDetailsDialog extends Dialog<Void> {
             
             int rows = stmt.executeUpdate();
             if (rows > 0) {
+                RoomInventoryService.reservationChanged(bookingId);
+                RoomAssignmentService.reservationChanged(bookingId);
                 showInfo("Success", "Booking dates updated successfully.");
                 updateStackButtons();
                 if (onStatusChanged != null) {
@@ -768,6 +795,8 @@ public class BookingDetailsDialog extends Dialog<Void> {
             
             int rows = stmt.executeUpdate();
             if (rows > 0) {
+                RoomInventoryService.reservationChanged(bookingId);
+                RoomAssignmentService.reservationChanged(bookingId);
                 currentStatus = state.getStatus();
                 showInfo("Success", "Booking restored to previous state.");
                 if (onStatusChanged != null) {
@@ -798,7 +827,7 @@ public class BookingDetailsDialog extends Dialog<Void> {
      * Update booking status in the database.
      */
     private void updateStatus(String newStatus, String additionalUpdates) {
-        StringBuilder query = new StringBuilder("UPDATE reservations SET status = ?");
+        StringBuilder query = new StringBuilder("UPDATE reservations SET status = ?, updated_at = NOW()");
         if (additionalUpdates != null) {
             query.append(", ").append(additionalUpdates);
         }
@@ -812,6 +841,8 @@ public class BookingDetailsDialog extends Dialog<Void> {
             int rows = stmt.executeUpdate();
             
             if (rows > 0) {
+                RoomInventoryService.reservationChanged(bookingId);
+                RoomAssignmentService.reservationChanged(bookingId);
                 currentStatus = newStatus;
                 showInfo("Success", "Booking status updated to " + newStatus + ".");
                 updateStackButtons();
@@ -916,6 +947,7 @@ public class BookingDetailsDialog extends Dialog<Void> {
                  "WHERE id = (SELECT room_id FROM reservations WHERE id = ?)")) {
             stmt.setInt(1, bookingId);
             stmt.executeUpdate();
+            RoomGraphService.reservationChanged(bookingId);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -5,166 +5,240 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.StringProperty;
 
+import java.time.LocalDate;
+
 /**
  * Model class for Booking/Reservation data.
+ * Values are kept as plain typed fields (dates as epoch days, the amount in centavos);
+ * the JavaFX properties are only created when a table cell asks for them.
  */
 public class Booking {
-    private final IntegerProperty id = new SimpleIntegerProperty();
-    private final StringProperty reservationNumber = new SimpleStringProperty();
-    private final StringProperty guestName = new SimpleStringProperty();
-    private final StringProperty guestEmail = new SimpleStringProperty();
-    private final StringProperty hotelName = new SimpleStringProperty();
-    private final StringProperty roomType = new SimpleStringProperty();
-    private final StringProperty checkInDate = new SimpleStringProperty();
-    private final StringProperty checkOutDate = new SimpleStringProperty();
-    private final StringProperty status = new SimpleStringProperty();
-    private final StringProperty totalAmount = new SimpleStringProperty();
-    private final IntegerProperty adults = new SimpleIntegerProperty();
-    private final IntegerProperty children = new SimpleIntegerProperty();
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private int id;
+    private String reservationNumber;
+    private String guestName;
+    private String guestEmail;
+    private String hotelName;
+    private String roomType;
+    private int checkInDay = NO_DATE;
+    private int checkOutDay = NO_DATE;
+    private String status;
+    private long amountCents;
+    private int adults;
+    private int children;
+
+    // Created on first use
+    private IntegerProperty idProperty;
+    private StringProperty reservationNumberProperty;
+    private StringProperty guestNameProperty;
+    private StringProperty guestEmailProperty;
+    private StringProperty hotelNameProperty;
+    private StringProperty roomTypeProperty;
+    private StringProperty checkInDateProperty;
+    private StringProperty checkOutDateProperty;
+    private StringProperty statusProperty;
+    private StringProperty totalAmountProperty;
+    private IntegerProperty adultsProperty;
+    private IntegerProperty childrenProperty;
 
     // Getters and Setters
     public int getId() {
-        return id.get();
+        return id;
     }
 
     public void setId(int id) {
-        this.id.set(id);
+        this.id = id;
+        if (idProperty != null) idProperty.set(id);
     }
 
     public IntegerProperty idProperty() {
-        return id;
+        if (idProperty == null) idProperty = new SimpleIntegerProperty(this, "id", id);
+        return idProperty;
     }
 
     public String getReservationNumber() {
-        return reservationNumber.get();
+        return reservationNumber;
     }
 
     public void setReservationNumber(String reservationNumber) {
-        this.reservationNumber.set(reservationNumber);
+        this.reservationNumber = reservationNumber;
+        if (reservationNumberProperty != null) reservationNumberProperty.set(reservationNumber);
     }
 
     public StringProperty reservationNumberProperty() {
-        return reservationNumber;
+        if (reservationNumberProperty == null) {
+            reservationNumberProperty = new SimpleStringProperty(this, "reservationNumber", reservationNumber);
+        }
+        return reservationNumberProperty;
     }
 
     public String getGuestName() {
-        return guestName.get();
+        return guestName;
     }
 
     public void setGuestName(String guestName) {
-        this.guestName.set(guestName);
+        this.guestName = guestName;
+        if (guestNameProperty != null) guestNameProperty.set(guestName);
     }
 
     public StringProperty guestNameProperty() {
-        return guestName;
+        if (guestNameProperty == null) guestNameProperty = new SimpleStringProperty(this, "guestName", guestName);
+        return guestNameProperty;
     }
 
     public String getGuestEmail() {
-        return guestEmail.get();
+        return guestEmail;
     }
 
     public void setGuestEmail(String guestEmail) {
-        this.guestEmail.set(guestEmail);
+        this.guestEmail = guestEmail;
+        if (guestEmailProperty != null) guestEmailProperty.set(guestEmail);
     }
 
     public StringProperty guestEmailProperty() {
-        return guestEmail;
+        if (guestEmailProperty == null) guestEmailProperty = new SimpleStringProperty(this, "guestEmail", guestEmail);
+        return guestEmailProperty;
     }
 
     public String getHotelName() {
-        return hotelName.get();
+        return hotelName;
     }
 
     public void setHotelName(String hotelName) {
-        this.hotelName.set(hotelName);
+        this.hotelName = hotelName;
+        if (hotelNameProperty != null) hotelNameProperty.set(hotelName);
     }
 
     public StringProperty hotelNameProperty() {
-        return hotelName;
+        if (hotelNameProperty == null) hotelNameProperty = new SimpleStringProperty(this, "hotelName", hotelName);
+        return hotelNameProperty;
     }
 
     public String getRoomType() {
-        return roomType.get();
+        return roomType;
     }
 
     public void setRoomType(String roomType) {
-        this.roomType.set(roomType);
+        this.roomType = roomType;
+        if (roomTypeProperty != null) roomTypeProperty.set(roomType);
     }
 
     public StringProperty roomTypeProperty() {
-        return roomType;
+        if (roomTypeProperty == null) roomTypeProperty = new SimpleStringProperty(this, "roomType", roomType);
+        return roomTypeProperty;
     }
 
+    /**
+     * Check-in date formatted as yyyy-MM-dd (null when not set).
+     */
     public String getCheckInDate() {
-        return checkInDate.get();
+        return formatDay(checkInDay);
+    }
+
+    public void setCheckInDate(LocalDate checkInDate) {
+        this.checkInDay = toDay(checkInDate);
+        if (checkInDateProperty != null) checkInDateProperty.set(getCheckInDate());
     }
 
-    public void setCheckInDate(String checkInDate) {
-        this.checkInDate.set(checkInDate);
+    public int getCheckInEpochDay() {
+        return checkInDay;
     }
 
     public StringProperty checkInDateProperty() {
-        return checkInDate;
+        if (checkInDateProperty == null) checkInDateProperty = new SimpleStringProperty(this, "checkInDate", getCheckInDate());
+        return checkInDateProperty;
     }
 
+    /**
+     * Check-out date formatted as yyyy-MM-dd (null when not set).
+     */
     public String getCheckOutDate() {
-        return checkOutDate.get();
+        return formatDay(checkOutDay);
     }
 
-    public void setCheckOutDate(String checkOutDate) {
-        this.checkOutDate.set(checkOutDate);
+    public void setCheckOutDate(LocalDate checkOutDate) {
+        this.checkOutDay = toDay(checkOutDate);
+        if (checkOutDateProperty != null) checkOutDateProperty.set(getCheckOutDate());
+    }
+
+    public int getCheckOutEpochDay() {
+        return checkOutDay;
     }
 
     public StringProperty checkOutDateProperty() {
-        return checkOutDate;
+        if (checkOutDateProperty == null) checkOutDateProperty = new SimpleStringProperty(this, "checkOutDate", getCheckOutDate());
+        return checkOutDateProperty;
     }
 
     public String getStatus() {
-        return status.get();
+        return status;
     }
 
     public void setStatus(String status) {
-        this.status.set(status);
+        this.status = status;
+        if (statusProperty != null) statusProperty.set(status);
     }
 
     public StringProperty statusProperty() {
-        return status;
+        if (statusProperty == null) statusProperty = new SimpleStringProperty(this, "status", status);
+        return statusProperty;
     }
 
+    /**
+     * Total amount formatted for display, e.g. ₱1500.00.
+     */
     public String getTotalAmount() {
-        return totalAmount.get();
+        return String.format("₱%.2f", amountCents / 100.0);
     }
 
-    public void setTotalAmount(String totalAmount) {
-        this.totalAmount.set(totalAmount);
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+        if (totalAmountProperty != null) totalAmountProperty.set(getTotalAmount());
     }
 
     public StringProperty totalAmountProperty() {
-        return totalAmount;
+        if (totalAmountProperty == null) totalAmountProperty = new SimpleStringProperty(this, "totalAmount", getTotalAmount());
+        return totalAmountProperty;
     }
 
     public int getAdults() {
-        return adults.get();
+        return adults;
     }
 
     public void setAdults(int adults) {
-        this.adults.set(adults);
+        this.adults = adults;
+        if (adultsProperty != null) adultsProperty.set(adults);
     }
 
     public IntegerProperty adultsProperty() {
-        return adults;
+        if (adultsProperty == null) adultsProperty = new SimpleIntegerProperty(this, "adults", adults);
+        return adultsProperty;
     }
 
     public int getChildren() {
-        return children.get();
+        return children;
     }
 
     public void setChildren(int children) {
-        this.children.set(children);
+        this.children = children;
+        if (childrenProperty != null) childrenProperty.set(children);
     }
 
     public IntegerProperty childrenProperty() {
-        return children;
+        if (childrenProperty == null) childrenProperty = new SimpleIntegerProperty(this, "children", children);
+        return childrenProperty;
     }
-}
 
+    private static int toDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static String formatDay(int day) {
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day).toString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.belmonthotel.admin.models;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of one dashboard load: KPIs, chart data, recent activity
+ * and how long each fetch stage took.
+ */
+public final class DashboardSnapshot {
+    private final DashboardStats stats;
+    private final List<Map<String, Object>> revenueChartData;
+    private final Map<String, Integer> statusDistribution;
+    private final List<Map<String, Object>> recentBookings;
+    private final List<Map<String, Object>> recentPayments;
+    private final Map<String, Long> stageTimings;
+    private final LocalDateTime loadedAt;
+
+    public DashboardSnapshot(DashboardStats stats, List<Map<String, Object>> revenueChartData,
+                             Map<String, Integer> statusDistribution, List<Map<String, Object>> recentBookings,
+                             List<Map<String, Object>> recentPayments, Map<String, Long> stageTimings) {
+        this.stats = stats;
+        this.revenueChartData = Collections.unmodifiableList(revenueChartData);
+        this.statusDistribution = Collections.unmodifiableMap(statusDistribution);
+        this.recentBookings = Collections.unmodifiableList(recentBookings);
+        this.recentPayments = Collections.unmodifiableList(recentPayments);
+        this.stageTimings = Collections.unmodifiableMap(new LinkedHashMap<>(stageTimings));
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public DashboardStats getStats() { return stats; }
+    public List<Map<String, Object>> getRevenueChartData() { return revenueChartData; }
+    public Map<String, Integer> getStatusDistribution() { return statusDistribution; }
+    public List<Map<String, Object>> getRecentBookings() { return recentBookings; }
+    public List<Map<String, Object>> getRecentPayments() { return recentPayments; }
+    public LocalDateTime getLoadedAt() { return loadedAt; }
+
+    /**
+     * Fetch time per stage in milliseconds, in stage order.
+     */
+    public Map<String, Long> getStageTimings() { return stageTimings; }
+}
@@ -0,0 +1,65 @@
+package com.belmonthotel.admin.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of dashboard KPI values.
+ */
+public final class DashboardStats {
+    public static final DashboardStats EMPTY = new DashboardStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+        Collections.emptyMap());
+
+    private final int totalBookings;
+    private final int pendingBookings;
+    private final int confirmedBookings;
+    private final double totalRevenue;
+    private final int activeRooms;
+    private final int totalUsers;
+    private final int todaysBookings;
+    private final double todaysRevenue;
+    private final int upcomingCheckIns;
+    private final int upcomingCheckOuts;
+    private final double occupancyPercentage;
+    private final double averageBookingValue;
+    private final Map<String, Integer> statusCounts;
+
+    public DashboardStats(int totalBookings, int pendingBookings, int confirmedBookings, double totalRevenue,
+                          int activeRooms, int totalUsers, int todaysBookings, double todaysRevenue,
+                          int upcomingCheckIns, int upcomingCheckOuts, double occupancyPercentage,
+                          double averageBookingValue, Map<String, Integer> statusCounts) {
+        this.totalBookings = totalBookings;
+        this.pendingBookings = pendingBookings;
+        this.confirmedBookings = confirmedBookings;
+        this.totalRevenue = totalRevenue;
+        this.activeRooms = activeRooms;
+        this.totalUsers = totalUsers;
+        this.todaysBookings = todaysBookings;
+        this.todaysRevenue = todaysRevenue;
+        this.upcomingCheckIns = upcomingCheckIns;
+        this.upcomingCheckOuts = upcomingCheckOuts;
+        this.occupancyPercentage = occupancyPercentage;
+        this.averageBookingValue = averageBookingValue;
+        this.statusCounts = Collections.unmodifiableMap(new LinkedHashMap<>(statusCounts));
+    }
+
+    // Getters
+    public int getTotalBookings() { return totalBookings; }
+    public int getPendingBookings() { return pendingBookings; }
+    public int getConfirmedBookings() { return confirmedBookings; }
+    public double getTotalRevenue() { return totalRevenue; }
+    public int getActiveRooms() { return activeRooms; }
+    public int getTotalUsers() { return totalUsers; }
+    public int getTodaysBookings() { return todaysBookings; }
+    public double getTodaysRevenue() { return todaysRevenue; }
+    public int getUpcomingCheckIns() { return upcomingCheckIns; }
+    public int getUpcomingCheckOuts() { return upcomingCheckOuts; }
+    public double getOccupancyPercentage() { return occupancyPercentage; }
+    public double getAverageBookingValue() { return averageBookingValue; }
+
+    /**
+     * Reservation count per status (statuses with no reservations are omitted).
+     */
+    public Map<String, Integer> getStatusCounts() { return statusCounts; }
+}
@@ -1,41 +1,57 @@
 package com.belmonthotel.admin.models;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Node in the room dependency graph.
- * Represents a room with its dependencies.
+ * Represents a room; its dependencies are stored by the graph.
+ * Rooms with a floor-plan position can be searched by distance.
  */
 public class GraphNode {
     private final int roomId;
     private final String roomType;
-    private final boolean isAvailable;
-    private final List<GraphEdge> edges;
+    private final int availableUnits;
+    private final boolean hasLocation;
+    private final int floor;
+    private final double x;
+    private final double y;
     
     public GraphNode(int roomId, String roomType, boolean isAvailable) {
+        this(roomId, roomType, isAvailable ? 1 : 0);
+    }
+
+    public GraphNode(int roomId, String roomType, int availableUnits) {
+        this(roomId, roomType, availableUnits, false, 0, 0, 0);
+    }
+
+    /**
+     * A room at position (x, y), in metres, on the given floor.
+     */
+    public GraphNode(int roomId, String roomType, int availableUnits, int floor, double x, double y) {
+        this(roomId, roomType, availableUnits, true, floor, x, y);
+    }
+
+    private GraphNode(int roomId, String roomType, int availableUnits, boolean hasLocation,
+                      int floor, double x, double y) {
         this.roomId = roomId;
         this.roomType = roomType;
-        this.isAvailable = isAvailable;
-        this.edges = new ArrayList<>();
+        this.availableUnits = Math.max(0, availableUnits);
+        this.hasLocation = hasLocation;
+        this.floor = floor;
+        this.x = x;
+        this.y = y;
     }
     
     // Getters
     public int getRoomId() { return roomId; }
     public String getRoomType() { return roomType; }
-    public boolean isAvailable() { return isAvailable; }
-    public List<GraphEdge> getEdges() { return edges; }
-    
-    /**
-     * Add an edge to this node.
-     */
-    public void addEdge(GraphEdge edge) {
-        edges.add(edge);
-    }
+    public boolean isAvailable() { return availableUnits > 0; }
+    public int getAvailableUnits() { return availableUnits; }
+    public boolean hasLocation() { return hasLocation; }
+    public int getFloor() { return floor; }
+    public double getX() { return x; }
+    public double getY() { return y; }
     
     @Override
     public String toString() {
-        return String.format("Room %d (%s) - %s", roomId, roomType, isAvailable ? "Available" : "Booked");
+        return String.format("Room %d (%s) - %s", roomId, roomType, isAvailable() ? "Available" : "Booked");
     }
 }
-
@@ -49,11 +49,12 @@ public class TaskItem implements Comparable<TaskItem> {
     private final String id;
     private final TaskType type;
     private final TaskPriority priority;
-    private TaskStatus status;
+    // Written by queue workers, read by the UI
+    private volatile TaskStatus status;
     private final LocalDateTime createdAt;
-    private LocalDateTime processedAt;
+    private volatile LocalDateTime processedAt;
     private String description;
-    private String result;
+    private volatile String result;
     
     public TaskItem(TaskType type, TaskPriority priority, String description) {
         this.id = "TASK-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
@@ -0,0 +1,57 @@
+package com.belmonthotel.admin.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Read-only access to config.properties, loaded once on first use.
+ */
+public class AppConfig {
+    private static Properties properties;
+
+    private AppConfig() {
+    }
+
+    /**
+     * Get all configuration properties.
+     */
+    public static synchronized Properties getProperties() {
+        if (properties == null) {
+            Properties props = new Properties();
+            try (InputStream inputStream = AppConfig.class.getClassLoader().getResourceAsStream("config.properties")) {
+                if (inputStream == null) {
+                    throw new RuntimeException("config.properties file not found in resources");
+                }
+                props.load(inputStream);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load config.properties", e);
+            }
+            properties = props;
+        }
+        return properties;
+    }
+
+    /**
+     * Get a string property, or the default when it is not set.
+     */
+    public static String get(String key, String defaultValue) {
+        return getProperties().getProperty(key, defaultValue);
+    }
+
+    /**
+     * Get an integer property, or the default when it is missing or invalid.
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = getProperties().getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.belmonthotel.admin.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Row filter built on bitmap indexes (one bit per row, rows numbered 0..n-1).
+ *
+ * Low-cardinality columns get one bitmap per value. Numeric columns keep the rows sorted by
+ * value, so a range is a contiguous slice of that order. Text columns remember their last
+ * result: typing more characters only re-checks the rows that matched the shorter text.
+ * A query ANDs the bitmaps of the active filters.
+ */
+public class BitmapFilterEngine {
+    private static final int SMALL_RESULT_RATIO = 16;
+
+    private final int rowCount;
+    private final BitSet allRows;
+    private final Map<String, BitSet[]> categories = new HashMap<>();
+    private final Map<String, RangeIndex> ranges = new HashMap<>();
+    private final Map<String, TextIndex> texts = new HashMap<>();
+
+    public BitmapFilterEngine(int rowCount) {
+        this.rowCount = rowCount;
+        this.allRows = new BitSet(rowCount);
+        allRows.set(0, rowCount);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Index a dictionary-encoded column.
+     * @param codes code of each row, in 0..cardinality-1 (negative for no value)
+     */
+    public void addCategory(String column, int[] codes, int cardinality) {
+        BitSet[] bitmaps = new BitSet[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+            bitmaps[i] = new BitSet(rowCount);
+        }
+        for (int row = 0; row < rowCount; row++) {
+            if (codes[row] >= 0) {
+                bitmaps[codes[row]].set(row);
+            }
+        }
+        categories.put(column, bitmaps);
+    }
+
+    /**
+     * Index a numeric column for range queries.
+     */
+    public void addRange(String column, long[] values) {
+        ranges.put(column, new RangeIndex(values, rowCount));
+    }
+
+    /**
+     * Register a text column. For each search text the factory returns a per-row test;
+     * the test must get stricter as the text grows (substring semantics).
+     */
+    public void addText(String column, Function<String, IntPredicate> matcherFactory) {
+        addText(column, matcherFactory, needle -> null);
+    }
+
+    /**
+     * Register a text column backed by an index (e.g. a TrigramIndex). The lookup returns the
+     * exact matching rows, or null when the index cannot answer and the rows must be scanned.
+     */
+    public void addText(String column, Function<String, IntPredicate> matcherFactory,
+                        Function<String, BitSet> lookup) {
+        texts.put(column, new TextIndex(matcherFactory, lookup));
+    }
+
+    /**
+     * Start a query matching every row.
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * Filters to AND together. Columns that are not mentioned are not filtered.
+     */
+    public class Query {
+        private final BitSet result = (BitSet) allRows.clone();
+
+        public Query category(String column, int code) {
+            BitSet[] bitmaps = categories.get(column);
+            if (code < 0 || code >= bitmaps.length) {
+                result.clear();
+            } else {
+                result.and(bitmaps[code]);
+            }
+            return this;
+        }
+
+        /**
+         * Keep rows whose value is within [min, max].
+         */
+        public Query range(String column, long min, long max) {
+            result.and(ranges.get(column).select(min, max));
+            return this;
+        }
+
+        /**
+         * Keep rows matching the search text; null or empty text does not filter.
+         */
+        public Query text(String column, String needle) {
+            if (needle != null && !needle.isEmpty()) {
+                result.and(texts.get(column).select(needle));
+            }
+            return this;
+        }
+
+        public BitSet bits() {
+            return result;
+        }
+
+        /**
+         * Matching rows in ascending row order.
+         */
+        public int[] rows() {
+            return result.stream().toArray();
+        }
+
+        /**
+         * Matching rows in the order given by a permutation of all rows.
+         */
+        public int[] rows(int[] order) {
+            int[] rows = new int[result.cardinality()];
+            int count = 0;
+            for (int i = 0; i < order.length && count < rows.length; i++) {
+                if (result.get(order[i])) {
+                    rows[count++] = order[i];
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * Matching rows in the order given by a permutation of all rows and its inverse
+         * (rank[row] is the row's position in order). Small results are sorted by rank
+         * instead of walking the whole permutation.
+         */
+        public int[] rows(int[] order, int[] rank) {
+            int matched = result.cardinality();
+            if (matched > order.length / SMALL_RESULT_RATIO) {
+                return rows(order);
+            }
+            long[] keyed = new long[matched];
+            int count = 0;
+            for (int row = result.nextSetBit(0); row >= 0; row = result.nextSetBit(row + 1)) {
+                keyed[count++] = ((long) rank[row] << 32) | row;
+            }
+            Arrays.sort(keyed);
+            int[] rows = new int[matched];
+            for (int i = 0; i < matched; i++) {
+                rows[i] = (int) keyed[i];
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Rows sorted by value; a range query is a binary search for the slice bounds.
+     * The last selection is cached since most queries change a different filter.
+     */
+    private static class RangeIndex {
+        private final int rowCount;
+        private final int[] rowsByValue;
+        private final long[] sortedValues;
+        private long lastMin;
+        private long lastMax;
+        private BitSet lastBits;
+
+        RangeIndex(long[] values, int rowCount) {
+            this.rowCount = rowCount;
+            rowsByValue = new int[rowCount];
+            sortedValues = new long[rowCount];
+
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int row = 0; row < rowCount; row++) {
+                min = Math.min(min, values[row]);
+                max = Math.max(max, values[row]);
+            }
+            int rowBits = 32 - Integer.numberOfLeadingZeros(Math.max(rowCount - 1, 1));
+            if (rowCount > 0 && 64 - Long.numberOfLeadingZeros(max - min) + rowBits < 63) {
+                // Pack (value offset, row) into one long so a primitive sort orders rows by value
+                long[] packed = new long[rowCount];
+                for (int row = 0; row < rowCount; row++) {
+                    packed[row] = ((values[row] - min) << rowBits) | row;
+                }
+                Arrays.sort(packed);
+                long rowMask = (1L << rowBits) - 1;
+                for (int i = 0; i < rowCount; i++) {
+                    rowsByValue[i] = (int) (packed[i] & rowMask);
+                }
+            } else {
+                Integer[] boxed = new Integer[rowCount];
+                for (int row = 0; row < rowCount; row++) {
+                    boxed[row] = row;
+                }
+                Arrays.sort(boxed, (a, b) -> Long.compare(values[a], values[b]));
+                for (int i = 0; i < rowCount; i++) {
+                    rowsByValue[i] = boxed[i];
+                }
+            }
+            for (int i = 0; i < rowCount; i++) {
+                sortedValues[i] = values[rowsByValue[i]];
+            }
+        }
+
+        BitSet select(long min, long max) {
+            if (lastBits != null && min == lastMin && max == lastMax) {
+                return lastBits;
+            }
+            int from = lowerBound(min);
+            int to = max == Long.MAX_VALUE ? rowCount : lowerBound(max + 1);
+            BitSet bits = new BitSet(rowCount);
+            if (to - from <= rowCount / 2) {
+                for (int i = from; i < to; i++) {
+                    bits.set(rowsByValue[i]);
+                }
+            } else {
+                // Wide range: cheaper to clear the rows outside it
+                bits.set(0, rowCount);
+                for (int i = 0; i < from; i++) {
+                    bits.clear(rowsByValue[i]);
+                }
+                for (int i = to; i < rowCount; i++) {
+                    bits.clear(rowsByValue[i]);
+                }
+            }
+            lastMin = min;
+            lastMax = max;
+            lastBits = bits;
+            return bits;
+        }
+
+        private int lowerBound(long value) {
+            int lo = 0;
+            int hi = rowCount;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sortedValues[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Text filter with incremental refinement.
+     */
+    private class TextIndex {
+        private final Function<String, IntPredicate> matcherFactory;
+        private final Function<String, BitSet> lookup;
+        private String lastNeedle;
+        private BitSet lastBits;
+
+        TextIndex(Function<String, IntPredicate> matcherFactory, Function<String, BitSet> lookup) {
+            this.matcherFactory = matcherFactory;
+            this.lookup = lookup;
+        }
+
+        BitSet select(String needle) {
+            if (needle.equals(lastNeedle)) {
+                return lastBits;
+            }
+            BitSet indexed = lookup.apply(needle);
+            if (indexed != null) {
+                lastNeedle = needle;
+                lastBits = indexed;
+                return indexed;
+            }
+            // Any row containing the longer text also contains the shorter one
+            BitSet candidates = lastNeedle != null && needle.contains(lastNeedle) ? lastBits : allRows;
+            IntPredicate matcher = matcherFactory.apply(needle);
+            BitSet bits = new BitSet(rowCount);
+            for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                if (matcher.test(row)) {
+                    bits.set(row);
+                }
+            }
+            lastNeedle = needle;
+            lastBits = bits;
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,990 @@
+package com.belmonthotel.admin.utils;
+
+import com.belmonthotel.admin.models.Booking;
+import javafx.application.Platform;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory, column-oriented copy of the reservations table for the bookings view.
+ *
+ * Each column is a primitive array indexed by row: dates are epoch days, amounts are centavos,
+ * status and room type are dictionary codes, guests are indexes into a per-user name/email
+ * dictionary and reservation numbers are packed into one byte array. {@link Booking} objects are
+ * only created for the rows the table actually displays (see {@link #view(int)}).
+ *
+ * The store is loaded once in the background and kept current with {@link #refresh()}. Once
+ * published its rows are only modified on the JavaFX application thread: a refresh reads the
+ * changed and deleted reservations on the loader thread, applies them on the JavaFX thread, then
+ * rebuilds the sort orders and filter indexes on the loader thread and swaps them in.
+ */
+public class BookingColumnStore {
+    private static final int FETCH_SIZE = 5000;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_ROWS = AppConfig.getInt("bookings.store.max.rows", 2000000);
+    private static final Timestamp EPOCH = new Timestamp(0);
+
+    // TO_DAYS('1970-01-01'), so dates come back as epoch days without allocating Date objects
+    private static final String ROW_COLUMNS =
+        "SELECT r.id, r.reservation_number, r.user_id, rm.room_type, " +
+        "TO_DAYS(r.check_in_date) - 719528, TO_DAYS(r.check_out_date) - 719528, " +
+        "r.status, ROUND(r.total_amount * 100), r.adults, r.children, " +
+        "UNIX_TIMESTAMP(COALESCE(r.created_at, r.check_in_date))";
+    private static final String ROW_TABLES =
+        " FROM reservations r LEFT JOIN rooms rm ON rm.id = r.room_id ";
+    // Changed rows also carry their guest, who may be new since the load
+    private static final String CHANGED_ROWS =
+        ROW_COLUMNS + ", u.name, u.email" + ROW_TABLES +
+        "LEFT JOIN users u ON u.id = r.user_id WHERE r.updated_at >= ? ORDER BY r.id";
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-store-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static CompletableFuture<BookingColumnStore> shared;
+
+    /**
+     * Row comparator over row indexes, so orderings can be built without boxing.
+     */
+    @FunctionalInterface
+    interface RowComparator {
+        int compare(int rowA, int rowB);
+    }
+
+    /**
+     * One reservation as selected by ROW_COLUMNS.
+     */
+    private static final class RowData {
+        int id;
+        byte[] number;
+        int userId;
+        String roomType;
+        int checkInDay;
+        int checkOutDay;
+        String status;
+        long amountCents;
+        int adults;
+        int children;
+        long createdAt;
+        boolean hasGuest;
+        String guestName;
+        String guestEmail;
+
+        RowData read(ResultSet rs, boolean withGuest) throws SQLException {
+            id = rs.getInt(1);
+            number = rs.getBytes(2);
+            userId = rs.getInt(3);
+            roomType = rs.getString(4);
+            checkInDay = rs.getInt(5);
+            checkOutDay = rs.getInt(6);
+            status = rs.getString(7);
+            amountCents = rs.getLong(8);
+            adults = rs.getInt(9);
+            children = rs.getInt(10);
+            createdAt = rs.getLong(11);
+            hasGuest = withGuest;
+            guestName = withGuest ? rs.getString(12) : null;
+            guestEmail = withGuest ? rs.getString(13) : null;
+            return this;
+        }
+    }
+
+    /**
+     * A user's name and email as read by a refresh.
+     */
+    private static final class GuestData {
+        final int userId;
+        final String name;
+        final String email;
+
+        GuestData(int userId, String name, String email) {
+            this.userId = userId;
+            this.name = name;
+            this.email = email;
+        }
+    }
+
+    /**
+     * What a refresh read on the loader thread, to be applied on the JavaFX thread.
+     */
+    private static final class Changes {
+        final List<RowData> rows = new ArrayList<>();
+        final List<GuestData> users = new ArrayList<>();
+        int[] deletedIds = new int[0];
+    }
+
+    /**
+     * Sort orders and filter indexes built on the loader thread for one generation of rows.
+     */
+    private static final class Derived {
+        final int generation;
+        final Map<BookingQuery.SortField, int[]> orders = new EnumMap<>(BookingQuery.SortField.class);
+        final Map<BookingQuery.SortField, int[]> ranks = new EnumMap<>(BookingQuery.SortField.class);
+        BitmapFilterEngine filterEngine;
+        int[][] guestRows;
+
+        Derived(int generation) {
+            this.generation = generation;
+        }
+    }
+
+    // Columns
+    private int size;
+    private int[] ids;
+    private int[] guests;
+    private short[] roomTypes;
+    private byte[] statuses;
+    private int[] checkInDays;
+    private int[] checkOutDays;
+    private long[] amountCents;
+    private long[] createdAt;
+    private short[] adults;
+    private short[] children;
+    private int[] numberStart;
+    private int[] numberEnd;
+    private byte[] numberBytes;
+    private int numberBytesUsed;
+    // Rows of reservations deleted from the database; never shown again
+    private final BitSet deleted = new BitSet();
+
+    // Dictionaries
+    private final List<String> statusNames = new ArrayList<>();
+    private final Map<String, Integer> statusCodes = new HashMap<>();
+    private final List<String> roomTypeNames = new ArrayList<>();
+    private final Map<String, Integer> roomTypeCodes = new HashMap<>();
+    private final IntIntMap guestByUserId = new IntIntMap(MIN_CAPACITY);
+    private int guestCount;
+    private String[] guestNames = new String[MIN_CAPACITY];
+    private String[] guestEmails = new String[MIN_CAPACITY];
+    private String[] guestNamesLower = new String[MIN_CAPACITY];
+    private String[] guestEmailsLower = new String[MIN_CAPACITY];
+
+    private final IntIntMap rowById;
+    // Lower-cased search text by trigram: names and emails per guest, reservation numbers per row
+    private final TrigramIndex guestNameIndex = new TrigramIndex();
+    private final TrigramIndex guestEmailIndex = new TrigramIndex();
+    private final TrigramIndex numberIndex = new TrigramIndex();
+
+    // Derived from the rows; after a refresh they are rebuilt in the background and replaced
+    private final Map<BookingQuery.SortField, int[]> orders = new EnumMap<>(BookingQuery.SortField.class);
+    private final Map<BookingQuery.SortField, int[]> ranks = new EnumMap<>(BookingQuery.SortField.class);
+    private BitmapFilterEngine filterEngine;
+    private int[] guestRowStart;
+    private int[] guestRowList;
+    // Bumped each time a refresh changes the rows
+    private int generation;
+    private CompletableFuture<Boolean> refreshing;
+
+    // Only used on the loader thread
+    private Timestamp reservationsWatermark = EPOCH;
+    private Timestamp usersWatermark = EPOCH;
+    private BitSet knownIds = new BitSet();
+
+    private BookingColumnStore(int capacity) {
+        capacity = Math.max(capacity, MIN_CAPACITY);
+        ids = new int[capacity];
+        guests = new int[capacity];
+        roomTypes = new short[capacity];
+        statuses = new byte[capacity];
+        checkInDays = new int[capacity];
+        checkOutDays = new int[capacity];
+        amountCents = new long[capacity];
+        createdAt = new long[capacity];
+        adults = new short[capacity];
+        children = new short[capacity];
+        numberStart = new int[capacity];
+        numberEnd = new int[capacity];
+        numberBytes = new byte[capacity * 16];
+        rowById = new IntIntMap(capacity);
+    }
+
+    /**
+     * Get the shared store, loading it in the background on first use.
+     * Completes with null when the table is larger than bookings.store.max.rows,
+     * in which case callers keep using paged SQL queries.
+     */
+    public static synchronized CompletableFuture<BookingColumnStore> getShared() {
+        if (shared == null || shared.isCompletedExceptionally()) {
+            shared = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return load();
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to load booking store", e);
+                }
+            }, loader);
+        }
+        return shared;
+    }
+
+    private static BookingColumnStore load() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS)) {
+            int count;
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM reservations");
+                 ResultSet rs = stmt.executeQuery()) {
+                count = rs.next() ? rs.getInt(1) : 0;
+            }
+            if (count > MAX_ROWS) {
+                return null;
+            }
+
+            BookingColumnStore store = new BookingColumnStore(count + count / 8);
+            // Watermarks first: anything changed while loading is picked up by the next refresh
+            store.reservationsWatermark = maxUpdatedAt(conn, "reservations");
+            store.usersWatermark = maxUpdatedAt(conn, "users");
+            store.loadGuests(conn);
+
+            try (PreparedStatement stmt = conn.prepareStatement(ROW_COLUMNS + ROW_TABLES + "ORDER BY r.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    RowData row = new RowData();
+                    while (rs.next()) {
+                        store.upsert(row.read(rs, false));
+                        store.knownIds.set(row.id);
+                    }
+                }
+            }
+            store.guestNameIndex.trimToSize();
+            store.guestEmailIndex.trimToSize();
+            store.numberIndex.trimToSize();
+            // Indexes for the default order, so the first filter does not build them on the FX thread
+            store.install(store.buildDerived(store.generation, EnumSet.of(BookingQuery.SortField.CREATED_AT)));
+            return store;
+        }
+    }
+
+    /**
+     * Catch up with reservations and guests changed or deleted since the load or the last
+     * refresh. The database is read and the sort orders and filter indexes are rebuilt on the
+     * loader thread; only applying the changed rows runs on the JavaFX thread, where the returned
+     * future also completes, with true if any row changed. A call made while a refresh is running
+     * shares it. Call on the JavaFX application thread.
+     */
+    public CompletableFuture<Boolean> refresh() {
+        if (refreshing == null) {
+            refreshing = CompletableFuture.supplyAsync(this::fetchChanges, loader)
+                .thenComposeAsync(this::applyAndRebuild, Platform::runLater)
+                .whenCompleteAsync((changed, error) -> refreshing = null, Platform::runLater);
+        }
+        return refreshing;
+    }
+
+    /**
+     * Read what changed since the watermarks (loader thread).
+     *
+     * Rows are read from their table's last updated_at on, so rows written later in that same
+     * second are not missed; the few read again are ignored by apply, since only values that
+     * differ from the store count as a change.
+     */
+    private Changes fetchChanges() {
+        Changes changes = new Changes();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ)) {
+            Timestamp newReservationsWatermark = maxUpdatedAt(conn, "reservations");
+            Timestamp newUsersWatermark = maxUpdatedAt(conn, "users");
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT id, name, email FROM users WHERE updated_at >= ?")) {
+                stmt.setTimestamp(1, usersWatermark);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        changes.users.add(new GuestData(rs.getInt(1), rs.getString(2), rs.getString(3)));
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(CHANGED_ROWS)) {
+                stmt.setTimestamp(1, reservationsWatermark);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        RowData row = new RowData().read(rs, true);
+                        changes.rows.add(row);
+                        knownIds.set(row.id);
+                    }
+                }
+            }
+            changes.deletedIds = deletedIds(conn);
+
+            reservationsWatermark = newReservationsWatermark;
+            usersWatermark = newUsersWatermark;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to refresh booking store: " + e.getMessage(), e);
+        }
+        return changes;
+    }
+
+    /**
+     * Ids of reservations deleted from the database (directly or by a cascade from their user or
+     * room) since the last check. Deletes leave no updated_at behind, so when the table holds
+     * fewer rows than the store knows of, its ids are read and compared (loader thread).
+     */
+    private int[] deletedIds(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM reservations");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && rs.getInt(1) >= knownIds.cardinality()) {
+                return new int[0];
+            }
+        }
+        BitSet present = new BitSet(knownIds.length());
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM reservations",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    present.set(rs.getInt(1));
+                }
+            }
+        }
+        BitSet removed = (BitSet) knownIds.clone();
+        removed.andNot(present);
+        knownIds = present;
+        return removed.stream().toArray();
+    }
+
+    /**
+     * Apply a refresh's changes, then rebuild the orders that were in use in the background.
+     */
+    private CompletableFuture<Boolean> applyAndRebuild(Changes changes) {
+        Set<BookingQuery.SortField> fields = EnumSet.noneOf(BookingQuery.SortField.class);
+        fields.addAll(orders.keySet());
+        if (!apply(changes)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        int built = generation;
+        return CompletableFuture.supplyAsync(() -> buildDerived(built, fields), loader)
+            .thenApplyAsync(derived -> {
+                install(derived);
+                return true;
+            }, Platform::runLater);
+    }
+
+    /**
+     * Apply changed guests, changed rows and deletions (JavaFX thread).
+     * @return true if any value in the store changed
+     */
+    private boolean apply(Changes changes) {
+        boolean changed = false;
+        for (GuestData user : changes.users) {
+            int guest = guestByUserId.get(user.userId, -1);
+            if (guest >= 0) {
+                changed |= updateGuest(guest, user.name, user.email);
+            }
+        }
+        for (RowData row : changes.rows) {
+            changed |= upsert(row);
+        }
+        for (int id : changes.deletedIds) {
+            int row = rowById.get(id, -1);
+            if (row >= 0 && !deleted.get(row)) {
+                deleted.set(row);
+                changed = true;
+            }
+        }
+        if (changed) {
+            // Filters keep using the previous indexes until install() swaps in the rebuilt ones
+            generation++;
+        }
+        return changed;
+    }
+
+    private Derived buildDerived(int generation, Set<BookingQuery.SortField> fields) {
+        Derived derived = new Derived(generation);
+        for (BookingQuery.SortField field : fields) {
+            int[] order = buildOrder(field);
+            derived.orders.put(field, order);
+            derived.ranks.put(field, buildRank(order));
+        }
+        derived.filterEngine = buildFilterEngine();
+        derived.guestRows = buildGuestRows();
+        return derived;
+    }
+
+    /**
+     * Swap in indexes built in the background, unless the rows changed again meanwhile.
+     */
+    private void install(Derived derived) {
+        if (derived.generation != generation) {
+            return;
+        }
+        orders.putAll(derived.orders);
+        ranks.putAll(derived.ranks);
+        filterEngine = derived.filterEngine;
+        guestRowStart = derived.guestRows[0];
+        guestRowList = derived.guestRows[1];
+    }
+
+    private static Timestamp maxUpdatedAt(Connection conn, String table) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MAX(updated_at) FROM " + table);
+             ResultSet rs = stmt.executeQuery()) {
+            Timestamp max = rs.next() ? rs.getTimestamp(1) : null;
+            return max != null ? max : EPOCH;
+        }
+    }
+
+    private void loadGuests(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, name, email FROM users",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    addGuest(rs.getInt(1), rs.getString(2), rs.getString(3));
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert or overwrite the row for a reservation.
+     * @return true if the row is new or any of its values changed
+     */
+    private boolean upsert(RowData data) {
+        int row = rowById.get(data.id, -1);
+        boolean added = row < 0;
+        if (added) {
+            row = size;
+            ensureCapacity(size + 1);
+            size++;
+            ids[row] = data.id;
+            rowById.put(data.id, row);
+            numberEnd[row] = numberStart[row] = numberBytesUsed;
+        }
+        boolean changed = added || deleted.get(row);
+        int guest = guestByUserId.get(data.userId, -1);
+        if (guest < 0) {
+            // A user created after the store was loaded
+            guest = addGuest(data.userId, data.guestName, data.guestEmail);
+        } else if (data.hasGuest) {
+            changed |= updateGuest(guest, data.guestName, data.guestEmail);
+        }
+        int roomType = dictionaryCode(roomTypeNames, roomTypeCodes, data.roomType);
+        int status = dictionaryCode(statusNames, statusCodes, data.status);
+        if (!changed && guests[row] == guest && roomTypes[row] == roomType && statuses[row] == status
+                && checkInDays[row] == data.checkInDay && checkOutDays[row] == data.checkOutDay
+                && amountCents[row] == data.amountCents && adults[row] == data.adults
+                && children[row] == data.children && createdAt[row] == data.createdAt
+                && numberEquals(row, data.number)) {
+            return false;
+        }
+        deleted.clear(row);
+        if (!numberEquals(row, data.number)) {
+            setReservationNumber(row, data.number);
+        }
+        guests[row] = guest;
+        roomTypes[row] = (short) roomType;
+        checkInDays[row] = data.checkInDay;
+        checkOutDays[row] = data.checkOutDay;
+        statuses[row] = (byte) status;
+        amountCents[row] = data.amountCents;
+        adults[row] = (short) data.adults;
+        children[row] = (short) data.children;
+        createdAt[row] = data.createdAt;
+        return true;
+    }
+
+    private boolean numberEquals(int row, byte[] value) {
+        int length = value != null ? value.length : 0;
+        return numberEnd[row] - numberStart[row] == length
+            && Arrays.equals(numberBytes, numberStart[row], numberEnd[row], value != null ? value : new byte[0], 0, length);
+    }
+
+    private void setReservationNumber(int row, byte[] value) {
+        int length = value != null ? value.length : 0;
+        numberIndex.update(row, getReservationNumber(row).toLowerCase(),
+            value != null ? new String(value, StandardCharsets.UTF_8).toLowerCase() : "");
+        // Overwrite in place when it fits, otherwise append (the old bytes become slack)
+        if (length > numberEnd[row] - numberStart[row]) {
+            if (numberBytesUsed + length > numberBytes.length) {
+                numberBytes = Arrays.copyOf(numberBytes, Math.max(numberBytes.length * 2, numberBytesUsed + length));
+            }
+            numberStart[row] = numberBytesUsed;
+            numberBytesUsed += length;
+        }
+        if (length > 0) {
+            System.arraycopy(value, 0, numberBytes, numberStart[row], length);
+        }
+        numberEnd[row] = numberStart[row] + length;
+    }
+
+    private int addGuest(int userId, String name, String email) {
+        if (guestCount == guestNames.length) {
+            int capacity = guestCount * 2;
+            guestNames = Arrays.copyOf(guestNames, capacity);
+            guestEmails = Arrays.copyOf(guestEmails, capacity);
+            guestNamesLower = Arrays.copyOf(guestNamesLower, capacity);
+            guestEmailsLower = Arrays.copyOf(guestEmailsLower, capacity);
+        }
+        int guest = guestCount++;
+        guestByUserId.put(userId, guest);
+        setGuest(guest, name, email);
+        return guest;
+    }
+
+    /**
+     * Set a guest's name and email if they differ.
+     * @return true if they did
+     */
+    private boolean updateGuest(int guest, String name, String email) {
+        if (Objects.equals(guestNames[guest], name) && Objects.equals(guestEmails[guest], email)) {
+            return false;
+        }
+        setGuest(guest, name, email);
+        return true;
+    }
+
+    private void setGuest(int guest, String name, String email) {
+        String nameLower = name != null ? name.toLowerCase() : "";
+        String emailLower = email != null ? email.toLowerCase() : "";
+        guestNameIndex.update(guest, guestNamesLower[guest], nameLower);
+        guestEmailIndex.update(guest, guestEmailsLower[guest], emailLower);
+        guestNames[guest] = name;
+        guestEmails[guest] = email;
+        guestNamesLower[guest] = nameLower;
+        guestEmailsLower[guest] = emailLower;
+    }
+
+    private static int dictionaryCode(List<String> names, Map<String, Integer> codes, String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = names.size();
+            names.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        guests = Arrays.copyOf(guests, capacity);
+        roomTypes = Arrays.copyOf(roomTypes, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        checkInDays = Arrays.copyOf(checkInDays, capacity);
+        checkOutDays = Arrays.copyOf(checkOutDays, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        adults = Arrays.copyOf(adults, capacity);
+        children = Arrays.copyOf(children, capacity);
+        numberStart = Arrays.copyOf(numberStart, capacity);
+        numberEnd = Arrays.copyOf(numberEnd, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Row index of a reservation id, or -1 if it is not in the store.
+     */
+    public int rowOf(int reservationId) {
+        int row = rowById.get(reservationId, -1);
+        return row >= 0 && !deleted.get(row) ? row : -1;
+    }
+
+    /**
+     * Materialize one row for display.
+     */
+    public Booking view(int row) {
+        Booking booking = new Booking();
+        booking.setId(ids[row]);
+        booking.setReservationNumber(getReservationNumber(row));
+        booking.setGuestName(guestNames[guests[row]]);
+        booking.setGuestEmail(guestEmails[guests[row]]);
+        booking.setHotelName(BookingQuery.HOTEL_NAME);
+        booking.setRoomType(roomTypeNames.get(roomTypes[row]));
+        booking.setCheckInDate(LocalDate.ofEpochDay(checkInDays[row]));
+        booking.setCheckOutDate(LocalDate.ofEpochDay(checkOutDays[row]));
+        booking.setStatus(statusNames.get(statuses[row]));
+        booking.setAmountCents(amountCents[row]);
+        booking.setAdults(adults[row]);
+        booking.setChildren(children[row]);
+        return booking;
+    }
+
+    public String getReservationNumber(int row) {
+        return new String(numberBytes, numberStart[row], numberEnd[row] - numberStart[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Rows matching the query's filters, in the query's sort order.
+     */
+    public int[] filter(BookingQuery query) {
+        int status = -1;
+        if (query.getStatus() != null) {
+            Integer code = statusCodes.get(query.getStatus());
+            if (code == null) {
+                return new int[0];
+            }
+            status = code;
+        }
+        int roomType = -1;
+        if (query.getRoomType() != null) {
+            Integer code = roomTypeCodes.get(query.getRoomType());
+            if (code == null) {
+                return new int[0];
+            }
+            roomType = code;
+        }
+        BitmapFilterEngine.Query filter = filterEngine().query();
+        if (status >= 0) {
+            filter.category("status", status);
+        }
+        if (roomType >= 0) {
+            filter.category("roomType", roomType);
+        }
+        if (query.getFromDate() != null || query.getToDate() != null) {
+            long fromDay = query.getFromDate() != null ? query.getFromDate().toEpochDay() : Long.MIN_VALUE;
+            long toDay = query.getToDate() != null ? query.getToDate().toEpochDay() : Long.MAX_VALUE;
+            filter.range("checkIn", fromDay, toDay);
+        }
+        if (query.getMinAmount() != null || query.getMaxAmount() != null) {
+            long minCents = query.getMinAmount() != null ? (long) Math.ceil(query.getMinAmount() * 100 - 1e-6) : Long.MIN_VALUE;
+            long maxCents = query.getMaxAmount() != null ? (long) Math.floor(query.getMaxAmount() * 100 + 1e-6) : Long.MAX_VALUE;
+            filter.range("amount", minCents, maxCents);
+        }
+        if (query.getSearchText() != null && !query.searchMatchesHotel()) {
+            filter.text("search", query.getSearchText().toLowerCase());
+        }
+        if (query.getEmailText() != null) {
+            filter.text("email", query.getEmailText().toLowerCase());
+        }
+        int[] rows = filter.rows(order(query.getSortField()), rank(query.getSortField()));
+        return deleted.isEmpty() ? rows : Arrays.stream(rows).filter(row -> !deleted.get(row)).toArray();
+    }
+
+    /**
+     * Bitmap indexes over the rows, built on first use. After a refresh this is the previous
+     * engine, which does not see rows added since, until the rebuilt one is installed.
+     */
+    private BitmapFilterEngine filterEngine() {
+        if (filterEngine == null) {
+            filterEngine = buildFilterEngine();
+        }
+        return filterEngine;
+    }
+
+    /**
+     * Text filters are resolved once per guest, then looked up per row.
+     */
+    private BitmapFilterEngine buildFilterEngine() {
+        // Rows added after this engine was built are outside its bitmaps
+        int rowCount = size;
+        BitmapFilterEngine engine = new BitmapFilterEngine(rowCount);
+        int[] statusColumn = new int[size];
+        int[] roomTypeColumn = new int[size];
+        long[] checkIns = new long[size];
+        for (int row = 0; row < size; row++) {
+            statusColumn[row] = statuses[row];
+            roomTypeColumn[row] = roomTypes[row];
+            checkIns[row] = checkInDays[row];
+        }
+        engine.addCategory("status", statusColumn, statusNames.size());
+        engine.addCategory("roomType", roomTypeColumn, roomTypeNames.size());
+        engine.addRange("checkIn", checkIns);
+        engine.addRange("amount", Arrays.copyOf(amountCents, size));
+        engine.addText("search", needle -> {
+            boolean[] nameMatches = guestMatches(guestNamesLower, needle);
+            byte[] needleBytes = needle.getBytes(StandardCharsets.UTF_8);
+            return row -> nameMatches[guests[row]] || numberContains(row, needleBytes);
+        }, needle -> {
+            int[] numberCandidates = numberIndex.candidates(needle);
+            if (numberCandidates == null) {
+                return null;
+            }
+            BitSet rows = guestRows(guestNameIndex, guestNamesLower, needle);
+            byte[] needleBytes = needle.getBytes(StandardCharsets.UTF_8);
+            for (int row : numberCandidates) {
+                if (row < rowCount && numberContains(row, needleBytes)) {
+                    rows.set(row);
+                }
+            }
+            return rows;
+        });
+        engine.addText("email", needle -> {
+            boolean[] emailMatches = guestMatches(guestEmailsLower, needle);
+            return row -> emailMatches[guests[row]];
+        }, needle -> needle.length() < TrigramIndex.GRAM_LENGTH
+            ? null : guestRows(guestEmailIndex, guestEmailsLower, needle));
+        return engine;
+    }
+
+    /**
+     * Rows of the guests whose indexed text contains the needle (at least GRAM_LENGTH characters).
+     */
+    private BitSet guestRows(TrigramIndex index, String[] values, String needle) {
+        if (guestRowStart == null) {
+            int[][] guestRows = buildGuestRows();
+            guestRowStart = guestRows[0];
+            guestRowList = guestRows[1];
+        }
+        BitSet rows = new BitSet(size);
+        // Guests added since the guest rows were built have no rows in them yet
+        int indexedGuests = guestRowStart.length - 1;
+        for (int guest : index.candidates(needle)) {
+            if (guest < indexedGuests && values[guest].contains(needle)) {
+                for (int i = guestRowStart[guest]; i < guestRowStart[guest + 1]; i++) {
+                    rows.set(guestRowList[i]);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Group row indexes by guest (counting sort into one flat array).
+     * @return the start of each guest's rows, and the rows
+     */
+    private int[][] buildGuestRows() {
+        int[] start = new int[guestCount + 1];
+        for (int row = 0; row < size; row++) {
+            start[guests[row] + 1]++;
+        }
+        for (int guest = 0; guest < guestCount; guest++) {
+            start[guest + 1] += start[guest];
+        }
+        int[] next = Arrays.copyOf(start, guestCount);
+        int[] list = new int[size];
+        for (int row = 0; row < size; row++) {
+            list[next[guests[row]]++] = row;
+        }
+        return new int[][] {start, list};
+    }
+
+    private boolean[] guestMatches(String[] values, String needle) {
+        boolean[] matches = new boolean[guestCount];
+        for (int i = 0; i < guestCount; i++) {
+            matches[i] = values[i].contains(needle);
+        }
+        return matches;
+    }
+
+    /**
+     * Case-insensitive (ASCII) substring test against the packed reservation number.
+     */
+    private boolean numberContains(int row, byte[] needle) {
+        int start = numberStart[row];
+        int last = numberEnd[row] - needle.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                byte b = numberBytes[i + j];
+                if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                if (b != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * All rows in the given sort order, matching BookingQuery's SQL ORDER BY (ties broken by id).
+     * Built on first use and kept until the store changes.
+     */
+    int[] order(BookingQuery.SortField field) {
+        int[] order = orders.get(field);
+        if (order == null) {
+            order = buildOrder(field);
+            orders.put(field, order);
+        }
+        return order;
+    }
+
+    private int[] buildOrder(BookingQuery.SortField field) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        sortRows(order, comparator(field));
+        return order;
+    }
+
+    /**
+     * Position of each row in order(field).
+     */
+    private int[] rank(BookingQuery.SortField field) {
+        int[] rank = ranks.get(field);
+        if (rank == null) {
+            rank = buildRank(order(field));
+            ranks.put(field, rank);
+        }
+        return rank;
+    }
+
+    private static int[] buildRank(int[] order) {
+        int[] rank = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            rank[order[i]] = i;
+        }
+        return rank;
+    }
+
+    RowComparator comparator(BookingQuery.SortField field) {
+        switch (field) {
+            case CHECK_IN:
+                return (a, b) -> checkInDays[a] != checkInDays[b]
+                    ? Integer.compare(checkInDays[a], checkInDays[b]) : Integer.compare(ids[a], ids[b]);
+            case AMOUNT:
+                return (a, b) -> amountCents[a] != amountCents[b]
+                    ? Long.compare(amountCents[a], amountCents[b]) : Integer.compare(ids[a], ids[b]);
+            case GUEST_NAME: {
+                int[] rank = guestNameRanks();
+                return (a, b) -> rank[guests[a]] != rank[guests[b]]
+                    ? Integer.compare(rank[guests[a]], rank[guests[b]]) : Integer.compare(ids[a], ids[b]);
+            }
+            case STATUS: {
+                int[] rank = dictionaryRanks(statusNames);
+                return (a, b) -> rank[statuses[a]] != rank[statuses[b]]
+                    ? Integer.compare(rank[statuses[a]], rank[statuses[b]]) : Integer.compare(ids[a], ids[b]);
+            }
+            default:
+                // Newest first
+                return (a, b) -> createdAt[a] != createdAt[b]
+                    ? Long.compare(createdAt[b], createdAt[a]) : Integer.compare(ids[b], ids[a]);
+        }
+    }
+
+    /**
+     * Position of each guest when ordered by name, case-insensitively (missing names first).
+     */
+    private int[] guestNameRanks() {
+        Integer[] byName = new Integer[guestCount];
+        for (int i = 0; i < guestCount; i++) {
+            byName[i] = i;
+        }
+        Arrays.sort(byName, (a, b) -> guestNamesLower[a].compareTo(guestNamesLower[b]));
+        int[] rank = new int[guestCount];
+        for (int i = 0; i < guestCount; i++) {
+            rank[byName[i]] = i;
+        }
+        return rank;
+    }
+
+    private static int[] dictionaryRanks(List<String> names) {
+        Integer[] sorted = new Integer[names.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> String.valueOf(names.get(a)).compareToIgnoreCase(String.valueOf(names.get(b))));
+        int[] rank = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            rank[sorted[i]] = i;
+        }
+        return rank;
+    }
+
+    /**
+     * Stable merge sort of row indexes.
+     */
+    static void sortRows(int[] rows, RowComparator comparator) {
+        int[] buffer = new int[rows.length];
+        int[] src = rows;
+        int[] dst = buffer;
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int lo = 0; lo < rows.length; lo += 2 * width) {
+                int mid = Math.min(lo + width, rows.length);
+                int hi = Math.min(lo + 2 * width, rows.length);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    dst[k++] = comparator.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+                }
+                while (i < mid) dst[k++] = src[i++];
+                while (j < hi) dst[k++] = src[j++];
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != rows) {
+            System.arraycopy(src, 0, rows, 0, rows.length);
+        }
+    }
+
+    /**
+     * Open-addressing int to int hash map (no boxing), used for id and user lookups.
+     */
+    static final class IntIntMap {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private int[] values;
+        private int count;
+
+        IntIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(int key, int missing) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+                if (keys[slot] == EMPTY) return missing;
+            }
+        }
+
+        void put(int key, int value) {
+            if ((count + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                count++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.belmonthotel.admin.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filter and sort criteria for the bookings view.
+ * Translates the Bookings module filters into SQL WHERE/ORDER BY clauses and
+ * supports keyset (seek) pagination on (sort key, id).
+ */
+public class BookingQuery {
+
+    /** Hotel name shown for every booking (single-hotel installation). */
+    public static final String HOTEL_NAME = "Belmont Hotel";
+
+    private static final String FROM_CLAUSE =
+        "FROM reservations r " +
+        "JOIN users u ON r.user_id = u.id " +
+        "JOIN rooms rm ON r.room_id = rm.id ";
+
+    private static final String SELECT_COLUMNS =
+        "SELECT r.id, r.reservation_number, r.check_in_date, r.check_out_date, " +
+        "r.status, r.total_amount, r.adults, r.children, " +
+        "u.name as guest_name, u.email as guest_email, " +
+        "rm.room_type, ";
+
+    /**
+     * Sort orders that can be pushed down into SQL.
+     */
+    public enum SortField {
+        CREATED_AT("r.created_at", false, null),
+        CHECK_IN("r.check_in_date", true, "Date (Check-in)"),
+        AMOUNT("r.total_amount", true, "Amount"),
+        GUEST_NAME("u.name", true, "Guest Name"),
+        // Cast so the enum column sorts alphabetically like the Java comparator
+        STATUS("CAST(r.status AS CHAR)", true, "Status");
+
+        private final String expression;
+        private final boolean ascending;
+        private final String label;
+
+        SortField(String expression, boolean ascending, String label) {
+            this.expression = expression;
+            this.ascending = ascending;
+            this.label = label;
+        }
+
+        public String getExpression() { return expression; }
+        public boolean isAscending() { return ascending; }
+        public String getLabel() { return label; }
+
+        /**
+         * Map a "Sort By" combo label to a sort field (defaults to newest first).
+         */
+        public static SortField fromLabel(String label) {
+            for (SortField field : values()) {
+                if (field.label != null && field.label.equals(label)) {
+                    return field;
+                }
+            }
+            return CREATED_AT;
+        }
+    }
+
+    /**
+     * Position of a row in the current ordering, used as a keyset anchor.
+     */
+    public static class Key {
+        private final Object sortValue;
+        private final int id;
+
+        public Key(Object sortValue, int id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+
+        public Object getSortValue() { return sortValue; }
+        public int getId() { return id; }
+    }
+
+    private String searchText;
+    private String emailText;
+    private String status;
+    private String roomType;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Double minAmount;
+    private Double maxAmount;
+    private SortField sortField = SortField.CREATED_AT;
+
+    // Setters
+    public void setSearchText(String searchText) { this.searchText = blankToNull(searchText); }
+    public void setEmailText(String emailText) { this.emailText = blankToNull(emailText); }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+    public void setMinAmount(Double minAmount) { this.minAmount = minAmount; }
+    public void setMaxAmount(Double maxAmount) { this.maxAmount = maxAmount; }
+
+    public void setSortField(SortField sortField) {
+        this.sortField = sortField != null ? sortField : SortField.CREATED_AT;
+    }
+
+    /**
+     * Set the status filter using the combo label ("All", "Pending", "No Show", ...).
+     */
+    public void setStatus(String status) {
+        if (status == null || status.equals("All")) {
+            this.status = null;
+        } else {
+            this.status = status.toLowerCase().replace(' ', '_');
+        }
+    }
+
+    /**
+     * Set the room type filter using the combo label ("All" disables it).
+     */
+    public void setRoomType(String roomType) {
+        this.roomType = roomType == null || roomType.equals("All") ? null : roomType;
+    }
+
+    // Getters (status is the database value, e.g. "no_show")
+    public String getSearchText() { return searchText; }
+    public String getEmailText() { return emailText; }
+    public String getStatus() { return status; }
+    public String getRoomType() { return roomType; }
+    public LocalDate getFromDate() { return fromDate; }
+    public LocalDate getToDate() { return toDate; }
+    public Double getMinAmount() { return minAmount; }
+    public Double getMaxAmount() { return maxAmount; }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    /**
+     * True when the search text is part of the hotel name, which every booking carries.
+     */
+    public boolean searchMatchesHotel() {
+        return searchText != null && HOTEL_NAME.toLowerCase().contains(searchText.toLowerCase());
+    }
+
+    /**
+     * Count the rows matching the filters.
+     */
+    public int count() throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) ").append(FROM_CLAUSE);
+        appendWhere(sql, params, null);
+
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Prepare the page query: rows strictly after {@code after} (or from the start), limited to {@code limit}.
+     * The caller owns the returned statement.
+     */
+    public PreparedStatement preparePage(Connection conn, Key after, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS)
+            .append(sortField.getExpression()).append(" as sort_key ")
+            .append(FROM_CLAUSE);
+        appendWhere(sql, params, after);
+        appendOrderBy(sql);
+        sql.append(" LIMIT ?");
+        params.add(limit);
+
+        PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(limit);
+        bind(stmt, params);
+        return stmt;
+    }
+
+    /**
+     * Find the key of the row {@code skip} positions after {@code after} without fetching the rows in between.
+     * Returns null when the result set is shorter than that.
+     */
+    public Key seek(Key after, int skip) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ")
+            .append(sortField.getExpression()).append(" as sort_key, r.id ")
+            .append(FROM_CLAUSE);
+        appendWhere(sql, params, after);
+        appendOrderBy(sql);
+        sql.append(" LIMIT 1 OFFSET ?");
+        params.add(skip);
+
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Key(rs.getObject("sort_key"), rs.getInt("id"));
+                }
+            }
+        }
+        return null;
+    }
+
+    private void appendWhere(StringBuilder sql, List<Object> params, Key after) {
+        List<String> conditions = new ArrayList<>();
+
+        // The hotel name is constant, so a search matching it matches every row
+        if (searchText != null && !searchMatchesHotel()) {
+            conditions.add("(r.reservation_number LIKE ? OR u.name LIKE ?)");
+            String pattern = likePattern(searchText);
+            params.add(pattern);
+            params.add(pattern);
+        }
+        if (emailText != null) {
+            conditions.add("u.email LIKE ?");
+            params.add(likePattern(emailText));
+        }
+        if (status != null) {
+            conditions.add("r.status = ?");
+            params.add(status);
+        }
+        if (roomType != null) {
+            conditions.add("rm.room_type = ?");
+            params.add(roomType);
+        }
+        if (fromDate != null) {
+            conditions.add("r.check_in_date >= ?");
+            params.add(java.sql.Date.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            conditions.add("r.check_in_date <= ?");
+            params.add(java.sql.Date.valueOf(toDate));
+        }
+        if (minAmount != null) {
+            conditions.add("r.total_amount >= ?");
+            params.add(minAmount);
+        }
+        if (maxAmount != null) {
+            conditions.add("r.total_amount <= ?");
+            params.add(maxAmount);
+        }
+        if (after != null) {
+            // Expanded row comparison so MySQL can use a range scan on the sort index
+            String op = sortField.isAscending() ? ">" : "<";
+            String expr = sortField.getExpression();
+            conditions.add("(" + expr + " " + op + " ? OR (" + expr + " = ? AND r.id " + op + " ?))");
+            params.add(after.getSortValue());
+            params.add(after.getSortValue());
+            params.add(after.getId());
+        }
+
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append(' ');
+        }
+    }
+
+    private void appendOrderBy(StringBuilder sql) {
+        String direction = sortField.isAscending() ? "ASC" : "DESC";
+        sql.append("ORDER BY ").append(sortField.getExpression()).append(' ').append(direction)
+           .append(", r.id ").append(direction);
+    }
+
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static String likePattern(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static String blankToNull(String text) {
+        return text == null || text.isEmpty() ? null : text;
+    }
+}
@@ -0,0 +1,38 @@
+package com.belmonthotel.admin.utils;
+
+import com.belmonthotel.admin.models.Booking;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only list of selected {@link BookingColumnStore} rows for the bookings TableView.
+ * Holds only the row indexes; Booking objects are created on demand for visible rows.
+ */
+public class ColumnarBookingList extends ObservableListBase<Booking> {
+    private final BookingColumnStore store;
+    private final int[] rows;
+
+    public ColumnarBookingList(BookingColumnStore store, int[] rows) {
+        this.store = store;
+        this.rows = rows;
+    }
+
+    @Override
+    public Booking get(int index) {
+        if (index < 0 || index >= rows.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + rows.length);
+        }
+        return store.view(rows[index]);
+    }
+
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Store row indexes in display order. Do not modify.
+     */
+    public int[] getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,263 @@
+package com.belmonthotel.admin.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Streams a report into an RFC 4180 CSV file (UTF-8 with BOM, CRLF line endings).
+ * Values are formatted straight into a reusable char buffer and encoded into a large
+ * byte buffer that is flushed to a FileChannel, so no per-row strings are built.
+ */
+public class CsvReportExporter implements ReportExporter {
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 1024 * 1024;
+    private static final int PROGRESS_INTERVAL = 5000;
+
+    @Override
+    public long export(ReportDefinition report, LocalDate fromDate, LocalDate toDate, File file,
+                       ExportProgress progress) throws IOException, SQLException {
+        boolean completed = false;
+        long written = 0;
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS);
+             CsvWriter writer = new CsvWriter(file)) {
+            long total = report.countRows(conn, fromDate, toDate);
+            progress.update(0, total);
+
+            int columns = report.getColumnCount();
+            for (int i = 0; i < columns; i++) {
+                writer.text(report.getHeader(i));
+            }
+            writer.endRow();
+
+            try (ReportRows rows = report.openRows(conn, fromDate, toDate)) {
+                while (rows.next()) {
+                    if (progress.isCancelled()) {
+                        rows.cancel();
+                        throw new CancellationException("CSV export cancelled");
+                    }
+                    writeRow(writer, rows, report);
+                    written++;
+                    if (written % PROGRESS_INTERVAL == 0) {
+                        progress.update(written, total);
+                    }
+                }
+            }
+            progress.update(written, total);
+            completed = true;
+        } finally {
+            if (!completed) {
+                file.delete();
+            }
+        }
+        return written;
+    }
+
+    private void writeRow(CsvWriter writer, ReportRows rows, ReportDefinition report) throws SQLException, IOException {
+        for (int i = 0; i < report.getColumnCount(); i++) {
+            int column = i + 1;
+            switch (report.getType(i)) {
+                case INTEGER: {
+                    long value = rows.getLong(column);
+                    if (rows.wasNull()) {
+                        writer.empty();
+                    } else {
+                        writer.number(value);
+                    }
+                    break;
+                }
+                case MONEY:
+                case DECIMAL: {
+                    double value = rows.getDouble(column);
+                    if (rows.wasNull()) {
+                        writer.empty();
+                    } else {
+                        writer.fixed2(value);
+                    }
+                    break;
+                }
+                case DATE:
+                    // MySQL returns DATE columns as yyyy-MM-dd text, no parsing needed
+                    writer.plain(rows.getString(column));
+                    break;
+                default:
+                    writer.text(rows.getString(column));
+                    break;
+            }
+        }
+        writer.endRow();
+    }
+
+    /**
+     * Minimal CSV writer over a FileChannel. Fields are separated automatically; call
+     * {@link #endRow()} after the last field of each row.
+     */
+    private static class CsvWriter implements Closeable {
+        private final FileChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+        private final char[] digits = new char[20];
+        private boolean rowStarted;
+
+        CsvWriter(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            // BOM so spreadsheet apps detect UTF-8
+            bytes.put((byte) 0xEF).put((byte) 0xBB).put((byte) 0xBF);
+        }
+
+        void empty() throws IOException {
+            separator();
+        }
+
+        /**
+         * Text field, quoted only when it contains a separator, quote or line break.
+         * Values that a spreadsheet would run as a formula are prefixed with an apostrophe.
+         */
+        void text(String value) throws IOException {
+            separator();
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (quote) {
+                put('"');
+            }
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t') {
+                put('\'');
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put('"');
+                }
+                put(c);
+            }
+            if (quote) {
+                put('"');
+            }
+        }
+
+        /**
+         * Field known not to need escaping (dates).
+         */
+        void plain(String value) throws IOException {
+            separator();
+            if (value != null) {
+                for (int i = 0; i < value.length(); i++) {
+                    put(value.charAt(i));
+                }
+            }
+        }
+
+        void number(long value) throws IOException {
+            separator();
+            appendLong(value);
+        }
+
+        /**
+         * Fixed two-decimal number, rounded half away from zero like the database's DECIMAL(10,2).
+         */
+        void fixed2(double value) throws IOException {
+            separator();
+            long cents = Math.round(Math.abs(value) * 100);
+            if (value < 0 && cents != 0) {
+                put('-');
+            }
+            appendLong(cents / 100);
+            put('.');
+            int fraction = (int) (cents % 100);
+            put((char) ('0' + fraction / 10));
+            put((char) ('0' + fraction % 10));
+        }
+
+        void endRow() throws IOException {
+            put('\r');
+            put('\n');
+            rowStarted = false;
+        }
+
+        private void separator() throws IOException {
+            if (rowStarted) {
+                put(',');
+            }
+            rowStarted = true;
+        }
+
+        private void appendLong(long value) throws IOException {
+            if (value < 0) {
+                put('-');
+                value = -value;
+            }
+            int pos = digits.length;
+            do {
+                digits[--pos] = (char) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            for (; pos < digits.length; pos++) {
+                put(digits[pos]);
+            }
+        }
+
+        private void put(char c) throws IOException {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            chars.put(c);
+        }
+
+        private void encode(boolean endOfInput) throws IOException {
+            chars.flip();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    flushBytes();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            // Keep a trailing high surrogate for the next round
+            chars.compact();
+        }
+
+        private void flushBytes() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            bytes.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                encode(true);
+                while (encoder.flush(bytes).isOverflow()) {
+                    flushBytes();
+                }
+                flushBytes();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
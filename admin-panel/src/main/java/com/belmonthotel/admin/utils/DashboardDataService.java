@@ -0,0 +1,111 @@
+package com.belmonthotel.admin.utils;
+
+import com.belmonthotel.admin.models.DashboardSnapshot;
+import com.belmonthotel.admin.models.DashboardStats;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads dashboard data off the JavaFX application thread.
+ * The KPI, chart and recent-activity stages run in parallel on a small bounded
+ * executor and are combined into an immutable {@link DashboardSnapshot}.
+ */
+public class DashboardDataService {
+    public static final String STAGE_KPIS = "kpis";
+    public static final String STAGE_CHARTS = "charts";
+    public static final String STAGE_ACTIVITY = "activity";
+
+    private static final int WORKER_THREADS = 3;
+    private static final int QUEUE_CAPACITY = 12;
+    private static final int RECENT_ROWS = 10;
+    private static final int CHART_DAYS = 30;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    // Bounded pool and queue: a burst of refreshes is rejected rather than piling up threads
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        WORKER_THREADS, WORKER_THREADS, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+        runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-loader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * Start loading a dashboard snapshot in the background.
+     */
+    public static CompletableFuture<DashboardSnapshot> loadSnapshot() {
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+
+        CompletableFuture<DashboardStats> stats =
+            stage(STAGE_KPIS, timings, StatisticsService::getSnapshot);
+        CompletableFuture<List<Map<String, Object>>> revenueChart =
+            stage(STAGE_CHARTS, timings, () -> StatisticsService.getRevenueChartData(CHART_DAYS));
+        CompletableFuture<List<Map<String, Object>>> recentBookings =
+            stage(STAGE_ACTIVITY, timings, () -> StatisticsService.getRecentBookings(RECENT_ROWS));
+        CompletableFuture<List<Map<String, Object>>> recentPayments =
+            stage(STAGE_ACTIVITY + ".payments", timings, () -> StatisticsService.getRecentPayments(RECENT_ROWS));
+
+        return CompletableFuture.allOf(stats, revenueChart, recentBookings, recentPayments)
+            .thenApply(ignored -> new DashboardSnapshot(
+                stats.join(),
+                revenueChart.join(),
+                stats.join().getStatusCounts(),
+                recentBookings.join(),
+                recentPayments.join(),
+                orderedTimings(timings)));
+    }
+
+    /**
+     * Count today's confirmed check-ins in the background, for the check-in reminder task.
+     * The future fails if the count could not be read.
+     */
+    public static CompletableFuture<Integer> loadTodaysCheckIns() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return StatisticsService.getTodaysConfirmedCheckIns();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to count today's check-ins", e);
+            }
+        }, executor);
+    }
+
+    private static <T> CompletableFuture<T> stage(String name, Map<String, Long> timings, Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return loader.get();
+            } finally {
+                timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }, executor);
+    }
+
+    /**
+     * Merge sub-stage timings into their parent stage (parallel sub-stages: the slowest wins).
+     */
+    private static Map<String, Long> orderedTimings(Map<String, Long> timings) {
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        for (String stage : new String[] {STAGE_KPIS, STAGE_CHARTS, STAGE_ACTIVITY}) {
+            long slowest = 0;
+            for (Map.Entry<String, Long> entry : timings.entrySet()) {
+                if (entry.getKey().equals(stage) || entry.getKey().startsWith(stage + ".")) {
+                    slowest = Math.max(slowest, entry.getValue());
+                }
+            }
+            ordered.put(stage, slowest);
+        }
+        return ordered;
+    }
+}
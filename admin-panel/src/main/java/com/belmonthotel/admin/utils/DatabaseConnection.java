@@ -3,67 +3,162 @@ package com.belmonthotel.admin.utils;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
-import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
  * Singleton class for managing database connections using HikariCP connection pooling.
+ * Connections come from named pools so long report scans cannot starve interactive work.
  */
 public class DatabaseConnection {
+
+    /**
+     * Connection pools, chosen by the caller's intent.
+     */
+    public enum Pool {
+        /** Interactive writes and read-your-writes lookups (default). */
+        WRITE("write", 10, 2, 30000, 0, false),
+        /** Interactive reads: table loads, filters, dashboard lists. */
+        READ("read", 10, 2, 10000, 30, true),
+        /** Long-running report scans and exports; can point at a read replica. */
+        ANALYTICS("analytics", 4, 0, 60000, 600, true);
+
+        private final String key;
+        private final int defaultSize;
+        private final int defaultMinIdle;
+        private final long defaultTimeoutMs;
+        private final int defaultQueryTimeoutSeconds;
+        private final boolean readOnly;
+
+        Pool(String key, int defaultSize, int defaultMinIdle, long defaultTimeoutMs,
+             int defaultQueryTimeoutSeconds, boolean readOnly) {
+            this.key = key;
+            this.defaultSize = defaultSize;
+            this.defaultMinIdle = defaultMinIdle;
+            this.defaultTimeoutMs = defaultTimeoutMs;
+            this.defaultQueryTimeoutSeconds = defaultQueryTimeoutSeconds;
+            this.readOnly = readOnly;
+        }
+    }
+
+    /**
+     * Lazily created pool with a lock of its own, so a replica that is slow to answer
+     * only holds up callers of its own pool.
+     */
+    private static final class PoolHolder {
+        private final Pool pool;
+        private volatile HikariDataSource dataSource;
+
+        PoolHolder(Pool pool) {
+            this.pool = pool;
+        }
+
+        HikariDataSource get() {
+            HikariDataSource current = dataSource;
+            if (current == null) {
+                synchronized (this) {
+                    current = dataSource;
+                    if (current == null) {
+                        current = createDataSource(pool);
+                        dataSource = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        synchronized void close() {
+            if (dataSource != null && !dataSource.isClosed()) {
+                dataSource.close();
+            }
+            dataSource = null;
+        }
+
+        boolean isOpen() {
+            HikariDataSource current = dataSource;
+            return current != null && !current.isClosed();
+        }
+    }
+
     private static DatabaseConnection instance;
-    private static HikariDataSource dataSource;
+    // Filled once here and never changed, so it is read without locking
+    private static final Map<Pool, PoolHolder> dataSources = new EnumMap<>(Pool.class);
+
+    static {
+        for (Pool pool : Pool.values()) {
+            dataSources.put(pool, new PoolHolder(pool));
+        }
+    }
 
     private DatabaseConnection() {
         try {
-            // Load configuration from properties file
-            Properties props = new Properties();
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("config.properties");
-            
-            if (inputStream == null) {
-                throw new RuntimeException("config.properties file not found in resources");
-            }
-            
-            props.load(inputStream);
-
-            // Configure HikariCP
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl("jdbc:mysql://" + 
-                props.getProperty("db.host", "127.0.0.1") + ":" + 
-                props.getProperty("db.port", "3306") + "/" + 
-                props.getProperty("db.database", "hotel_db"));
-            config.setUsername(props.getProperty("db.username", "root"));
-            config.setPassword(props.getProperty("db.password", ""));
-            config.setDriverClassName("com.mysql.cj.jdbc.Driver");
-            
-            // Connection pool settings
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(2);
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
-            config.setLeakDetectionThreshold(60000);
-            
-            // MySQL-specific settings
-            config.addDataSourceProperty("cachePrepStmts", "true");
-            config.addDataSourceProperty("prepStmtCacheSize", "250");
-            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-            config.addDataSourceProperty("useServerPrepStmts", "true");
-            config.addDataSourceProperty("useLocalSessionState", "true");
-            config.addDataSourceProperty("rewriteBatchedStatements", "true");
-            config.addDataSourceProperty("cacheResultSetMetadata", "true");
-            config.addDataSourceProperty("cacheServerConfiguration", "true");
-            config.addDataSourceProperty("elideSetAutoCommits", "true");
-            config.addDataSourceProperty("maintainTimeStats", "false");
-
-            dataSource = new HikariDataSource(config);
-            
+            // The write pool is created up front so configuration errors show at startup
+            dataSources.get(Pool.WRITE).get();
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize database connection pool", e);
         }
     }
 
+    /**
+     * Build a pool from config.properties. Each pool reads db.pool.&lt;name&gt;.* keys and falls back
+     * to the shared db.* connection settings, so a pool can be pointed at a replica by setting its host.
+     */
+    private static HikariDataSource createDataSource(Pool pool) {
+        Properties props = AppConfig.getProperties();
+        String prefix = "db.pool." + pool.key + ".";
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("belmont-" + pool.key);
+        config.setJdbcUrl("jdbc:mysql://" +
+            poolProperty(props, prefix, "host", "127.0.0.1") + ":" +
+            poolProperty(props, prefix, "port", "3306") + "/" +
+            poolProperty(props, prefix, "database", "hotel_db"));
+        config.setUsername(poolProperty(props, prefix, "username", "root"));
+        config.setPassword(poolProperty(props, prefix, "password", ""));
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+
+        // Connection pool settings
+        config.setMaximumPoolSize(AppConfig.getInt(prefix + "size", pool.defaultSize));
+        config.setMinimumIdle(AppConfig.getInt(prefix + "min.idle", pool.defaultMinIdle));
+        config.setConnectionTimeout(AppConfig.getInt(prefix + "timeout.ms", (int) pool.defaultTimeoutMs));
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+        config.setReadOnly(pool.readOnly);
+
+        // Server-side cap on SELECT run time for connections from this pool (0 = no limit)
+        int queryTimeoutSeconds = AppConfig.getInt(prefix + "query.timeout.seconds", pool.defaultQueryTimeoutSeconds);
+        if (queryTimeoutSeconds > 0) {
+            config.setConnectionInitSql("SET SESSION MAX_EXECUTION_TIME = " + (queryTimeoutSeconds * 1000L));
+        }
+        // Exports legitimately hold a connection for minutes
+        config.setLeakDetectionThreshold(pool == Pool.ANALYTICS ? 0 : 60000);
+
+        // MySQL-specific settings
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+        if (pool == Pool.ANALYTICS) {
+            // Stream large result sets in fetch-size chunks instead of buffering them
+            config.addDataSourceProperty("useCursorFetch", "true");
+        }
+
+        return new HikariDataSource(config);
+    }
+
+    private static String poolProperty(Properties props, String prefix, String name, String defaultValue) {
+        return props.getProperty(prefix + name, props.getProperty("db." + name, defaultValue));
+    }
+
     /**
      * Get the singleton instance of DatabaseConnection.
      * @return DatabaseConnection instance
@@ -76,32 +171,44 @@ public class DatabaseConnection {
     }
 
     /**
-     * Get a connection from the connection pool.
+     * Get a connection from the write pool.
      * @return Connection object
      * @throws SQLException if connection fails
      */
     public static Connection getConnection() throws SQLException {
-        if (dataSource == null) {
-            getInstance();
-        }
-        return dataSource.getConnection();
+        return getConnection(Pool.WRITE);
+    }
+
+    /**
+     * Get a connection from the given pool. Read-only pools are created on first use,
+     * each under its own lock.
+     * @param pool pool matching the caller's intent
+     * @return Connection object
+     * @throws SQLException if connection fails
+     */
+    public static Connection getConnection(Pool pool) throws SQLException {
+        return getDataSource(pool).getConnection();
+    }
+
+    private static HikariDataSource getDataSource(Pool pool) {
+        getInstance();
+        return dataSources.get(pool).get();
     }
 
     /**
-     * Close the connection pool and all connections.
+     * Close all connection pools and their connections.
      */
     public static void closeConnection() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
+        for (PoolHolder holder : dataSources.values()) {
+            holder.close();
         }
     }
 
     /**
-     * Check if the connection pool is healthy.
+     * Check if the write connection pool is healthy.
      * @return true if connection pool is active
      */
     public static boolean isHealthy() {
-        return dataSource != null && !dataSource.isClosed();
+        return dataSources.get(Pool.WRITE).isOpen();
     }
 }
-
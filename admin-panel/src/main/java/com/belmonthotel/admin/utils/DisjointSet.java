@@ -0,0 +1,69 @@
+package com.belmonthotel.admin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Union-find over elements 0..size-1 that keeps a running count of disjoint sets.
+ * Union by size with path halving, so every operation is effectively constant time.
+ */
+public class DisjointSet {
+    private int[] parent = new int[16];
+    private int[] setSize = new int[16];
+    private int size;
+    private int sets;
+
+    /**
+     * Add a new element in a set of its own.
+     * @return the element's index
+     */
+    public int add() {
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, size * 2);
+            setSize = Arrays.copyOf(setSize, size * 2);
+        }
+        parent[size] = size;
+        setSize[size] = 1;
+        sets++;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of disjoint sets.
+     */
+    public int sets() {
+        return sets;
+    }
+
+    public int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Merge the sets holding a and b.
+     * @return true if they were in different sets
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (setSize[rootA] < setSize[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        setSize[rootA] += setSize[rootB];
+        sets--;
+        return true;
+    }
+}
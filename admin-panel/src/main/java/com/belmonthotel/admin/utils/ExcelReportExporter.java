@@ -0,0 +1,245 @@
+package com.belmonthotel.admin.utils;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Streams a report into an .xlsx file with constant memory.
+ * Rows are streamed from the report (cursor-fetched for queries) and flushed to disk by
+ * SXSSFWorkbook once they leave a {@link #ROW_WINDOW}-row window. Column widths are taken
+ * from a length histogram of sampled rows instead of autoSizeColumn, which rescans every row.
+ */
+public class ExcelReportExporter implements ReportExporter {
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    // Every row is sampled until SAMPLE_ROWS, then every SAMPLE_STRIDE-th row
+    private static final int SAMPLE_ROWS = 1000;
+    private static final int SAMPLE_STRIDE = 100;
+    private static final int MIN_COLUMN_CHARS = 6;
+    private static final int MAX_COLUMN_CHARS = 60;
+    private static final double WIDTH_PERCENTILE = 0.95;
+
+    @Override
+    public long export(ReportDefinition report, LocalDate fromDate, LocalDate toDate, File file,
+                       ExportProgress progress) throws IOException, SQLException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        boolean completed = false;
+        try {
+            Styles styles = new Styles(workbook);
+            ColumnWidths widths = new ColumnWidths(report);
+            List<Sheet> sheets = new ArrayList<>();
+            long written = 0;
+
+            try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS)) {
+                long total = report.countRows(conn, fromDate, toDate);
+                progress.update(0, total);
+
+                try (ReportRows rows = report.openRows(conn, fromDate, toDate)) {
+                    Sheet sheet = null;
+                    int rowNum = MAX_SHEET_ROWS;
+                    while (rows.next()) {
+                        if (progress.isCancelled()) {
+                            rows.cancel();
+                            throw new CancellationException("Excel export cancelled");
+                        }
+                        if (rowNum == MAX_SHEET_ROWS) {
+                            sheet = createSheet(workbook, report, styles, sheets.size() + 1);
+                            sheets.add(sheet);
+                            rowNum = 1;
+                        }
+                        writeRow(sheet.createRow(rowNum++), rows, report, styles,
+                            written < SAMPLE_ROWS || written % SAMPLE_STRIDE == 0 ? widths : null);
+                        written++;
+                        if (written % PROGRESS_INTERVAL == 0) {
+                            progress.update(written, total);
+                        }
+                    }
+                }
+                progress.update(written, total);
+            }
+
+            if (sheets.isEmpty()) {
+                sheets.add(createSheet(workbook, report, styles, 1));
+            }
+            for (Sheet sheet : sheets) {
+                widths.apply(sheet);
+            }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                workbook.write(out);
+            }
+            completed = true;
+            return written;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+            if (!completed) {
+                file.delete();
+            }
+        }
+    }
+
+    private Sheet createSheet(SXSSFWorkbook workbook, ReportDefinition report, Styles styles, int number) {
+        Sheet sheet = workbook.createSheet(number == 1 ? "Report" : "Report (" + number + ")");
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < report.getColumnCount(); i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(report.getHeader(i));
+            cell.setCellStyle(styles.header);
+        }
+        sheet.createFreezePane(0, 1);
+        return sheet;
+    }
+
+    private void writeRow(Row row, ReportRows rows, ReportDefinition report, Styles styles,
+                          ColumnWidths widths) throws SQLException {
+        for (int i = 0; i < report.getColumnCount(); i++) {
+            int column = i + 1;
+            int length;
+            switch (report.getType(i)) {
+                case INTEGER: {
+                    long value = rows.getLong(column);
+                    if (rows.wasNull()) {
+                        continue;
+                    }
+                    row.createCell(i).setCellValue(value);
+                    length = digits(value);
+                    break;
+                }
+                case MONEY:
+                case DECIMAL: {
+                    double value = rows.getDouble(column);
+                    if (rows.wasNull()) {
+                        continue;
+                    }
+                    Cell cell = row.createCell(i);
+                    cell.setCellValue(value);
+                    cell.setCellStyle(report.getType(i) == ReportDefinition.ColumnType.MONEY ? styles.money : styles.decimal);
+                    long whole = (long) Math.abs(value);
+                    // Integer digits, thousands separators, then ".00"
+                    length = digits(whole) + (digits(whole) - 1) / 3 + 3 + (value < 0 ? 1 : 0);
+                    break;
+                }
+                case DATE: {
+                    LocalDate value = rows.getDate(column);
+                    if (value == null) {
+                        continue;
+                    }
+                    Cell cell = row.createCell(i);
+                    cell.setCellValue(value);
+                    cell.setCellStyle(styles.date);
+                    length = 10;
+                    break;
+                }
+                default: {
+                    String value = rows.getString(column);
+                    if (value == null) {
+                        continue;
+                    }
+                    row.createCell(i).setCellValue(value);
+                    length = value.length();
+                    break;
+                }
+            }
+            if (widths != null) {
+                widths.record(i, length);
+            }
+        }
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        for (long v = Math.abs(value); v >= 10; v /= 10) {
+            digits++;
+        }
+        return digits + (value < 0 ? 1 : 0);
+    }
+
+    /**
+     * Cell styles shared by every row; creating a style per cell would bloat the styles table.
+     */
+    private static class Styles {
+        final CellStyle header;
+        final CellStyle money;
+        final CellStyle decimal;
+        final CellStyle date;
+
+        Styles(SXSSFWorkbook workbook) {
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            header = workbook.createCellStyle();
+            header.setFont(headerFont);
+
+            money = workbook.createCellStyle();
+            money.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+            decimal = workbook.createCellStyle();
+            decimal.setDataFormat(workbook.createDataFormat().getFormat("0.00"));
+            date = workbook.createCellStyle();
+            date.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        }
+    }
+
+    /**
+     * Per-column histogram of sampled display lengths. The width is a high percentile of the
+     * sample, so a handful of very long values cannot blow a column up.
+     */
+    private static class ColumnWidths {
+        private final int[][] histogram;
+        private final int[] samples;
+        private final int[] headerLengths;
+
+        ColumnWidths(ReportDefinition report) {
+            int columns = report.getColumnCount();
+            histogram = new int[columns][MAX_COLUMN_CHARS + 1];
+            samples = new int[columns];
+            headerLengths = new int[columns];
+            for (int i = 0; i < columns; i++) {
+                headerLengths[i] = report.getHeader(i).length();
+            }
+        }
+
+        void record(int column, int length) {
+            histogram[column][Math.min(length, MAX_COLUMN_CHARS)]++;
+            samples[column]++;
+        }
+
+        void apply(Sheet sheet) {
+            for (int column = 0; column < histogram.length; column++) {
+                int chars = Math.max(Math.max(headerLengths[column], percentile(column)), MIN_COLUMN_CHARS);
+                // Width is in 1/256ths of a character; pad for the cell margins
+                sheet.setColumnWidth(column, Math.min(chars + 2, MAX_COLUMN_CHARS) * 256);
+            }
+        }
+
+        private int percentile(int column) {
+            long threshold = (long) Math.ceil(samples[column] * WIDTH_PERCENTILE);
+            long seen = 0;
+            for (int length = 0; length <= MAX_COLUMN_CHARS; length++) {
+                seen += histogram[column][length];
+                if (seen >= threshold && seen > 0) {
+                    return length;
+                }
+            }
+            return 0;
+        }
+    }
+}
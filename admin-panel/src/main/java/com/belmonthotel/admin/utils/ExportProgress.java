@@ -0,0 +1,17 @@
+package com.belmonthotel.admin.utils;
+
+/**
+ * Progress sink and cancellation flag handed to report exporters.
+ */
+public interface ExportProgress {
+    /**
+     * Report how many rows have been written so far.
+     * @param totalRows expected row count, or -1 when unknown
+     */
+    void update(long rowsWritten, long totalRows);
+
+    /**
+     * Exporters poll this between rows and stop with a CancellationException once it is set.
+     */
+    boolean isCancelled();
+}
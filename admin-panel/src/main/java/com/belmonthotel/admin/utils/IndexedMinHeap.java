@@ -0,0 +1,130 @@
+package com.belmonthotel.admin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int items 0..capacity-1 keyed by long priorities, with O(log n)
+ * decrease-key: each item's position in the heap is tracked, so an item is never queued twice.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    private final long[] keys;
+    // Position of each item in heap, or -1 when it is not queued
+    private final int[] positions;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new long[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    /**
+     * Queue the item with the given key, or lower its key if it is queued with a higher one.
+     * @return true if the item was added or its key lowered
+     */
+    public boolean offer(int item, long key) {
+        int position = positions[item];
+        if (position < 0) {
+            position = size++;
+            heap[position] = item;
+            positions[item] = position;
+        } else if (key >= keys[item]) {
+            return false;
+        }
+        keys[item] = key;
+        siftUp(position);
+        return true;
+    }
+
+    public long peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Remove and return the item with the smallest key.
+     */
+    public int poll() {
+        int min = heap[0];
+        positions[min] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Remove a queued item, whatever its key.
+     */
+    public void remove(int item) {
+        int position = positions[item];
+        positions[item] = -1;
+        int last = heap[--size];
+        if (position < size) {
+            heap[position] = last;
+            positions[last] = position;
+            siftDown(position);
+            siftUp(positions[last]);
+        }
+    }
+
+    /**
+     * Empty the heap in O(size), ready for the next search.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int item = heap[position];
+        long key = keys[item];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentItem = heap[parent];
+            if (keys[parentItem] <= key) {
+                break;
+            }
+            heap[position] = parentItem;
+            positions[parentItem] = position;
+            position = parent;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+
+    private void siftDown(int position) {
+        int item = heap[position];
+        long key = keys[item];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            int childItem = heap[child];
+            if (key <= keys[childItem]) {
+                break;
+            }
+            heap[position] = childItem;
+            positions[childItem] = position;
+            position = child;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+}
@@ -0,0 +1,97 @@
+package com.belmonthotel.admin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Free rooms of one room type for each night of a calendar, as a segment tree supporting
+ * "add to every night in a range" and "fewest free rooms over a range", both O(log days).
+ *
+ * Night indexes are days since the start of the calendar; ranges are half-open and clipped
+ * to the calendar.
+ */
+public class NightlyInventoryTree {
+    // Padding leaves past the calendar never take part in a minimum
+    private static final int PADDING = Integer.MAX_VALUE / 2;
+
+    private final int days;
+    private final int leaves;
+    // min[node] = pending[node] + min of the children; pending is not pushed down
+    private final int[] min;
+    private final int[] pending;
+
+    public NightlyInventoryTree(int days, int quantity) {
+        this.days = days;
+        int size = 1;
+        while (size < Math.max(days, 1)) {
+            size <<= 1;
+        }
+        leaves = size;
+        min = new int[2 * size];
+        pending = new int[2 * size];
+        Arrays.fill(min, size, size + days, quantity);
+        Arrays.fill(min, size + days, 2 * size, PADDING);
+        for (int node = size - 1; node >= 1; node--) {
+            min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+        }
+    }
+
+    public int days() {
+        return days;
+    }
+
+    /**
+     * Add delta free rooms to every night in [from, to): -1 per booked stay, +1 when it is released,
+     * the change in quantity for every night when the room type is resized.
+     */
+    public void add(int from, int to, int delta) {
+        from = Math.max(from, 0);
+        to = Math.min(to, days);
+        if (from < to && delta != 0) {
+            add(1, 0, leaves, from, to, delta);
+        }
+    }
+
+    /**
+     * Fewest free rooms on any night in [from, to), or Integer.MAX_VALUE when the range
+     * has no nights inside the calendar.
+     */
+    public int min(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, days);
+        if (from >= to) {
+            return Integer.MAX_VALUE;
+        }
+        return min(1, 0, leaves, from, to);
+    }
+
+    private void add(int node, int lo, int hi, int from, int to, int delta) {
+        if (from <= lo && hi <= to) {
+            min[node] += delta;
+            pending[node] += delta;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (from < mid) {
+            add(2 * node, lo, mid, from, to, delta);
+        }
+        if (to > mid) {
+            add(2 * node + 1, mid, hi, from, to, delta);
+        }
+        min[node] = pending[node] + Math.min(min[2 * node], min[2 * node + 1]);
+    }
+
+    private int min(int node, int lo, int hi, int from, int to) {
+        if (from <= lo && hi <= to) {
+            return min[node];
+        }
+        int mid = (lo + hi) >>> 1;
+        int best = Integer.MAX_VALUE;
+        if (from < mid) {
+            best = min(2 * node, lo, mid, from, to);
+        }
+        if (to > mid) {
+            best = Math.min(best, min(2 * node + 1, mid, hi, from, to));
+        }
+        return pending[node] + best;
+    }
+}
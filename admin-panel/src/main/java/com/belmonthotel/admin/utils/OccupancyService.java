@@ -0,0 +1,303 @@
+package com.belmonthotel.admin.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Room-night occupancy: for every night, how many rooms of each room type are occupied
+ * out of how many exist.
+ *
+ * A date window is computed in one pass over the reservations overlapping it: each stay adds
+ * +1 at its first night and -1 at its check-out in a per-room-type difference array, and a
+ * prefix sum turns those into exact nightly counts. Daily, weekly, monthly and per-room-type
+ * figures are all sums over those counts. Windows are cached for occupancy.cache.ttl.seconds.
+ *
+ * Available rooms are the current quantities of active room types; reservations of inactive
+ * room types are not counted.
+ */
+public class OccupancyService {
+    private static final String OCCUPIED_STATUSES = "status IN ('pending', 'confirmed', 'completed')";
+    private static final int MAX_CACHED_WINDOWS = 32;
+    private static final int FETCH_SIZE = 5000;
+
+    // Access-ordered so the least recently used window is evicted first
+    private static final Map<List<LocalDate>, CachedWindow> cache =
+        new LinkedHashMap<List<LocalDate>, CachedWindow>(MAX_CACHED_WINDOWS + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<LocalDate>, CachedWindow> eldest) {
+                return size() > MAX_CACHED_WINDOWS;
+            }
+        };
+
+    /**
+     * A window being computed or already computed, shared by everyone asking for it.
+     */
+    private static class CachedWindow {
+        final CompletableFuture<Occupancy> future = new CompletableFuture<>();
+        final long createdAt = System.currentTimeMillis();
+
+        boolean isExpired(long ttlMillis) {
+            return future.isDone() && System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+    }
+
+    /**
+     * Occupancy summed over a period: a day, week, month or room type.
+     */
+    public static class Period {
+        private final String label;
+        private final LocalDate start;
+        private final long roomNightsSold;
+        private final long roomNightsAvailable;
+        private final int checkIns;
+
+        Period(String label, LocalDate start, long roomNightsSold, long roomNightsAvailable, int checkIns) {
+            this.label = label;
+            this.start = start;
+            this.roomNightsSold = roomNightsSold;
+            this.roomNightsAvailable = roomNightsAvailable;
+            this.checkIns = checkIns;
+        }
+
+        public String getLabel() { return label; }
+        public LocalDate getStart() { return start; }
+        public long getRoomNightsSold() { return roomNightsSold; }
+        public long getRoomNightsAvailable() { return roomNightsAvailable; }
+        public int getCheckIns() { return checkIns; }
+
+        public double getRate() {
+            return roomNightsAvailable > 0 ? roomNightsSold * 100.0 / roomNightsAvailable : 0;
+        }
+    }
+
+    /**
+     * Nightly occupancy of every room type over one window of nights.
+     */
+    public static class Occupancy {
+        private final LocalDate from;
+        private final int nights;
+        private final List<String> roomTypes;
+        private final int[] quantities;
+        // [room type][night]
+        private final int[][] occupied;
+        private final int[][] checkIns;
+
+        Occupancy(LocalDate from, int nights, List<String> roomTypes, int[] quantities,
+                  int[][] occupied, int[][] checkIns) {
+            this.from = from;
+            this.nights = nights;
+            this.roomTypes = roomTypes;
+            this.quantities = quantities;
+            this.occupied = occupied;
+            this.checkIns = checkIns;
+        }
+
+        public LocalDate getFrom() { return from; }
+        public int getNights() { return nights; }
+
+        public Period daily(int night) {
+            return period(from.plusDays(night).toString(), night, night + 1);
+        }
+
+        public List<Period> daily() {
+            List<Period> days = new ArrayList<>(nights);
+            for (int night = 0; night < nights; night++) {
+                days.add(daily(night));
+            }
+            return days;
+        }
+
+        /**
+         * Weeks starting on Monday, labelled by their Monday; the first and last week may be partial.
+         */
+        public List<Period> weekly() {
+            List<Period> weeks = new ArrayList<>();
+            int start = 0;
+            while (start < nights) {
+                LocalDate monday = from.plusDays(start).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                int end = Math.min(nights, (int) (monday.plusDays(7).toEpochDay() - from.toEpochDay()));
+                weeks.add(period(monday.toString(), start, end, monday));
+                start = end;
+            }
+            return weeks;
+        }
+
+        public List<Period> monthly() {
+            List<Period> months = new ArrayList<>();
+            int start = 0;
+            while (start < nights) {
+                YearMonth month = YearMonth.from(from.plusDays(start));
+                int end = Math.min(nights, (int) (month.plusMonths(1).atDay(1).toEpochDay() - from.toEpochDay()));
+                months.add(period(month.toString(), start, end, month.atDay(1)));
+                start = end;
+            }
+            return months;
+        }
+
+        /**
+         * One period per active room type over the whole window, in room type order.
+         */
+        public List<Period> byRoomType() {
+            List<Period> types = new ArrayList<>(roomTypes.size());
+            for (int type = 0; type < roomTypes.size(); type++) {
+                long sold = 0;
+                int arrivals = 0;
+                for (int night = 0; night < nights; night++) {
+                    sold += occupied[type][night];
+                    arrivals += checkIns[type][night];
+                }
+                types.add(new Period(roomTypes.get(type), from, sold, (long) quantities[type] * nights, arrivals));
+            }
+            return types;
+        }
+
+        private Period period(String label, int start, int end) {
+            return period(label, start, end, from.plusDays(start));
+        }
+
+        private Period period(String label, int start, int end, LocalDate periodStart) {
+            long sold = 0;
+            long available = 0;
+            int arrivals = 0;
+            for (int type = 0; type < roomTypes.size(); type++) {
+                for (int night = start; night < end; night++) {
+                    sold += occupied[type][night];
+                    arrivals += checkIns[type][night];
+                }
+                available += (long) quantities[type] * (end - start);
+            }
+            return new Period(label, periodStart, sold, available, arrivals);
+        }
+    }
+
+    /**
+     * Occupancy for the nights from fromDate to toDate inclusive, from the cache when fresh.
+     * Concurrent callers asking for the same window share one computation.
+     */
+    public static Occupancy get(LocalDate fromDate, LocalDate toDate) throws SQLException {
+        List<LocalDate> key = List.of(fromDate, toDate);
+        long ttlMillis = AppConfig.getInt("occupancy.cache.ttl.seconds", 60) * 1000L;
+        CachedWindow window;
+        boolean owner = false;
+        synchronized (cache) {
+            window = cache.get(key);
+            if (window == null || window.isExpired(ttlMillis)) {
+                window = new CachedWindow();
+                cache.put(key, window);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            try {
+                window.future.complete(load(fromDate, toDate));
+            } catch (SQLException | RuntimeException e) {
+                synchronized (cache) {
+                    cache.remove(key, window);
+                }
+                window.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return window.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Percentage of active rooms occupied tonight.
+     */
+    public static double tonightRate() throws SQLException {
+        LocalDate today = LocalDate.now();
+        return get(today, today).daily(0).getRate();
+    }
+
+    /**
+     * Drop cached windows so the next read reflects a change made by this admin.
+     */
+    public static void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static Occupancy load(LocalDate fromDate, LocalDate toDate) throws SQLException {
+        int firstNight = (int) fromDate.toEpochDay();
+        int nights = Math.max(0, (int) (toDate.toEpochDay() - firstNight) + 1);
+
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS)) {
+            List<String> roomTypes = new ArrayList<>();
+            List<Integer> quantities = new ArrayList<>();
+            Map<Integer, Integer> typeByRoomId = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, room_type, quantity FROM rooms WHERE is_active = 1 ORDER BY room_type");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    typeByRoomId.put(rs.getInt("id"), roomTypes.size());
+                    roomTypes.add(rs.getString("room_type"));
+                    quantities.add(rs.getInt("quantity"));
+                }
+            }
+
+            // One slot past the last night takes the -1 of stays running to the end of the window
+            int[][] occupied = new int[roomTypes.size()][nights + 1];
+            int[][] checkIns = new int[roomTypes.size()][nights + 1];
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT room_id, TO_DAYS(check_in_date) - 719528, TO_DAYS(check_out_date) - 719528 " +
+                     "FROM reservations WHERE " + OCCUPIED_STATUSES + " " +
+                     "AND check_in_date <= ? AND check_out_date > ?")) {
+                stmt.setFetchSize(FETCH_SIZE);
+                stmt.setDate(1, java.sql.Date.valueOf(toDate));
+                stmt.setDate(2, java.sql.Date.valueOf(fromDate));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Integer type = typeByRoomId.get(rs.getInt(1));
+                        if (type == null) {
+                            continue;
+                        }
+                        int first = rs.getInt(2) - firstNight;
+                        int end = Math.min(rs.getInt(3) - firstNight, nights);
+                        if (first >= 0) {
+                            checkIns[type][first]++;
+                        }
+                        first = Math.max(first, 0);
+                        if (first < end) {
+                            occupied[type][first]++;
+                            occupied[type][end]--;
+                        }
+                    }
+                }
+            }
+
+            for (int[] counts : occupied) {
+                for (int night = 1; night <= nights; night++) {
+                    counts[night] += counts[night - 1];
+                }
+            }
+
+            int[] quantityArray = new int[quantities.size()];
+            for (int i = 0; i < quantityArray.length; i++) {
+                quantityArray[i] = quantities.get(i);
+            }
+            return new Occupancy(fromDate, nights, roomTypes, quantityArray, occupied, checkIns);
+        }
+    }
+}
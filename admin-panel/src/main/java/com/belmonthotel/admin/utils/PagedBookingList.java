@@ -0,0 +1,243 @@
+package com.belmonthotel.admin.utils;
+
+import com.belmonthotel.admin.models.Booking;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, virtualized list of bookings backed by keyset-paginated queries.
+ * Only the row count is fetched up front (see {@link #open}); pages are loaded as the TableView asks
+ * for rows and at most {@link #MAX_CACHED_PAGES} pages are kept in memory (LRU).
+ *
+ * Pages are read on a background thread, together with the page after them: a row
+ * whose page is still loading reads as null (an empty table row) and the rows are
+ * refreshed once it arrives. The list itself is only touched on the FX thread.
+ */
+public class PagedBookingList extends ObservableListBase<Booking> {
+    public static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 10;
+    private static final int BULK_PAGE_SIZE = 2000;
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final BookingQuery query;
+    private final int size;
+
+    // Pages queued on the loader, and pages whose load failed (not retried for this list)
+    private final Set<Integer> pendingPages = new HashSet<>();
+    private final Set<Integer> failedPages = new HashSet<>();
+    private Consumer<SQLException> onLoadFailed;
+
+    // Page index -> key of the last row on the previous page (null for page 0); loader thread only
+    private final TreeMap<Integer, BookingQuery.Key> pageAnchors = new TreeMap<>();
+
+    // Access-ordered so the least recently viewed page is evicted first
+    private final Map<Integer, List<Booking>> pageCache =
+        new LinkedHashMap<Integer, List<Booking>>(MAX_CACHED_PAGES + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Booking>> eldest) {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+
+    private PagedBookingList(BookingQuery query, int size) {
+        this.query = query;
+        this.size = size;
+        pageAnchors.put(0, null);
+    }
+
+    /**
+     * Count the rows of a query on the loader thread and return a list over them.
+     * Cancelling the future before the count starts skips it.
+     */
+    public static CompletableFuture<PagedBookingList> open(BookingQuery query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new PagedBookingList(query, query.count());
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to count bookings", e);
+            }
+        }, loader);
+    }
+
+    @Override
+    public Booking get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pageIndex = index / PAGE_SIZE;
+        List<Booking> page = pageCache.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            requestPage(pageIndex + 1);
+            return null;
+        }
+        int offset = index % PAGE_SIZE;
+        // Rows deleted since the count was taken leave the tail of the list empty
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * Set the callback told (on the FX thread) when a page of this list first fails to load.
+     */
+    public void setOnLoadFailed(Consumer<SQLException> callback) {
+        this.onLoadFailed = callback;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fetch every matching row in the current order, bypassing the page cache.
+     * Used for in-memory sorting of small result sets.
+     */
+    public List<Booking> loadAll() throws SQLException {
+        List<Booking> rows = new ArrayList<>(size);
+        BookingQuery.Key after = null;
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ)) {
+            while (true) {
+                List<Booking> chunk = new ArrayList<>();
+                after = fetchPage(conn, after, BULK_PAGE_SIZE, chunk);
+                rows.addAll(chunk);
+                if (chunk.size() < BULK_PAGE_SIZE) {
+                    break;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Queue a page for loading unless it is cached, already queued or past the end.
+     */
+    private void requestPage(int pageIndex) {
+        if (pageIndex * PAGE_SIZE >= size || pageCache.containsKey(pageIndex)
+                || failedPages.contains(pageIndex) || !pendingPages.add(pageIndex)) {
+            return;
+        }
+        loader.execute(() -> {
+            try {
+                List<Booking> page = loadPage(pageIndex);
+                Platform.runLater(() -> installPage(pageIndex, page));
+            } catch (SQLException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    pendingPages.remove(pageIndex);
+                    // Report the first failure only, not one per page scrolled past
+                    boolean first = failedPages.isEmpty();
+                    failedPages.add(pageIndex);
+                    if (first && onLoadFailed != null) {
+                        onLoadFailed.accept(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cache a loaded page and tell the table its rows have changed.
+     */
+    private void installPage(int pageIndex, List<Booking> page) {
+        pendingPages.remove(pageIndex);
+        pageCache.put(pageIndex, page);
+        int from = pageIndex * PAGE_SIZE;
+        int to = Math.min(from + PAGE_SIZE, size);
+        beginChange();
+        nextReplace(from, to, new ArrayList<>(Collections.nCopies(to - from, (Booking) null)));
+        endChange();
+    }
+
+    /**
+     * Read one page. Runs on the loader thread.
+     */
+    private List<Booking> loadPage(int pageIndex) throws SQLException {
+        if (!resolveAnchor(pageIndex)) {
+            return Collections.emptyList();
+        }
+        List<Booking> page = new ArrayList<>(PAGE_SIZE);
+        BookingQuery.Key last;
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ)) {
+            last = fetchPage(conn, pageAnchors.get(pageIndex), PAGE_SIZE, page);
+        }
+        if (page.size() == PAGE_SIZE) {
+            pageAnchors.put(pageIndex + 1, last);
+        }
+        return page;
+    }
+
+    /**
+     * Make sure the keyset anchor of a page is known. Jumping straight to a far page
+     * (e.g. dragging the scrollbar) seeks from the nearest known anchor instead of
+     * walking every page in between.
+     */
+    private boolean resolveAnchor(int pageIndex) throws SQLException {
+        if (pageAnchors.containsKey(pageIndex)) {
+            return true;
+        }
+        Map.Entry<Integer, BookingQuery.Key> nearest = pageAnchors.floorEntry(pageIndex);
+        int skip = (pageIndex - nearest.getKey()) * PAGE_SIZE - 1;
+        BookingQuery.Key anchor = query.seek(nearest.getValue(), skip);
+        if (anchor == null) {
+            return false;
+        }
+        pageAnchors.put(pageIndex, anchor);
+        return true;
+    }
+
+    /**
+     * Read up to {@code limit} rows after {@code after} into {@code target}.
+     * Returns the key of the last row read.
+     */
+    private BookingQuery.Key fetchPage(Connection conn, BookingQuery.Key after, int limit,
+                                       List<Booking> target) throws SQLException {
+        BookingQuery.Key last = after;
+        try (PreparedStatement stmt = query.preparePage(conn, after, limit);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                target.add(mapRow(rs));
+                last = new BookingQuery.Key(rs.getObject("sort_key"), rs.getInt("id"));
+            }
+        }
+        return last;
+    }
+
+    private static Booking mapRow(ResultSet rs) throws SQLException {
+        Booking booking = new Booking();
+        booking.setId(rs.getInt("id"));
+        booking.setReservationNumber(rs.getString("reservation_number"));
+        booking.setGuestName(rs.getString("guest_name"));
+        booking.setGuestEmail(rs.getString("guest_email"));
+        booking.setHotelName(BookingQuery.HOTEL_NAME);
+        booking.setRoomType(rs.getString("room_type"));
+        booking.setCheckInDate(rs.getDate("check_in_date").toLocalDate());
+        booking.setCheckOutDate(rs.getDate("check_out_date").toLocalDate());
+        booking.setStatus(rs.getString("status"));
+        booking.setAmountCents(rs.getBigDecimal("total_amount").movePointRight(2).longValue());
+        booking.setAdults(rs.getInt("adults"));
+        booking.setChildren(rs.getInt("children"));
+        return booking;
+    }
+}
@@ -0,0 +1,309 @@
+package com.belmonthotel.admin.utils;
+
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.util.Matrix;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Renders a report as a paginated PDF table, streaming rows straight onto pages.
+ * Page content streams are kept in a temp-file stream cache, so only the small page
+ * objects stay in heap however many rows the report has. The header row repeats on every page.
+ */
+public class PdfReportExporter implements ReportExporter {
+    private static final float MARGIN = 36;
+    private static final float TITLE_SIZE = 14;
+    private static final float SUBTITLE_SIZE = 9;
+    private static final float FONT_SIZE = 8;
+    private static final float ROW_HEIGHT = 13;
+    private static final float CELL_PADDING = 3;
+    private static final float TITLE_BLOCK_HEIGHT = 40;
+    private static final float FOOTER_HEIGHT = 18;
+    private static final int WIDE_REPORT_COLUMNS = 6;
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final String ELLIPSIS = "...";
+
+    private static final DateTimeFormatter GENERATED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Override
+    public long export(ReportDefinition report, LocalDate fromDate, LocalDate toDate, File file,
+                       ExportProgress progress) throws IOException, SQLException {
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache());
+             Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS)) {
+            long total = report.countRows(conn, fromDate, toDate);
+            progress.update(0, total);
+
+            TableWriter table = new TableWriter(document, report,
+                "Date Range: " + fromDate + " to " + toDate +
+                "    Generated: " + LocalDateTime.now().format(GENERATED_FORMAT),
+                total);
+            long written = 0;
+            try (ReportRows rows = report.openRows(conn, fromDate, toDate)) {
+                while (rows.next()) {
+                    if (progress.isCancelled()) {
+                        rows.cancel();
+                        throw new CancellationException("PDF export cancelled");
+                    }
+                    table.row(rows);
+                    written++;
+                    if (written % PROGRESS_INTERVAL == 0) {
+                        progress.update(written, total);
+                    }
+                }
+            } finally {
+                table.close();
+            }
+            if (written == 0) {
+                table.emptyMessage("No data for this date range.");
+            }
+            progress.update(written, total);
+
+            // Nothing is written until the document is complete, so a cancelled export leaves no file
+            document.save(file);
+            return written;
+        }
+    }
+
+    /**
+     * Lays rows out page by page. Only the content stream of the current page is open.
+     */
+    private static class TableWriter {
+        private final PDDocument document;
+        private final ReportDefinition report;
+        private final String subtitle;
+        private final PDRectangle pageSize;
+        private final PDType1Font regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        private final PDType1Font bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        private final DecimalFormat moneyFormat = new DecimalFormat("#,##0.00");
+        private final DecimalFormat decimalFormat = new DecimalFormat("0.00");
+        private final float[] columnX;
+        private final float[] columnWidths;
+        private final int firstPageRows;
+        private final int rowsPerPage;
+        private final long totalPages;
+
+        private PDPageContentStream stream;
+        private int pageNumber;
+        private float y;
+        private int rowsOnPage;
+
+        TableWriter(PDDocument document, ReportDefinition report, String subtitle, long totalRows) {
+            this.document = document;
+            this.report = report;
+            this.subtitle = subtitle;
+            this.pageSize = report.getColumnCount() >= WIDE_REPORT_COLUMNS
+                ? new PDRectangle(PDRectangle.A4.getHeight(), PDRectangle.A4.getWidth())
+                : PDRectangle.A4;
+
+            float tableHeight = pageSize.getHeight() - 2 * MARGIN - FOOTER_HEIGHT - ROW_HEIGHT;
+            rowsPerPage = (int) (tableHeight / ROW_HEIGHT);
+            firstPageRows = (int) ((tableHeight - TITLE_BLOCK_HEIGHT) / ROW_HEIGHT);
+            totalPages = totalRows <= firstPageRows ? 1
+                : 1 + (totalRows - firstPageRows + rowsPerPage - 1) / rowsPerPage;
+
+            columnWidths = layoutColumns(report, pageSize.getWidth() - 2 * MARGIN);
+            columnX = new float[columnWidths.length];
+            float x = MARGIN;
+            for (int i = 0; i < columnWidths.length; i++) {
+                columnX[i] = x;
+                x += columnWidths[i];
+            }
+        }
+
+        /**
+         * Split the table width by each column's expected content width.
+         */
+        private static float[] layoutColumns(ReportDefinition report, float tableWidth) {
+            float[] weights = new float[report.getColumnCount()];
+            float sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                int expected;
+                switch (report.getType(i)) {
+                    case INTEGER: expected = 8; break;
+                    case MONEY: expected = 12; break;
+                    case DECIMAL: expected = 8; break;
+                    case DATE: expected = 10; break;
+                    default: expected = 18; break;
+                }
+                weights[i] = Math.max(expected, report.getHeader(i).length());
+                sum += weights[i];
+            }
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = tableWidth * weights[i] / sum;
+            }
+            return weights;
+        }
+
+        void row(ReportRows rows) throws SQLException, IOException {
+            int capacity = pageNumber <= 1 ? firstPageRows : rowsPerPage;
+            if (stream == null || rowsOnPage >= capacity) {
+                newPage();
+            }
+            stream.beginText();
+            stream.setFont(regular, FONT_SIZE);
+            for (int i = 0; i < report.getColumnCount(); i++) {
+                String text = cellText(rows, i);
+                if (text != null) {
+                    cell(text, i, regular, report.getType(i) != ReportDefinition.ColumnType.TEXT);
+                }
+            }
+            stream.endText();
+            y -= ROW_HEIGHT;
+            rowsOnPage++;
+        }
+
+        void emptyMessage(String message) throws IOException {
+            newPage();
+            stream.beginText();
+            stream.setFont(regular, FONT_SIZE);
+            stream.newLineAtOffset(MARGIN + CELL_PADDING, y - ROW_HEIGHT + 4);
+            stream.showText(message);
+            stream.endText();
+            close();
+        }
+
+        void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+
+        private String cellText(ReportRows rows, int index) throws SQLException {
+            int column = index + 1;
+            switch (report.getType(index)) {
+                case INTEGER: {
+                    long value = rows.getLong(column);
+                    return rows.wasNull() ? null : Long.toString(value);
+                }
+                case MONEY: {
+                    double value = rows.getDouble(column);
+                    return rows.wasNull() ? null : moneyFormat.format(value);
+                }
+                case DECIMAL: {
+                    double value = rows.getDouble(column);
+                    return rows.wasNull() ? null : decimalFormat.format(value);
+                }
+                case DATE: {
+                    LocalDate value = rows.getDate(column);
+                    return value == null ? null : value.toString();
+                }
+                default:
+                    return rows.getString(column);
+            }
+        }
+
+        private void newPage() throws IOException {
+            close();
+            PDPage page = new PDPage(pageSize);
+            document.addPage(page);
+            pageNumber++;
+            rowsOnPage = 0;
+            stream = new PDPageContentStream(document, page);
+            y = pageSize.getHeight() - MARGIN;
+
+            if (pageNumber == 1) {
+                text(bold, TITLE_SIZE, MARGIN, y - TITLE_SIZE, BookingQuery.HOTEL_NAME + " - " + report.getName());
+                text(regular, SUBTITLE_SIZE, MARGIN, y - TITLE_SIZE - 16, subtitle);
+                y -= TITLE_BLOCK_HEIGHT;
+            }
+
+            // Header row on a light grey band
+            stream.setNonStrokingColor(0.9f);
+            stream.addRect(MARGIN, y - ROW_HEIGHT, pageSize.getWidth() - 2 * MARGIN, ROW_HEIGHT);
+            stream.fill();
+            stream.setNonStrokingColor(0f);
+            stream.beginText();
+            stream.setFont(bold, FONT_SIZE);
+            for (int i = 0; i < report.getColumnCount(); i++) {
+                cell(report.getHeader(i), i, bold, report.getType(i) != ReportDefinition.ColumnType.TEXT);
+            }
+            stream.endText();
+            y -= ROW_HEIGHT;
+
+            String footer = pageNumber <= totalPages
+                ? "Page " + pageNumber + " of " + totalPages
+                : "Page " + pageNumber;
+            text(regular, SUBTITLE_SIZE, MARGIN, MARGIN, footer);
+        }
+
+        private void text(PDType1Font font, float size, float x, float baseline, String value) throws IOException {
+            stream.beginText();
+            stream.setFont(font, size);
+            stream.newLineAtOffset(x, baseline);
+            stream.showText(sanitize(value));
+            stream.endText();
+        }
+
+        /**
+         * Draw one cell inside an open text block, truncating it to the column width.
+         */
+        private void cell(String value, int column, PDType1Font font, boolean alignRight) throws IOException {
+            float available = columnWidths[column] - 2 * CELL_PADDING;
+            String text = fit(sanitize(value), font, available);
+            float x = columnX[column] + CELL_PADDING;
+            if (alignRight) {
+                x += available - width(font, text);
+            }
+            stream.setTextMatrix(Matrix.getTranslateInstance(x, y - ROW_HEIGHT + 4));
+            stream.showText(text);
+        }
+
+        private String fit(String text, PDType1Font font, float available) throws IOException {
+            if (width(font, text) <= available) {
+                return text;
+            }
+            float ellipsis = width(font, ELLIPSIS);
+            int end = text.length();
+            while (end > 0 && width(font, text.substring(0, end)) + ellipsis > available) {
+                end--;
+            }
+            return text.substring(0, end) + ELLIPSIS;
+        }
+
+        private static float width(PDType1Font font, String text) throws IOException {
+            return font.getStringWidth(text) / 1000 * FONT_SIZE;
+        }
+
+        /**
+         * The standard 14 fonts only cover WinAnsi (Latin-1), and PDFBox throws on anything else,
+         * so other characters (e.g. the peso sign) are replaced and control characters become spaces.
+         */
+        private static String sanitize(String value) {
+            StringBuilder result = null;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                char replacement;
+                if (c < 0x20 || (c >= 0x7F && c < 0xA0)) {
+                    replacement = ' ';
+                } else if (c > 0xFF) {
+                    replacement = '?';
+                } else {
+                    if (result != null) {
+                        result.append(c);
+                    }
+                    continue;
+                }
+                if (result == null) {
+                    result = new StringBuilder(value.length()).append(value, 0, i);
+                }
+                result.append(replacement);
+            }
+            return result == null ? value : result.toString();
+        }
+    }
+}
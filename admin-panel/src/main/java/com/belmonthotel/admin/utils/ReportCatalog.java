@@ -0,0 +1,180 @@
+package com.belmonthotel.admin.utils;
+
+import com.belmonthotel.admin.utils.ReportDefinition.ColumnType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Row-level definitions of every report offered on the Reports screen, in display order.
+ * Aggregated reports read the daily rollups; the booking and user reports read the source tables;
+ * occupancy reports are computed by {@link OccupancyService}.
+ */
+public class ReportCatalog {
+    private static final String REVENUE_STATUSES = "x.status IN ('confirmed', 'completed')";
+    private static final String WEEK_START = "DATE_SUB(x.stat_date, INTERVAL WEEKDAY(x.stat_date) DAY)";
+    private static final String MONTH = "DATE_FORMAT(x.stat_date, '%Y-%m')";
+
+    private static final ColumnType[] OCCUPANCY_TYPES_BY_DATE =
+        {ColumnType.DATE, ColumnType.INTEGER, ColumnType.INTEGER, ColumnType.INTEGER, ColumnType.DECIMAL};
+    private static final ColumnType[] OCCUPANCY_TYPES_BY_LABEL =
+        {ColumnType.TEXT, ColumnType.INTEGER, ColumnType.INTEGER, ColumnType.INTEGER, ColumnType.DECIMAL};
+
+    private static final Map<String, ReportDefinition> reports = new LinkedHashMap<>();
+
+    static {
+        register("Booking Report",
+            new String[] {"ID", "Reservation Number", "Guest Name", "Hotel", "Room Type",
+                          "Check-in", "Check-out", "Status", "Amount"},
+            new ColumnType[] {ColumnType.INTEGER, ColumnType.TEXT, ColumnType.TEXT, ColumnType.TEXT, ColumnType.TEXT,
+                              ColumnType.DATE, ColumnType.DATE, ColumnType.TEXT, ColumnType.MONEY},
+            () -> "SELECT r.id, r.reservation_number, u.name, '" + BookingQuery.HOTEL_NAME + "', rm.room_type, " +
+                  "r.check_in_date, r.check_out_date, r.status, r.total_amount " +
+                  "FROM reservations r JOIN users u ON r.user_id = u.id JOIN rooms rm ON r.room_id = rm.id " +
+                  "WHERE r.check_in_date BETWEEN ? AND ? ORDER BY r.created_at DESC");
+
+        register("Revenue Report (Daily)",
+            new String[] {"Date", "Revenue", "Bookings"},
+            new ColumnType[] {ColumnType.DATE, ColumnType.MONEY, ColumnType.INTEGER},
+            () -> "SELECT x.stat_date, SUM(x.amount), SUM(x.bookings) FROM " + created() + " x " +
+                  "WHERE " + REVENUE_STATUSES + " AND x.stat_date BETWEEN ? AND ? " +
+                  "GROUP BY x.stat_date ORDER BY x.stat_date");
+
+        register("Revenue Report (Weekly)",
+            new String[] {"Week Starting", "Revenue", "Bookings"},
+            new ColumnType[] {ColumnType.DATE, ColumnType.MONEY, ColumnType.INTEGER},
+            () -> "SELECT " + WEEK_START + " as week_start, SUM(x.amount), SUM(x.bookings) FROM " + created() + " x " +
+                  "WHERE " + REVENUE_STATUSES + " AND x.stat_date BETWEEN ? AND ? " +
+                  "GROUP BY week_start ORDER BY week_start");
+
+        register("Revenue Report (Monthly)",
+            new String[] {"Month", "Revenue", "Bookings"},
+            new ColumnType[] {ColumnType.TEXT, ColumnType.MONEY, ColumnType.INTEGER},
+            () -> "SELECT " + MONTH + " as month, SUM(x.amount), SUM(x.bookings) FROM " + created() + " x " +
+                  "WHERE " + REVENUE_STATUSES + " AND x.stat_date BETWEEN ? AND ? " +
+                  "GROUP BY month ORDER BY month");
+
+        register("Revenue by Room Type",
+            new String[] {"Room Type", "Revenue", "Bookings"},
+            new ColumnType[] {ColumnType.TEXT, ColumnType.MONEY, ColumnType.INTEGER},
+            () -> "SELECT rm.room_type, SUM(x.amount) as revenue, SUM(x.bookings) FROM " + created() + " x " +
+                  "JOIN rooms rm ON x.room_id = rm.id " +
+                  "WHERE " + REVENUE_STATUSES + " AND x.stat_date BETWEEN ? AND ? " +
+                  "GROUP BY rm.room_type ORDER BY revenue DESC");
+
+        register("Revenue by Payment Method",
+            new String[] {"Payment Method", "Revenue", "Payments"},
+            new ColumnType[] {ColumnType.TEXT, ColumnType.MONEY, ColumnType.INTEGER},
+            () -> "SELECT CASE WHEN x.payment_method = '' THEN 'N/A' ELSE x.payment_method END as method, " +
+                  "SUM(x.amount) as revenue, SUM(x.bookings) " +
+                  "FROM " + ReportRollupService.source(ReportRollupService.Basis.PAYMENT) + " x " +
+                  "WHERE x.status = 'paid' AND x.stat_date BETWEEN ? AND ? " +
+                  "GROUP BY method ORDER BY revenue DESC");
+
+        register("Booking Statistics",
+            new String[] {"Total Bookings", "Confirmed", "Cancelled", "Cancellation Rate (%)",
+                          "Average Amount", "Average Nights"},
+            new ColumnType[] {ColumnType.INTEGER, ColumnType.INTEGER, ColumnType.INTEGER, ColumnType.DECIMAL,
+                              ColumnType.MONEY, ColumnType.DECIMAL},
+            () -> "SELECT COALESCE(SUM(x.bookings), 0), " +
+                  "COALESCE(SUM(CASE WHEN x.status = 'confirmed' THEN x.bookings ELSE 0 END), 0), " +
+                  "COALESCE(SUM(CASE WHEN x.status = 'cancelled' THEN x.bookings ELSE 0 END), 0), " +
+                  "COALESCE(SUM(CASE WHEN x.status = 'cancelled' THEN x.bookings ELSE 0 END) * 100.0 / NULLIF(SUM(x.bookings), 0), 0), " +
+                  "COALESCE(SUM(x.amount) / NULLIF(SUM(x.bookings), 0), 0), " +
+                  "COALESCE(SUM(x.nights) / NULLIF(SUM(x.bookings), 0), 0) " +
+                  "FROM " + created() + " x WHERE x.stat_date BETWEEN ? AND ?");
+
+        register("Bookings by Status",
+            new String[] {"Status", "Bookings"},
+            new ColumnType[] {ColumnType.TEXT, ColumnType.INTEGER},
+            () -> "SELECT x.status, SUM(x.bookings) as count FROM " + created() + " x " +
+                  "WHERE x.stat_date BETWEEN ? AND ? GROUP BY x.status ORDER BY count DESC");
+
+        register("Bookings by Room Type",
+            new String[] {"Room Type", "Bookings"},
+            new ColumnType[] {ColumnType.TEXT, ColumnType.INTEGER},
+            () -> "SELECT rm.room_type, SUM(x.bookings) as count FROM " + created() + " x " +
+                  "JOIN rooms rm ON x.room_id = rm.id " +
+                  "WHERE x.stat_date BETWEEN ? AND ? GROUP BY rm.room_type ORDER BY count DESC");
+
+        register("Booking Trends",
+            new String[] {"Date", "Amount", "Bookings"},
+            new ColumnType[] {ColumnType.DATE, ColumnType.MONEY, ColumnType.INTEGER},
+            () -> "SELECT x.stat_date, SUM(x.amount), SUM(x.bookings) FROM " + created() + " x " +
+                  "WHERE x.stat_date BETWEEN ? AND ? GROUP BY x.stat_date ORDER BY x.stat_date");
+
+        register("Occupancy Report (Daily)",
+            new String[] {"Date", "Rooms Occupied", "Rooms Available", "Check-ins", "Occupancy Rate (%)"},
+            OCCUPANCY_TYPES_BY_DATE,
+            (from, to) -> occupancyRows(OccupancyService.get(from, to).daily(), true));
+
+        register("Occupancy Report (Weekly)",
+            new String[] {"Week Starting", "Room Nights Sold", "Room Nights Available", "Check-ins", "Occupancy Rate (%)"},
+            OCCUPANCY_TYPES_BY_DATE,
+            (from, to) -> occupancyRows(OccupancyService.get(from, to).weekly(), true));
+
+        register("Occupancy Report (Monthly)",
+            new String[] {"Month", "Room Nights Sold", "Room Nights Available", "Check-ins", "Occupancy Rate (%)"},
+            OCCUPANCY_TYPES_BY_LABEL,
+            (from, to) -> occupancyRows(OccupancyService.get(from, to).monthly(), false));
+
+        register("Occupancy by Room Type",
+            new String[] {"Room Type", "Room Nights Sold", "Room Nights Available", "Check-ins", "Occupancy Rate (%)"},
+            OCCUPANCY_TYPES_BY_LABEL,
+            (from, to) -> occupancyRows(OccupancyService.get(from, to).byRoomType(), false));
+
+        register("User Activity Report",
+            new String[] {"User ID", "Name", "Email", "Bookings", "Total Amount", "Last Booking"},
+            new ColumnType[] {ColumnType.INTEGER, ColumnType.TEXT, ColumnType.TEXT, ColumnType.INTEGER,
+                              ColumnType.MONEY, ColumnType.DATE},
+            () -> "SELECT u.id, u.name, u.email, COUNT(*) as bookings, SUM(r.total_amount), DATE(MAX(r.created_at)) " +
+                  "FROM reservations r JOIN users u ON r.user_id = u.id " +
+                  "WHERE r.created_at >= ? AND r.created_at < DATE_ADD(?, INTERVAL 1 DAY) " +
+                  "GROUP BY u.id, u.name, u.email ORDER BY bookings DESC, u.id");
+    }
+
+    private static void register(String name, String[] headers, ColumnType[] types, Supplier<String> query) {
+        reports.put(name, new ReportDefinition(name, headers, types, query));
+    }
+
+    private static void register(String name, String[] headers, ColumnType[] types,
+                                 ReportDefinition.RowGenerator rows) {
+        reports.put(name, new ReportDefinition(name, headers, types, rows));
+    }
+
+    /**
+     * Occupancy periods as report rows, first column the period's start date when dated, else its label.
+     * Rates are rounded to two places like the query reports.
+     */
+    private static List<Object[]> occupancyRows(List<OccupancyService.Period> periods, boolean dated) {
+        List<Object[]> rows = new ArrayList<>(periods.size());
+        for (OccupancyService.Period period : periods) {
+            Object first = dated ? period.getStart() : period.getLabel();
+            rows.add(new Object[] {first, period.getRoomNightsSold(), period.getRoomNightsAvailable(),
+                                   period.getCheckIns(), Math.round(period.getRate() * 100) / 100.0});
+        }
+        return rows;
+    }
+
+    private static String created() {
+        return ReportRollupService.source(ReportRollupService.Basis.CREATED);
+    }
+
+    /**
+     * Report names in display order.
+     */
+    public static List<String> getReportTypes() {
+        return new ArrayList<>(reports.keySet());
+    }
+
+    /**
+     * Look up a report by its display name.
+     * @return the definition, or null if there is no such report
+     */
+    public static ReportDefinition get(String name) {
+        return reports.get(name);
+    }
+}
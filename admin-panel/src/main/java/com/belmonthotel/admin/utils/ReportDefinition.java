@@ -0,0 +1,278 @@
+package com.belmonthotel.admin.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Describes one exportable report: its columns and where its rows come from.
+ * Most reports are a query taking the report's from and to dates as its two parameters;
+ * the rest compute their rows in memory with a {@link RowGenerator}.
+ */
+public class ReportDefinition {
+
+    /**
+     * How a column's values are read and formatted by the exporters.
+     */
+    public enum ColumnType {
+        TEXT,
+        INTEGER,
+        MONEY,
+        DECIMAL,
+        DATE
+    }
+
+    /**
+     * Computes a report's rows for a date range. Each row holds one value per column:
+     * a Number, LocalDate or String, or null for an empty cell.
+     */
+    @FunctionalInterface
+    public interface RowGenerator {
+        List<Object[]> rows(LocalDate fromDate, LocalDate toDate) throws SQLException;
+    }
+
+    // Rows pulled per round trip when streaming (requires useCursorFetch on the pool)
+    public static final int FETCH_SIZE = 1000;
+
+    private final String name;
+    private final String[] headers;
+    private final ColumnType[] types;
+    private final Supplier<String> queryBuilder;
+    private final RowGenerator rowGenerator;
+
+    /**
+     * @param queryBuilder builds the SQL at export time, so rollup sources are resolved per run
+     */
+    public ReportDefinition(String name, String[] headers, ColumnType[] types, Supplier<String> queryBuilder) {
+        if (headers.length != types.length) {
+            throw new IllegalArgumentException("Header and column type counts differ for " + name);
+        }
+        this.name = name;
+        this.headers = headers;
+        this.types = types;
+        this.queryBuilder = queryBuilder;
+        this.rowGenerator = null;
+    }
+
+    public ReportDefinition(String name, String[] headers, ColumnType[] types, RowGenerator rowGenerator) {
+        if (headers.length != types.length) {
+            throw new IllegalArgumentException("Header and column type counts differ for " + name);
+        }
+        this.name = name;
+        this.headers = headers;
+        this.types = types;
+        this.queryBuilder = null;
+        this.rowGenerator = rowGenerator;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getColumnCount() {
+        return headers.length;
+    }
+
+    public String getHeader(int column) {
+        return headers[column];
+    }
+
+    public ColumnType getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * The row query, or null for a report computed in memory.
+     */
+    public String getQuery() {
+        return queryBuilder != null ? queryBuilder.get() : null;
+    }
+
+    /**
+     * Open the report's rows. Query reports stream through a forward-only, read-only statement
+     * in {@link #FETCH_SIZE} chunks on the given connection.
+     */
+    public ReportRows openRows(Connection conn, LocalDate fromDate, LocalDate toDate) throws SQLException {
+        return openRows(conn, fromDate, toDate, 0, stmt -> { });
+    }
+
+    /**
+     * Open at most limit of the report's rows (all when limit is 0). A query's statement is handed
+     * to running before it executes, so the caller can cancel it.
+     */
+    public ReportRows openRows(Connection conn, LocalDate fromDate, LocalDate toDate, int limit,
+                               Consumer<Statement> running) throws SQLException {
+        if (rowGenerator != null) {
+            List<Object[]> rows = rowGenerator.rows(fromDate, toDate);
+            return new ListRows(limit > 0 && rows.size() > limit ? rows.subList(0, limit) : rows);
+        }
+        String sql = limit > 0 ? "SELECT * FROM (" + getQuery() + ") limited LIMIT " + limit : getQuery();
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(FETCH_SIZE);
+            bindDates(stmt, fromDate, toDate);
+            running.accept(stmt);
+            return new QueryRows(stmt, stmt.executeQuery());
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Count the rows the report will produce, used to drive export progress.
+     */
+    public long countRows(Connection conn, LocalDate fromDate, LocalDate toDate) throws SQLException {
+        return countRows(conn, fromDate, toDate, stmt -> { });
+    }
+
+    /**
+     * Count the rows the report will produce, handing the statement to running before it executes.
+     */
+    public long countRows(Connection conn, LocalDate fromDate, LocalDate toDate,
+                          Consumer<Statement> running) throws SQLException {
+        if (rowGenerator != null) {
+            return rowGenerator.rows(fromDate, toDate).size();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM (" + getQuery() + ") counted")) {
+            bindDates(stmt, fromDate, toDate);
+            running.accept(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static void bindDates(PreparedStatement stmt, LocalDate fromDate, LocalDate toDate) throws SQLException {
+        stmt.setDate(1, java.sql.Date.valueOf(fromDate));
+        stmt.setDate(2, java.sql.Date.valueOf(toDate));
+    }
+
+    /**
+     * Rows streamed from a statement, closed together with it.
+     */
+    private static class QueryRows implements ReportRows {
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+
+        QueryRows(PreparedStatement stmt, ResultSet rs) {
+            this.stmt = stmt;
+            this.rs = rs;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            return rs.next();
+        }
+
+        @Override
+        public long getLong(int column) throws SQLException {
+            return rs.getLong(column);
+        }
+
+        @Override
+        public double getDouble(int column) throws SQLException {
+            return rs.getDouble(column);
+        }
+
+        @Override
+        public String getString(int column) throws SQLException {
+            return rs.getString(column);
+        }
+
+        @Override
+        public LocalDate getDate(int column) throws SQLException {
+            java.sql.Date value = rs.getDate(column);
+            return value == null ? null : value.toLocalDate();
+        }
+
+        @Override
+        public boolean wasNull() throws SQLException {
+            return rs.wasNull();
+        }
+
+        @Override
+        public void cancel() throws SQLException {
+            stmt.cancel();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                rs.close();
+            } finally {
+                stmt.close();
+            }
+        }
+    }
+
+    /**
+     * Rows computed in memory.
+     */
+    private static class ListRows implements ReportRows {
+        private final List<Object[]> rows;
+        private int index = -1;
+        private boolean lastWasNull;
+
+        ListRows(List<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next() {
+            if (index < rows.size()) {
+                index++;
+            }
+            return index < rows.size();
+        }
+
+        @Override
+        public long getLong(int column) {
+            Object value = value(column);
+            return value == null ? 0 : ((Number) value).longValue();
+        }
+
+        @Override
+        public double getDouble(int column) {
+            Object value = value(column);
+            return value == null ? 0 : ((Number) value).doubleValue();
+        }
+
+        @Override
+        public String getString(int column) {
+            Object value = value(column);
+            return value == null ? null : value.toString();
+        }
+
+        @Override
+        public LocalDate getDate(int column) {
+            return (LocalDate) value(column);
+        }
+
+        @Override
+        public boolean wasNull() {
+            return lastWasNull;
+        }
+
+        @Override
+        public void cancel() {
+            index = rows.size();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private Object value(int column) {
+            Object value = rows.get(index)[column - 1];
+            lastWasNull = value == null;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.belmonthotel.admin.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Writes a report to a file by streaming its rows from the analytics pool.
+ * Implementations are meant to run off the JavaFX application thread.
+ */
+public interface ReportExporter {
+    /**
+     * Export the report for the given date range.
+     * @return number of data rows written
+     * @throws java.util.concurrent.CancellationException if cancelled; the partial file is removed
+     */
+    long export(ReportDefinition report, LocalDate fromDate, LocalDate toDate, File file,
+                ExportProgress progress) throws IOException, SQLException;
+}
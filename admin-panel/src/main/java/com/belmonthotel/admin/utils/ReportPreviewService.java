@@ -0,0 +1,298 @@
+package com.belmonthotel.admin.utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the text previews shown on the Reports screen.
+ * A preview is the report's row count and first rows, read through the same
+ * {@link ReportCatalog} definition the exporters use, so it always matches the export.
+ * Previews for every report type are computed in parallel for the selected date range on a
+ * small bounded executor and cached per (report type, from, to), so flipping between report
+ * types is instant. Computations for a range that is no longer selected can be cancelled,
+ * which also cancels their running SQL statement or drops them from the queue.
+ */
+public class ReportPreviewService {
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int MAX_CACHED_PREVIEWS = 120;
+    private static final int PREVIEW_ROWS = 10;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    // Sized to the analytics pool by default; extra threads would only wait for connections
+    private static final int WORKER_THREADS = Math.max(1,
+        AppConfig.getInt("reports.preview.threads", AppConfig.getInt("db.pool.analytics.size", 4)));
+
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        WORKER_THREADS, WORKER_THREADS, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+        runnable -> {
+            Thread thread = new Thread(runnable, "report-preview-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    // Access-ordered so the least recently viewed preview is evicted first
+    private static final Map<PreviewKey, Computation> cache =
+        new LinkedHashMap<PreviewKey, Computation>(MAX_CACHED_PREVIEWS + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PreviewKey, Computation> eldest) {
+                return size() > MAX_CACHED_PREVIEWS;
+            }
+        };
+
+    /**
+     * Get the preview of one report, computing it in the background if it is not cached.
+     * Failed and cancelled computations are not kept, so asking again retries.
+     */
+    public static CompletableFuture<String> getPreview(String reportType, LocalDate fromDate, LocalDate toDate) {
+        PreviewKey key = new PreviewKey(reportType, fromDate, toDate);
+        long ttlMillis = AppConfig.getInt("reports.preview.cache.ttl.seconds", 60) * 1000L;
+        synchronized (cache) {
+            Computation cached = cache.get(key);
+            if (cached != null && !cached.isExpired(ttlMillis)) {
+                return cached.future;
+            }
+            Computation computation = new Computation(key);
+            cache.put(key, computation);
+            computation.start();
+            return computation.future;
+        }
+    }
+
+    /**
+     * Start computing every report's preview for the range, the selected report first.
+     */
+    public static void prefetch(String selectedType, LocalDate fromDate, LocalDate toDate) {
+        getPreview(selectedType, fromDate, toDate);
+        for (String reportType : ReportCatalog.getReportTypes()) {
+            if (!reportType.equals(selectedType)) {
+                getPreview(reportType, fromDate, toDate);
+            }
+        }
+    }
+
+    /**
+     * Cancel unfinished computations for any other date range, including their running queries.
+     */
+    public static void cancelOtherRanges(LocalDate fromDate, LocalDate toDate) {
+        List<Computation> stale = new ArrayList<>();
+        synchronized (cache) {
+            Iterator<Computation> it = cache.values().iterator();
+            while (it.hasNext()) {
+                Computation computation = it.next();
+                if (!computation.future.isDone() && !computation.key.hasRange(fromDate, toDate)) {
+                    stale.add(computation);
+                    it.remove();
+                }
+            }
+        }
+        for (Computation computation : stale) {
+            computation.cancel();
+        }
+    }
+
+    /**
+     * The report's row count followed by its first rows, or each column on its own line when
+     * the report is a single row of totals.
+     */
+    private static String preview(Computation computation, ReportDefinition report, LocalDate fromDate,
+                                  LocalDate toDate) throws SQLException {
+        computation.checkCancelled();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS)) {
+            long total = report.countRows(conn, fromDate, toDate, computation::setStatement);
+            computation.checkCancelled();
+            StringBuilder result = new StringBuilder(report.getName() + ":\n");
+            if (total == 0) {
+                return result.append("No data available").toString();
+            }
+            try (ReportRows rows = report.openRows(conn, fromDate, toDate, PREVIEW_ROWS, computation::setStatement)) {
+                if (total == 1 && rows.next()) {
+                    for (int i = 0; i < report.getColumnCount(); i++) {
+                        result.append(report.getHeader(i)).append(": ").append(value(report, rows, i)).append('\n');
+                    }
+                    return result.toString();
+                }
+                for (int i = 0; i < report.getColumnCount(); i++) {
+                    result.append(i == 0 ? "" : " | ").append(report.getHeader(i));
+                }
+                result.append('\n');
+                while (rows.next()) {
+                    computation.checkCancelled();
+                    for (int i = 0; i < report.getColumnCount(); i++) {
+                        result.append(i == 0 ? "" : " | ").append(value(report, rows, i));
+                    }
+                    result.append('\n');
+                }
+            } finally {
+                computation.setStatement(null);
+            }
+            if (total > PREVIEW_ROWS) {
+                result.append(String.format("... %d more rows (%d in total)", total - PREVIEW_ROWS, total));
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * One value formatted as the exporters would, empty when null.
+     */
+    private static String value(ReportDefinition report, ReportRows rows, int index) throws SQLException {
+        int column = index + 1;
+        switch (report.getType(index)) {
+            case INTEGER: {
+                long value = rows.getLong(column);
+                return rows.wasNull() ? "" : Long.toString(value);
+            }
+            case MONEY: {
+                double value = rows.getDouble(column);
+                return rows.wasNull() ? "" : String.format("₱%.2f", value);
+            }
+            case DECIMAL: {
+                double value = rows.getDouble(column);
+                return rows.wasNull() ? "" : String.format("%.2f", value);
+            }
+            default: {
+                String value = rows.getString(column);
+                return value != null ? value : "";
+            }
+        }
+    }
+
+    /**
+     * Cache key: report type and date range.
+     */
+    private static final class PreviewKey {
+        private final String reportType;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+
+        PreviewKey(String reportType, LocalDate fromDate, LocalDate toDate) {
+            this.reportType = reportType;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+        }
+
+        boolean hasRange(LocalDate from, LocalDate to) {
+            return fromDate.equals(from) && toDate.equals(to);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PreviewKey)) return false;
+            PreviewKey other = (PreviewKey) o;
+            return reportType.equals(other.reportType) && hasRange(other.fromDate, other.toDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(reportType, fromDate, toDate);
+        }
+    }
+
+    /**
+     * One preview computation and the statement it is currently running, if any.
+     */
+    private static final class Computation {
+        private final PreviewKey key;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private final long createdAt = System.currentTimeMillis();
+        private volatile Statement statement;
+        private volatile boolean cancelled;
+        private Runnable task;
+
+        Computation(PreviewKey key) {
+            this.key = key;
+        }
+
+        void start() {
+            ReportDefinition report = ReportCatalog.get(key.reportType);
+            if (report == null) {
+                future.complete("No preview available for this report");
+                return;
+            }
+            task = () -> run(report);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                fail(e);
+            }
+        }
+
+        private void run(ReportDefinition report) {
+            // Skipped entirely if the range went stale while this was queued
+            if (cancelled) {
+                return;
+            }
+            try {
+                future.complete(preview(this, report, key.fromDate, key.toDate));
+            } catch (Exception e) {
+                if (!cancelled) {
+                    fail(e);
+                }
+            }
+        }
+
+        private void fail(Exception e) {
+            synchronized (cache) {
+                cache.remove(key, this);
+            }
+            future.completeExceptionally(e);
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return future.isDone() && System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+
+        void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        void setStatement(Statement stmt) {
+            statement = stmt;
+            // Close the race with a cancel() that ran before the statement was published
+            if (stmt != null && cancelled) {
+                try {
+                    stmt.cancel();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            future.cancel(false);
+            // Free its queue slot if it has not started
+            if (task != null) {
+                executor.remove(task);
+            }
+            Statement running = statement;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
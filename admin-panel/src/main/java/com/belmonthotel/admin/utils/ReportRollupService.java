@@ -0,0 +1,614 @@
+package com.belmonthotel.admin.utils;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the report_daily_rollups summary table (per day x room x status x payment method)
+ * used by the reports and dashboard charts.
+ *
+ * Reservation changes are found through the reservations.updated_at and transaction_logs.id
+ * watermarks and applied as deltas against the last values recorded in report_rollup_members.
+ * Payment days touched since the payments.updated_at watermark are recomputed.
+ * Refreshes run on a background thread every reports.rollup.refresh.seconds. Until the first one
+ * succeeds, or when the rollup tables have not been migrated, {@link #source(Basis)} falls back
+ * to the raw tables.
+ */
+public class ReportRollupService {
+
+    /**
+     * Which date a rollup row is keyed on.
+     */
+    public enum Basis {
+        CREATED("created"),     // DATE(reservations.created_at)
+        CHECK_IN("check_in"),   // reservations.check_in_date
+        PAYMENT("payment");     // DATE(payments.created_at)
+
+        private final String key;
+
+        Basis(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final String LOCK_NAME = "belmont_report_rollup_refresh";
+    private static final int BATCH_SIZE = 500;
+    private static final int FULL_REBUILD_THRESHOLD = 50000;
+    private static final Timestamp EPOCH = new Timestamp(0);
+
+    private static final String SOURCE_RESERVATIONS = "reservations";
+    private static final String SOURCE_PAYMENTS = "payments";
+    private static final String SOURCE_TRANSACTION_LOGS = "transaction_logs";
+    private static final String SOURCE_REBUILD = "rebuild";
+
+    // Row-per-record equivalents of the rollup, used until the migration has been run
+    private static final String RAW_CREATED =
+        "(SELECT DATE(created_at) as stat_date, room_id, status, '' as payment_method, 1 as bookings, " +
+        "total_amount as amount, DATEDIFF(check_out_date, check_in_date) as nights FROM reservations)";
+    private static final String RAW_CHECK_IN =
+        "(SELECT check_in_date as stat_date, room_id, status, '' as payment_method, 1 as bookings, " +
+        "total_amount as amount, DATEDIFF(check_out_date, check_in_date) as nights FROM reservations)";
+    private static final String RAW_PAYMENT =
+        "(SELECT DATE(p.created_at) as stat_date, r.room_id, p.status, COALESCE(p.payment_method, '') as payment_method, " +
+        "1 as bookings, p.amount, 0 as nights FROM payments p JOIN reservations r ON p.reservation_id = r.id)";
+
+    private static final String MEMBER_COLUMNS =
+        "room_id, created_date, check_in_date, status, total_amount, nights";
+    private static final String RESERVATION_AS_MEMBER =
+        "room_id, DATE(COALESCE(created_at, check_in_date)) as created_date, check_in_date, status, " +
+        "total_amount, DATEDIFF(check_out_date, check_in_date) as nights";
+
+    private static volatile Boolean available;
+
+    private static final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "report-rollup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        refresher.scheduleWithFixedDelay(ReportRollupService::refresh, 0,
+            Math.max(1, AppConfig.getInt("reports.rollup.refresh.seconds", 60)), TimeUnit.SECONDS);
+    }
+
+    /**
+     * SQL fragment for a FROM clause that yields rollup rows for the given basis:
+     * stat_date, room_id, status, payment_method, bookings, amount, nights.
+     * Aggregate with SUM(bookings)/SUM(amount)/SUM(nights); it works the same over raw rows.
+     * Never touches the database itself.
+     */
+    public static String source(Basis basis) {
+        if (Boolean.TRUE.equals(available)) {
+            return "(SELECT stat_date, room_id, status, payment_method, bookings, amount, nights " +
+                   "FROM report_daily_rollups WHERE basis = '" + basis.getKey() + "')";
+        }
+        switch (basis) {
+            case CREATED:
+                return RAW_CREATED;
+            case CHECK_IN:
+                return RAW_CHECK_IN;
+            default:
+                return RAW_PAYMENT;
+        }
+    }
+
+    /**
+     * Whether the rollup tables exist and were refreshed successfully.
+     */
+    public static boolean isAvailable() {
+        return Boolean.TRUE.equals(available);
+    }
+
+    /**
+     * Bring the rollups up to date. Only one admin workstation refreshes at a time
+     * (MySQL named lock); the others keep reading the current rollups.
+     */
+    public static synchronized void refresh() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!tablesExist(conn)) {
+                available = false;
+                return;
+            }
+            if (!acquireLock(conn)) {
+                // Another workstation is refreshing; keep using what we used before
+                if (available == null) {
+                    available = false;
+                }
+                return;
+            }
+            try {
+                conn.setAutoCommit(false);
+                try {
+                    Map<String, StateRow> state = loadState(conn);
+                    StateRow rebuildState = state.get(SOURCE_REBUILD);
+                    if (rebuildState == null || rebuildState.expired) {
+                        rebuild(conn);
+                    } else {
+                        refreshIncrementally(conn, state);
+                    }
+                    conn.commit();
+                    available = true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Also keeps the scheduled refresh running
+            e.printStackTrace();
+            // Rollups may be behind; the raw tables are always correct
+            available = false;
+        }
+    }
+
+    /**
+     * Recompute every rollup row from the source tables.
+     * Also runs periodically to pick up deleted rows, which watermarks cannot see.
+     */
+    private static void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM report_daily_rollups");
+            stmt.executeUpdate("DELETE FROM report_rollup_members");
+            stmt.executeUpdate(
+                "INSERT INTO report_rollup_members (reservation_id, " + MEMBER_COLUMNS + ") " +
+                "SELECT id, " + RESERVATION_AS_MEMBER + " FROM reservations");
+            stmt.executeUpdate(
+                "INSERT INTO report_daily_rollups (basis, stat_date, room_id, status, payment_method, bookings, amount, nights) " +
+                "SELECT 'created', created_date, room_id, status, '', COUNT(*), SUM(total_amount), SUM(nights) " +
+                "FROM report_rollup_members GROUP BY created_date, room_id, status");
+            stmt.executeUpdate(
+                "INSERT INTO report_daily_rollups (basis, stat_date, room_id, status, payment_method, bookings, amount, nights) " +
+                "SELECT 'check_in', check_in_date, room_id, status, '', COUNT(*), SUM(total_amount), SUM(nights) " +
+                "FROM report_rollup_members GROUP BY check_in_date, room_id, status");
+            stmt.executeUpdate(
+                "INSERT INTO report_daily_rollups (basis, stat_date, room_id, status, payment_method, bookings, amount, nights) " +
+                "SELECT 'payment', DATE(p.created_at), r.room_id, p.status, COALESCE(p.payment_method, ''), " +
+                "COUNT(*), SUM(p.amount), 0 " +
+                "FROM payments p JOIN reservations r ON p.reservation_id = r.id " +
+                "WHERE p.created_at IS NOT NULL " +
+                "GROUP BY DATE(p.created_at), r.room_id, p.status, COALESCE(p.payment_method, '')");
+        }
+
+        saveState(conn, SOURCE_RESERVATIONS, queryTimestamp(conn, "SELECT MAX(updated_at) FROM reservations"), null);
+        saveState(conn, SOURCE_PAYMENTS, queryTimestamp(conn, "SELECT MAX(updated_at) FROM payments"), null);
+        saveState(conn, SOURCE_TRANSACTION_LOGS, null, queryLong(conn, "SELECT MAX(id) FROM transaction_logs"));
+        saveState(conn, SOURCE_REBUILD, null, null);
+    }
+
+    private static void refreshIncrementally(Connection conn, Map<String, StateRow> state) throws SQLException {
+        Timestamp reservationsMark = watermarkTime(state.get(SOURCE_RESERVATIONS));
+        Timestamp paymentsMark = watermarkTime(state.get(SOURCE_PAYMENTS));
+        StateRow logsState = state.get(SOURCE_TRANSACTION_LOGS);
+        long logsMark = logsState != null && logsState.lastId != null ? logsState.lastId : 0;
+
+        // Reservations touched since the watermarks. Rows stamped exactly at the watermark are
+        // re-read every time; applying an unchanged reservation is a no-op, so that is safe.
+        Set<Long> changedIds = new LinkedHashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT id, updated_at FROM reservations WHERE updated_at >= ?")) {
+            stmt.setTimestamp(1, reservationsMark);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changedIds.add(rs.getLong("id"));
+                    reservationsMark = later(reservationsMark, rs.getTimestamp("updated_at"));
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT id, reservation_id FROM transaction_logs WHERE id > ?")) {
+            stmt.setLong(1, logsMark);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    logsMark = Math.max(logsMark, rs.getLong("id"));
+                    long reservationId = rs.getLong("reservation_id");
+                    if (!rs.wasNull()) {
+                        changedIds.add(reservationId);
+                    }
+                }
+            }
+        }
+
+        if (changedIds.size() > FULL_REBUILD_THRESHOLD) {
+            rebuild(conn);
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(changedIds);
+        for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+            applyReservationChanges(conn, ids.subList(start, Math.min(ids.size(), start + BATCH_SIZE)));
+        }
+
+        paymentsMark = refreshPaymentDays(conn, paymentsMark);
+
+        saveState(conn, SOURCE_RESERVATIONS, reservationsMark, null);
+        saveState(conn, SOURCE_PAYMENTS, paymentsMark, null);
+        saveState(conn, SOURCE_TRANSACTION_LOGS, null, logsMark);
+    }
+
+    /**
+     * Move a batch of reservations from their recorded contribution to their current one.
+     */
+    private static void applyReservationChanges(Connection conn, List<Long> ids) throws SQLException {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<Long, Contribution> current = loadContributions(conn,
+            "SELECT id, " + RESERVATION_AS_MEMBER + " FROM reservations WHERE id IN (" + placeholders + ")", ids);
+        Map<Long, Contribution> recorded = loadContributions(conn,
+            "SELECT reservation_id as id, " + MEMBER_COLUMNS + " FROM report_rollup_members " +
+            "WHERE reservation_id IN (" + placeholders + ")", ids);
+
+        Map<DeltaKey, Delta> deltas = new LinkedHashMap<>();
+        List<Long> removed = new ArrayList<>();
+        List<Map.Entry<Long, Contribution>> upserts = new ArrayList<>();
+
+        for (Long id : ids) {
+            Contribution before = recorded.get(id);
+            Contribution after = current.get(id);
+            if (Objects.equals(before, after)) {
+                continue;
+            }
+            if (before != null) {
+                addDelta(deltas, before, -1);
+            }
+            if (after != null) {
+                addDelta(deltas, after, 1);
+                upserts.add(Map.entry(id, after));
+            } else {
+                removed.add(id);
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO report_daily_rollups (basis, stat_date, room_id, status, payment_method, bookings, amount, nights) " +
+                 "VALUES (?, ?, ?, ?, '', ?, ?, ?) " +
+                 "ON DUPLICATE KEY UPDATE bookings = bookings + VALUES(bookings), " +
+                 "amount = amount + VALUES(amount), nights = nights + VALUES(nights)")) {
+            for (Map.Entry<DeltaKey, Delta> entry : deltas.entrySet()) {
+                DeltaKey key = entry.getKey();
+                Delta delta = entry.getValue();
+                stmt.setString(1, key.basis.getKey());
+                stmt.setDate(2, java.sql.Date.valueOf(key.date));
+                stmt.setLong(3, key.roomId);
+                stmt.setString(4, key.status);
+                stmt.setInt(5, delta.bookings);
+                stmt.setBigDecimal(6, delta.amount);
+                stmt.setInt(7, delta.nights);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        // Drop groups that no longer contain any reservation
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "DELETE FROM report_daily_rollups WHERE basis = ? AND stat_date = ? AND room_id = ? " +
+                 "AND status = ? AND payment_method = '' AND bookings <= 0")) {
+            for (Map.Entry<DeltaKey, Delta> entry : deltas.entrySet()) {
+                if (entry.getValue().bookings < 0) {
+                    DeltaKey key = entry.getKey();
+                    stmt.setString(1, key.basis.getKey());
+                    stmt.setDate(2, java.sql.Date.valueOf(key.date));
+                    stmt.setLong(3, key.roomId);
+                    stmt.setString(4, key.status);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO report_rollup_members (reservation_id, " + MEMBER_COLUMNS + ") " +
+                 "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                 "ON DUPLICATE KEY UPDATE room_id = VALUES(room_id), created_date = VALUES(created_date), " +
+                 "check_in_date = VALUES(check_in_date), status = VALUES(status), " +
+                 "total_amount = VALUES(total_amount), nights = VALUES(nights)")) {
+            for (Map.Entry<Long, Contribution> entry : upserts) {
+                Contribution c = entry.getValue();
+                stmt.setLong(1, entry.getKey());
+                stmt.setLong(2, c.roomId);
+                stmt.setDate(3, java.sql.Date.valueOf(c.createdDate));
+                stmt.setDate(4, java.sql.Date.valueOf(c.checkInDate));
+                stmt.setString(5, c.status);
+                stmt.setBigDecimal(6, c.amount);
+                stmt.setInt(7, c.nights);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        if (!removed.isEmpty()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM report_rollup_members WHERE reservation_id = ?")) {
+                for (Long id : removed) {
+                    stmt.setLong(1, id);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Recompute the payment rollup for every day that has a payment updated since the watermark.
+     * Returns the new watermark.
+     */
+    private static Timestamp refreshPaymentDays(Connection conn, Timestamp mark) throws SQLException {
+        Set<LocalDate> days = new TreeSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT DATE(created_at) as day, MAX(updated_at) as last_updated FROM payments " +
+                 "WHERE updated_at >= ? AND created_at IS NOT NULL GROUP BY DATE(created_at)")) {
+            stmt.setTimestamp(1, mark);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    days.add(rs.getDate("day").toLocalDate());
+                    mark = later(mark, rs.getTimestamp("last_updated"));
+                }
+            }
+        }
+
+        if (days.isEmpty()) {
+            return mark;
+        }
+
+        try (PreparedStatement delete = conn.prepareStatement(
+                 "DELETE FROM report_daily_rollups WHERE basis = 'payment' AND stat_date = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                 "INSERT INTO report_daily_rollups (basis, stat_date, room_id, status, payment_method, bookings, amount, nights) " +
+                 "SELECT 'payment', ?, r.room_id, p.status, COALESCE(p.payment_method, ''), COUNT(*), SUM(p.amount), 0 " +
+                 "FROM payments p JOIN reservations r ON p.reservation_id = r.id " +
+                 "WHERE p.created_at >= ? AND p.created_at < ? " +
+                 "GROUP BY r.room_id, p.status, COALESCE(p.payment_method, '')")) {
+            for (LocalDate day : days) {
+                delete.setDate(1, java.sql.Date.valueOf(day));
+                delete.executeUpdate();
+
+                insert.setDate(1, java.sql.Date.valueOf(day));
+                insert.setTimestamp(2, Timestamp.valueOf(day.atStartOfDay()));
+                insert.setTimestamp(3, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+                insert.executeUpdate();
+            }
+        }
+        return mark;
+    }
+
+    private static Map<Long, Contribution> loadContributions(Connection conn, String query, List<Long> ids)
+            throws SQLException {
+        Map<Long, Contribution> result = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setLong(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.put(rs.getLong("id"), new Contribution(
+                        rs.getLong("room_id"),
+                        rs.getDate("created_date").toLocalDate(),
+                        rs.getDate("check_in_date").toLocalDate(),
+                        rs.getString("status"),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getInt("nights")));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addDelta(Map<DeltaKey, Delta> deltas, Contribution c, int sign) {
+        for (Basis basis : new Basis[] {Basis.CREATED, Basis.CHECK_IN}) {
+            LocalDate date = basis == Basis.CREATED ? c.createdDate : c.checkInDate;
+            Delta delta = deltas.computeIfAbsent(new DeltaKey(basis, date, c.roomId, c.status), k -> new Delta());
+            delta.bookings += sign;
+            delta.amount = sign > 0 ? delta.amount.add(c.amount) : delta.amount.subtract(c.amount);
+            delta.nights += sign * c.nights;
+        }
+    }
+
+    private static boolean tablesExist(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() " +
+                 "AND table_name IN ('report_daily_rollups', 'report_rollup_members', 'report_rollup_state')");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() && rs.getInt(1) == 3;
+        }
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            stmt.setString(1, LOCK_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private static Map<String, StateRow> loadState(Connection conn) throws SQLException {
+        Map<String, StateRow> state = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT source, last_updated_at, last_id, " +
+                 "(refreshed_at IS NULL OR refreshed_at < NOW() - INTERVAL ? HOUR) as expired " +
+                 "FROM report_rollup_state")) {
+            stmt.setInt(1, AppConfig.getInt("reports.rollup.rebuild.hours", 24));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long lastId = rs.getLong("last_id");
+                    state.put(rs.getString("source"), new StateRow(
+                        rs.getTimestamp("last_updated_at"),
+                        rs.wasNull() ? null : lastId,
+                        rs.getBoolean("expired")));
+                }
+            }
+        }
+        return state;
+    }
+
+    private static void saveState(Connection conn, String source, Timestamp lastUpdatedAt, Long lastId)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO report_rollup_state (source, last_updated_at, last_id, refreshed_at) " +
+                 "VALUES (?, ?, ?, NOW()) " +
+                 "ON DUPLICATE KEY UPDATE last_updated_at = VALUES(last_updated_at), " +
+                 "last_id = VALUES(last_id), refreshed_at = NOW()")) {
+            stmt.setString(1, source);
+            stmt.setTimestamp(2, lastUpdatedAt);
+            stmt.setObject(3, lastId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Timestamp queryTimestamp(Connection conn, String query) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getTimestamp(1) : null;
+        }
+    }
+
+    private static Long queryLong(Connection conn, String query) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                long value = rs.getLong(1);
+                return rs.wasNull() ? null : value;
+            }
+            return null;
+        }
+    }
+
+    private static Timestamp watermarkTime(StateRow row) {
+        return row != null && row.lastUpdatedAt != null ? row.lastUpdatedAt : EPOCH;
+    }
+
+    private static Timestamp later(Timestamp a, Timestamp b) {
+        if (b == null) {
+            return a;
+        }
+        return a == null || b.after(a) ? b : a;
+    }
+
+    /**
+     * One row of report_rollup_state.
+     */
+    private static class StateRow {
+        final Timestamp lastUpdatedAt;
+        final Long lastId;
+        final boolean expired;
+
+        StateRow(Timestamp lastUpdatedAt, Long lastId, boolean expired) {
+            this.lastUpdatedAt = lastUpdatedAt;
+            this.lastId = lastId;
+            this.expired = expired;
+        }
+    }
+
+    /**
+     * What a single reservation adds to the rollups.
+     */
+    private static class Contribution {
+        final long roomId;
+        final LocalDate createdDate;
+        final LocalDate checkInDate;
+        final String status;
+        final BigDecimal amount;
+        final int nights;
+
+        Contribution(long roomId, LocalDate createdDate, LocalDate checkInDate, String status,
+                     BigDecimal amount, int nights) {
+            this.roomId = roomId;
+            this.createdDate = createdDate;
+            this.checkInDate = checkInDate;
+            this.status = status;
+            this.amount = amount != null ? amount : BigDecimal.ZERO;
+            this.nights = nights;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Contribution)) return false;
+            Contribution other = (Contribution) o;
+            return roomId == other.roomId && nights == other.nights
+                && createdDate.equals(other.createdDate) && checkInDate.equals(other.checkInDate)
+                && status.equals(other.status) && amount.compareTo(other.amount) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(roomId, createdDate, checkInDate, status, nights);
+        }
+    }
+
+    /**
+     * Rollup row identity for reservation bases (payment method is always empty).
+     */
+    private static class DeltaKey {
+        final Basis basis;
+        final LocalDate date;
+        final long roomId;
+        final String status;
+
+        DeltaKey(Basis basis, LocalDate date, long roomId, String status) {
+            this.basis = basis;
+            this.date = date;
+            this.roomId = roomId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DeltaKey)) return false;
+            DeltaKey other = (DeltaKey) o;
+            return basis == other.basis && roomId == other.roomId
+                && date.equals(other.date) && status.equals(other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(basis, date, roomId, status);
+        }
+    }
+
+    /**
+     * Accumulated change for one rollup row.
+     */
+    private static class Delta {
+        int bookings;
+        BigDecimal amount = BigDecimal.ZERO;
+        int nights;
+    }
+}
@@ -0,0 +1,32 @@
+package com.belmonthotel.admin.utils;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Forward-only cursor over a report's rows, whether they stream from a query or were computed
+ * in memory. Columns are numbered from 1 and read like a ResultSet: after reading a value,
+ * {@link #wasNull()} tells whether the cell was empty.
+ */
+public interface ReportRows extends AutoCloseable {
+
+    boolean next() throws SQLException;
+
+    long getLong(int column) throws SQLException;
+
+    double getDouble(int column) throws SQLException;
+
+    String getString(int column) throws SQLException;
+
+    LocalDate getDate(int column) throws SQLException;
+
+    boolean wasNull() throws SQLException;
+
+    /**
+     * Stop producing rows, cancelling the running statement if there is one.
+     */
+    void cancel() throws SQLException;
+
+    @Override
+    void close() throws SQLException;
+}
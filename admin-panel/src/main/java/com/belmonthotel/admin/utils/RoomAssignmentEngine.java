@@ -0,0 +1,279 @@
+package com.belmonthotel.admin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Assigns the stays of one room type to its physical units 1..units, so no unit holds two
+ * overlapping stays (check-out day is free for the next check-in).
+ *
+ * This is interval graph colouring: stays are placed in check-in order, units whose last stay
+ * has checked out are moved from a min-heap keyed by release day into a pool of free units, and
+ * each stay takes the free unit that was released most recently. Taking the tightest unit keeps
+ * idle gaps short and leaves the other units with long free runs for long stays. Placing in
+ * check-in order never needs more units than the most stays overlapping on one night, and the
+ * whole pass is O(n log n).
+ *
+ * Stays with no unit left (the room type is overbooked that night) get UNASSIGNED.
+ */
+public class RoomAssignmentEngine {
+    public static final int UNASSIGNED = 0;
+
+    // Release day of a unit nothing is placed on
+    private static final int NEVER_USED = -1_000_000_000;
+    // Idle days counted for a side of a stay with nothing booked on it
+    private static final long OPEN_GAP = 1 << 20;
+
+    private final int units;
+    private int size;
+    private int[] reservationIds = new int[64];
+    private int[] checkIns = new int[64];
+    private int[] checkOuts = new int[64];
+    private int[] assigned = new int[64];
+
+    public RoomAssignmentEngine(int units) {
+        this.units = Math.max(0, units);
+    }
+
+    /**
+     * Add a stay as epoch days [checkInDay, checkOutDay) with the unit it holds now, if any.
+     */
+    public void add(int reservationId, int checkInDay, int checkOutDay, int unit) {
+        if (size == reservationIds.length) {
+            reservationIds = Arrays.copyOf(reservationIds, size * 2);
+            checkIns = Arrays.copyOf(checkIns, size * 2);
+            checkOuts = Arrays.copyOf(checkOuts, size * 2);
+            assigned = Arrays.copyOf(assigned, size * 2);
+        }
+        reservationIds[size] = reservationId;
+        checkIns[size] = checkInDay;
+        checkOuts[size] = Math.max(checkOutDay, checkInDay + 1);
+        assigned[size] = unit >= 1 && unit <= units ? unit : UNASSIGNED;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getUnits() {
+        return units;
+    }
+
+    public int getReservationId(int index) {
+        return reservationIds[index];
+    }
+
+    public int getUnit(int index) {
+        return assigned[index];
+    }
+
+    /**
+     * Number of distinct units holding at least one stay.
+     */
+    public int getUnitsUsed() {
+        boolean[] used = new boolean[units + 1];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (assigned[i] != UNASSIGNED && !used[assigned[i]]) {
+                used[assigned[i]] = true;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getUnassignedCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (assigned[i] == UNASSIGNED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Re-assign every stay from scratch. Stays that checked in before firstDay keep their unit
+     * (guests already in a room are not moved) unless it clashes with another such stay.
+     * @return number of stays left unassigned
+     */
+    public int assignAll(int firstDay) {
+        long[] release = new long[units];
+        Arrays.fill(release, NEVER_USED);
+        boolean[] place = new boolean[size];
+
+        // Keep in-house stays in their units, earliest first so a clash moves the later one
+        int[] order = byCheckIn(null);
+        for (int i : order) {
+            int unit = assigned[i];
+            if (checkIns[i] < firstDay && unit != UNASSIGNED && release[unit - 1] <= checkIns[i]) {
+                release[unit - 1] = checkOuts[i];
+            } else {
+                place[i] = true;
+                assigned[i] = UNASSIGNED;
+            }
+        }
+        return place(byCheckIn(place), release, false);
+    }
+
+    /**
+     * Re-assign one stay after it was added or its dates moved, changing as few other stays as
+     * possible: it keeps its unit when that is still free, otherwise takes the free unit that
+     * fits its dates most tightly, and only when no unit is free for all of its nights are it and
+     * the stays checking in on or after its check-in re-placed (keeping their units where they
+     * can). If even that cannot place everyone, the other stays are left as they were and this
+     * one is unassigned.
+     * @return false if the reservation is not one of the stays
+     */
+    public boolean reassign(int reservationId) {
+        int stay = indexOf(reservationId);
+        if (stay < 0) {
+            return false;
+        }
+        int in = checkIns[stay];
+        int out = checkOuts[stay];
+
+        // Closest stay ending before and starting after this one on each unit; nextIn is -1 on
+        // units with a stay overlapping this one
+        long[] previousOut = new long[units + 1];
+        long[] nextIn = new long[units + 1];
+        Arrays.fill(previousOut, NEVER_USED);
+        Arrays.fill(nextIn, Integer.MAX_VALUE);
+        for (int i = 0; i < size; i++) {
+            int unit = assigned[i];
+            if (i == stay || unit == UNASSIGNED || nextIn[unit] < 0) {
+                continue;
+            }
+            if (checkIns[i] < out && checkOuts[i] > in) {
+                previousOut[unit] = -1;
+                nextIn[unit] = -1;
+            } else if (checkOuts[i] <= in) {
+                previousOut[unit] = Math.max(previousOut[unit], checkOuts[i]);
+            } else {
+                nextIn[unit] = Math.min(nextIn[unit], checkIns[i]);
+            }
+        }
+        if (assigned[stay] != UNASSIGNED && nextIn[assigned[stay]] >= 0) {
+            return true;
+        }
+        int best = UNASSIGNED;
+        long bestGap = Long.MAX_VALUE;
+        for (int unit = 1; unit <= units; unit++) {
+            if (nextIn[unit] < 0) {
+                continue;
+            }
+            long gap = (previousOut[unit] == NEVER_USED ? OPEN_GAP : in - previousOut[unit])
+                + (nextIn[unit] == Integer.MAX_VALUE ? OPEN_GAP : nextIn[unit] - out);
+            if (gap < bestGap) {
+                best = unit;
+                bestGap = gap;
+            }
+        }
+        if (best != UNASSIGNED) {
+            assigned[stay] = best;
+            return true;
+        }
+
+        // No unit is free for every night: re-place this stay and everything checking in after it
+        int[] before = assigned.clone();
+        long[] release = new long[units];
+        Arrays.fill(release, NEVER_USED);
+        boolean[] place = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (i == stay || checkIns[i] >= in) {
+                place[i] = true;
+            } else if (assigned[i] != UNASSIGNED) {
+                release[assigned[i] - 1] = Math.max(release[assigned[i] - 1], checkOuts[i]);
+            }
+        }
+        int[] order = byCheckIn(place);
+        int previouslyUnassigned = 0;
+        for (int i : order) {
+            if (i != stay && before[i] == UNASSIGNED) {
+                previouslyUnassigned++;
+            }
+        }
+        int unassigned = place(order, release, true);
+        if (unassigned > previouslyUnassigned || assigned[stay] == UNASSIGNED) {
+            System.arraycopy(before, 0, assigned, 0, size);
+            assigned[stay] = UNASSIGNED;
+        }
+        return true;
+    }
+
+    /**
+     * Clear a cancelled stay's unit; nothing else moves.
+     */
+    public void release(int reservationId) {
+        int stay = indexOf(reservationId);
+        if (stay >= 0) {
+            assigned[stay] = UNASSIGNED;
+        }
+    }
+
+    /**
+     * Place the given stays in order on units free from the release day of their last stay.
+     * @param keepUnits prefer each stay's current unit when it is free
+     * @return number of stays left unassigned
+     */
+    private int place(int[] order, long[] release, boolean keepUnits) {
+        IndexedMinHeap busy = new IndexedMinHeap(Math.max(1, units));
+        // Free units, most recently released first, then lowest number
+        IndexedMinHeap free = new IndexedMinHeap(Math.max(1, units));
+        for (int unit = 0; unit < units; unit++) {
+            busy.offer(unit, release[unit]);
+        }
+        int unassigned = 0;
+        for (int i : order) {
+            while (!busy.isEmpty() && busy.peekKey() <= checkIns[i]) {
+                long released = busy.peekKey();
+                int unit = busy.poll();
+                free.offer(unit, -released * (units + 1) + unit);
+            }
+            int unit;
+            if (keepUnits && assigned[i] != UNASSIGNED && free.contains(assigned[i] - 1)) {
+                unit = assigned[i] - 1;
+                free.remove(unit);
+            } else if (!free.isEmpty()) {
+                unit = free.poll();
+            } else {
+                assigned[i] = UNASSIGNED;
+                unassigned++;
+                continue;
+            }
+            assigned[i] = unit + 1;
+            busy.offer(unit, checkOuts[i]);
+        }
+        return unassigned;
+    }
+
+    /**
+     * Indexes of the selected stays (all when selected is null) by check-in, longest stay first
+     * on the same day.
+     */
+    private int[] byCheckIn(boolean[] selected) {
+        long[] keys = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (selected == null || selected[i]) {
+                long length = Math.min(checkOuts[i] - checkIns[i], 0xFFFF);
+                keys[count++] = ((long) checkIns[i] << 40) | ((0xFFFF - length) << 24) | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) (keys[i] & 0xFFFFFF);
+        }
+        return order;
+    }
+
+    private int indexOf(int reservationId) {
+        for (int i = 0; i < size; i++) {
+            if (reservationIds[i] == reservationId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
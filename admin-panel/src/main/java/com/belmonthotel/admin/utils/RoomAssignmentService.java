@@ -0,0 +1,265 @@
+package com.belmonthotel.admin.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps reservations.unit_number, the physical unit (1..rooms.quantity) a stay is given within
+ * its room type, using {@link RoomAssignmentEngine}.
+ *
+ * Only stays that have not checked out yet take part. {@link #assignRoomType(int)} re-assigns a
+ * whole room type; {@link #reservationChanged(int)} places one booking after it is created,
+ * confirmed or moved and moves as few other stays as it can, and clears the unit of a cancelled
+ * one. Only rows whose unit changed are written. Bookings made or changed on the website are
+ * placed every assignment.reconcile.seconds: stays without a unit and stays changed since the
+ * reservations.updated_at watermark. Work runs one job at a time on a background thread.
+ */
+public class RoomAssignmentService {
+    // Reservations in these statuses do not hold a room
+    private static final String ACTIVE_STATUS = "status NOT IN ('cancelled', 'no_show')";
+    private static final int RECONCILE_SECONDS = Math.max(1, AppConfig.getInt("assignment.reconcile.seconds", 60));
+
+    private static final ScheduledExecutorService updater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "room-assignment");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Stays changed from this updated_at on have not been reconciled; updater thread only
+    private static Timestamp watermark;
+
+    static {
+        updater.scheduleWithFixedDelay(RoomAssignmentService::reconcile,
+            RECONCILE_SECONDS, RECONCILE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Outcome of assigning one room type.
+     */
+    public static class Result {
+        private final int stays;
+        private final int units;
+        private final int unitsUsed;
+        private final int unassigned;
+        private final int changed;
+        private final long elapsedMillis;
+
+        Result(RoomAssignmentEngine engine, int changed, long elapsedMillis) {
+            this.stays = engine.size();
+            this.units = engine.getUnits();
+            this.unitsUsed = engine.getUnitsUsed();
+            this.unassigned = engine.getUnassignedCount();
+            this.changed = changed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getStays() { return stays; }
+        public int getUnits() { return units; }
+        public int getUnitsUsed() { return unitsUsed; }
+        public int getUnassigned() { return unassigned; }
+        public int getChanged() { return changed; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    /**
+     * Re-assign every current and future stay of a room type in the background. Guests who have
+     * already checked in keep their unit.
+     */
+    public static CompletableFuture<Result> assignRoomType(int roomId) {
+        return CompletableFuture.supplyAsync(() -> {
+            long started = System.nanoTime();
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                RoomAssignmentEngine engine = loadStays(conn, roomId);
+                int[] before = units(engine);
+                engine.assignAll(today(conn));
+                int changed = write(conn, engine, before);
+                return new Result(engine, changed, (System.nanoTime() - started) / 1_000_000);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                throw new IllegalStateException("Failed to assign units: " + e.getMessage(), e);
+            }
+        }, updater);
+    }
+
+    /**
+     * Place one reservation after it was created, confirmed or moved, or free its unit when it
+     * no longer holds a room.
+     */
+    public static void reservationChanged(int reservationId) {
+        updater.execute(() -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                int roomId;
+                boolean active;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                         "SELECT room_id, (" + ACTIVE_STATUS + ") FROM reservations WHERE id = ?")) {
+                    stmt.setInt(1, reservationId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return;
+                        }
+                        roomId = rs.getInt(1);
+                        active = rs.getBoolean(2);
+                    }
+                }
+                if (!active) {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                             "UPDATE reservations SET unit_number = NULL WHERE id = ?")) {
+                        stmt.setInt(1, reservationId);
+                        stmt.executeUpdate();
+                    }
+                    return;
+                }
+                place(conn, roomId, List.of(reservationId));
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Place current stays that have no unit (bookings made on the website) or changed since the
+     * last reconcile, and free the units of those that no longer hold a room. Stays that could
+     * not be placed because the room type is overbooked are tried again next time.
+     */
+    private static void reconcile() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Timestamp newWatermark;
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT MAX(updated_at) FROM reservations");
+                 ResultSet rs = stmt.executeQuery()) {
+                newWatermark = rs.next() ? rs.getTimestamp(1) : null;
+            }
+            // From the watermark second on, so writes later in that second are not missed
+            Map<Integer, List<Integer>> staysByRoom = new LinkedHashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT room_id, id FROM reservations WHERE " + ACTIVE_STATUS +
+                     " AND check_out_date > CURDATE() AND (unit_number IS NULL OR updated_at >= ?) " +
+                     "ORDER BY room_id, check_in_date, id")) {
+                stmt.setTimestamp(1, watermark != null ? watermark : newWatermark);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        staysByRoom.computeIfAbsent(rs.getInt(1), room -> new ArrayList<>()).add(rs.getInt(2));
+                    }
+                }
+            }
+            for (Map.Entry<Integer, List<Integer>> room : staysByRoom.entrySet()) {
+                place(conn, room.getKey(), room.getValue());
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE reservations SET unit_number = NULL WHERE unit_number IS NOT NULL AND NOT (" +
+                     ACTIVE_STATUS + ")")) {
+                stmt.executeUpdate();
+            }
+            watermark = newWatermark;
+        } catch (SQLException | RuntimeException e) {
+            // Keep the schedule running; the next reconcile tries again
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Place the given stays of one room type in turn and write the units that moved.
+     */
+    private static void place(Connection conn, int roomId, List<Integer> reservationIds) throws SQLException {
+        RoomAssignmentEngine engine = loadStays(conn, roomId);
+        int[] before = units(engine);
+        boolean placed = false;
+        for (int reservationId : reservationIds) {
+            placed |= engine.reassign(reservationId);
+        }
+        if (placed) {
+            write(conn, engine, before);
+        }
+    }
+
+    private static RoomAssignmentEngine loadStays(Connection conn, int roomId) throws SQLException {
+        int quantity = 0;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT quantity FROM rooms WHERE id = ?")) {
+            stmt.setInt(1, roomId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    quantity = rs.getInt(1);
+                }
+            }
+        }
+        RoomAssignmentEngine engine = new RoomAssignmentEngine(quantity);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT id, TO_DAYS(check_in_date) - 719528, TO_DAYS(check_out_date) - 719528, " +
+                 "COALESCE(unit_number, 0) FROM reservations " +
+                 "WHERE room_id = ? AND " + ACTIVE_STATUS + " AND check_out_date > CURDATE()")) {
+            stmt.setInt(1, roomId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    engine.add(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                }
+            }
+        }
+        return engine;
+    }
+
+    private static int today(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT TO_DAYS(CURDATE()) - 719528");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int[] units(RoomAssignmentEngine engine) {
+        int[] units = new int[engine.size()];
+        for (int i = 0; i < units.length; i++) {
+            units[i] = engine.getUnit(i);
+        }
+        return units;
+    }
+
+    /**
+     * Write the units that differ from before in one transaction. updated_at is left alone: a
+     * unit move is not a change to the booking itself.
+     * @return number of reservations updated
+     */
+    private static int write(Connection conn, RoomAssignmentEngine engine, int[] before) throws SQLException {
+        Map<Integer, Integer> changes = new HashMap<>();
+        for (int i = 0; i < engine.size(); i++) {
+            if (engine.getUnit(i) != before[i]) {
+                changes.put(engine.getReservationId(i), engine.getUnit(i));
+            }
+        }
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "UPDATE reservations SET unit_number = ? WHERE id = ?")) {
+            for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+                if (change.getValue() == RoomAssignmentEngine.UNASSIGNED) {
+                    stmt.setNull(1, Types.INTEGER);
+                } else {
+                    stmt.setInt(1, change.getValue());
+                }
+                stmt.setInt(2, change.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return changes.size();
+    }
+}
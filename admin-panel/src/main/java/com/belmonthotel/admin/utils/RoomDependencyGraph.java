@@ -3,210 +3,849 @@ package com.belmonthotel.admin.utils;
 import com.belmonthotel.admin.models.GraphEdge;
 import com.belmonthotel.admin.models.GraphNode;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
  * Graph data structure for room dependencies.
  * Implements BFS, DFS, and shortest path algorithms.
+ *
+ * Rooms get dense int indexes in the order they are added, and edges are stored in compressed
+ * sparse row form: the edges leaving room i are targets[offsets[i]] .. targets[offsets[i + 1] - 1],
+ * with their weights and dependency types in parallel arrays. New edges are buffered and merged
+ * in on the next query, keeping each room's edges in the order they were added. The incoming
+ * edges are kept the same way, for the bottom-up steps of the BFS.
+ *
+ * Connected components (rooms linked by edges in either direction) are tracked with a
+ * {@link DisjointSet} as edges are added, so statistics are read in constant time. Removing
+ * rooms or edges is applied on the next compaction, which renumbers the remaining rooms and
+ * recounts components from the remaining edges. Traversals use explicit stacks and queues and
+ * work on graphs of millions of rooms.
+ *
+ * Rooms with a floor-plan position are also searched by distance through a
+ * {@link RoomSpatialIndex}, built on the first such query after the rooms change.
+ *
+ * {@link #save(Path)} writes the compressed arrays to a binary file that {@link #load(Path)}
+ * memory-maps and reads back without recomputing any edges.
+ *
+ * Queries reuse scratch arrays, so a graph must be queried from one thread at a time.
  */
 public class RoomDependencyGraph {
-    
-    private final Map<Integer, GraphNode> nodes;
-    private final List<GraphEdge> edges;
-    
-    public RoomDependencyGraph() {
-        this.nodes = new HashMap<>();
-        this.edges = new ArrayList<>();
-    }
-    
+    private static final int INITIAL_EDGE_CAPACITY = 16;
+    private static final int FILE_MAGIC = 0x52444732; // "RDG2"
+
+    // Direction-optimizing BFS switches to bottom-up when the frontier's edges exceed the
+    // unexplored rooms' edges / ALPHA, and back once the frontier is under rooms / BETA
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private final List<GraphNode> nodes = new ArrayList<>();
+    private final Map<Integer, Integer> indexByRoomId = new HashMap<>();
+    // Distinct dependency types; edges store an index into this list
+    private final List<String> dependencyTypes = new ArrayList<>();
+    private DisjointSet components = new DisjointSet();
+
+    // Removals waiting for the next compaction: room indexes, and edge types by (from, to) index pair
+    private final BitSet removedNodes = new BitSet();
+    private final Map<Long, BitSet> removedEdges = new HashMap<>();
+
+    // Edges added since the last compaction
+    private int[] pendingFrom = new int[INITIAL_EDGE_CAPACITY];
+    private int[] pendingTo = new int[INITIAL_EDGE_CAPACITY];
+    private int[] pendingWeights = new int[INITIAL_EDGE_CAPACITY];
+    private byte[] pendingTypes = new byte[INITIAL_EDGE_CAPACITY];
+    private int pendingCount;
+    private boolean dirty;
+
+    // Compressed sparse row edges, valid for the first compactedNodes rooms
+    private int compactedNodes;
+    private int[] offsets = new int[1];
+    private int[] targets = new int[0];
+    private int[] weights = new int[0];
+    private byte[] types = new byte[0];
+    private int[] inOffsets = new int[1];
+    private int[] sources = new int[0];
+    // Incoming edges of available rooms, the starting amount of unexplored edges for the BFS
+    private long availableInEdges;
+
+    private int[] roomIds = new int[0];
+    private boolean[] available = new boolean[0];
+    // Built on demand, dropped whenever the rooms change
+    private RoomSpatialIndex spatialIndex;
+
+    // Per-query scratch space; a room is marked when marks[i] == epoch
+    private int epoch;
+    private int[] marks = new int[0];
+    private int[] settled = new int[0];
+    private int[] depths = new int[0];
+    private int[] queue = new int[0];
+    private int[] edgeCursors = new int[0];
+    private int[] previous = new int[0];
+    private long[] distances = new long[0];
+    private IndexedMinHeap heap = new IndexedMinHeap(0);
+
     /**
-     * Add a node to the graph.
+     * Add a node to the graph. A node with the same room ID replaces the earlier one
+     * and keeps its edges.
      */
     public void addNode(GraphNode node) {
-        nodes.put(node.getRoomId(), node);
+        applyRemovals();
+        Integer index = indexByRoomId.get(node.getRoomId());
+        if (index == null) {
+            indexByRoomId.put(node.getRoomId(), components.add());
+            nodes.add(node);
+        } else {
+            nodes.set(index, node);
+        }
+        dirty = true;
     }
-    
+
     /**
-     * Add an edge between two nodes.
+     * Add an edge between two nodes, adding either node to the graph if it is not in it yet.
      */
     public void addEdge(GraphNode from, GraphNode to, String dependencyType, int weight) {
-        GraphEdge edge = new GraphEdge(from, to, dependencyType, weight);
-        edges.add(edge);
-        from.addEdge(edge);
+        applyRemovals();
+        if (!indexByRoomId.containsKey(from.getRoomId())) {
+            addNode(from);
+        }
+        if (!indexByRoomId.containsKey(to.getRoomId())) {
+            addNode(to);
+        }
+        int fromIndex = indexByRoomId.get(from.getRoomId());
+        int toIndex = indexByRoomId.get(to.getRoomId());
+        components.union(fromIndex, toIndex);
+        bufferEdge(fromIndex, toIndex, weight, typeIndex(dependencyType));
     }
-    
+
+    /**
+     * Remove a room and every edge into or out of it.
+     */
+    public void removeNode(int roomId) {
+        compactAdditions();
+        Integer index = indexByRoomId.remove(roomId);
+        if (index != null) {
+            removedNodes.set(index);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Remove the edges of the given dependency type from one room to another.
+     */
+    public void removeEdge(int fromRoomId, int toRoomId, String dependencyType) {
+        compactAdditions();
+        Integer from = indexByRoomId.get(fromRoomId);
+        Integer to = indexByRoomId.get(toRoomId);
+        int type = dependencyTypes.indexOf(dependencyType);
+        if (from != null && to != null && type >= 0) {
+            removedEdges.computeIfAbsent(pairKey(from, to), key -> new BitSet()).set(type);
+            dirty = true;
+        }
+    }
+
     /**
      * Get a node by room ID.
      */
     public GraphNode getNode(int roomId) {
-        return nodes.get(roomId);
+        Integer index = indexByRoomId.get(roomId);
+        return index == null ? null : nodes.get(index);
     }
-    
+
     /**
-     * Get all nodes.
+     * Get all nodes, in the order they were added.
      */
     public Collection<GraphNode> getAllNodes() {
-        return nodes.values();
+        applyRemovals();
+        return Collections.unmodifiableList(nodes);
     }
-    
+
+    public int getNodeCount() {
+        applyRemovals();
+        return nodes.size();
+    }
+
+    public int getEdgeCount() {
+        applyRemovals();
+        return offsets[compactedNodes] + pendingCount;
+    }
+
+    /**
+     * Number of groups of rooms linked to each other by edges in either direction.
+     */
+    public int getComponentCount() {
+        applyRemovals();
+        return components.sets();
+    }
+
     /**
-     * Get all edges.
+     * Get all edges, grouped by the room they leave. Edge objects are created on each call,
+     * so prefer the traversal methods on large graphs.
      */
     public List<GraphEdge> getAllEdges() {
+        return getEdges(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the first edges, at most limit of them, in the order of {@link #getAllEdges()}.
+     */
+    public List<GraphEdge> getEdges(int limit) {
+        compact();
+        List<GraphEdge> edges = new ArrayList<>(Math.min(limit, offsets[compactedNodes]));
+        for (int from = 0; from < compactedNodes && edges.size() < limit; from++) {
+            for (int e = offsets[from]; e < offsets[from + 1] && edges.size() < limit; e++) {
+                edges.add(new GraphEdge(nodes.get(from), nodes.get(targets[e]),
+                    dependencyTypes.get(types[e] & 0xFF), weights[e]));
+            }
+        }
         return edges;
     }
-    
+
     /**
      * Breadth-First Search (BFS) to find available room chains.
-     * Returns a list of room IDs in the chain.
+     * Returns a list of room IDs in the chain, level by level.
+     *
+     * Each level is expanded top-down (edges out of the frontier) while the frontier is small,
+     * and bottom-up (each unvisited available room looks for a frontier room among its
+     * incoming edges) while it is large. Within a level expanded bottom-up, rooms come in the
+     * order they were added to the graph.
      */
     public List<Integer> bfsFindAvailableChain(int startRoomId) {
         List<Integer> chain = new ArrayList<>();
-        if (!nodes.containsKey(startRoomId)) {
+        // Compact first: removed rooms shift the indexes of the rooms after them
+        compact();
+        Integer start = indexByRoomId.get(startRoomId);
+        if (start == null) {
             return chain;
         }
-        
-        Queue<GraphNode> queue = new LinkedList<>();
-        Set<Integer> visited = new HashSet<>();
-        
-        GraphNode start = nodes.get(startRoomId);
-        queue.offer(start);
-        visited.add(startRoomId);
-        
-        while (!queue.isEmpty()) {
-            GraphNode current = queue.poll();
-            chain.add(current.getRoomId());
-            
-            // Add adjacent available rooms
-            for (GraphEdge edge : current.getEdges()) {
-                GraphNode neighbor = edge.getTo();
-                if (!visited.contains(neighbor.getRoomId()) && neighbor.isAvailable()) {
-                    visited.add(neighbor.getRoomId());
-                    queue.offer(neighbor);
-                }
-            }
-        }
-        
+        int mark = nextEpoch();
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        marks[start] = mark;
+        depths[start] = 0;
+
+        long frontierEdges = offsets[start + 1] - offsets[start];
+        long unexploredEdges = availableInEdges - (available[start] ? inOffsets[start + 1] - inOffsets[start] : 0);
+        boolean bottomUp = false;
+        int depth = 0;
+
+        while (head < tail) {
+            int frontierSize = tail - head;
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < compactedNodes / BETA) {
+                bottomUp = false;
+            }
+
+            int levelStart = tail;
+            if (bottomUp) {
+                for (int room = 0; room < compactedNodes; room++) {
+                    if (marks[room] == mark || !available[room]) {
+                        continue;
+                    }
+                    for (int e = inOffsets[room]; e < inOffsets[room + 1]; e++) {
+                        int parent = sources[e];
+                        if (marks[parent] == mark && depths[parent] == depth) {
+                            marks[room] = mark;
+                            depths[room] = depth + 1;
+                            queue[tail++] = room;
+                            break;
+                        }
+                    }
+                }
+            } else {
+                for (int i = head; i < levelStart; i++) {
+                    int current = queue[i];
+                    // Add adjacent available rooms
+                    for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                        int neighbor = targets[e];
+                        if (marks[neighbor] != mark && available[neighbor]) {
+                            marks[neighbor] = mark;
+                            depths[neighbor] = depth + 1;
+                            queue[tail++] = neighbor;
+                        }
+                    }
+                }
+            }
+
+            frontierEdges = 0;
+            for (int i = levelStart; i < tail; i++) {
+                int room = queue[i];
+                frontierEdges += offsets[room + 1] - offsets[room];
+                unexploredEdges -= inOffsets[room + 1] - inOffsets[room];
+            }
+            head = levelStart;
+            depth++;
+        }
+
+        for (int i = 0; i < tail; i++) {
+            chain.add(roomIds[queue[i]]);
+        }
         return chain;
     }
-    
+
     /**
      * Depth-First Search (DFS) for dependency traversal.
-     * Returns all rooms reachable from the start room.
+     * Returns all rooms reachable from the start room, in the order a recursive DFS visits them.
      */
     public List<Integer> dfsTraverseDependencies(int startRoomId) {
         List<Integer> result = new ArrayList<>();
-        if (!nodes.containsKey(startRoomId)) {
+        compact();
+        Integer start = indexByRoomId.get(startRoomId);
+        if (start == null) {
             return result;
         }
-        
-        Set<Integer> visited = new HashSet<>();
-        dfsHelper(nodes.get(startRoomId), visited, result);
-        
-        return result;
-    }
-    
-    private void dfsHelper(GraphNode node, Set<Integer> visited, List<Integer> result) {
-        visited.add(node.getRoomId());
-        result.add(node.getRoomId());
-        
-        for (GraphEdge edge : node.getEdges()) {
-            GraphNode neighbor = edge.getTo();
-            if (!visited.contains(neighbor.getRoomId())) {
-                dfsHelper(neighbor, visited, result);
+        int mark = nextEpoch();
+
+        // queue is the stack of rooms on the current path; edgeCursors[i] is the next edge of queue[i] to try
+        int top = 0;
+        queue[0] = start;
+        edgeCursors[0] = offsets[start];
+        marks[start] = mark;
+        result.add(roomIds[start]);
+
+        while (top >= 0) {
+            int node = queue[top];
+            int e = edgeCursors[top];
+            int end = offsets[node + 1];
+            while (e < end && marks[targets[e]] == mark) {
+                e++;
             }
+            if (e == end) {
+                top--;
+                continue;
+            }
+            edgeCursors[top] = e + 1;
+            int neighbor = targets[e];
+            marks[neighbor] = mark;
+            result.add(roomIds[neighbor]);
+            top++;
+            queue[top] = neighbor;
+            edgeCursors[top] = offsets[neighbor];
         }
+
+        return result;
     }
-    
+
     /**
      * Find shortest path between two rooms using Dijkstra's algorithm.
      * Returns the path as a list of room IDs.
      */
     public List<Integer> shortestPath(int fromRoomId, int toRoomId) {
-        if (!nodes.containsKey(fromRoomId) || !nodes.containsKey(toRoomId)) {
+        compact();
+        Integer from = indexByRoomId.get(fromRoomId);
+        Integer to = indexByRoomId.get(toRoomId);
+        if (from == null || to == null) {
             return new ArrayList<>();
         }
-        
-        Map<Integer, Integer> distances = new HashMap<>();
-        Map<Integer, Integer> previous = new HashMap<>();
-        PriorityQueue<int[]> pq = new PriorityQueue<>(Comparator.comparingInt(a -> a[1]));
-        Set<Integer> visited = new HashSet<>();
-        
-        // Initialize distances
-        for (Integer roomId : nodes.keySet()) {
-            distances.put(roomId, Integer.MAX_VALUE);
-        }
-        distances.put(fromRoomId, 0);
-        pq.offer(new int[]{fromRoomId, 0});
-        
-        while (!pq.isEmpty()) {
-            int[] current = pq.poll();
-            int currentRoomId = current[0];
-            int currentDist = current[1];
-            
-            if (visited.contains(currentRoomId)) {
-                continue;
-            }
-            visited.add(currentRoomId);
-            
-            if (currentRoomId == toRoomId) {
+
+        // Only rooms the search reaches get a distance; marks say which ones those are
+        int mark = nextEpoch();
+        marks[from] = mark;
+        distances[from] = 0;
+        previous[from] = -1;
+        heap.offer(from, 0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled[current] = mark;
+            if (current == to) {
                 break;
             }
-            
-            GraphNode currentNode = nodes.get(currentRoomId);
-            for (GraphEdge edge : currentNode.getEdges()) {
-                GraphNode neighbor = edge.getTo();
-                int neighborId = neighbor.getRoomId();
-                int newDist = currentDist + edge.getWeight();
-                
-                if (newDist < distances.get(neighborId)) {
-                    distances.put(neighborId, newDist);
-                    previous.put(neighborId, currentRoomId);
-                    pq.offer(new int[]{neighborId, newDist});
+
+            long currentDist = distances[current];
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                int neighbor = targets[e];
+                if (settled[neighbor] == mark) {
+                    continue;
+                }
+                long newDist = currentDist + weights[e];
+                if (marks[neighbor] != mark || newDist < distances[neighbor]) {
+                    marks[neighbor] = mark;
+                    distances[neighbor] = newDist;
+                    previous[neighbor] = current;
+                    heap.offer(neighbor, newDist);
                 }
             }
         }
-        
+        heap.clear();
+
         // Reconstruct path
         List<Integer> path = new ArrayList<>();
-        if (distances.get(toRoomId) == Integer.MAX_VALUE) {
+        if (settled[to] != mark) {
             return path; // No path found
         }
-        
-        int current = toRoomId;
-        while (current != fromRoomId) {
-            path.add(0, current);
-            Integer prev = previous.get(current);
-            if (prev == null) {
-                return new ArrayList<>(); // Path broken
-            }
-            current = prev;
+        for (int current = to; current != -1; current = previous[current]) {
+            path.add(roomIds[current]);
         }
-        path.add(0, fromRoomId);
-        
+        Collections.reverse(path);
+
         return path;
     }
-    
+
+    /**
+     * The k available rooms nearest to a room on the floor plan, nearest first. Empty when the
+     * room has no position; rooms without one are never returned.
+     */
+    public List<Integer> nearestAvailableRooms(int roomId, int k) {
+        GraphNode room = getNode(roomId);
+        if (room == null) {
+            return new ArrayList<>();
+        }
+        return spatialIndex().nearest(room, k);
+    }
+
     /**
-     * Get graph statistics.
+     * Smallest cluster of available, positioned rooms holding the given number of units, for
+     * placing a group block.
+     * @return the block, or null if there are not that many units available
+     */
+    public RoomSpatialIndex.Block findGroupBlock(int units) {
+        return spatialIndex().findBlock(units);
+    }
+
+    private RoomSpatialIndex spatialIndex() {
+        compact();
+        if (spatialIndex == null) {
+            spatialIndex = new RoomSpatialIndex(nodes);
+        }
+        return spatialIndex;
+    }
+
+    /**
+     * Get graph statistics. Counts are kept up to date as the graph is built, so this is O(1)
+     * unless rooms or edges were removed since the last query.
      */
     public Map<String, Object> getStatistics() {
+        applyRemovals();
         Map<String, Object> stats = new HashMap<>();
         stats.put("nodes", nodes.size());
-        stats.put("edges", edges.size());
-        
-        // Count connected components
-        int components = 0;
-        Set<Integer> visited = new HashSet<>();
-        for (GraphNode node : nodes.values()) {
-            if (!visited.contains(node.getRoomId())) {
-                components++;
-                dfsHelper(node, visited, new ArrayList<>());
-            }
-        }
-        stats.put("connectedComponents", components);
-        
+        stats.put("edges", getEdgeCount());
+        stats.put("connectedComponents", components.sets());
+
         return stats;
     }
-}
 
+    /**
+     * Write the graph to a file, replacing it atomically. Layout (big-endian): magic, room count,
+     * edge count, dependency type and room type string tables, then the arrays roomIds,
+     * availableUnits, roomTypeIndexes, hasLocation, floors, xs, ys, offsets, targets, weights
+     * and types.
+     */
+    public void save(Path file) throws IOException {
+        snapshot().write(file);
+    }
+
+    /**
+     * Compact the graph and capture what {@link #save(Path)} writes. Compaction replaces the
+     * edge arrays rather than changing them, so this is cheap and the graph can be changed and
+     * queried again while the snapshot is written.
+     */
+    public Snapshot snapshot() {
+        compact();
+        return new Snapshot(new ArrayList<>(dependencyTypes), new ArrayList<>(nodes.subList(0, compactedNodes)),
+            roomIds, offsets, targets, weights, types);
+    }
+
+    /**
+     * The saved form of a graph at one point in time, see {@link #snapshot()}.
+     */
+    public static final class Snapshot {
+        private final List<String> dependencyTypes;
+        private final List<GraphNode> nodes;
+        private final int[] roomIds;
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] weights;
+        private final byte[] types;
+
+        private Snapshot(List<String> dependencyTypes, List<GraphNode> nodes, int[] roomIds,
+                         int[] offsets, int[] targets, int[] weights, byte[] types) {
+            this.dependencyTypes = dependencyTypes;
+            this.nodes = nodes;
+            this.roomIds = roomIds;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.types = types;
+        }
+
+        /**
+         * Write the snapshot to a file in the {@link #save(Path)} layout, replacing it atomically.
+         */
+        public void write(Path file) throws IOException {
+            int compactedNodes = nodes.size();
+            List<String> roomTypes = new ArrayList<>();
+            Map<String, Integer> roomTypeIndexes = new HashMap<>();
+            int[] roomTypeOf = new int[compactedNodes];
+            for (int node = 0; node < compactedNodes; node++) {
+                String roomType = nodes.get(node).getRoomType();
+                Integer index = roomTypeIndexes.get(roomType);
+                if (index == null) {
+                    index = roomTypes.size();
+                    roomTypeIndexes.put(roomType, index);
+                    roomTypes.add(roomType);
+                }
+                roomTypeOf[node] = index;
+            }
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                int edgeCount = offsets[compactedNodes];
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(compactedNodes);
+                out.writeInt(edgeCount);
+                writeStrings(out, dependencyTypes);
+                writeStrings(out, roomTypes);
+                for (int node = 0; node < compactedNodes; node++) {
+                    out.writeInt(roomIds[node]);
+                }
+                for (int node = 0; node < compactedNodes; node++) {
+                    out.writeInt(nodes.get(node).getAvailableUnits());
+                }
+                for (int node = 0; node < compactedNodes; node++) {
+                    out.writeInt(roomTypeOf[node]);
+                }
+                for (int node = 0; node < compactedNodes; node++) {
+                    out.writeByte(nodes.get(node).hasLocation() ? 1 : 0);
+                }
+                for (int node = 0; node < compactedNodes; node++) {
+                    out.writeInt(nodes.get(node).getFloor());
+                }
+                for (int node = 0; node < compactedNodes; node++) {
+                    out.writeDouble(nodes.get(node).getX());
+                }
+                for (int node = 0; node < compactedNodes; node++) {
+                    out.writeDouble(nodes.get(node).getY());
+                }
+                for (int node = 0; node <= compactedNodes; node++) {
+                    out.writeInt(offsets[node]);
+                }
+                for (int e = 0; e < edgeCount; e++) {
+                    out.writeInt(targets[e]);
+                }
+                for (int e = 0; e < edgeCount; e++) {
+                    out.writeInt(weights[e]);
+                }
+                out.write(types, 0, edgeCount);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    
+        }
+    }
+
+    /**
+     * Read a graph written by {@link #save(Path)}. The file is memory-mapped and its arrays are
+     * copied in bulk; components are recounted from the edges.
+     * @throws IOException if the file cannot be read or is not a saved graph
+     */
+    public static RoomDependencyGraph load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != FILE_MAGIC) {
+                throw new IOException("Not a room dependency graph file: " + file);
+            }
+            int nodeCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            RoomDependencyGraph graph = new RoomDependencyGraph();
+            graph.dependencyTypes.addAll(readStrings(buffer));
+            List<String> roomTypes = readStrings(buffer);
+
+            int[] roomIds = new int[nodeCount];
+            buffer.asIntBuffer().get(roomIds);
+            buffer.position(buffer.position() + 4 * nodeCount);
+            int[] availableUnits = new int[nodeCount];
+            buffer.asIntBuffer().get(availableUnits);
+            buffer.position(buffer.position() + 4 * nodeCount);
+            int[] roomTypeOf = new int[nodeCount];
+            buffer.asIntBuffer().get(roomTypeOf);
+            buffer.position(buffer.position() + 4 * nodeCount);
+            byte[] hasLocation = new byte[nodeCount];
+            buffer.get(hasLocation);
+            int[] floors = new int[nodeCount];
+            buffer.asIntBuffer().get(floors);
+            buffer.position(buffer.position() + 4 * nodeCount);
+            double[] xs = new double[nodeCount];
+            buffer.asDoubleBuffer().get(xs);
+            buffer.position(buffer.position() + 8 * nodeCount);
+            double[] ys = new double[nodeCount];
+            buffer.asDoubleBuffer().get(ys);
+            buffer.position(buffer.position() + 8 * nodeCount);
+            for (int node = 0; node < nodeCount; node++) {
+                graph.indexByRoomId.put(roomIds[node], graph.components.add());
+                String roomType = roomTypes.get(roomTypeOf[node]);
+                graph.nodes.add(hasLocation[node] != 0
+                    ? new GraphNode(roomIds[node], roomType, availableUnits[node], floors[node], xs[node], ys[node])
+                    : new GraphNode(roomIds[node], roomType, availableUnits[node]));
+            }
+
+            graph.offsets = new int[nodeCount + 1];
+            buffer.asIntBuffer().get(graph.offsets);
+            buffer.position(buffer.position() + 4 * (nodeCount + 1));
+            graph.targets = new int[edgeCount];
+            buffer.asIntBuffer().get(graph.targets);
+            buffer.position(buffer.position() + 4 * edgeCount);
+            graph.weights = new int[edgeCount];
+            buffer.asIntBuffer().get(graph.weights);
+            buffer.position(buffer.position() + 4 * edgeCount);
+            graph.types = new byte[edgeCount];
+            buffer.get(graph.types);
+
+            for (int node = 0; node < nodeCount; node++) {
+                for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                    graph.components.union(node, graph.targets[e]);
+                }
+            }
+            graph.compactedNodes = nodeCount;
+            graph.dirty = true;
+            graph.compact();
+            return graph;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt file: buffer underflow, bad indexes
+            throw new IOException("Corrupt room dependency graph file: " + file, e);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return strings;
+    }
+
+    private static long pairKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private void bufferEdge(int from, int to, int weight, byte type) {
+        if (pendingCount == pendingFrom.length) {
+            int capacity = pendingCount * 2;
+            pendingFrom = Arrays.copyOf(pendingFrom, capacity);
+            pendingTo = Arrays.copyOf(pendingTo, capacity);
+            pendingWeights = Arrays.copyOf(pendingWeights, capacity);
+            pendingTypes = Arrays.copyOf(pendingTypes, capacity);
+        }
+        pendingFrom[pendingCount] = from;
+        pendingTo[pendingCount] = to;
+        pendingWeights[pendingCount] = weight;
+        pendingTypes[pendingCount] = type;
+        pendingCount++;
+        dirty = true;
+    }
+
+    /**
+     * Removals refer to compacted room indexes, so rooms and edges added since the last
+     * compaction are merged in first. Removals already waiting keep the numbering unchanged.
+     */
+    private void compactAdditions() {
+        if (pendingCount > 0 || nodes.size() != compactedNodes) {
+            compact();
+        }
+    }
+
+    private void applyRemovals() {
+        if (!removedNodes.isEmpty() || !removedEdges.isEmpty()) {
+            compact();
+        }
+    }
+
+    /**
+     * Drop removed rooms and edges: renumber the remaining rooms in order, move the remaining
+     * edges back to the pending buffer under the new numbers and recount components from them.
+     * Called with no edges pending, so the removals only concern compacted edges.
+     */
+    private void removeMarked() {
+        int[] renumbered = new int[compactedNodes];
+        List<GraphNode> remaining = new ArrayList<>(compactedNodes - removedNodes.cardinality());
+        indexByRoomId.clear();
+        components = new DisjointSet();
+        for (int node = 0; node < compactedNodes; node++) {
+            if (removedNodes.get(node)) {
+                renumbered[node] = -1;
+            } else {
+                renumbered[node] = remaining.size();
+                indexByRoomId.put(nodes.get(node).getRoomId(), components.add());
+                remaining.add(nodes.get(node));
+            }
+        }
+
+        int[] oldOffsets = offsets;
+        int[] oldTargets = targets;
+        int[] oldWeights = weights;
+        byte[] oldTypes = types;
+        int oldNodes = compactedNodes;
+        offsets = new int[1];
+        targets = new int[0];
+        weights = new int[0];
+        types = new byte[0];
+        compactedNodes = 0;
+        nodes.clear();
+        nodes.addAll(remaining);
+
+        for (int node = 0; node < oldNodes; node++) {
+            int from = renumbered[node];
+            for (int e = oldOffsets[node]; e < oldOffsets[node + 1]; e++) {
+                int to = renumbered[oldTargets[e]];
+                if (from < 0 || to < 0) {
+                    continue;
+                }
+                BitSet removedTypes = removedEdges.get(pairKey(node, oldTargets[e]));
+                if (removedTypes != null && removedTypes.get(oldTypes[e] & 0xFF)) {
+                    continue;
+                }
+                components.union(from, to);
+                bufferEdge(from, to, oldWeights[e], oldTypes[e]);
+            }
+        }
+        removedNodes.clear();
+        removedEdges.clear();
+    }
+
+    private byte typeIndex(String dependencyType) {
+        int index = dependencyTypes.indexOf(dependencyType);
+        if (index < 0) {
+            if (dependencyTypes.size() == 256) {
+                throw new IllegalArgumentException("Too many dependency types: " + dependencyType);
+            }
+            index = dependencyTypes.size();
+            dependencyTypes.add(dependencyType);
+        }
+        return (byte) index;
+    }
+
+    private int nextEpoch() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            Arrays.fill(settled, 0);
+            epoch = 0;
+        }
+        return ++epoch;
+    }
+
+    /**
+     * Merge buffered nodes and edges into the compressed arrays: count each room's edges,
+     * prefix-sum the counts into offsets, then place the existing edges before the new ones.
+     */
+    private void compact() {
+        if (!dirty) {
+            return;
+        }
+        if (!removedNodes.isEmpty() || !removedEdges.isEmpty()) {
+            removeMarked();
+        }
+        int nodeCount = nodes.size();
+        int edgeCount = offsets[compactedNodes] + pendingCount;
+
+        int[] newOffsets = new int[nodeCount + 1];
+        for (int node = 0; node < compactedNodes; node++) {
+            newOffsets[node + 1] = offsets[node + 1] - offsets[node];
+        }
+        for (int e = 0; e < pendingCount; e++) {
+            newOffsets[pendingFrom[e] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            newOffsets[node + 1] += newOffsets[node];
+        }
+
+        int[] newTargets = new int[edgeCount];
+        int[] newWeights = new int[edgeCount];
+        byte[] newTypes = new byte[edgeCount];
+        int[] cursor = Arrays.copyOf(newOffsets, nodeCount);
+        for (int node = 0; node < compactedNodes; node++) {
+            int length = offsets[node + 1] - offsets[node];
+            System.arraycopy(targets, offsets[node], newTargets, cursor[node], length);
+            System.arraycopy(weights, offsets[node], newWeights, cursor[node], length);
+            System.arraycopy(types, offsets[node], newTypes, cursor[node], length);
+            cursor[node] += length;
+        }
+        for (int e = 0; e < pendingCount; e++) {
+            int at = cursor[pendingFrom[e]]++;
+            newTargets[at] = pendingTo[e];
+            newWeights[at] = pendingWeights[e];
+            newTypes[at] = pendingTypes[e];
+        }
+
+        offsets = newOffsets;
+        targets = newTargets;
+        weights = newWeights;
+        types = newTypes;
+        compactedNodes = nodeCount;
+
+        // Incoming edges: the same counting pass keyed by target
+        inOffsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            inOffsets[newTargets[e] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            inOffsets[node + 1] += inOffsets[node];
+        }
+        sources = new int[edgeCount];
+        int[] inCursor = Arrays.copyOf(inOffsets, nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            for (int e = newOffsets[node]; e < newOffsets[node + 1]; e++) {
+                sources[inCursor[newTargets[e]]++] = node;
+            }
+        }
+
+        pendingFrom = new int[INITIAL_EDGE_CAPACITY];
+        pendingTo = new int[INITIAL_EDGE_CAPACITY];
+        pendingWeights = new int[INITIAL_EDGE_CAPACITY];
+        pendingTypes = new byte[INITIAL_EDGE_CAPACITY];
+        pendingCount = 0;
+
+        spatialIndex = null;
+        roomIds = new int[nodeCount];
+        available = new boolean[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            roomIds[node] = nodes.get(node).getRoomId();
+            available[node] = nodes.get(node).isAvailable();
+        }
+        availableInEdges = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (available[node]) {
+                availableInEdges += inOffsets[node + 1] - inOffsets[node];
+            }
+        }
+        if (marks.length != nodeCount) {
+            marks = new int[nodeCount];
+            settled = new int[nodeCount];
+            depths = new int[nodeCount];
+            queue = new int[nodeCount];
+            edgeCursors = new int[nodeCount];
+            previous = new int[nodeCount];
+            distances = new long[nodeCount];
+            heap = new IndexedMinHeap(nodeCount);
+            epoch = 0;
+        }
+        dirty = false;
+    }
+}
@@ -0,0 +1,382 @@
+package com.belmonthotel.admin.utils;
+
+import com.belmonthotel.admin.models.GraphNode;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The room dependency graph, kept for the whole session instead of being rebuilt from SQL each
+ * time the dependency dialog opens.
+ *
+ * Rooms are ordered by id. Each room is "adjacent" to the rooms before and after it, and each
+ * suite "suite_requires" the nearest standard room on either side. Because every edge depends
+ * only on a room's neighbourhood, a change to one room is applied as a delta: the edges of the
+ * rooms around it are recomputed before and after the change and only the difference is
+ * removed from or added to the graph.
+ *
+ * Rooms carry their available units and floor-plan position (rooms.floor, position_x and
+ * position_y) for the graph's nearest-room and group block searches.
+ *
+ * The graph is saved to graph.cache.file after every change. At startup the saved file is
+ * memory-mapped and brought up to date with the current rooms as a batch of deltas; the graph
+ * is only built from scratch when there is no usable file. Loads and updates run one at a time
+ * on a background thread; queries run under a lock from any thread.
+ */
+public class RoomGraphService {
+    private static final Path GRAPH_FILE = Paths.get(AppConfig.get("graph.cache.file", "data/room-graph.bin"));
+
+    private static final String ROOM_COLUMNS = "id, room_type, available_quantity, floor, position_x, position_y";
+
+    private static final String ADJACENT = "adjacent";
+    private static final String SUITE_REQUIRES = "suite_requires";
+
+    private static final ExecutorService updater = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "room-graph");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Object lock = new Object();
+    private static RoomDependencyGraph graph;
+    // Rooms in the graph by id, ordered; only touched on the updater thread
+    private static final TreeMap<Integer, GraphNode> rooms = new TreeMap<>();
+
+    /**
+     * One outgoing edge as the dependency rules produce it.
+     */
+    private static final class Dependency {
+        final int to;
+        final String type;
+
+        Dependency(int to, String type) {
+            this.to = to;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Dependency)) return false;
+            Dependency other = (Dependency) o;
+            return to == other.to && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(to, type);
+        }
+    }
+
+    /**
+     * Load the graph in the background. Completes with false when neither the saved file nor
+     * the database could be read.
+     */
+    public static CompletableFuture<Boolean> load() {
+        return CompletableFuture.supplyAsync(RoomGraphService::loadNow, updater);
+    }
+
+    /**
+     * Re-read one room after it was added, edited or deleted, or its availability changed.
+     */
+    public static void roomChanged(int roomId) {
+        updater.execute(() -> {
+            if (!isLoaded()) {
+                return;
+            }
+            try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT " + ROOM_COLUMNS + " FROM rooms WHERE id = ?")) {
+                stmt.setInt(1, roomId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    apply(roomId, rs.next() ? node(rs) : null);
+                }
+                save();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Re-read the room of a reservation whose booking released or took a room.
+     */
+    public static void reservationChanged(int reservationId) {
+        updater.execute(() -> {
+            if (!isLoaded()) {
+                return;
+            }
+            try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT room_id FROM reservations WHERE id = ?")) {
+                stmt.setInt(1, reservationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        roomChanged(rs.getInt(1));
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public static boolean isLoaded() {
+        synchronized (lock) {
+            return graph != null;
+        }
+    }
+
+    /**
+     * Run a query against the graph while no update is being applied.
+     * @return the query's result, or null when the graph is not loaded yet
+     */
+    public static <T> T query(Function<RoomDependencyGraph, T> query) {
+        synchronized (lock) {
+            return graph == null ? null : query.apply(graph);
+        }
+    }
+
+    private static boolean loadNow() {
+        TreeMap<Integer, GraphNode> current = new TreeMap<>();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT " + ROOM_COLUMNS + " FROM rooms ORDER BY id");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                GraphNode node = node(rs);
+                current.put(node.getRoomId(), node);
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to read rooms for the dependency graph: " + e.getMessage());
+            e.printStackTrace();
+            current = null;
+        }
+
+        RoomDependencyGraph saved = null;
+        try {
+            saved = RoomDependencyGraph.load(GRAPH_FILE);
+        } catch (NoSuchFileException e) {
+            // First run: built below
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable room graph file: " + e.getMessage());
+        }
+
+        if (saved != null) {
+            for (GraphNode node : saved.getAllNodes()) {
+                rooms.put(node.getRoomId(), node);
+            }
+            synchronized (lock) {
+                graph = saved;
+            }
+            if (current != null) {
+                // Bring the saved graph up to date with rooms changed since it was written
+                int changes = 0;
+                Set<Integer> roomIds = new LinkedHashSet<>(rooms.keySet());
+                roomIds.addAll(current.keySet());
+                for (Integer roomId : roomIds) {
+                    GraphNode before = rooms.get(roomId);
+                    GraphNode after = current.get(roomId);
+                    if (!sameRoom(before, after)) {
+                        apply(roomId, after);
+                        changes++;
+                    }
+                }
+                if (changes > 0) {
+                    save();
+                }
+            }
+            return true;
+        }
+        if (current == null) {
+            return false;
+        }
+
+        RoomDependencyGraph built = new RoomDependencyGraph();
+        rooms.putAll(current);
+        for (GraphNode node : rooms.values()) {
+            built.addNode(node);
+        }
+        for (GraphNode node : rooms.values()) {
+            for (Dependency dependency : dependencies(node.getRoomId())) {
+                built.addEdge(node, rooms.get(dependency.to), dependency.type, 1);
+            }
+        }
+        synchronized (lock) {
+            graph = built;
+        }
+        save();
+        return true;
+    }
+
+    /**
+     * Replace, add (before == null) or remove (after == null) one room and patch the edges of
+     * the rooms whose dependencies it can change: itself, its neighbours, and the suites
+     * between the nearest standard rooms around it when it becomes or stops being a standard room.
+     */
+    private static void apply(int roomId, GraphNode after) {
+        GraphNode before = rooms.get(roomId);
+        Set<Integer> affected = new LinkedHashSet<>();
+        affected.add(roomId);
+        if (rooms.lowerKey(roomId) != null) affected.add(rooms.lowerKey(roomId));
+        if (rooms.higherKey(roomId) != null) affected.add(rooms.higherKey(roomId));
+        if (isStandard(before) != isStandard(after)) {
+            addSuitesAround(roomId, affected);
+        }
+
+        Map<Integer, Set<Dependency>> old = new TreeMap<>();
+        for (Integer room : affected) {
+            old.put(room, rooms.containsKey(room) ? dependencies(room) : new HashSet<>());
+        }
+        if (after == null) {
+            rooms.remove(roomId);
+        } else {
+            rooms.put(roomId, after);
+        }
+
+        synchronized (lock) {
+            if (after == null) {
+                graph.removeNode(roomId);
+            }
+            for (Integer room : affected) {
+                if (!rooms.containsKey(room)) {
+                    continue;
+                }
+                Set<Dependency> stale = new HashSet<>(old.get(room));
+                stale.removeAll(dependencies(room));
+                for (Dependency dependency : stale) {
+                    graph.removeEdge(room, dependency.to, dependency.type);
+                }
+            }
+            if (after != null) {
+                graph.addNode(after);
+            }
+            for (Integer room : affected) {
+                if (!rooms.containsKey(room)) {
+                    continue;
+                }
+                Set<Dependency> added = dependencies(room);
+                added.removeAll(old.get(room));
+                for (Dependency dependency : added) {
+                    graph.addEdge(rooms.get(room), rooms.get(dependency.to), dependency.type, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Outgoing edges of a room in the current room order.
+     */
+    private static Set<Dependency> dependencies(int roomId) {
+        Set<Dependency> dependencies = new LinkedHashSet<>();
+        Integer before = rooms.lowerKey(roomId);
+        Integer after = rooms.higherKey(roomId);
+        if (isSuite(rooms.get(roomId))) {
+            Integer standard = before;
+            while (standard != null && !isStandard(rooms.get(standard))) {
+                standard = rooms.lowerKey(standard);
+            }
+            if (standard != null) {
+                dependencies.add(new Dependency(standard, SUITE_REQUIRES));
+            }
+            standard = after;
+            while (standard != null && !isStandard(rooms.get(standard))) {
+                standard = rooms.higherKey(standard);
+            }
+            if (standard != null) {
+                dependencies.add(new Dependency(standard, SUITE_REQUIRES));
+            }
+        }
+        if (before != null) {
+            dependencies.add(new Dependency(before, ADJACENT));
+        }
+        if (after != null) {
+            dependencies.add(new Dependency(after, ADJACENT));
+        }
+        return dependencies;
+    }
+
+    /**
+     * Add the suites on either side of a room up to and including the nearest standard room,
+     * which can itself be a suite whose nearest standard room on this side changes.
+     */
+    private static void addSuitesAround(int roomId, Set<Integer> affected) {
+        for (Integer room = rooms.lowerKey(roomId); room != null; room = rooms.lowerKey(room)) {
+            if (isSuite(rooms.get(room))) {
+                affected.add(room);
+            }
+            if (isStandard(rooms.get(room))) {
+                break;
+            }
+        }
+        for (Integer room = rooms.higherKey(roomId); room != null; room = rooms.higherKey(room)) {
+            if (isSuite(rooms.get(room))) {
+                affected.add(room);
+            }
+            if (isStandard(rooms.get(room))) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Write the graph file. Only the snapshot is taken under the lock, so queries are not held
+     * up by the write; saves run one at a time on the updater thread.
+     */
+    private static void save() {
+        RoomDependencyGraph.Snapshot snapshot;
+        synchronized (lock) {
+            snapshot = graph.snapshot();
+        }
+        try {
+            snapshot.write(GRAPH_FILE);
+        } catch (IOException e) {
+            // The graph stays usable in memory; the next start brings the old file up to date
+            System.err.println("Failed to save room graph to " + GRAPH_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static GraphNode node(ResultSet rs) throws SQLException {
+        int floor = rs.getInt("floor");
+        boolean hasLocation = !rs.wasNull() && rs.getBigDecimal("position_x") != null
+            && rs.getBigDecimal("position_y") != null;
+        if (!hasLocation) {
+            return new GraphNode(rs.getInt("id"), rs.getString("room_type"), rs.getInt("available_quantity"));
+        }
+        return new GraphNode(rs.getInt("id"), rs.getString("room_type"), rs.getInt("available_quantity"),
+            floor, rs.getDouble("position_x"), rs.getDouble("position_y"));
+    }
+
+    private static boolean sameRoom(GraphNode a, GraphNode b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getRoomType().equals(b.getRoomType()) && a.getAvailableUnits() == b.getAvailableUnits()
+            && a.hasLocation() == b.hasLocation() && a.getFloor() == b.getFloor()
+            && a.getX() == b.getX() && a.getY() == b.getY();
+    }
+
+    private static boolean isSuite(GraphNode node) {
+        return node != null && node.getRoomType().toLowerCase().contains("suite");
+    }
+
+    private static boolean isStandard(GraphNode node) {
+        return node != null && node.getRoomType().toLowerCase().contains("standard");
+    }
+}
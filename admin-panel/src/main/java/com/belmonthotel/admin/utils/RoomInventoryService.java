@@ -0,0 +1,372 @@
+package com.belmonthotel.admin.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nightly room inventory per room type, kept in memory so date-range availability is answered
+ * without scanning reservations: "how many Deluxe rooms are free every night from the 12th to
+ * the 19th" is one range-min on that room type's {@link NightlyInventoryTree}.
+ *
+ * The calendar starts today by the database clock and runs for inventory.horizon.days, or to
+ * the last check-out if that is later. It is loaded once from rooms and reservations (see {@link #load()}), then kept
+ * current by {@link #reservationChanged(int)} and {@link #roomsChanged()} after each write made
+ * here. Bookings made on the website are picked up every inventory.reconcile.seconds from
+ * reservations.updated_at; a deletion or a new day reloads the calendar. Loads and updates run
+ * one at a time on a background thread; queries can come from any thread.
+ */
+public class RoomInventoryService {
+    private static final int HORIZON_DAYS = AppConfig.getInt("inventory.horizon.days", 730);
+    private static final int RECONCILE_SECONDS = Math.max(1, AppConfig.getInt("inventory.reconcile.seconds", 60));
+    private static final int FETCH_SIZE = 5000;
+
+    // Reservations in these statuses do not hold a room
+    private static final String ACTIVE_STATUS = "status NOT IN ('cancelled', 'no_show')";
+    // Stays the calendar holds
+    private static final String CURRENT_STAYS =
+        ACTIVE_STATUS + " AND check_out_date > CURDATE() AND check_out_date > check_in_date";
+
+    private static final ScheduledExecutorService updater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "room-inventory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        updater.scheduleWithFixedDelay(RoomInventoryService::reconcile,
+            RECONCILE_SECONDS, RECONCILE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static final Object lock = new Object();
+    private static Calendar calendar;
+
+    /**
+     * The loaded inventory. Stays are kept per reservation so an update can take back exactly
+     * what the previous version of the reservation added.
+     */
+    private static class Calendar {
+        final int firstDay;
+        final int days;
+        final Map<Integer, String> roomTypes = new LinkedHashMap<>();
+        final Map<Integer, Integer> quantities = new HashMap<>();
+        final Map<Integer, NightlyInventoryTree> trees = new HashMap<>();
+        // reservation id -> {room id, first night, night after the last}
+        final Map<Integer, int[]> stays = new HashMap<>();
+        // Reservations changed from this updated_at on are not applied yet; updater thread only
+        Timestamp watermark;
+
+        Calendar(int firstDay, int days) {
+            this.firstDay = firstDay;
+            this.days = days;
+        }
+
+        void addRoom(int roomId, String roomType, int quantity) {
+            roomTypes.put(roomId, roomType);
+            quantities.put(roomId, quantity);
+            trees.put(roomId, new NightlyInventoryTree(days, quantity));
+        }
+
+        /**
+         * Hold the nights of a stay. Stays that have checked out by the first day are not
+         * kept, so the calendar holds the same reservations as CURRENT_STAYS.
+         */
+        void book(int reservationId, int roomId, int checkInDay, int checkOutDay) {
+            NightlyInventoryTree tree = trees.get(roomId);
+            if (tree != null && checkOutDay > checkInDay && checkOutDay > firstDay) {
+                tree.add(checkInDay - firstDay, checkOutDay - firstDay, -1);
+                stays.put(reservationId, new int[]{roomId, checkInDay, checkOutDay});
+            }
+        }
+
+        void release(int reservationId) {
+            int[] stay = stays.remove(reservationId);
+            if (stay != null && trees.containsKey(stay[0])) {
+                trees.get(stay[0]).add(stay[1] - firstDay, stay[2] - firstDay, 1);
+            }
+        }
+    }
+
+    /**
+     * Load (or reload) the inventory in the background. Completes with false when the
+     * database could not be read; the previous inventory, if any, stays in use.
+     */
+    public static CompletableFuture<Boolean> load() {
+        return CompletableFuture.supplyAsync(RoomInventoryService::loadNow, updater);
+    }
+
+    /**
+     * Re-read one reservation after its status or dates changed and apply the difference.
+     */
+    public static void reservationChanged(int reservationId) {
+        updater.execute(() -> {
+            if (current() == null) {
+                return;
+            }
+            try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT room_id, TO_DAYS(check_in_date) - 719528, TO_DAYS(check_out_date) - 719528, " +
+                     "(" + ACTIVE_STATUS + ") FROM reservations WHERE id = ?")) {
+                stmt.setInt(1, reservationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    boolean active = rs.next() && rs.getBoolean(4);
+                    if (!applyStay(reservationId, active, active ? rs.getInt(1) : 0,
+                            active ? rs.getInt(2) : 0, active ? rs.getInt(3) : 0)) {
+                        // Rebuild a calendar long enough for this stay
+                        loadNow();
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Apply reservations changed elsewhere (the website) since the last load or reconcile. The
+     * calendar is reloaded when the day has turned, or when it holds more stays than the
+     * database, which means a reservation was deleted.
+     */
+    private static void reconcile() {
+        Calendar current = current();
+        if (current == null) {
+            return;
+        }
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ)) {
+            if (current.firstDay != today(conn)) {
+                loadNow();
+                return;
+            }
+            Timestamp watermark = maxUpdatedAt(conn);
+            // From the watermark second on, so writes later in that second are not missed;
+            // applying a stay again changes nothing
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, room_id, TO_DAYS(check_in_date) - 719528, TO_DAYS(check_out_date) - 719528, " +
+                     "(" + ACTIVE_STATUS + ") FROM reservations WHERE updated_at >= ?")) {
+                stmt.setTimestamp(1, current.watermark);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (!applyStay(rs.getInt(1), rs.getBoolean(5), rs.getInt(2), rs.getInt(3), rs.getInt(4))) {
+                            loadNow();
+                            return;
+                        }
+                    }
+                }
+            }
+            current.watermark = watermark;
+
+            int stays;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM reservations WHERE " + CURRENT_STAYS);
+                 ResultSet rs = stmt.executeQuery()) {
+                stays = rs.next() ? rs.getInt(1) : 0;
+            }
+            boolean deleted;
+            synchronized (lock) {
+                deleted = stays < current.stays.size();
+            }
+            if (deleted) {
+                loadNow();
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Keep the schedule running; the next reconcile tries again
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Replace what a reservation holds with its current state.
+     * @return false if the stay runs past the calendar, which then needs reloading
+     */
+    private static boolean applyStay(int reservationId, boolean active, int roomId, int checkInDay, int checkOutDay) {
+        synchronized (lock) {
+            if (active && checkOutDay > calendar.firstDay + calendar.days) {
+                return false;
+            }
+            calendar.release(reservationId);
+            if (active) {
+                calendar.book(reservationId, roomId, checkInDay, checkOutDay);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Re-read room types and quantities after a room was added, edited or deleted.
+     */
+    public static void roomsChanged() {
+        updater.execute(() -> {
+            if (current() == null) {
+                return;
+            }
+            try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, room_type, quantity FROM rooms ORDER BY room_type");
+                 ResultSet rs = stmt.executeQuery()) {
+                Map<Integer, String> roomTypes = new LinkedHashMap<>();
+                Map<Integer, Integer> quantities = new HashMap<>();
+                while (rs.next()) {
+                    roomTypes.put(rs.getInt("id"), rs.getString("room_type"));
+                    quantities.put(rs.getInt("id"), rs.getInt("quantity"));
+                }
+                boolean removed;
+                synchronized (lock) {
+                    removed = !roomTypes.keySet().containsAll(calendar.roomTypes.keySet());
+                    for (Map.Entry<Integer, String> room : roomTypes.entrySet()) {
+                        int roomId = room.getKey();
+                        int quantity = quantities.get(roomId);
+                        Integer previous = calendar.quantities.get(roomId);
+                        if (previous == null) {
+                            calendar.addRoom(roomId, room.getValue(), quantity);
+                        } else {
+                            calendar.trees.get(roomId).add(0, calendar.days, quantity - previous);
+                            calendar.quantities.put(roomId, quantity);
+                        }
+                    }
+                    // Keep room types in name order, including renamed and new ones
+                    calendar.roomTypes.clear();
+                    calendar.roomTypes.putAll(roomTypes);
+                }
+                if (removed) {
+                    // A room type went away; recount its reservations from scratch
+                    loadNow();
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public static boolean isLoaded() {
+        return current() != null;
+    }
+
+    /**
+     * Rooms of the given room type free on every night from check-in to check-out, or -1 when
+     * the inventory is not loaded or the room type is unknown. Nights before today are ignored;
+     * nights past the calendar have nothing booked.
+     */
+    public static int freeRooms(int roomId, LocalDate checkIn, LocalDate checkOut) {
+        synchronized (lock) {
+            if (calendar == null || !calendar.trees.containsKey(roomId)) {
+                return -1;
+            }
+            return free(roomId, checkIn, checkOut);
+        }
+    }
+
+    /**
+     * Free rooms for every night of the stay, by room id, for all room types (ordered by room type).
+     * Empty when the inventory is not loaded.
+     */
+    public static Map<Integer, Integer> freeRooms(LocalDate checkIn, LocalDate checkOut) {
+        Map<Integer, Integer> free = new LinkedHashMap<>();
+        synchronized (lock) {
+            if (calendar != null) {
+                for (Integer roomId : calendar.roomTypes.keySet()) {
+                    free.put(roomId, free(roomId, checkIn, checkOut));
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Room type names by room id, ordered by room type. Empty when the inventory is not loaded.
+     */
+    public static Map<Integer, String> roomTypes() {
+        synchronized (lock) {
+            return calendar == null ? new LinkedHashMap<>() : new LinkedHashMap<>(calendar.roomTypes);
+        }
+    }
+
+    private static int free(int roomId, LocalDate checkIn, LocalDate checkOut) {
+        int from = (int) checkIn.toEpochDay() - calendar.firstDay;
+        int to = (int) checkOut.toEpochDay() - calendar.firstDay;
+        int min = calendar.trees.get(roomId).min(from, to);
+        // Only nights outside the calendar: nothing booked on them
+        return min == Integer.MAX_VALUE ? calendar.quantities.get(roomId) : Math.max(min, 0);
+    }
+
+    private static Calendar current() {
+        synchronized (lock) {
+            return calendar;
+        }
+    }
+
+    private static boolean loadNow() {
+        String stayQuery =
+            "SELECT id, room_id, TO_DAYS(check_in_date) - 719528, TO_DAYS(check_out_date) - 719528 " +
+            "FROM reservations WHERE " + CURRENT_STAYS;
+
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ)) {
+            // Before the stays, so anything written while loading is applied by the next reconcile
+            Timestamp watermark = maxUpdatedAt(conn);
+            int today = today(conn);
+            int lastDay = today + HORIZON_DAYS;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT COALESCE(MAX(TO_DAYS(check_out_date) - 719528), 0) FROM reservations WHERE " + ACTIVE_STATUS);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    lastDay = Math.max(lastDay, rs.getInt(1));
+                }
+            }
+
+            Calendar loaded = new Calendar(today, lastDay - today);
+            loaded.watermark = watermark;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, room_type, quantity FROM rooms ORDER BY room_type");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    loaded.addRoom(rs.getInt("id"), rs.getString("room_type"), rs.getInt("quantity"));
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(stayQuery)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        loaded.book(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                    }
+                }
+            }
+
+            synchronized (lock) {
+                calendar = loaded;
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Failed to load room inventory: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Today by the database clock, as an epoch day: the day CURRENT_STAYS counts from.
+     */
+    private static int today(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT TO_DAYS(CURDATE()) - 719528");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static Timestamp maxUpdatedAt(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MAX(updated_at) FROM reservations");
+             ResultSet rs = stmt.executeQuery()) {
+            Timestamp max = rs.next() ? rs.getTimestamp(1) : null;
+            return max != null ? max : new Timestamp(0);
+        }
+    }
+}
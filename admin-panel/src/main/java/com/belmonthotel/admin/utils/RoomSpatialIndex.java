@@ -0,0 +1,399 @@
+package com.belmonthotel.admin.utils;
+
+import com.belmonthotel.admin.models.GraphNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * k-d tree over the floor-plan positions of available rooms, for "nearest free rooms" and
+ * group block searches.
+ *
+ * Rooms are points (x, y, floor * FLOOR_DISTANCE): changing floors counts as walking
+ * FLOOR_DISTANCE metres. The tree is implicit: the rooms are permuted so that each range
+ * [lo, hi) is split at its middle room along the axis the range is widest in, with the rooms
+ * lower on that axis to its left. Building is O(n log n) and a k-nearest search visits O(log n + k) rooms
+ * on typical layouts.
+ *
+ * The index is immutable and safe to search from several threads.
+ */
+public class RoomSpatialIndex {
+    // Metres of walking one floor change is worth
+    public static final double FLOOR_DISTANCE = 20.0;
+
+    // Block searches over at least this many rooms run on the common ForkJoin pool
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private final int size;
+    private final int[] roomIds;
+    private final int[] units;
+    // Three coordinates per room, in tree order
+    private final double[] coords;
+    // Split axis of the range whose middle room this is
+    private final byte[] axes;
+
+    /**
+     * A group of rooms for a block booking, nearest to the center room first.
+     */
+    public static class Block {
+        private final int centerRoomId;
+        private final double radius;
+        private final Map<Integer, Integer> unitsByRoom;
+
+        Block(int centerRoomId, double radius, Map<Integer, Integer> unitsByRoom) {
+            this.centerRoomId = centerRoomId;
+            this.radius = radius;
+            this.unitsByRoom = Collections.unmodifiableMap(unitsByRoom);
+        }
+
+        public int getCenterRoomId() { return centerRoomId; }
+        /** Distance in metres from the center room to the farthest room of the block. */
+        public double getRadius() { return radius; }
+        /** Units to take from each room, nearest room first. */
+        public Map<Integer, Integer> getUnitsByRoom() { return unitsByRoom; }
+    }
+
+    /**
+     * Index the rooms that have a position and at least one available unit.
+     */
+    public RoomSpatialIndex(Collection<GraphNode> nodes) {
+        List<GraphNode> indexed = new ArrayList<>();
+        for (GraphNode node : nodes) {
+            if (node.hasLocation() && node.isAvailable()) {
+                indexed.add(node);
+            }
+        }
+        size = indexed.size();
+        roomIds = new int[size];
+        units = new int[size];
+        coords = new double[3 * size];
+        axes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            GraphNode node = indexed.get(i);
+            roomIds[i] = node.getRoomId();
+            units[i] = node.getAvailableUnits();
+            coords[3 * i] = node.getX();
+            coords[3 * i + 1] = node.getY();
+            coords[3 * i + 2] = node.getFloor() * FLOOR_DISTANCE;
+        }
+        build(0, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Distance in metres between two rooms that have positions.
+     */
+    public static double distance(GraphNode a, GraphNode b) {
+        double dx = a.getX() - b.getX();
+        double dy = a.getY() - b.getY();
+        double dz = (a.getFloor() - b.getFloor()) * FLOOR_DISTANCE;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * The k available rooms nearest to a room, nearest first, not counting the room itself.
+     */
+    public List<Integer> nearest(GraphNode room, int k) {
+        List<Integer> result = new ArrayList<>();
+        if (!room.hasLocation() || k <= 0) {
+            return result;
+        }
+        Neighbours neighbours = new Neighbours(Math.min(k, size), Double.POSITIVE_INFINITY);
+        search(0, size, room.getX(), room.getY(), room.getFloor() * FLOOR_DISTANCE, room.getRoomId(), neighbours);
+        for (int i : neighbours.sorted()) {
+            result.add(roomIds[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Find the smallest cluster of available rooms with at least the given number of units:
+     * the center room and radius for which the rooms within the radius hold enough units, with
+     * the radius as small as possible.
+     *
+     * Branch and bound over candidate centers: each center gathers its nearest rooms until they
+     * hold enough units, and the search around it stops as soon as it is farther out than the
+     * best radius found so far by any center. Centers are searched in parallel on large indexes.
+     * @return the block, or null if the indexed rooms do not hold that many units
+     */
+    public Block findBlock(int unitsNeeded) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += units[i];
+        }
+        if (unitsNeeded <= 0 || total < unitsNeeded) {
+            return null;
+        }
+
+        // Best squared radius so far; non-negative doubles order the same as their bits
+        AtomicLong bestBits = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        // Seed the bound from the root room so every thread starts pruning at once
+        gather(size / 2, unitsNeeded, bestBits);
+        IntStream centers = IntStream.range(0, size);
+        if (size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            centers = centers.parallel();
+        }
+        Candidate best = centers
+            .mapToObj(center -> gather(center, unitsNeeded, bestBits))
+            .filter(Objects::nonNull)
+            .min(Comparator.comparingDouble((Candidate c) -> c.radiusSquared)
+                .thenComparingInt(c -> roomIds[c.center]))
+            .orElse(null);
+        if (best == null) {
+            return null;
+        }
+
+        Map<Integer, Integer> unitsByRoom = new LinkedHashMap<>();
+        int remaining = unitsNeeded;
+        for (int i : best.rooms) {
+            int taken = Math.min(units[i], remaining);
+            unitsByRoom.put(roomIds[i], taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return new Block(roomIds[best.center], Math.sqrt(best.radiusSquared), unitsByRoom);
+    }
+
+    private static class Candidate {
+        final int center;
+        final double radiusSquared;
+        final int[] rooms;
+
+        Candidate(int center, double radiusSquared, int[] rooms) {
+            this.center = center;
+            this.radiusSquared = radiusSquared;
+            this.rooms = rooms;
+        }
+    }
+
+    /**
+     * Nearest rooms around one center until they hold enough units, or null when that takes
+     * a larger radius than the best one so far.
+     */
+    private Candidate gather(int center, int unitsNeeded, AtomicLong bestBits) {
+        // Every room has at least one unit, so the unitsNeeded nearest rooms are always enough
+        double bound = Double.longBitsToDouble(bestBits.get());
+        Neighbours neighbours = new Neighbours(Math.min(unitsNeeded, size), bound);
+        search(0, size, coords[3 * center], coords[3 * center + 1], coords[3 * center + 2], -1, neighbours);
+        int[] rooms = neighbours.sorted();
+        int gathered = 0;
+        for (int n = 0; n < rooms.length; n++) {
+            gathered += units[rooms[n]];
+            if (gathered >= unitsNeeded) {
+                double radiusSquared = distanceSquared(rooms[n], coords[3 * center], coords[3 * center + 1],
+                    coords[3 * center + 2]);
+                bestBits.accumulateAndGet(Double.doubleToLongBits(radiusSquared), Math::min);
+                return new Candidate(center, radiusSquared, rooms);
+            }
+        }
+        return null;
+    }
+
+    private void search(int lo, int hi, double x, double y, double z, int excludedRoomId, Neighbours neighbours) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (roomIds[mid] != excludedRoomId) {
+                neighbours.offer(mid, distanceSquared(mid, x, y, z));
+            }
+            int axis = axes[mid];
+            double diff = (axis == 0 ? x : axis == 1 ? y : z) - coords[3 * mid + axis];
+            // Search the side the point is on first; the far side only if it can hold anything nearer
+            if (diff < 0) {
+                search(lo, mid, x, y, z, excludedRoomId, neighbours);
+                if (diff * diff > neighbours.bound()) {
+                    return;
+                }
+                lo = mid + 1;
+            } else {
+                search(mid + 1, hi, x, y, z, excludedRoomId, neighbours);
+                if (diff * diff > neighbours.bound()) {
+                    return;
+                }
+                hi = mid;
+            }
+        }
+    }
+
+    private double distanceSquared(int room, double x, double y, double z) {
+        double dx = coords[3 * room] - x;
+        double dy = coords[3 * room + 1] - y;
+        double dz = coords[3 * room + 2] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void build(int lo, int hi) {
+        while (hi - lo > 1) {
+            int axis = widestAxis(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, axis);
+            axes[mid] = (byte) axis;
+            build(lo, mid);
+            lo = mid + 1;
+        }
+    }
+
+    private int widestAxis(int lo, int hi) {
+        int widest = 0;
+        double widestSpread = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                min = Math.min(min, coords[3 * i + axis]);
+                max = Math.max(max, coords[3 * i + axis]);
+            }
+            if (max - min > widestSpread) {
+                widest = axis;
+                widestSpread = max - min;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Quickselect: move the room with the k-th smallest coordinate on the axis to position k,
+     * with smaller or equal ones before it and larger or equal ones after.
+     */
+    private void select(int left, int right, int k, int axis) {
+        while (left < right) {
+            double pivot = coords[3 * ((left + right) >>> 1) + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coords[3 * i + axis] < pivot) i++;
+                while (coords[3 * j + axis] > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        int roomId = roomIds[a];
+        roomIds[a] = roomIds[b];
+        roomIds[b] = roomId;
+        int unitCount = units[a];
+        units[a] = units[b];
+        units[b] = unitCount;
+        for (int axis = 0; axis < 3; axis++) {
+            double coord = coords[3 * a + axis];
+            coords[3 * a + axis] = coords[3 * b + axis];
+            coords[3 * b + axis] = coord;
+        }
+    }
+
+    /**
+     * The k nearest rooms seen so far within a distance limit, in a max-heap on distance.
+     */
+    private static class Neighbours {
+        private final int[] rooms;
+        private final double[] distances;
+        private final double limit;
+        private int count;
+
+        Neighbours(int k, double limitSquared) {
+            rooms = new int[k];
+            distances = new double[k];
+            limit = limitSquared;
+        }
+
+        /**
+         * Squared distance a room must be within to be kept.
+         */
+        double bound() {
+            return count == rooms.length ? distances[0] : limit;
+        }
+
+        void offer(int room, double distance) {
+            if (rooms.length == 0 || distance > bound() || count == rooms.length && distance == distances[0]) {
+                return;
+            }
+            int position;
+            if (count < rooms.length) {
+                // Sift up from the end
+                position = count++;
+                while (position > 0 && distances[(position - 1) >>> 1] < distance) {
+                    int parent = (position - 1) >>> 1;
+                    rooms[position] = rooms[parent];
+                    distances[position] = distances[parent];
+                    position = parent;
+                }
+            } else {
+                // Replace the farthest and sift down
+                position = 0;
+                while (true) {
+                    int child = 2 * position + 1;
+                    if (child >= count) {
+                        break;
+                    }
+                    if (child + 1 < count && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    rooms[position] = rooms[child];
+                    distances[position] = distances[child];
+                    position = child;
+                }
+            }
+            rooms[position] = room;
+            distances[position] = distance;
+        }
+
+        /**
+         * The kept rooms, nearest first. Heapsorts in place, so this is the last call.
+         */
+        int[] sorted() {
+            int[] result = new int[count];
+            for (int last = count - 1; last >= 0; last--) {
+                // The farthest room left is at the root: take it and sift the last one down
+                result[last] = rooms[0];
+                int room = rooms[last];
+                double distance = distances[last];
+                int position = 0;
+                while (true) {
+                    int child = 2 * position + 1;
+                    if (child >= last) {
+                        break;
+                    }
+                    if (child + 1 < last && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    rooms[position] = rooms[child];
+                    distances[position] = distances[child];
+                    position = child;
+                }
+                rooms[position] = room;
+                distances[position] = distance;
+            }
+            count = 0;
+            return result;
+        }
+    }
+}
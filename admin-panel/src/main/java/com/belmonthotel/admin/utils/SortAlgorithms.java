@@ -1,150 +1,313 @@
 package com.belmonthotel.admin.utils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
- * Utility class demonstrating various sorting algorithms.
- * Implements Quick Sort, Merge Sort, and Heap Sort for educational purposes.
+ * Sorting algorithms with performance metrics.
+ * Every algorithm copies the list into an array once and works on the array:
+ * introsort (Quick Sort), bottom-up Merge Sort, Heap Sort and a ForkJoin parallel merge sort.
  */
 public class SortAlgorithms {
-    
+    public static final String AUTO = "Auto";
+    public static final String QUICK_SORT = "Quick Sort";
+    public static final String MERGE_SORT = "Merge Sort";
+    public static final String HEAP_SORT = "Heap Sort";
+    public static final String PARALLEL_MERGE_SORT = "Parallel Merge Sort";
+    public static final String RADIX_SORT = "Radix Sort";
+
+    /** Choices for the sort algorithm combo boxes. */
+    public static final List<String> ALGORITHM_NAMES =
+        List.of(AUTO, QUICK_SORT, MERGE_SORT, HEAP_SORT, PARALLEL_MERGE_SORT, RADIX_SORT);
+
+    /** Choices for the "Show" combo boxes: all rows or only the first N in sort order. */
+    public static final List<String> LIMIT_CHOICES = List.of("All rows", "Top 50", "Top 100", "Top 500");
+
+    // Ranges this small are insertion sorted
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    // Auto switches to the parallel merge sort from this many rows
+    private static final int PARALLEL_THRESHOLD = 50_000;
+    // Parallel tasks stop splitting at this size
+    private static final int PARALLEL_LEAF_SIZE = 8_192;
+    // Auto uses the radix sort on packed keys from this many rows
+    private static final int RADIX_THRESHOLD = 1_024;
+    private static final int RADIX_BITS = 8;
+
     /**
      * Result object containing sorted data and performance metrics.
      */
     public static class SortResult<T> {
         private final List<T> sortedData;
         private final long executionTime;
-        private final int comparisons;
+        private final long comparisons;
         private final String algorithmName;
-        
-        public SortResult(List<T> sortedData, long executionTime, int comparisons, String algorithmName) {
+
+        public SortResult(List<T> sortedData, long executionTime, long comparisons, String algorithmName) {
             this.sortedData = sortedData;
             this.executionTime = executionTime;
             this.comparisons = comparisons;
             this.algorithmName = algorithmName;
         }
-        
+
         public List<T> getSortedData() { return sortedData; }
         public long getExecutionTime() { return executionTime; }
-        public int getComparisons() { return comparisons; }
+        public long getComparisons() { return comparisons; }
         public String getAlgorithmName() { return algorithmName; }
     }
-    
+
+    /**
+     * Sort with the named algorithm (one of ALGORITHM_NAMES); unknown names use Auto.
+     * Radix Sort needs numeric keys (see sortByKeys), so with a comparator it also uses Auto.
+     */
+    public static <T> SortResult<T> sort(String algorithm, List<T> list, Comparator<T> comparator) {
+        switch (algorithm != null ? algorithm : AUTO) {
+            case QUICK_SORT: return quickSort(list, comparator);
+            case MERGE_SORT: return mergeSort(list, comparator);
+            case HEAP_SORT: return heapSort(list, comparator);
+            case PARALLEL_MERGE_SORT: return parallelMergeSort(list, comparator);
+            default: return autoSort(list, comparator);
+        }
+    }
+
+    /**
+     * Row limit for one of LIMIT_CHOICES (Integer.MAX_VALUE for all rows).
+     */
+    public static int parseLimit(String choice) {
+        if (choice != null && choice.startsWith("Top ")) {
+            try {
+                return Integer.parseInt(choice.substring(4).trim());
+            } catch (NumberFormatException e) {
+                return Integer.MAX_VALUE;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
     /**
-     * Quick Sort algorithm implementation.
-     * Time Complexity: O(n log n) average, O(n²) worst case
+     * Pick the algorithm by size: the sequential merge sort for small and medium lists,
+     * the parallel merge sort for large ones. Both are stable, so equal keys keep their order.
+     */
+    public static <T> SortResult<T> autoSort(List<T> list, Comparator<T> comparator) {
+        if (list.size() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return parallelMergeSort(list, comparator);
+        }
+        return mergeSort(list, comparator);
+    }
+
+    /**
+     * Partial sort: only the first limit rows in comparator order, found by quickselect
+     * (expected O(n)) and then sorted (O(limit log limit)).
+     */
+    public static <T> SortResult<T> topN(List<T> list, Comparator<T> comparator, int limit) {
+        long startTime = System.nanoTime();
+        CountingComparator<T> counter = new CountingComparator<>(comparator);
+        T[] array = toArray(list);
+        int k = Math.min(Math.max(limit, 0), array.length);
+
+        int from = 0;
+        int to = array.length;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(array.length, 1)));
+        while (to - from > INSERTION_SORT_THRESHOLD && from < k && k < to) {
+            if (depthLimit-- == 0) {
+                heapSort(array, from, to, counter);
+                break;
+            }
+            int pivot = partition(array, from, to, counter);
+            if (pivot < k) {
+                from = pivot + 1;
+            } else {
+                to = pivot;
+            }
+        }
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, from, to, counter);
+        }
+        introSort(array, 0, k, 2 * (32 - Integer.numberOfLeadingZeros(Math.max(k, 1))), counter);
+
+        T[] top = Arrays.copyOf(array, k);
+        return result(top, startTime, counter.count, "Top " + k + " (quickselect)");
+    }
+
+    /**
+     * Quick Sort as introsort: median-of-three pivot, insertion sort for small ranges,
+     * and Heap Sort once recursion gets deeper than 2 log n (so sorted input stays O(n log n)).
+     * Time Complexity: O(n log n) worst case
      * Space Complexity: O(log n)
      */
     public static <T> SortResult<T> quickSort(List<T> list, Comparator<T> comparator) {
         long startTime = System.nanoTime();
-        int[] comparisons = {0};
-        
-        List<T> sorted = new java.util.ArrayList<>(list);
-        quickSortHelper(sorted, 0, sorted.size() - 1, comparator, comparisons);
-        
-        long endTime = System.nanoTime();
-        long executionTime = (endTime - startTime) / 1_000_000; // Convert to milliseconds
-        
-        return new SortResult<>(sorted, executionTime, comparisons[0], "Quick Sort");
-    }
-    
-    private static <T> void quickSortHelper(List<T> list, int low, int high, 
-                                           Comparator<T> comparator, int[] comparisons) {
-        if (low < high) {
-            int pivotIndex = partition(list, low, high, comparator, comparisons);
-            quickSortHelper(list, low, pivotIndex - 1, comparator, comparisons);
-            quickSortHelper(list, pivotIndex + 1, high, comparator, comparisons);
-        }
-    }
-    
-    private static <T> int partition(List<T> list, int low, int high, 
-                                    Comparator<T> comparator, int[] comparisons) {
-        T pivot = list.get(high);
-        int i = low - 1;
-        
-        for (int j = low; j < high; j++) {
-            comparisons[0]++;
-            if (comparator.compare(list.get(j), pivot) < 0) {
-                i++;
-                swap(list, i, j);
+        CountingComparator<T> counter = new CountingComparator<>(comparator);
+        T[] array = toArray(list);
+
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(array.length, 1)));
+        introSort(array, 0, array.length, depthLimit, counter);
+
+        return result(array, startTime, counter.count, QUICK_SORT);
+    }
+
+    private static <T> void introSort(T[] a, int from, int to, int depthLimit, CountingComparator<T> c) {
+        // Recurse into the smaller side and loop on the larger, keeping the stack O(log n)
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(a, from, to, c);
+                return;
+            }
+            int pivot = partition(a, from, to, c);
+            if (pivot - from < to - pivot - 1) {
+                introSort(a, from, pivot, depthLimit, c);
+                from = pivot + 1;
+            } else {
+                introSort(a, pivot + 1, to, depthLimit, c);
+                to = pivot;
+            }
+        }
+        insertionSort(a, from, to, c);
+    }
+
+    /**
+     * Partition [from, to) around the median of the first, middle and last elements.
+     * @return final index of the pivot
+     */
+    private static <T> int partition(T[] a, int from, int to, CountingComparator<T> c) {
+        int last = to - 1;
+        int mid = (from + last) >>> 1;
+        if (c.compare(a[mid], a[from]) < 0) swap(a, mid, from);
+        if (c.compare(a[last], a[from]) < 0) swap(a, last, from);
+        if (c.compare(a[last], a[mid]) < 0) swap(a, last, mid);
+        // a[from] <= a[mid] <= a[last]; park the pivot next to the end
+        swap(a, mid, last - 1);
+        T pivot = a[last - 1];
+
+        int i = from;
+        int j = last - 1;
+        while (true) {
+            while (c.compare(a[++i], pivot) < 0) { }
+            while (c.compare(pivot, a[--j]) < 0) { }
+            if (i >= j) {
+                break;
             }
+            swap(a, i, j);
         }
-        swap(list, i + 1, high);
-        return i + 1;
+        swap(a, i, last - 1);
+        return i;
     }
-    
+
     /**
-     * Merge Sort algorithm implementation.
+     * Merge Sort, bottom-up: insertion-sorted runs merged pairwise through a single scratch buffer.
      * Time Complexity: O(n log n) worst case
      * Space Complexity: O(n)
      */
     public static <T> SortResult<T> mergeSort(List<T> list, Comparator<T> comparator) {
         long startTime = System.nanoTime();
-        int[] comparisons = {0};
-        
-        List<T> sorted = new java.util.ArrayList<>(list);
-        mergeSortHelper(sorted, 0, sorted.size() - 1, comparator, comparisons);
-        
-        long endTime = System.nanoTime();
-        long executionTime = (endTime - startTime) / 1_000_000; // Convert to milliseconds
-        
-        return new SortResult<>(sorted, executionTime, comparisons[0], "Merge Sort");
-    }
-    
-    private static <T> void mergeSortHelper(List<T> list, int left, int right, 
-                                            Comparator<T> comparator, int[] comparisons) {
-        if (left < right) {
-            int mid = left + (right - left) / 2;
-            mergeSortHelper(list, left, mid, comparator, comparisons);
-            mergeSortHelper(list, mid + 1, right, comparator, comparisons);
-            merge(list, left, mid, right, comparator, comparisons);
-        }
-    }
-    
-    @SuppressWarnings("unchecked")
-    private static <T> void merge(List<T> list, int left, int mid, int right, 
-                                 Comparator<T> comparator, int[] comparisons) {
-        int n1 = mid - left + 1;
-        int n2 = right - mid;
-        
-        List<T> leftArray = new java.util.ArrayList<>();
-        List<T> rightArray = new java.util.ArrayList<>();
-        
-        for (int i = 0; i < n1; i++) {
-            leftArray.add(list.get(left + i));
-        }
-        for (int j = 0; j < n2; j++) {
-            rightArray.add(list.get(mid + 1 + j));
-        }
-        
-        int i = 0, j = 0, k = left;
-        
-        while (i < n1 && j < n2) {
-            comparisons[0]++;
-            if (comparator.compare(leftArray.get(i), rightArray.get(j)) <= 0) {
-                list.set(k, leftArray.get(i));
-                i++;
-            } else {
-                list.set(k, rightArray.get(j));
-                j++;
+        CountingComparator<T> counter = new CountingComparator<>(comparator);
+        T[] array = toArray(list);
+
+        mergeSort(array, 0, array.length, Arrays.copyOf(array, array.length), counter);
+
+        return result(array, startTime, counter.count, MERGE_SORT);
+    }
+
+    /**
+     * Stable sort of a[from, to), using buffer[from, to) as scratch.
+     */
+    private static <T> void mergeSort(T[] a, int from, int to, T[] buffer, CountingComparator<T> c) {
+        for (int lo = from; lo < to; lo += INSERTION_SORT_THRESHOLD) {
+            insertionSort(a, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, to), c);
+        }
+        T[] src = a;
+        T[] dst = buffer;
+        for (int width = INSERTION_SORT_THRESHOLD; width < to - from; width *= 2) {
+            for (int lo = from; lo < to; lo += 2 * width) {
+                int mid = Math.min(lo + width, to);
+                int hi = Math.min(lo + 2 * width, to);
+                merge(src, lo, mid, hi, dst, lo, c);
             }
-            k++;
+            T[] swap = src;
+            src = dst;
+            dst = swap;
         }
-        
-        while (i < n1) {
-            list.set(k, leftArray.get(i));
-            i++;
-            k++;
+        if (src != a) {
+            System.arraycopy(src, from, a, from, to - from);
+        }
+    }
+
+    /**
+     * Merge the sorted runs src[lo, mid) and src[mid, hi) into dst starting at out.
+     */
+    private static <T> void merge(T[] src, int lo, int mid, int hi, T[] dst, int out, CountingComparator<T> c) {
+        int i = lo;
+        int j = mid;
+        // Runs already in order: copy straight through
+        if (i < mid && j < hi && c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, lo, dst, out, hi - lo);
+            return;
         }
-        
-        while (j < n2) {
-            list.set(k, rightArray.get(j));
-            j++;
-            k++;
+        while (i < mid && j < hi) {
+            dst[out++] = c.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
         }
+        System.arraycopy(src, i, dst, out, mid - i);
+        System.arraycopy(src, j, dst, out + mid - i, hi - j);
     }
-    
+
+    /**
+     * Merge sort split across the common ForkJoin pool. Each half is sorted in parallel,
+     * then merged; small ranges fall back to the sequential merge sort.
+     * Time Complexity: O(n log n) work
+     * Space Complexity: O(n)
+     */
+    public static <T> SortResult<T> parallelMergeSort(List<T> list, Comparator<T> comparator) {
+        long startTime = System.nanoTime();
+        T[] array = toArray(list);
+
+        long comparisons = ForkJoinPool.commonPool().invoke(
+            new MergeTask<>(array, Arrays.copyOf(array, array.length), 0, array.length, comparator));
+
+        return result(array, startTime, comparisons, PARALLEL_MERGE_SORT);
+    }
+
+    /**
+     * Sorts a[from, to) and returns the number of comparisons made.
+     */
+    @SuppressWarnings("serial")
+    private static class MergeTask<T> extends RecursiveTask<Long> {
+        private final T[] a;
+        private final T[] buffer;
+        private final int from;
+        private final int to;
+        private final Comparator<T> comparator;
+
+        MergeTask(T[] a, T[] buffer, int from, int to, Comparator<T> comparator) {
+            this.a = a;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected Long compute() {
+            // Each task counts with its own comparator, so no counter is shared between threads
+            CountingComparator<T> counter = new CountingComparator<>(comparator);
+            if (to - from <= PARALLEL_LEAF_SIZE) {
+                mergeSort(a, from, to, buffer, counter);
+                return counter.count;
+            }
+            int mid = (from + to) >>> 1;
+            MergeTask<T> left = new MergeTask<>(a, buffer, from, mid, comparator);
+            MergeTask<T> right = new MergeTask<>(a, buffer, mid, to, comparator);
+            left.fork();
+            long comparisons = right.compute() + left.join();
+
+            merge(a, from, mid, to, buffer, from, counter);
+            System.arraycopy(buffer, from, a, from, to - from);
+            return comparisons + counter.count;
+        }
+    }
+
     /**
      * Heap Sort algorithm implementation.
      * Time Complexity: O(n log n) worst case
@@ -152,61 +315,420 @@ public class SortAlgorithms {
      */
     public static <T> SortResult<T> heapSort(List<T> list, Comparator<T> comparator) {
         long startTime = System.nanoTime();
-        int[] comparisons = {0};
-        
-        List<T> sorted = new java.util.ArrayList<>(list);
-        int n = sorted.size();
-        
+        CountingComparator<T> counter = new CountingComparator<>(comparator);
+        T[] array = toArray(list);
+
+        heapSort(array, 0, array.length, counter);
+
+        return result(array, startTime, counter.count, HEAP_SORT);
+    }
+
+    private static <T> void heapSort(T[] a, int from, int to, CountingComparator<T> c) {
+        int n = to - from;
         // Build max heap
         for (int i = n / 2 - 1; i >= 0; i--) {
-            heapify(sorted, n, i, comparator, comparisons);
+            siftDown(a, from, i, n, c);
         }
-        
         // Extract elements from heap one by one
         for (int i = n - 1; i > 0; i--) {
-            swap(sorted, 0, i);
-            heapify(sorted, i, 0, comparator, comparisons);
-        }
-        
-        long endTime = System.nanoTime();
-        long executionTime = (endTime - startTime) / 1_000_000; // Convert to milliseconds
-        
-        return new SortResult<>(sorted, executionTime, comparisons[0], "Heap Sort");
-    }
-    
-    private static <T> void heapify(List<T> list, int n, int i, 
-                                    Comparator<T> comparator, int[] comparisons) {
-        int largest = i;
-        int left = 2 * i + 1;
-        int right = 2 * i + 2;
-        
-        if (left < n) {
-            comparisons[0]++;
-            if (comparator.compare(list.get(left), list.get(largest)) > 0) {
-                largest = left;
+            swap(a, from, from + i);
+            siftDown(a, from, 0, i, c);
+        }
+    }
+
+    private static <T> void siftDown(T[] a, int base, int i, int n, CountingComparator<T> c) {
+        T value = a[base + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
             }
+            if (child + 1 < n && c.compare(a[base + child + 1], a[base + child]) > 0) {
+                child++;
+            }
+            if (c.compare(a[base + child], value) <= 0) {
+                break;
+            }
+            a[base + i] = a[base + child];
+            i = child;
         }
-        
-        if (right < n) {
+        a[base + i] = value;
+    }
+
+    /**
+     * Sort by precomputed keys: each row's packed key and its index share one long, so the
+     * chosen algorithm compares plain longs (ties keep list order) and the permutation is
+     * applied to the list at the end. Falls back to comparing key columns when they do not fit.
+     */
+    public static <T> SortResult<T> sortByKeys(String algorithm, List<T> list, SortKeys<T> sortKeys) {
+        return sortByKeys(algorithm, list, sortKeys, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sort by precomputed keys, keeping only the first limit rows. When the limit is smaller
+     * than the list, quickselect moves the top rows to the front in expected O(n) and only
+     * those are sorted.
+     */
+    public static <T> SortResult<T> sortByKeys(String algorithm, List<T> list, SortKeys<T> sortKeys, int limit) {
+        long startTime = System.nanoTime();
+        int n = list.size();
+        int k = Math.min(Math.max(limit, 0), n);
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(n - 1, 1));
+        long[] keys = sortKeys.build(63 - indexBits);
+        if (keys == null) {
+            List<Integer> rows = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                rows.add(i);
+            }
+            SortResult<Integer> sorted = k < n
+                ? topN(rows, sortKeys::compareRows, k) : sort(algorithm, rows, sortKeys::compareRows);
+            List<T> data = new ArrayList<>(sorted.getSortedData().size());
+            for (int row : sorted.getSortedData()) {
+                data.add(list.get(row));
+            }
+            return new SortResult<>(data, sorted.getExecutionTime(), sorted.getComparisons(), sorted.getAlgorithmName());
+        }
+
+        long[] entries = new long[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = (keys[i] << indexBits) | i;
+        }
+        long[] comparisons = {0};
+        String prefix = "";
+        if (k < n) {
+            select(entries, k, comparisons);
+            prefix = "Top " + k + ", quickselect + ";
+        }
+
+        String name = algorithm != null && ALGORITHM_NAMES.contains(algorithm) ? algorithm : AUTO;
+        if (name.equals(AUTO)) {
+            if (k >= RADIX_THRESHOLD) {
+                name = RADIX_SORT;
+            } else {
+                name = k >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1
+                    ? PARALLEL_MERGE_SORT : MERGE_SORT;
+            }
+        }
+        switch (name) {
+            case QUICK_SORT:
+                introSort(entries, 0, k, 2 * (32 - Integer.numberOfLeadingZeros(Math.max(k, 1))), comparisons);
+                break;
+            case HEAP_SORT:
+                heapSort(entries, 0, k, comparisons);
+                break;
+            case PARALLEL_MERGE_SORT:
+                comparisons[0] += ForkJoinPool.commonPool().invoke(new LongMergeTask(entries, new long[k], 0, k));
+                break;
+            case RADIX_SORT:
+                name = RADIX_SORT + " (" + radixSort(entries, k) + " passes)";
+                break;
+            default:
+                mergeSort(entries, 0, k, new long[k], comparisons);
+        }
+
+        long indexMask = (1L << indexBits) - 1;
+        List<T> data = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            data.add(list.get((int) (entries[i] & indexMask)));
+        }
+        long executionTime = (System.nanoTime() - startTime) / 1_000_000; // Convert to milliseconds
+        return new SortResult<>(data, executionTime, comparisons[0], prefix + name + " (packed keys)");
+    }
+
+    /**
+     * LSD radix sort of a[0, length) on non-negative values, 8 bits per pass from the lowest digit.
+     * Makes no comparisons; passes where every value has the same digit are skipped.
+     * Time Complexity: O(n * bits / 8)
+     * Space Complexity: O(n)
+     * @return number of distribution passes made
+     */
+    public static int radixSort(long[] a, int length) {
+        long max = 0;
+        for (int i = 0; i < length; i++) {
+            max |= a[i];
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(max);
+        long[] src = a;
+        long[] dst = new long[length];
+        int[] counts = new int[1 << RADIX_BITS];
+        int mask = (1 << RADIX_BITS) - 1;
+        int passes = 0;
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < length; i++) {
+                counts[(int) (src[i] >>> shift) & mask]++;
+            }
+            if (counts[(int) (src[0] >>> shift) & mask] == length) {
+                continue;
+            }
+            int total = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int count = counts[d];
+                counts[d] = total;
+                total += count;
+            }
+            for (int i = 0; i < length; i++) {
+                dst[counts[(int) (src[i] >>> shift) & mask]++] = src[i];
+            }
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+            passes++;
+        }
+        if (src != a) {
+            System.arraycopy(src, 0, a, 0, length);
+        }
+        return passes;
+    }
+
+    /**
+     * Quickselect: rearrange a so that a[0, k) holds its k smallest values (in no particular order).
+     * Falls back to heap sort on the remaining range if partitioning keeps going badly.
+     */
+    private static void select(long[] a, int k, long[] comparisons) {
+        int from = 0;
+        int to = a.length;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(a.length, 1)));
+        while (to - from > INSERTION_SORT_THRESHOLD && from < k && k < to) {
+            if (depthLimit-- == 0) {
+                heapSort(a, from, to, comparisons);
+                return;
+            }
+            int pivot = partition(a, from, to, comparisons);
+            if (pivot < k) {
+                from = pivot + 1;
+            } else {
+                to = pivot;
+            }
+        }
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(a, from, to, comparisons);
+        }
+    }
+
+    // The same algorithms over primitive longs; entries are distinct, so no stability concerns
+
+    private static void introSort(long[] a, int from, int to, int depthLimit, long[] comparisons) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(a, from, to, comparisons);
+                return;
+            }
+            int i = partition(a, from, to, comparisons);
+            if (i - from < to - i - 1) {
+                introSort(a, from, i, depthLimit, comparisons);
+                from = i + 1;
+            } else {
+                introSort(a, i + 1, to, depthLimit, comparisons);
+                to = i;
+            }
+        }
+        insertionSort(a, from, to, comparisons);
+    }
+
+    /**
+     * Median-of-three partition of a[from, to) (more than INSERTION_SORT_THRESHOLD values).
+     * @return final index of the pivot
+     */
+    private static int partition(long[] a, int from, int to, long[] comparisons) {
+        int last = to - 1;
+        int mid = (from + last) >>> 1;
+        if (a[mid] < a[from]) swap(a, mid, from);
+        if (a[last] < a[from]) swap(a, last, from);
+        if (a[last] < a[mid]) swap(a, last, mid);
+        swap(a, mid, last - 1);
+        long pivot = a[last - 1];
+        int i = from;
+        int j = last - 1;
+        long count = 3;
+        while (true) {
+            while (a[++i] < pivot) count++;
+            while (pivot < a[--j]) count++;
+            count += 2;
+            if (i >= j) {
+                break;
+            }
+            swap(a, i, j);
+        }
+        swap(a, i, last - 1);
+        comparisons[0] += count;
+        return i;
+    }
+
+    private static void mergeSort(long[] a, int from, int to, long[] buffer, long[] comparisons) {
+        for (int lo = from; lo < to; lo += INSERTION_SORT_THRESHOLD) {
+            insertionSort(a, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, to), comparisons);
+        }
+        long[] src = a;
+        long[] dst = buffer;
+        for (int width = INSERTION_SORT_THRESHOLD; width < to - from; width *= 2) {
+            for (int lo = from; lo < to; lo += 2 * width) {
+                merge(src, lo, Math.min(lo + width, to), Math.min(lo + 2 * width, to), dst, lo, comparisons);
+            }
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != a) {
+            System.arraycopy(src, from, a, from, to - from);
+        }
+    }
+
+    private static void merge(long[] src, int lo, int mid, int hi, long[] dst, int out, long[] comparisons) {
+        int i = lo;
+        int j = mid;
+        long count = 0;
+        if (i < mid && j < hi && src[mid - 1] < src[mid]) {
+            System.arraycopy(src, lo, dst, out, hi - lo);
             comparisons[0]++;
-            if (comparator.compare(list.get(right), list.get(largest)) > 0) {
-                largest = right;
+            return;
+        }
+        while (i < mid && j < hi) {
+            dst[out++] = src[j] < src[i] ? src[j++] : src[i++];
+            count++;
+        }
+        System.arraycopy(src, i, dst, out, mid - i);
+        System.arraycopy(src, j, dst, out + mid - i, hi - j);
+        comparisons[0] += count;
+    }
+
+    @SuppressWarnings("serial")
+    private static class LongMergeTask extends RecursiveTask<Long> {
+        private final long[] a;
+        private final long[] buffer;
+        private final int from;
+        private final int to;
+
+        LongMergeTask(long[] a, long[] buffer, int from, int to) {
+            this.a = a;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            long[] comparisons = {0};
+            if (to - from <= PARALLEL_LEAF_SIZE) {
+                mergeSort(a, from, to, buffer, comparisons);
+                return comparisons[0];
+            }
+            int mid = (from + to) >>> 1;
+            LongMergeTask left = new LongMergeTask(a, buffer, from, mid);
+            LongMergeTask right = new LongMergeTask(a, buffer, mid, to);
+            left.fork();
+            long count = right.compute() + left.join();
+
+            merge(a, from, mid, to, buffer, from, comparisons);
+            System.arraycopy(buffer, from, a, from, to - from);
+            return count + comparisons[0];
+        }
+    }
+
+    private static void heapSort(long[] a, int from, int to, long[] comparisons) {
+        int n = to - from;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, from, i, n, comparisons);
+        }
+        for (int i = n - 1; i > 0; i--) {
+            swap(a, from, from + i);
+            siftDown(a, from, 0, i, comparisons);
+        }
+    }
+
+    private static void siftDown(long[] a, int base, int i, int n, long[] comparisons) {
+        long value = a[base + i];
+        long count = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n) {
+                count++;
+                if (a[base + child + 1] > a[base + child]) {
+                    child++;
+                }
             }
+            count++;
+            if (a[base + child] <= value) {
+                break;
+            }
+            a[base + i] = a[base + child];
+            i = child;
         }
-        
-        if (largest != i) {
-            swap(list, i, largest);
-            heapify(list, n, largest, comparator, comparisons);
+        a[base + i] = value;
+        comparisons[0] += count;
+    }
+
+    private static void insertionSort(long[] a, int from, int to, long[] comparisons) {
+        long count = 0;
+        for (int i = from + 1; i < to; i++) {
+            long value = a[i];
+            int j = i - 1;
+            while (j >= from && a[j] > value) {
+                a[j + 1] = a[j];
+                j--;
+                count++;
+            }
+            a[j + 1] = value;
+            count++;
         }
+        comparisons[0] += count;
     }
-    
+
+    private static void swap(long[] a, int i, int j) {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static <T> void insertionSort(T[] a, int from, int to, CountingComparator<T> c) {
+        for (int i = from + 1; i < to; i++) {
+            T value = a[i];
+            int j = i - 1;
+            while (j >= from && c.compare(a[j], value) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
     /**
-     * Helper method to swap two elements in a list.
+     * Comparator wrapper counting calls. Not thread-safe; use one per thread.
      */
-    private static <T> void swap(List<T> list, int i, int j) {
-        T temp = list.get(i);
-        list.set(i, list.get(j));
-        list.set(j, temp);
+    private static class CountingComparator<T> implements Comparator<T> {
+        private final Comparator<T> comparator;
+        private long count;
+
+        CountingComparator(Comparator<T> comparator) {
+            this.comparator = comparator;
+        }
+
+        @Override
+        public int compare(T a, T b) {
+            count++;
+            return comparator.compare(a, b);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T[] toArray(List<T> list) {
+        return (T[]) list.toArray();
     }
-}
 
+    private static <T> SortResult<T> result(T[] array, long startTime, long comparisons, String algorithmName) {
+        long executionTime = (System.nanoTime() - startTime) / 1_000_000; // Convert to milliseconds
+        return new SortResult<>(new ArrayList<>(Arrays.asList(array)), executionTime, comparisons, algorithmName);
+    }
+
+    /**
+     * Helper method to swap two array elements.
+     */
+    private static <T> void swap(T[] a, int i, int j) {
+        T temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
@@ -0,0 +1,163 @@
+package com.belmonthotel.admin.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Builds one primitive sort key per row, so a sort compares longs instead of calling a
+ * comparator that re-parses display strings.
+ *
+ * Each column is read once per row (epoch day, centavos, dictionary rank for strings, ...),
+ * shifted to start at zero and packed into a long, the first column in the highest bits.
+ * Comparing packed keys orders rows by the first column, then the next, and so on.
+ */
+public class SortKeys<T> {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final List<T> items;
+    private final List<long[]> columns = new ArrayList<>();
+    private final List<Boolean> descending = new ArrayList<>();
+
+    public SortKeys(List<T> items) {
+        this.items = items;
+    }
+
+    /**
+     * Add a numeric column, ascending.
+     */
+    public SortKeys<T> then(ToLongFunction<T> key) {
+        return then(key, false);
+    }
+
+    public SortKeys<T> then(ToLongFunction<T> key, boolean descendingOrder) {
+        long[] values = new long[items.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = key.applyAsLong(items.get(i));
+        }
+        columns.add(values);
+        descending.add(descendingOrder);
+        return this;
+    }
+
+    /**
+     * Add a text column ordered case-insensitively (nulls first), keyed by dictionary rank.
+     */
+    public SortKeys<T> thenText(Function<T, String> field) {
+        return thenText(field, false);
+    }
+
+    public SortKeys<T> thenText(Function<T, String> field, boolean descendingOrder) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (T item : items) {
+            ranks.putIfAbsent(normalize(field.apply(item)), 0);
+        }
+        String[] distinct = ranks.keySet().toArray(new String[0]);
+        Arrays.sort(distinct, String.CASE_INSENSITIVE_ORDER);
+        int rank = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            // Values differing only in case share a rank
+            if (i > 0 && String.CASE_INSENSITIVE_ORDER.compare(distinct[i - 1], distinct[i]) != 0) {
+                rank++;
+            }
+            ranks.put(distinct[i], rank);
+        }
+        return then(item -> ranks.get(normalize(field.apply(item))), descendingOrder);
+    }
+
+    /**
+     * The packed key of each row (same order as the items), or null when the columns
+     * together need more than the given number of bits.
+     */
+    public long[] build(int maxBits) {
+        long[] keys = new long[items.size()];
+        int usedBits = 0;
+        for (int c = 0; c < columns.size(); c++) {
+            long[] values = columns.get(c);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long value : values) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            long spread = values.length == 0 ? 0 : max - min;
+            if (spread < 0) {
+                return null;
+            }
+            int bits = 64 - Long.numberOfLeadingZeros(spread);
+            usedBits += bits;
+            if (usedBits > maxBits) {
+                return null;
+            }
+            boolean desc = descending.get(c);
+            for (int i = 0; i < keys.length; i++) {
+                long offset = desc ? max - values[i] : values[i] - min;
+                keys[i] = (keys[i] << bits) | offset;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Compare two rows column by column, for when the packed key does not fit in a long.
+     */
+    public int compareRows(int a, int b) {
+        for (int c = 0; c < columns.size(); c++) {
+            long[] values = columns.get(c);
+            int result = descending.get(c)
+                ? Long.compare(values[b], values[a]) : Long.compare(values[a], values[b]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Centavos from a display amount such as "₱1,500.00" (0 when it cannot be read).
+     */
+    public static long moneyCents(String display) {
+        if (display == null) {
+            return 0;
+        }
+        try {
+            return new BigDecimal(display.replace("₱", "").replace(",", "").trim())
+                .movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Minutes since the epoch from "yyyy-MM-dd HH:mm" or "yyyy-MM-dd"; -1 for "N/A" or anything unreadable,
+     * so missing dates sort first.
+     */
+    public static long dateTimeMinutes(String display) {
+        if (display == null) {
+            return -1;
+        }
+        try {
+            if (display.length() == 10) {
+                return LocalDate.parse(display).toEpochDay() * 24 * 60;
+            }
+            return LocalDateTime.parse(display, DATE_TIME_FORMAT).toEpochSecond(ZoneOffset.UTC) / 60;
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -1,135 +1,219 @@
 package com.belmonthotel.admin.utils;
 
+import com.belmonthotel.admin.models.DashboardStats;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class for dashboard statistics.
  */
 public class StatisticsService {
     
+    private static final String[] STATUSES = {"pending", "confirmed", "cancelled", "completed", "no_show"};
+
+    private static final String SNAPSHOT_QUERY =
+        "SELECT COUNT(r.id) as total_bookings, " +
+        "COALESCE(SUM(r.status = 'pending'), 0) as pending, " +
+        "COALESCE(SUM(r.status = 'confirmed'), 0) as confirmed, " +
+        "COALESCE(SUM(r.status = 'cancelled'), 0) as cancelled, " +
+        "COALESCE(SUM(r.status = 'completed'), 0) as completed, " +
+        "COALESCE(SUM(r.status = 'no_show'), 0) as no_show, " +
+        "COALESCE(SUM(CASE WHEN r.status IN ('confirmed', 'completed') THEN r.total_amount END), 0) as total_revenue, " +
+        "COALESCE(AVG(CASE WHEN r.status IN ('confirmed', 'completed') THEN r.total_amount END), 0) as avg_value, " +
+        "COALESCE(SUM(r.created_at >= CURDATE() AND r.created_at < CURDATE() + INTERVAL 1 DAY), 0) as todays_bookings, " +
+        "COALESCE(SUM(CASE WHEN r.created_at >= CURDATE() AND r.created_at < CURDATE() + INTERVAL 1 DAY " +
+        "AND r.status IN ('confirmed', 'completed') THEN r.total_amount END), 0) as todays_revenue, " +
+        "COALESCE(SUM(r.check_in_date BETWEEN CURDATE() AND DATE_ADD(CURDATE(), INTERVAL 7 DAY) " +
+        "AND r.status IN ('pending', 'confirmed')), 0) as upcoming_check_ins, " +
+        "COALESCE(SUM(r.check_out_date BETWEEN CURDATE() AND DATE_ADD(CURDATE(), INTERVAL 7 DAY) " +
+        "AND r.status IN ('pending', 'confirmed')), 0) as upcoming_check_outs, " +
+        "(SELECT COUNT(*) FROM rooms WHERE is_active = 1) as active_rooms, " +
+        "(SELECT COUNT(*) FROM users) as total_users " +
+        "FROM reservations r";
+
+    private static final Object snapshotLock = new Object();
+    private static volatile CachedStats cachedStats;
+    private static CompletableFuture<DashboardStats> snapshotLoad;
+    // Bumped by invalidateSnapshot(); a load started before that is not cached. Guarded by snapshotLock
+    private static int snapshotGeneration;
+
     /**
-     * Get today's bookings count.
+     * Snapshot together with the time it was loaded.
      */
-    public static int getTodaysBookings() {
-        String query = "SELECT COUNT(*) as count FROM reservations WHERE DATE(created_at) = CURDATE()";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
+    private static class CachedStats {
+        final DashboardStats stats;
+        final long loadedAtNanos;
+
+        CachedStats(DashboardStats stats, long loadedAtNanos) {
+            this.stats = stats;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    /**
+     * Get all dashboard KPIs, computed by a single query.
+     * The result is cached for {@code stats.cache.ttl.seconds}; concurrent callers
+     * that find the cache stale share one query instead of each running their own.
+     */
+    public static DashboardStats getSnapshot() {
+        CachedStats cached = cachedStats;
+        long ttlNanos = TimeUnit.SECONDS.toNanos(AppConfig.getInt("stats.cache.ttl.seconds", 15));
+        if (cached != null && System.nanoTime() - cached.loadedAtNanos < ttlNanos) {
+            return cached.stats;
+        }
+
+        CompletableFuture<DashboardStats> load;
+        boolean loader = false;
+        int generation;
+        synchronized (snapshotLock) {
+            if (snapshotLoad == null) {
+                snapshotLoad = new CompletableFuture<>();
+                loader = true;
+            }
+            load = snapshotLoad;
+            generation = snapshotGeneration;
+        }
+
+        if (loader) {
+            try {
+                DashboardStats stats = querySnapshot();
+                synchronized (snapshotLock) {
+                    if (snapshotGeneration == generation) {
+                        cachedStats = new CachedStats(stats, System.nanoTime());
+                    }
+                }
+                load.complete(stats);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                // Keep showing the last known values rather than zeros
+                load.complete(cached != null ? cached.stats : DashboardStats.EMPTY);
+            } catch (RuntimeException | Error e) {
+                // Callers waiting on the shared load must not hang
+                load.completeExceptionally(e);
+                throw e;
+            } finally {
+                synchronized (snapshotLock) {
+                    // An invalidation may already have replaced it with a newer load
+                    if (snapshotLoad == load) {
+                        snapshotLoad = null;
+                    }
+                }
+            }
+        }
+        return load.join();
+    }
+
+    /**
+     * Drop the cached snapshot so the next read reflects a change made by this admin.
+     */
+    public static void invalidateSnapshot() {
+        synchronized (snapshotLock) {
+            snapshotGeneration++;
+            cachedStats = null;
+            // Callers from now on start a new load instead of sharing one that predates the change
+            snapshotLoad = null;
+        }
+        OccupancyService.invalidate();
+    }
+
+    private static DashboardStats querySnapshot() throws SQLException {
+        // Read before borrowing a connection: OccupancyService may need one of its own
+        double occupancy = OccupancyService.tonightRate();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS);
+             PreparedStatement stmt = conn.prepareStatement(SNAPSHOT_QUERY);
              ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt("count");
+            if (!rs.next()) {
+                return DashboardStats.EMPTY;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+
+            Map<String, Integer> statusCounts = new LinkedHashMap<>();
+            for (String status : STATUSES) {
+                int count = rs.getInt(status);
+                if (count > 0) {
+                    statusCounts.put(status, count);
+                }
+            }
+
+            return new DashboardStats(
+                rs.getInt("total_bookings"),
+                rs.getInt("pending"),
+                rs.getInt("confirmed"),
+                rs.getDouble("total_revenue"),
+                rs.getInt("active_rooms"),
+                rs.getInt("total_users"),
+                rs.getInt("todays_bookings"),
+                rs.getDouble("todays_revenue"),
+                rs.getInt("upcoming_check_ins"),
+                rs.getInt("upcoming_check_outs"),
+                occupancy,
+                rs.getDouble("avg_value"),
+                statusCounts);
         }
-        return 0;
+    }
+
+    /**
+     * Get today's bookings count.
+     */
+    public static int getTodaysBookings() {
+        return getSnapshot().getTodaysBookings();
     }
     
     /**
      * Get today's revenue.
      */
     public static double getTodaysRevenue() {
-        String query = "SELECT COALESCE(SUM(total_amount), 0) as total " +
-                      "FROM reservations WHERE DATE(created_at) = CURDATE() " +
-                      "AND status IN ('confirmed', 'completed')";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getDouble("total");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
+        return getSnapshot().getTodaysRevenue();
     }
     
     /**
      * Get upcoming check-ins (next 7 days).
      */
     public static int getUpcomingCheckIns() {
-        String query = "SELECT COUNT(*) as count FROM reservations " +
-                      "WHERE check_in_date BETWEEN CURDATE() AND DATE_ADD(CURDATE(), INTERVAL 7 DAY) " +
-                      "AND status IN ('pending', 'confirmed')";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
+        return getSnapshot().getUpcomingCheckIns();
     }
     
     /**
      * Get upcoming check-outs (next 7 days).
      */
     public static int getUpcomingCheckOuts() {
-        String query = "SELECT COUNT(*) as count FROM reservations " +
-                      "WHERE check_out_date BETWEEN CURDATE() AND DATE_ADD(CURDATE(), INTERVAL 7 DAY) " +
-                      "AND status IN ('pending', 'confirmed')";
-        try (Connection conn = DatabaseConnection.getConnection();
+        return getSnapshot().getUpcomingCheckOuts();
+    }
+    
+    /**
+     * Get confirmed check-ins for today. Failures are thrown rather than read as zero,
+     * so the caller can tell "no check-ins" from "could not count".
+     */
+    public static int getTodaysConfirmedCheckIns() throws SQLException {
+        String query = "SELECT COUNT(*) FROM reservations WHERE DATE(check_in_date) = CURDATE() AND status = 'confirmed'";
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return rs.next() ? rs.getInt(1) : 0;
         }
-        return 0;
     }
     
     /**
-     * Calculate occupancy percentage.
+     * Occupancy percentage tonight, from {@link OccupancyService} (room nights sold out of all active units).
      */
     public static double getOccupancyPercentage() {
-        String query = "SELECT " +
-                      "SUM(CASE WHEN r.status IN ('pending', 'confirmed', 'completed') THEN 1 ELSE 0 END) as booked, " +
-                      "SUM(rm.quantity) as total " +
-                      "FROM rooms rm " +
-                      "LEFT JOIN reservations r ON rm.id = r.room_id " +
-                      "WHERE rm.is_active = 1";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                int booked = rs.getInt("booked");
-                int total = rs.getInt("total");
-                if (total > 0) {
-                    return (booked * 100.0) / total;
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
+        return getSnapshot().getOccupancyPercentage();
     }
     
     /**
      * Get average booking value.
      */
     public static double getAverageBookingValue() {
-        String query = "SELECT COALESCE(AVG(total_amount), 0) as avg FROM reservations " +
-                      "WHERE status IN ('confirmed', 'completed')";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getDouble("avg");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
+        return getSnapshot().getAverageBookingValue();
     }
     
     /**
@@ -142,7 +226,7 @@ public class StatisticsService {
                       "FROM reservations r " +
                       "JOIN users u ON r.user_id = u.id " +
                       "ORDER BY r.created_at DESC LIMIT ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, limit);
             ResultSet rs = stmt.executeQuery();
@@ -171,7 +255,7 @@ public class StatisticsService {
                       "FROM payments p " +
                       "JOIN reservations r ON p.reservation_id = r.id " +
                       "ORDER BY p.created_at DESC LIMIT ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.READ);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, limit);
             ResultSet rs = stmt.executeQuery();
@@ -195,13 +279,13 @@ public class StatisticsService {
      */
     public static List<Map<String, Object>> getRevenueChartData(int days) {
         List<Map<String, Object>> data = new ArrayList<>();
-        String query = "SELECT DATE(created_at) as date, COALESCE(SUM(total_amount), 0) as revenue " +
-                      "FROM reservations " +
-                      "WHERE created_at >= DATE_SUB(CURDATE(), INTERVAL ? DAY) " +
-                      "AND status IN ('confirmed', 'completed') " +
-                      "GROUP BY DATE(created_at) " +
+        String query = "SELECT x.stat_date as date, COALESCE(SUM(x.amount), 0) as revenue " +
+                      "FROM " + ReportRollupService.source(ReportRollupService.Basis.CREATED) + " x " +
+                      "WHERE x.stat_date >= DATE_SUB(CURDATE(), INTERVAL ? DAY) " +
+                      "AND x.status IN ('confirmed', 'completed') " +
+                      "GROUP BY x.stat_date " +
                       "ORDER BY date ASC";
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Pool.ANALYTICS);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, days);
             ResultSet rs = stmt.executeQuery();
@@ -221,18 +305,6 @@ public class StatisticsService {
      * Get booking status distribution.
      */
     public static Map<String, Integer> getBookingStatusDistribution() {
-        Map<String, Integer> distribution = new HashMap<>();
-        String query = "SELECT status, COUNT(*) as count FROM reservations GROUP BY status";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                distribution.put(rs.getString("status"), rs.getInt("count"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return distribution;
+        return new HashMap<>(getSnapshot().getStatusCounts());
     }
 }
-
@@ -0,0 +1,234 @@
+package com.belmonthotel.admin.utils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Reservation stays of one room, indexed for date-overlap questions. A stay occupies the nights
+ * from check-in up to (not including) check-out.
+ *
+ * Stays are kept sorted by check-in as an implicit balanced tree (the middle of each range is its
+ * root) where every node also knows the latest check-out below it, so overlap queries skip whole
+ * subtrees that end too early: O(log n + k). An occupancy step function, built in the same pass,
+ * answers "how many stays on these nights" and "next free window" without touching the stays.
+ */
+public class StayIntervalIndex {
+    private int size;
+    private int[] ids = new int[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+
+    // Built on first query after a change
+    private boolean built;
+    private int[] maxEnd;
+    private int[] changeDays;
+    private int[] occupancy;
+
+    /**
+     * Add a stay. Stays with check-out on or before check-in occupy no nights and are ignored.
+     */
+    public void add(int id, LocalDate checkIn, LocalDate checkOut) {
+        int start = (int) checkIn.toEpochDay();
+        int end = (int) checkOut.toEpochDay();
+        if (end <= start) {
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        ids[size] = id;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+        built = false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ids of the stays sharing at least one night with [from, to), in check-in order.
+     */
+    public int[] overlapping(LocalDate from, LocalDate to) {
+        build();
+        int[][] found = {new int[16]};
+        int count = collect(0, size, (int) from.toEpochDay(), (int) to.toEpochDay(), found, 0);
+        return Arrays.copyOf(found[0], count);
+    }
+
+    /**
+     * Most stays occupying any single night of [from, to).
+     */
+    public int maxOccupancy(LocalDate from, LocalDate to) {
+        build();
+        int a = (int) from.toEpochDay();
+        int b = (int) to.toEpochDay();
+        int i = upperBound(changeDays, changeDays.length, a) - 1;
+        int max = i < 0 ? 0 : occupancy[i];
+        for (i++; i < changeDays.length && changeDays[i] < b; i++) {
+            max = Math.max(max, occupancy[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Every pair of overlapping stays as {earlier id, later id}, found in one sweep over the
+     * stays in check-in order: O(n log n + pairs).
+     */
+    public List<int[]> conflicts() {
+        build();
+        List<int[]> pairs = new ArrayList<>();
+        // Stays still open at the current check-in, by check-out
+        PriorityQueue<Integer> open = new PriorityQueue<>((x, y) -> Integer.compare(ends[x], ends[y]));
+        for (int i = 0; i < size; i++) {
+            while (!open.isEmpty() && ends[open.peek()] <= starts[i]) {
+                open.poll();
+            }
+            for (int other : open) {
+                pairs.add(new int[]{ids[other], ids[i]});
+            }
+            open.add(i);
+        }
+        return pairs;
+    }
+
+    /**
+     * First check-in on or after the given date for which every one of the next nights has
+     * fewer than capacity stays, or null when capacity is zero.
+     */
+    public LocalDate nextFreeWindow(LocalDate from, int nights, int capacity) {
+        if (capacity <= 0) {
+            return null;
+        }
+        build();
+        int day = (int) from.toEpochDay();
+        int i = upperBound(changeDays, changeDays.length, day) - 1;
+        long runStart = -1;
+        while (true) {
+            int count = i < 0 ? 0 : occupancy[i];
+            long segmentEnd = i + 1 < changeDays.length ? changeDays[i + 1] : Long.MAX_VALUE;
+            if (count < capacity) {
+                if (runStart < 0) {
+                    runStart = day;
+                }
+                if (segmentEnd - runStart >= nights) {
+                    return LocalDate.ofEpochDay(runStart);
+                }
+            } else {
+                runStart = -1;
+            }
+            // The last segment is empty, so the loop returns before running past it
+            i++;
+            day = (int) segmentEnd;
+        }
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        sortByStart();
+        maxEnd = new int[size];
+        buildMaxEnd(0, size);
+
+        // Occupancy changes: +1 at each check-in, -1 at each check-out
+        long[] events = new long[size * 2];
+        for (int i = 0; i < size; i++) {
+            events[2 * i] = ((long) starts[i] << 1) | 1;
+            events[2 * i + 1] = (long) ends[i] << 1;
+        }
+        Arrays.sort(events);
+        int[] days = new int[events.length];
+        int[] counts = new int[events.length];
+        int distinct = 0;
+        int current = 0;
+        for (long event : events) {
+            int eventDay = (int) (event >> 1);
+            current += (event & 1) == 1 ? 1 : -1;
+            if (distinct > 0 && days[distinct - 1] == eventDay) {
+                counts[distinct - 1] = current;
+            } else {
+                days[distinct] = eventDay;
+                counts[distinct++] = current;
+            }
+        }
+        changeDays = Arrays.copyOf(days, distinct);
+        occupancy = Arrays.copyOf(counts, distinct);
+        built = true;
+    }
+
+    private void sortByStart() {
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) starts[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        int[] sortedIds = new int[size];
+        int[] sortedStarts = new int[size];
+        int[] sortedEnds = new int[size];
+        for (int i = 0; i < size; i++) {
+            int from = (int) order[i];
+            sortedIds[i] = ids[from];
+            sortedStarts[i] = starts[from];
+            sortedEnds[i] = ends[from];
+        }
+        ids = sortedIds;
+        starts = sortedStarts;
+        ends = sortedEnds;
+    }
+
+    private int buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Integer.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        int max = Math.max(ends[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    /**
+     * In-order walk of the implicit tree over [lo, hi), skipping subtrees that start on or after b
+     * or end on or before a.
+     */
+    private int collect(int lo, int hi, int a, int b, int[][] found, int count) {
+        if (lo >= hi || starts[lo] >= b) {
+            return count;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] <= a) {
+            return count;
+        }
+        count = collect(lo, mid, a, b, found, count);
+        if (starts[mid] < b) {
+            if (ends[mid] > a) {
+                if (count == found[0].length) {
+                    found[0] = Arrays.copyOf(found[0], count * 2);
+                }
+                found[0][count++] = ids[mid];
+            }
+            count = collect(mid + 1, hi, a, b, found, count);
+        }
+        return count;
+    }
+
+    private static int upperBound(int[] values, int length, int key) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -5,149 +5,269 @@ import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 
 /**
- * Service for managing background task processing using PriorityQueue.
- * Tasks are processed based on priority (URGENT > NORMAL > LOW).
+ * Service for managing background task processing using a priority queue.
+ * Tasks are processed based on priority (URGENT > NORMAL > LOW), oldest first within a priority.
+ *
+ * A pool of tasks.workers threads blocks on a {@link PriorityBlockingQueue}, so a task added
+ * while workers are idle starts at once. tasks.limit.TYPE caps how many tasks of one
+ * {@link TaskItem.TaskType} run at the same time: a task taken while its type is at the limit
+ * is set aside and goes back in the queue when one of that type finishes, so it never holds
+ * a worker while it waits.
  */
 public class TaskQueueService {
-    
+    // At least two by default, so one long task never holds up an urgent one
+    private static final int WORKERS = Math.max(1,
+        AppConfig.getInt("tasks.workers", Math.max(2, Runtime.getRuntime().availableProcessors())));
+    // Completed tasks kept for the dashboard
+    private static final int HISTORY_SIZE = 10;
+
     private static TaskQueueService instance;
-    private final PriorityQueue<TaskItem> taskQueue;
+
+    /**
+     * A queued task; the sequence number keeps tasks of one priority in the order they were added.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final TaskItem task;
+        final long sequence;
+
+        Entry(TaskItem task, long sequence) {
+            this.task = task;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int priorityCompare = Integer.compare(task.getPriority().getPriority(), other.task.getPriority().getPriority());
+            return priorityCompare != 0 ? priorityCompare : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Running count and set-aside tasks of one task type, guarded by lock.
+     */
+    private static final class TypeState {
+        final int limit;
+        int running;
+        final PriorityQueue<Entry> waiting = new PriorityQueue<>();
+
+        TypeState(int limit) {
+            this.limit = limit;
+        }
+    }
+
+    private final PriorityBlockingQueue<Entry> taskQueue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object lock = new Object();
+    private final Map<TaskItem.TaskType, TypeState> types = new EnumMap<>(TaskItem.TaskType.class);
+    private int waitingCount;
+    // Task each worker is running, or null while it waits
+    private final AtomicReferenceArray<TaskItem> runningTasks = new AtomicReferenceArray<>(WORKERS);
     private final ObservableList<TaskItem> taskHistory;
-    private final ScheduledExecutorService executorService;
-    private TaskItem currentTask;
-    private boolean isProcessing;
-    private Consumer<TaskItem> onTaskCompleted;
-    
+    private final ExecutorService executorService;
+    private volatile Consumer<TaskItem> onTaskCompleted;
+
     private TaskQueueService() {
-        this.taskQueue = new PriorityQueue<>();
         this.taskHistory = FXCollections.observableArrayList();
-        this.executorService = Executors.newScheduledThreadPool(2);
-        this.isProcessing = false;
-        
-        // Start background processor
-        startProcessor();
+        for (TaskItem.TaskType type : TaskItem.TaskType.values()) {
+            types.put(type, new TypeState(Math.max(1, AppConfig.getInt("tasks.limit." + type.name(), WORKERS))));
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(WORKERS, runnable -> {
+            Thread thread = new Thread(runnable, "task-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Start background workers
+        for (int worker = 0; worker < WORKERS; worker++) {
+            int index = worker;
+            executorService.execute(() -> runWorker(index));
+        }
     }
-    
+
     public static synchronized TaskQueueService getInstance() {
         if (instance == null) {
             instance = new TaskQueueService();
         }
         return instance;
     }
-    
+
     /**
-     * Add a task to the priority queue.
+     * Add a task to the priority queue; an idle worker picks it up immediately.
      */
     public void addTask(TaskItem task) {
-        taskQueue.offer(task);
-        Platform.runLater(() -> {
-            // Notify UI if needed
-        });
+        taskQueue.offer(new Entry(task, sequence.getAndIncrement()));
     }
-    
+
     /**
-     * Get the current task being processed.
+     * Get the most urgent task being processed, or null when all workers are idle.
      */
     public TaskItem getCurrentTask() {
-        return currentTask;
+        TaskItem current = null;
+        for (TaskItem task : getRunningTasks()) {
+            if (current == null || task.getPriority().getPriority() < current.getPriority().getPriority()) {
+                current = task;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Get the tasks the workers are processing right now.
+     */
+    public List<TaskItem> getRunningTasks() {
+        List<TaskItem> running = new ArrayList<>();
+        for (int worker = 0; worker < WORKERS; worker++) {
+            TaskItem task = runningTasks.get(worker);
+            if (task != null) {
+                running.add(task);
+            }
+        }
+        return running;
     }
-    
+
+    public int getWorkerCount() {
+        return WORKERS;
+    }
+
     /**
-     * Get the number of pending tasks.
+     * Get the number of pending tasks, including those waiting for their type's limit.
      */
     public int getPendingTaskCount() {
-        return taskQueue.size();
+        synchronized (lock) {
+            return taskQueue.size() + waitingCount;
+        }
     }
-    
+
     /**
      * Get task history (last 10 completed tasks).
      */
     public ObservableList<TaskItem> getTaskHistory() {
         return taskHistory;
     }
-    
+
     /**
-     * Check if queue is processing.
+     * Check if any worker is processing a task.
      */
     public boolean isProcessing() {
-        return isProcessing;
+        return !getRunningTasks().isEmpty();
     }
-    
+
     /**
      * Set callback for when task is completed.
      */
     public void setOnTaskCompleted(Consumer<TaskItem> callback) {
         this.onTaskCompleted = callback;
     }
-    
+
     /**
-     * Start processing tasks from the queue.
+     * Workers start tasks as soon as they are added; this only puts back set-aside tasks whose
+     * type has room to run, in case one was missed.
      */
-    private void startProcessor() {
-        executorService.scheduleWithFixedDelay(() -> {
-            if (!isProcessing && !taskQueue.isEmpty()) {
-                processNextTask();
+    public void processQueue() {
+        synchronized (lock) {
+            for (TypeState state : types.values()) {
+                requeueWaiting(state);
             }
-        }, 0, 2, TimeUnit.SECONDS); // Check every 2 seconds
+        }
     }
-    
+
     /**
-     * Process the next task in the queue.
+     * Take tasks until the service shuts down.
      */
-    private void processNextTask() {
-        if (taskQueue.isEmpty()) {
-            return;
-        }
-        
-        isProcessing = true;
-        currentTask = taskQueue.poll();
-        
-        if (currentTask == null) {
-            isProcessing = false;
-            return;
-        }
-        
-        currentTask.setStatus(TaskItem.TaskStatus.PROCESSING);
-        
-        // Simulate task processing based on type
-        executorService.submit(() -> {
+    private void runWorker(int worker) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Entry entry;
             try {
-                processTask(currentTask);
-                
-                currentTask.setStatus(TaskItem.TaskStatus.COMPLETED);
-                currentTask.setProcessedAt(java.time.LocalDateTime.now());
-                currentTask.setResult("Task completed successfully");
-                
-            } catch (Exception e) {
-                currentTask.setStatus(TaskItem.TaskStatus.FAILED);
-                currentTask.setResult("Error: " + e.getMessage());
-                e.printStackTrace();
+                entry = taskQueue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            TypeState state = types.get(entry.task.getType());
+            synchronized (lock) {
+                if (state.running >= state.limit) {
+                    state.waiting.add(entry);
+                    waitingCount++;
+                    continue;
+                }
+                state.running++;
+            }
+            try {
+                processNextTask(worker, entry.task);
             } finally {
-                // Add to history (keep last 10)
-                Platform.runLater(() -> {
-                    taskHistory.add(0, currentTask);
-                    if (taskHistory.size() > 10) {
-                        taskHistory.remove(taskHistory.size() - 1);
-                    }
-                    
-                    if (onTaskCompleted != null) {
-                        onTaskCompleted.accept(currentTask);
-                    }
-                });
-                
-                currentTask = null;
-                isProcessing = false;
+                synchronized (lock) {
+                    state.running--;
+                    requeueWaiting(state);
+                }
             }
-        });
+        }
+    }
+
+    /**
+     * Move the set-aside tasks of a type back to the queue while it has room for them.
+     * Called under lock.
+     */
+    private void requeueWaiting(TypeState state) {
+        int room = state.limit - state.running;
+        for (int i = 0; i < room && !state.waiting.isEmpty(); i++) {
+            taskQueue.offer(state.waiting.poll());
+            waitingCount--;
+        }
+    }
+
+    /**
+     * Process one task on a worker and record the outcome.
+     */
+    private void processNextTask(int worker, TaskItem task) {
+        runningTasks.set(worker, task);
+        task.setStatus(TaskItem.TaskStatus.PROCESSING);
+
+        try {
+            processTask(task);
+
+            task.setStatus(TaskItem.TaskStatus.COMPLETED);
+            task.setProcessedAt(java.time.LocalDateTime.now());
+            task.setResult("Task completed successfully");
+
+        } catch (InterruptedException e) {
+            task.setStatus(TaskItem.TaskStatus.FAILED);
+            task.setResult("Error: interrupted");
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            task.setStatus(TaskItem.TaskStatus.FAILED);
+            task.setResult("Error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            runningTasks.set(worker, null);
+            // Add to history (keep last 10)
+            Consumer<TaskItem> callback = onTaskCompleted;
+            Platform.runLater(() -> {
+                taskHistory.add(0, task);
+                if (taskHistory.size() > HISTORY_SIZE) {
+                    taskHistory.remove(taskHistory.size() - 1);
+                }
+
+                if (callback != null) {
+                    callback.accept(task);
+                }
+            });
+        }
     }
-    
+
     /**
      * Process a specific task based on its type.
      */
@@ -175,21 +295,11 @@ public class TaskQueueService {
                 break;
         }
     }
-    
-    /**
-     * Manually trigger queue processing.
-     */
-    public void processQueue() {
-        if (!isProcessing && !taskQueue.isEmpty()) {
-            processNextTask();
-        }
-    }
-    
+
     /**
-     * Shutdown the service.
+     * Shutdown the service, interrupting running tasks.
      */
     public void shutdown() {
-        executorService.shutdown();
+        executorService.shutdownNow();
     }
 }
-
@@ -0,0 +1,219 @@
+package com.belmonthotel.admin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Inverted index from character trigrams to the ids of the documents containing them.
+ * Posting lists are sorted int arrays, so a substring query intersects the lists of the
+ * query's trigrams. Results are candidates: a document holding every trigram may still not
+ * contain the query, so callers confirm with String.contains.
+ *
+ * Text is indexed as given; callers lower-case both documents and queries.
+ */
+public class TrigramIndex {
+    /** Queries shorter than this cannot be answered by the index. */
+    public static final int GRAM_LENGTH = 3;
+
+    private static final long EMPTY = -1;
+    private static final int[] NO_DOCS = new int[0];
+
+    // Open-addressing map from packed trigram to its posting list slot
+    private long[] keys;
+    private int[] slots;
+    private int gramCount;
+
+    private int[][] postings = new int[64][];
+    private int[] postingSizes = new int[64];
+
+    public TrigramIndex() {
+        keys = new long[1024];
+        slots = new int[1024];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Index a document. Cheapest when documents are added in increasing id order.
+     */
+    public void add(int doc, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            insert(slotFor(gram(text, i), true), doc);
+        }
+    }
+
+    /**
+     * Remove a document previously indexed with the given text.
+     */
+    public void remove(int doc, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            int slot = slotFor(gram(text, i), false);
+            if (slot >= 0) {
+                delete(slot, doc);
+            }
+        }
+    }
+
+    /**
+     * Re-index a document whose text changed.
+     */
+    public void update(int doc, String oldText, String newText) {
+        if (oldText != null && oldText.equals(newText)) {
+            return;
+        }
+        remove(doc, oldText);
+        add(doc, newText);
+    }
+
+    /**
+     * Ids of documents containing every trigram of the query, ascending,
+     * or null when the query is too short to use the index.
+     */
+    public int[] candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return null;
+        }
+        int gramTotal = query.length() - GRAM_LENGTH + 1;
+        int[] lists = new int[gramTotal];
+        for (int i = 0; i < gramTotal; i++) {
+            int slot = slotFor(gram(query, i), false);
+            if (slot < 0 || postingSizes[slot] == 0) {
+                return NO_DOCS;
+            }
+            lists[i] = slot;
+        }
+
+        // Start from the shortest list; each step can only shrink the result
+        int shortest = 0;
+        for (int i = 1; i < gramTotal; i++) {
+            if (postingSizes[lists[i]] < postingSizes[lists[shortest]]) {
+                shortest = i;
+            }
+        }
+        int[] result = Arrays.copyOf(postings[lists[shortest]], postingSizes[lists[shortest]]);
+        int count = result.length;
+        for (int i = 0; i < gramTotal && count > 0; i++) {
+            if (i == shortest || lists[i] == lists[shortest]) {
+                continue;
+            }
+            int[] other = postings[lists[i]];
+            int otherSize = postingSizes[lists[i]];
+            int kept = 0;
+            int from = 0;
+            for (int j = 0; j < count; j++) {
+                int found = Arrays.binarySearch(other, from, otherSize, result[j]);
+                if (found >= 0) {
+                    result[kept++] = result[j];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            count = kept;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Release the spare capacity left in posting lists after a bulk load.
+     */
+    public void trimToSize() {
+        for (int slot = 0; slot < gramCount; slot++) {
+            if (postings[slot].length > postingSizes[slot]) {
+                postings[slot] = Arrays.copyOf(postings[slot], postingSizes[slot]);
+            }
+        }
+    }
+
+    private void insert(int slot, int doc) {
+        int[] list = postings[slot];
+        int size = postingSizes[slot];
+        if (size > 0 && list[size - 1] >= doc) {
+            int found = Arrays.binarySearch(list, 0, size, doc);
+            if (found >= 0) {
+                return;
+            }
+            int at = -found - 1;
+            list = ensureRoom(slot, size + 1);
+            System.arraycopy(list, at, list, at + 1, size - at);
+            list[at] = doc;
+        } else {
+            list = ensureRoom(slot, size + 1);
+            list[size] = doc;
+        }
+        postingSizes[slot] = size + 1;
+    }
+
+    private void delete(int slot, int doc) {
+        int[] list = postings[slot];
+        int size = postingSizes[slot];
+        int found = Arrays.binarySearch(list, 0, size, doc);
+        if (found >= 0) {
+            System.arraycopy(list, found + 1, list, found, size - found - 1);
+            postingSizes[slot] = size - 1;
+        }
+    }
+
+    private int[] ensureRoom(int slot, int required) {
+        int[] list = postings[slot];
+        if (list.length < required) {
+            list = Arrays.copyOf(list, Math.max(4, Math.max(required, list.length + (list.length >> 1))));
+            postings[slot] = list;
+        }
+        return list;
+    }
+
+    private static long gram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    private int slotFor(long gram, boolean create) {
+        int mask = keys.length - 1;
+        int at = Long.hashCode(gram * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[at] != EMPTY) {
+            if (keys[at] == gram) {
+                return slots[at];
+            }
+            at = (at + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        if ((gramCount + 1) * 2 > keys.length) {
+            resize();
+            return slotFor(gram, true);
+        }
+        if (gramCount == postings.length) {
+            postings = Arrays.copyOf(postings, gramCount * 2);
+            postingSizes = Arrays.copyOf(postingSizes, gramCount * 2);
+        }
+        int slot = gramCount++;
+        postings[slot] = NO_DOCS;
+        keys[at] = gram;
+        slots[at] = slot;
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldSlots.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int at = Long.hashCode(oldKeys[i] * 0x9E3779B97F4A7C15L) & mask;
+                while (keys[at] != EMPTY) {
+                    at = (at + 1) & mask;
+                }
+                keys[at] = oldKeys[i];
+                slots[at] = oldSlots[i];
+            }
+        }
+    }
+}
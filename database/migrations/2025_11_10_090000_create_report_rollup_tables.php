@@ -0,0 +1,72 @@
+<?php
+
+use Illuminate\Database\Migrations\Migration;
+use Illuminate\Database\Schema\Blueprint;
+use Illuminate\Support\Facades\Schema;
+
+return new class extends Migration
+{
+    /**
+     * Run the migrations.
+     */
+    public function up(): void
+    {
+        // Daily aggregates read by the admin panel reports and dashboard charts
+        Schema::create('report_daily_rollups', function (Blueprint $table) {
+            $table->string('basis', 10); // 'created', 'check_in' (reservations) or 'payment' (payments)
+            $table->date('stat_date');
+            $table->unsignedBigInteger('room_id');
+            $table->string('status', 20);
+            $table->string('payment_method', 50)->default(''); // Only set for the 'payment' basis
+            $table->integer('bookings')->default(0);
+            $table->decimal('amount', 14, 2)->default(0);
+            $table->integer('nights')->default(0);
+
+            $table->primary(['basis', 'stat_date', 'room_id', 'status', 'payment_method'], 'report_daily_rollups_primary');
+            $table->index(['basis', 'status', 'stat_date']);
+        });
+
+        // Last values each reservation contributed to the rollups, so changes can be applied as deltas
+        Schema::create('report_rollup_members', function (Blueprint $table) {
+            $table->unsignedBigInteger('reservation_id')->primary();
+            $table->unsignedBigInteger('room_id');
+            $table->date('created_date');
+            $table->date('check_in_date');
+            $table->string('status', 20);
+            $table->decimal('total_amount', 10, 2);
+            $table->integer('nights');
+        });
+
+        // Incremental refresh watermarks
+        Schema::create('report_rollup_state', function (Blueprint $table) {
+            $table->string('source', 50)->primary(); // 'reservations', 'payments', 'transaction_logs'
+            $table->timestamp('last_updated_at')->nullable();
+            $table->unsignedBigInteger('last_id')->nullable();
+            $table->timestamp('refreshed_at')->nullable();
+        });
+
+        // Watermark scans on the source tables
+        Schema::table('reservations', function (Blueprint $table) {
+            $table->index('updated_at');
+        });
+        Schema::table('payments', function (Blueprint $table) {
+            $table->index('updated_at');
+        });
+    }
+
+    /**
+     * Reverse the migrations.
+     */
+    public function down(): void
+    {
+        Schema::table('payments', function (Blueprint $table) {
+            $table->dropIndex(['updated_at']);
+        });
+        Schema::table('reservations', function (Blueprint $table) {
+            $table->dropIndex(['updated_at']);
+        });
+        Schema::dropIfExists('report_rollup_state');
+        Schema::dropIfExists('report_rollup_members');
+        Schema::dropIfExists('report_daily_rollups');
+    }
+};
@@ -0,0 +1,29 @@
+<?php
+
+use Illuminate\Database\Migrations\Migration;
+use Illuminate\Database\Schema\Blueprint;
+use Illuminate\Support\Facades\Schema;
+
+return new class extends Migration
+{
+    /**
+     * Run the migrations.
+     */
+    public function up(): void
+    {
+        // Physical unit (1..rooms.quantity) of the room type, assigned by the admin panel
+        Schema::table('reservations', function (Blueprint $table) {
+            $table->unsignedInteger('unit_number')->nullable()->after('room_id');
+        });
+    }
+
+    /**
+     * Reverse the migrations.
+     */
+    public function down(): void
+    {
+        Schema::table('reservations', function (Blueprint $table) {
+            $table->dropColumn('unit_number');
+        });
+    }
+};
@@ -0,0 +1,31 @@
+<?php
+
+use Illuminate\Database\Migrations\Migration;
+use Illuminate\Database\Schema\Blueprint;
+use Illuminate\Support\Facades\Schema;
+
+return new class extends Migration
+{
+    /**
+     * Run the migrations.
+     */
+    public function up(): void
+    {
+        // Floor-plan position of each room, used by the admin panel's nearest-room and group block searches
+        Schema::table('rooms', function (Blueprint $table) {
+            $table->unsignedSmallInteger('floor')->nullable()->after('room_type');
+            $table->decimal('position_x', 8, 2)->nullable()->after('floor'); // Metres on the floor plan
+            $table->decimal('position_y', 8, 2)->nullable()->after('position_x');
+        });
+    }
+
+    /**
+     * Reverse the migrations.
+     */
+    public function down(): void
+    {
+        Schema::table('rooms', function (Blueprint $table) {
+            $table->dropColumn(['floor', 'position_x', 'position_y']);
+        });
+    }
+};